@@ -0,0 +1,575 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.wire;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.kura.annotation.Immutable;
+import org.eclipse.kura.annotation.ThreadSafe;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The Class CompactWireRecord is a {@link WireRecord} whose fields are described by a shared
+ * {@link WireRecordSchema}. The values are stored in arrays indexed by the schema, the numeric and boolean values are
+ * stored as primitives, so that creating a record does not allocate a {@link Map} and a {@link TypedValue} for each
+ * field.
+ * <p>
+ * Components that are aware of this class can access the values through the schema field indexes, with the typed
+ * getters. The {@link #getProperties()} method returns an unmodifiable {@link Map} view of the record, created on
+ * first access, that allocates the {@link TypedValue}s only when they are read. A field of the schema may be not set,
+ * in this case it is not included in the {@link Map} view.
+ *
+ * @noextend This class is not intended to be extended by clients.
+ * @since 2.3
+ */
+@Immutable
+@ThreadSafe
+@ProviderType
+public final class CompactWireRecord extends WireRecord {
+
+    private final WireRecordSchema schema;
+    private final long[] primitives;
+    private final Object[] references;
+    private final long[] setFields;
+
+    private Map<String, TypedValue<?>> properties;
+
+    private CompactWireRecord(final WireRecordSchema schema, final long[] primitives, final Object[] references,
+            final long[] setFields) {
+        this.schema = schema;
+        this.primitives = primitives;
+        this.references = references;
+        this.setFields = setFields;
+    }
+
+    /**
+     * Creates a new {@link Builder} for records with the provided schema.
+     *
+     * @param schema
+     *            the schema
+     * @return the builder
+     * @throws NullPointerException
+     *             if the argument is null
+     */
+    public static Builder builder(final WireRecordSchema schema) {
+        return new Builder(schema);
+    }
+
+    /**
+     * Returns the schema of this record.
+     *
+     * @return the schema
+     */
+    public WireRecordSchema getSchema() {
+        return this.schema;
+    }
+
+    /**
+     * Returns whether the field with the provided index has a value.
+     *
+     * @param index
+     *            the field index
+     * @return true if the field is set
+     */
+    public boolean isSet(final int index) {
+        return isSet(this.setFields, index);
+    }
+
+    /**
+     * Returns the value of a {@link DataType#BOOLEAN} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#BOOLEAN}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public boolean getBoolean(final int index) {
+        return getPrimitive(index, DataType.BOOLEAN) != 0;
+    }
+
+    /**
+     * Returns the value of a {@link DataType#INTEGER} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#INTEGER}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public int getInteger(final int index) {
+        return (int) getPrimitive(index, DataType.INTEGER);
+    }
+
+    /**
+     * Returns the value of a {@link DataType#LONG} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#LONG}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public long getLong(final int index) {
+        return getPrimitive(index, DataType.LONG);
+    }
+
+    /**
+     * Returns the value of a {@link DataType#FLOAT} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#FLOAT}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public float getFloat(final int index) {
+        return Float.intBitsToFloat((int) getPrimitive(index, DataType.FLOAT));
+    }
+
+    /**
+     * Returns the value of a {@link DataType#DOUBLE} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#DOUBLE}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public double getDouble(final int index) {
+        return Double.longBitsToDouble(getPrimitive(index, DataType.DOUBLE));
+    }
+
+    /**
+     * Returns the value of a {@link DataType#STRING} field.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#STRING}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public String getString(final int index) {
+        return (String) getReference(index, DataType.STRING);
+    }
+
+    /**
+     * Returns the value of a {@link DataType#BYTE_ARRAY} field, the returned array must not be modified.
+     *
+     * @param index
+     *            the field index
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the field is not of type {@link DataType#BYTE_ARRAY}
+     * @throws NoSuchElementException
+     *             if the field is not set
+     */
+    public byte[] getByteArray(final int index) {
+        return (byte[]) getReference(index, DataType.BYTE_ARRAY);
+    }
+
+    /**
+     * Returns the value of the field with the provided index as a newly allocated {@link TypedValue}.
+     *
+     * @param index
+     *            the field index
+     * @return the value, or null if the field is not set
+     */
+    public TypedValue<?> getValue(final int index) {
+        if (!isSet(index)) {
+            return null;
+        }
+
+        switch (this.schema.getFieldType(index)) {
+        case BOOLEAN:
+            return TypedValues.newBooleanValue(getBoolean(index));
+        case INTEGER:
+            return TypedValues.newIntegerValue(getInteger(index));
+        case LONG:
+            return TypedValues.newLongValue(getLong(index));
+        case FLOAT:
+            return TypedValues.newFloatValue(getFloat(index));
+        case DOUBLE:
+            return TypedValues.newDoubleValue(getDouble(index));
+        case STRING:
+            return TypedValues.newStringValue(getString(index));
+        case BYTE_ARRAY:
+            return TypedValues.newByteArrayValue(getByteArray(index));
+        default:
+            throw new IllegalStateException("Unsupported type " + this.schema.getFieldType(index));
+        }
+    }
+
+    /**
+     * Returns an unmodifiable {@link Map} view of this record.
+     *
+     * @return the properties of this record
+     */
+    @Override
+    public Map<String, TypedValue<?>> getProperties() {
+        Map<String, TypedValue<?>> result = this.properties;
+        if (result == null) {
+            // the view is stateless, concurrent callers may create different but equivalent instances
+            result = new PropertiesView();
+            this.properties = result;
+        }
+        return result;
+    }
+
+    private long getPrimitive(final int index, final DataType type) {
+        checkReadable(index, type);
+        return this.primitives[this.schema.getSlot(index)];
+    }
+
+    private Object getReference(final int index, final DataType type) {
+        checkReadable(index, type);
+        return this.references[this.schema.getSlot(index)];
+    }
+
+    private void checkReadable(final int index, final DataType type) {
+        checkType(this.schema, index, type);
+        if (!isSet(index)) {
+            throw new NoSuchElementException("Field " + this.schema.getFieldName(index) + " is not set");
+        }
+    }
+
+    private static void checkType(final WireRecordSchema schema, final int index, final DataType type) {
+        if (schema.getFieldType(index) != type) {
+            throw new IllegalArgumentException(
+                    "Field " + schema.getFieldName(index) + " is of type " + schema.getFieldType(index));
+        }
+    }
+
+    private static boolean isSet(final long[] setFields, final int index) {
+        return (setFields[index >>> 6] & 1L << index) != 0;
+    }
+
+    private final class PropertiesView extends AbstractMap<String, TypedValue<?>> {
+
+        @Override
+        public TypedValue<?> get(final Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            final int index = CompactWireRecord.this.schema.indexOf((String) key);
+            return index < 0 ? null : getValue(index);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+            final int index = CompactWireRecord.this.schema.indexOf((String) key);
+            return index >= 0 && isSet(index);
+        }
+
+        @Override
+        public int size() {
+            int result = 0;
+            for (final long word : CompactWireRecord.this.setFields) {
+                result += Long.bitCount(word);
+            }
+            return result;
+        }
+
+        @Override
+        public Set<Entry<String, TypedValue<?>>> entrySet() {
+            return new AbstractSet<Entry<String, TypedValue<?>>>() {
+
+                @Override
+                public Iterator<Entry<String, TypedValue<?>>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return PropertiesView.this.size();
+                }
+            };
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, TypedValue<?>>> {
+
+        private int next = nextSetField(0);
+
+        private int nextSetField(final int from) {
+            final int fieldCount = CompactWireRecord.this.schema.getFieldCount();
+            for (int i = from; i < fieldCount; i++) {
+                if (isSet(i)) {
+                    return i;
+                }
+            }
+            return fieldCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < CompactWireRecord.this.schema.getFieldCount();
+        }
+
+        @Override
+        public Map.Entry<String, TypedValue<?>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int index = this.next;
+            this.next = nextSetField(index + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(CompactWireRecord.this.schema.getFieldName(index),
+                    getValue(index));
+        }
+    }
+
+    /**
+     * Builds {@link CompactWireRecord} instances with a given schema. A builder can be reused for creating multiple
+     * records, the fields are cleared after each {@link #build()} invocation. Builders are not thread safe.
+     *
+     * @noextend This class is not intended to be extended by clients.
+     * @since 2.3
+     */
+    @ProviderType
+    public static final class Builder {
+
+        private final WireRecordSchema schema;
+
+        private long[] primitives;
+        private Object[] references;
+        private long[] setFields;
+
+        private Builder(final WireRecordSchema schema) {
+            this.schema = requireNonNull(schema, "Schema cannot be null");
+            reset();
+        }
+
+        /**
+         * Sets the value of a {@link DataType#BOOLEAN} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#BOOLEAN}
+         */
+        public Builder setBoolean(final int index, final boolean value) {
+            return setPrimitive(index, DataType.BOOLEAN, value ? 1 : 0);
+        }
+
+        /**
+         * Sets the value of a {@link DataType#INTEGER} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#INTEGER}
+         */
+        public Builder setInteger(final int index, final int value) {
+            return setPrimitive(index, DataType.INTEGER, value);
+        }
+
+        /**
+         * Sets the value of a {@link DataType#LONG} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#LONG}
+         */
+        public Builder setLong(final int index, final long value) {
+            return setPrimitive(index, DataType.LONG, value);
+        }
+
+        /**
+         * Sets the value of a {@link DataType#FLOAT} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#FLOAT}
+         */
+        public Builder setFloat(final int index, final float value) {
+            return setPrimitive(index, DataType.FLOAT, Float.floatToRawIntBits(value));
+        }
+
+        /**
+         * Sets the value of a {@link DataType#DOUBLE} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#DOUBLE}
+         */
+        public Builder setDouble(final int index, final double value) {
+            return setPrimitive(index, DataType.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        /**
+         * Sets the value of a {@link DataType#STRING} field.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws IllegalArgumentException
+         *             if the field is not of type {@link DataType#STRING}
+         */
+        public Builder setString(final int index, final String value) {
+            return setReference(index, DataType.STRING, requireNonNull(value, "Value cannot be null"));
+        }
+
+        /**
+         * Sets the value of a {@link DataType#BYTE_ARRAY} field, the array is not copied and must not be modified
+         * after this call.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         */
+        public Builder setByteArray(final int index, final byte[] value) {
+            return setReference(index, DataType.BYTE_ARRAY, requireNonNull(value, "Value cannot be null"));
+        }
+
+        /**
+         * Sets the value of the field with the provided index.
+         *
+         * @param index
+         *            the field index
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws NullPointerException
+         *             if the value is null
+         * @throws IllegalArgumentException
+         *             if the type of the value is not the type of the field
+         */
+        public Builder set(final int index, final TypedValue<?> value) {
+            requireNonNull(value, "Value cannot be null");
+
+            switch (value.getType()) {
+            case BOOLEAN:
+                return setBoolean(index, (Boolean) value.getValue());
+            case INTEGER:
+                return setInteger(index, (Integer) value.getValue());
+            case LONG:
+                return setLong(index, (Long) value.getValue());
+            case FLOAT:
+                return setFloat(index, (Float) value.getValue());
+            case DOUBLE:
+                return setDouble(index, (Double) value.getValue());
+            case STRING:
+                return setString(index, (String) value.getValue());
+            case BYTE_ARRAY:
+                return setByteArray(index, (byte[]) value.getValue());
+            default:
+                throw new IllegalArgumentException("Unsupported type " + value.getType());
+            }
+        }
+
+        /**
+         * Sets the value of the field with the provided name.
+         *
+         * @param name
+         *            the field name
+         * @param value
+         *            the value
+         * @return this builder
+         * @throws NullPointerException
+         *             if the value is null
+         * @throws IllegalArgumentException
+         *             if the schema does not contain the field or if the type of the value is not the type of the
+         *             field
+         */
+        public Builder set(final String name, final TypedValue<?> value) {
+            final int index = this.schema.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown field " + name);
+            }
+            return set(index, value);
+        }
+
+        /**
+         * Creates a record with the values set so far and clears this builder.
+         *
+         * @return the record
+         */
+        public CompactWireRecord build() {
+            final CompactWireRecord result = new CompactWireRecord(this.schema, this.primitives, this.references,
+                    this.setFields);
+            reset();
+            return result;
+        }
+
+        private Builder setPrimitive(final int index, final DataType type, final long value) {
+            checkType(this.schema, index, type);
+            this.primitives[this.schema.getSlot(index)] = value;
+            markSet(index);
+            return this;
+        }
+
+        private Builder setReference(final int index, final DataType type, final Object value) {
+            checkType(this.schema, index, type);
+            this.references[this.schema.getSlot(index)] = value;
+            markSet(index);
+            return this;
+        }
+
+        private void markSet(final int index) {
+            this.setFields[index >>> 6] |= 1L << index;
+        }
+
+        private void reset() {
+            this.primitives = new long[this.schema.getPrimitiveSlotCount()];
+            this.references = new Object[this.schema.getReferenceSlotCount()];
+            this.setFields = new long[(this.schema.getFieldCount() + 63) >>> 6];
+        }
+    }
+}
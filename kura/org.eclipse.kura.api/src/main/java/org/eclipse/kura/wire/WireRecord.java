@@ -51,6 +51,14 @@ public class WireRecord {
         this.properties = Collections.unmodifiableMap(properties);
     }
 
+    /**
+     * Constructor for the subclasses that provide their own properties view by overriding
+     * {@link #getProperties()}, like {@link CompactWireRecord}.
+     */
+    WireRecord() {
+        this.properties = null;
+    }
+
     /**
      * Returns the properties stored in this {@link WireRecord}
      *
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.wire;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.kura.annotation.Immutable;
+import org.eclipse.kura.annotation.ThreadSafe;
+import org.eclipse.kura.type.DataType;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * The Class WireRecordSchema describes the fields of a {@link CompactWireRecord}: an ordered list of field names and
+ * the {@link DataType} of each field. A schema is meant to be created once and shared by all the records emitted by a
+ * component with the same layout, the field names are interned.
+ * <p>
+ * The values of the {@link DataType#BOOLEAN}, {@link DataType#INTEGER}, {@link DataType#LONG},
+ * {@link DataType#FLOAT} and {@link DataType#DOUBLE} fields are stored by the records as primitives, the values of
+ * the {@link DataType#STRING} and {@link DataType#BYTE_ARRAY} fields are stored as references.
+ *
+ * @noextend This class is not intended to be extended by clients.
+ * @since 2.3
+ */
+@Immutable
+@ThreadSafe
+@ProviderType
+public final class WireRecordSchema {
+
+    private final String[] names;
+    private final DataType[] types;
+    private final int[] slots;
+    private final Map<String, Integer> indexes;
+    private final int primitiveSlotCount;
+    private final int referenceSlotCount;
+
+    private WireRecordSchema(final Map<String, DataType> fields) {
+        final int fieldCount = fields.size();
+
+        this.names = new String[fieldCount];
+        this.types = new DataType[fieldCount];
+        this.slots = new int[fieldCount];
+        this.indexes = new HashMap<>(fieldCount * 2);
+
+        int primitives = 0;
+        int references = 0;
+        int i = 0;
+
+        for (final Entry<String, DataType> field : fields.entrySet()) {
+            this.names[i] = field.getKey().intern();
+            this.types[i] = field.getValue();
+            this.indexes.put(this.names[i], i);
+            this.slots[i] = isPrimitive(this.types[i]) ? primitives++ : references++;
+            i++;
+        }
+
+        this.primitiveSlotCount = primitives;
+        this.referenceSlotCount = references;
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of fields of this schema.
+     *
+     * @return the field count
+     */
+    public int getFieldCount() {
+        return this.names.length;
+    }
+
+    /**
+     * Returns the name of the field with the provided index.
+     *
+     * @param index
+     *            the field index
+     * @return the field name
+     * @throws IndexOutOfBoundsException
+     *             if the index is not valid
+     */
+    public String getFieldName(final int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Returns the type of the field with the provided index.
+     *
+     * @param index
+     *            the field index
+     * @return the field type
+     * @throws IndexOutOfBoundsException
+     *             if the index is not valid
+     */
+    public DataType getFieldType(final int index) {
+        return this.types[index];
+    }
+
+    /**
+     * Returns the index of the field with the provided name.
+     *
+     * @param name
+     *            the field name
+     * @return the field index, or -1 if this schema does not contain the field
+     */
+    public int indexOf(final String name) {
+        final Integer index = this.indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the field names, in field index order.
+     *
+     * @return an unmodifiable list of the field names
+     */
+    public List<String> getFieldNames() {
+        return Collections.unmodifiableList(Arrays.asList(this.names));
+    }
+
+    int getSlot(final int index) {
+        return this.slots[index];
+    }
+
+    int getPrimitiveSlotCount() {
+        return this.primitiveSlotCount;
+    }
+
+    int getReferenceSlotCount() {
+        return this.referenceSlotCount;
+    }
+
+    private static boolean isPrimitive(final DataType type) {
+        return type != DataType.STRING && type != DataType.BYTE_ARRAY;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.names) + Arrays.hashCode(this.types);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof WireRecordSchema)) {
+            return false;
+        }
+        final WireRecordSchema other = (WireRecordSchema) obj;
+        return Arrays.equals(this.names, other.names) && Arrays.equals(this.types, other.types);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("WireRecordSchema [");
+        for (int i = 0; i < this.names.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(this.names[i]).append(": ").append(this.types[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Builds {@link WireRecordSchema} instances.
+     *
+     * @noextend This class is not intended to be extended by clients.
+     * @since 2.3
+     */
+    @ProviderType
+    public static final class Builder {
+
+        private final Map<String, DataType> fields = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends a field to the schema, the index of the field is the number of fields added before it.
+         *
+         * @param name
+         *            the field name
+         * @param type
+         *            the field type
+         * @return this builder
+         * @throws NullPointerException
+         *             if any of the arguments is null
+         * @throws IllegalArgumentException
+         *             if a field with the same name has already been added
+         */
+        public Builder addField(final String name, final DataType type) {
+            requireNonNull(name, "Field name cannot be null");
+            requireNonNull(type, "Field type cannot be null");
+
+            if (this.fields.putIfAbsent(name, type) != null) {
+                throw new IllegalArgumentException("Duplicate field " + name);
+            }
+            return this;
+        }
+
+        /**
+         * Creates the schema.
+         *
+         * @return the schema
+         */
+        public WireRecordSchema build() {
+            return new WireRecordSchema(this.fields);
+        }
+    }
+}
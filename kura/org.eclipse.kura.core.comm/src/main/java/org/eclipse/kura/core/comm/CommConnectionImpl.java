@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,8 @@ import java.io.OutputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.comm.CommPort;
 import javax.comm.CommPortIdentifier;
@@ -43,6 +45,7 @@ public class CommConnectionImpl implements CommConnection, Closeable {
     private static final String SEND_MESSAGE = "sendMessage() - {}";
     private static final String JAVA_EXT_DIRS = "java.ext.dirs";
     private static final String KURA_EXT_DIR = "kura.ext.dir";
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
 
     private static final Logger logger = LogManager.getLogger(CommConnectionImpl.class);
 
@@ -210,7 +213,7 @@ public class CommConnectionImpl implements CommConnection, Closeable {
             openInputStream();
         }
 
-        byte[] dataInBuffer = flushSerialBuffer();
+        byte[] dataInBuffer = readBufferedBytes();
         if (dataInBuffer != null && dataInBuffer.length > 0) {
             logger.warn("eating bytes in the serial buffer input stream before sending command: {}",
                     getBytesAsString(dataInBuffer));
@@ -245,7 +248,7 @@ public class CommConnectionImpl implements CommConnection, Closeable {
             openInputStream();
         }
 
-        byte[] dataInBuffer = flushSerialBuffer();
+        byte[] dataInBuffer = readBufferedBytes();
         if (dataInBuffer != null && dataInBuffer.length > 0) {
             logger.warn("eating bytes in the serial buffer input stream before sending command: {}",
                     getBytesAsString(dataInBuffer));
@@ -277,22 +280,29 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         }
     }
 
-    private synchronized ByteBuffer getResponse(int timeout) throws IOException {
+    /**
+     * Returns the bytes already received by the serial port, without waiting for more data.
+     */
+    private byte[] readBufferedBytes() throws IOException {
         ByteBuffer buffer = ByteBuffer.allocate(4096);
-        long start = System.currentTimeMillis();
+        readAvailable(buffer);
 
-        while (this.inputStream.available() < 1 && System.currentTimeMillis() - start < timeout) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
+        // The buffer is casted to Buffer for Java8 compatibility
+        ((Buffer) buffer).flip();
 
-        while (this.inputStream.available() >= 1) {
-            int c = this.inputStream.read();
-            buffer.put((byte) c);
+        if (buffer.limit() == 0) {
+            return null;
         }
+        byte[] result = new byte[buffer.limit()];
+        buffer.get(result, 0, result.length);
+        return result;
+    }
+
+    private synchronized ByteBuffer getResponse(int timeout) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        waitForData(timeout);
+        readAvailable(buffer);
 
         // The buffer is casted to Buffer for Java8 compatibility
         ((Buffer) buffer).flip();
@@ -302,24 +312,13 @@ public class CommConnectionImpl implements CommConnection, Closeable {
 
     private synchronized ByteBuffer getResponse(int timeout, int demark) throws IOException {
         ByteBuffer buffer = ByteBuffer.allocate(4096);
-        long start = System.currentTimeMillis();
 
-        while (this.inputStream.available() < 1 && System.currentTimeMillis() - start < timeout) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
+        waitForData(timeout);
 
-        start = System.currentTimeMillis();
-        do {
-            if (this.inputStream.available() > 0) {
-                start = System.currentTimeMillis();
-                int c = this.inputStream.read();
-                buffer.put((byte) c);
-            }
-        } while (System.currentTimeMillis() - start < demark);
+        // read until no data is received for demark milliseconds
+        while (buffer.hasRemaining() && (readAvailable(buffer) > 0 || waitForData(demark))) {
+            // keep reading
+        }
 
         // The buffer is casted to Buffer for Java8 compatibility
         ((Buffer) buffer).flip();
@@ -327,6 +326,49 @@ public class CommConnectionImpl implements CommConnection, Closeable {
         return buffer.limit() > 0 ? buffer : null;
     }
 
+    /**
+     * Reads all the available bytes into the buffer, using bulk reads.
+     *
+     * @return the number of bytes read
+     */
+    private int readAvailable(ByteBuffer buffer) throws IOException {
+        int total = 0;
+        int available;
+
+        while (buffer.hasRemaining() && (available = this.inputStream.available()) > 0) {
+            int read = this.inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    Math.min(available, buffer.remaining()));
+            if (read <= 0) {
+                break;
+            }
+            // The buffer is casted to Buffer for Java8 compatibility
+            ((Buffer) buffer).position(buffer.position() + read);
+            total += read;
+        }
+
+        return total;
+    }
+
+    /**
+     * Waits for at most timeout milliseconds for some data to be available, polling the input stream every 10
+     * milliseconds. Latency sensitive protocols, such as Modbus RTU, read the streams directly relying on the receive
+     * timeout of the port instead.
+     *
+     * @return true if some data is available
+     */
+    private boolean waitForData(long timeout) throws IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        while (this.inputStream.available() < 1) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(remaining, POLL_INTERVAL_NANOS));
+        }
+        return true;
+    }
+
     /* default */ static String getBytesAsString(byte[] bytes) {
         if (bytes == null) {
             return null;
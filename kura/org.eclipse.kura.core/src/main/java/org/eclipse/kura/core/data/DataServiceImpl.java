@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.kura.core.data;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -37,7 +38,11 @@ import org.eclipse.kura.KuraStoreException;
 import org.eclipse.kura.KuraTooManyInflightMessagesException;
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.core.data.DataServiceOptions.StoreType;
 import org.eclipse.kura.core.data.store.DbDataStore;
+import org.eclipse.kura.core.data.store.GroupCommitWriter;
+import org.eclipse.kura.core.data.store.LogDataStore;
+import org.eclipse.kura.core.data.store.PriorityLaneDataStore;
 import org.eclipse.kura.core.internal.data.TokenBucket;
 import org.eclipse.kura.data.DataService;
 import org.eclipse.kura.data.DataTransportService;
@@ -81,7 +86,10 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
     // A dedicated executor for the publishing task
     private ExecutorService publisherExecutor;
 
-    private DataStore store;
+    // replaced when the store type changes, read by the publisher and by the threads calling publish()
+    private volatile DataStore store;
+    private PriorityLaneDataStore priorityLaneStore;
+    private volatile GroupCommitWriter groupCommitWriter;
 
     private Map<DataTransportToken, Integer> inFlightMsgIds;
 
@@ -127,9 +135,8 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         createThrottle();
         submitPublishingWork();
 
-        this.store = new DbDataStore(pid);
-
-        restartDbServiceTracker(this.dataServiceOptions.getDbServiceInstancePid());
+        createStore();
+        startStore();
 
         this.dataServiceListeners = new DataServiceListenerS(componentContext);
 
@@ -141,6 +148,53 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         startConnectionMonitorTask();
     }
 
+    private void createStore() {
+        final String pid = this.dataServiceOptions.getKuraServicePid();
+
+        final DataStore persistentStore;
+        if (this.dataServiceOptions.getStoreType() == StoreType.LOG) {
+            final File directory = new File(this.dataServiceOptions.getStoreLogDirectory(), pid);
+            persistentStore = new LogDataStore(directory.getPath(), this.dataServiceOptions.getStoreLogSyncInterval());
+        } else {
+            persistentStore = new DbDataStore(pid);
+        }
+
+        this.priorityLaneStore = new PriorityLaneDataStore(persistentStore);
+        this.store = this.priorityLaneStore;
+        updateMemoryLane();
+
+        this.groupCommitWriter = new GroupCommitWriter(this.store);
+        updateGroupCommitWriter();
+    }
+
+    private void startStore() {
+        if (this.dataServiceOptions.getStoreType() == StoreType.LOG) {
+            startDbStore();
+            signalPublisher();
+        } else {
+            restartDbServiceTracker(this.dataServiceOptions.getDbServiceInstancePid());
+        }
+    }
+
+    private void stopStore() {
+        this.groupCommitWriter.stop();
+        stopDbServiceTracker();
+        this.store.stop();
+    }
+
+    private boolean isStoreAvailable() {
+        return this.dataServiceOptions.getStoreType() == StoreType.LOG || this.dbService != null;
+    }
+
+    private static boolean isStoreChanged(DataServiceOptions oldOptions, DataServiceOptions newOptions) {
+        if (oldOptions.getStoreType() != newOptions.getStoreType()) {
+            return true;
+        }
+        return newOptions.getStoreType() == StoreType.LOG
+                && (!oldOptions.getStoreLogDirectory().equals(newOptions.getStoreLogDirectory())
+                        || oldOptions.getStoreLogSyncInterval() != newOptions.getStoreLogSyncInterval());
+    }
+
     private void restartDbServiceTracker(String kuraServicePid) {
         stopDbServiceTracker();
         try {
@@ -221,7 +275,8 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
         stopConnectionMonitorTask();
 
-        final String oldDbServicePid = this.dataServiceOptions.getDbServiceInstancePid();
+        final DataServiceOptions oldOptions = this.dataServiceOptions;
+        final String oldDbServicePid = oldOptions.getDbServiceInstancePid();
 
         this.dataServiceOptions = new DataServiceOptions(properties);
 
@@ -229,12 +284,22 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
         final String currentDbServicePid = this.dataServiceOptions.getDbServiceInstancePid();
 
-        if (oldDbServicePid.equals(currentDbServicePid)) {
-            if (this.dbService != null) {
+        if (isStoreChanged(oldOptions, this.dataServiceOptions)) {
+            logger.info("Data Store configuration changed, recreating the store...");
+            stopStore();
+            createStore();
+            startStore();
+        } else if (this.dataServiceOptions.getStoreType() == StoreType.LOG
+                || oldDbServicePid.equals(currentDbServicePid)) {
+            updateMemoryLane();
+            updateGroupCommitWriter();
+            if (isStoreAvailable()) {
                 this.store.update(this.dataServiceOptions.getStoreHousekeeperInterval(),
                         this.dataServiceOptions.getStorePurgeAge(), this.dataServiceOptions.getStoreCapacity());
             }
         } else {
+            updateMemoryLane();
+            updateGroupCommitWriter();
             restartDbServiceTracker(currentDbServicePid);
         }
 
@@ -269,9 +334,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
         this.dataTransportService.removeDataTransportListener(this);
 
-        this.store.stop();
-
-        stopDbServiceTracker();
+        stopStore();
     }
 
     // ----------------------------------------------------------------
@@ -457,8 +520,10 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
             DataMessage confirmedMessage = null;
             try {
                 logger.info("Confirmed message ID: {} to store", messageId);
+                // messages kept in memory are discarded once confirmed, load the message first
+                final DataMessage message = this.store.get(messageId);
                 this.store.confirmed(messageId);
-                confirmedMessage = this.store.get(messageId);
+                confirmedMessage = message;
             } catch (KuraStoreException e) {
                 logger.error("Cannot confirm message to store", e);
             }
@@ -482,7 +547,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
     @Override
     public void connect() throws KuraConnectException {
         stopConnectionMonitorTask();
-        if (this.dbService == null) {
+        if (!isStoreAvailable()) {
             throw new KuraConnectException("H2DbService instance not attached, not connecting");
         }
 
@@ -526,8 +591,14 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
     public int publish(String topic, byte[] payload, int qos, boolean retain, int priority) throws KuraStoreException {
 
         logger.info("Storing message on topic: {}, priority: {}", topic, priority);
-        
-        DataMessage dataMsg = this.store.store(topic, payload, qos, retain, priority);
+
+        final GroupCommitWriter writer = this.groupCommitWriter;
+        final DataMessage dataMsg;
+        if (writer != null) {
+            dataMsg = writer.store(topic, payload, qos, retain, priority);
+        } else {
+            dataMsg = this.store.store(topic, payload, qos, retain, priority);
+        }
         logger.info("Stored message on topic: {}, priority: {}", topic, priority);
 
         signalPublisher();
@@ -594,7 +665,7 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
                             + DataServiceImpl.this.dataServiceOptions.getKuraServicePid());
                     boolean connected = false;
                     try {
-                        if (DataServiceImpl.this.dbService == null) {
+                        if (!isStoreAvailable()) {
                             logger.warn("H2DbService instance not attached, not connecting");
                             return;
                         }
@@ -664,6 +735,25 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         }
     }
 
+    private void updateMemoryLane() {
+        if (this.priorityLaneStore != null) {
+            this.priorityLaneStore.configureMemoryLane(this.dataServiceOptions.isMemoryLaneEnabled(),
+                    this.dataServiceOptions.getMemoryLaneTopicFilter(), this.dataServiceOptions.getMemoryLaneMaxQos(),
+                    this.dataServiceOptions.getMemoryLaneMaxPriority(),
+                    this.dataServiceOptions.getMemoryLaneCapacity());
+        }
+    }
+
+    private void updateGroupCommitWriter() {
+        final int groupCommitMaxSize = this.dataServiceOptions.getStoreGroupCommitMaxSize();
+
+        if (groupCommitMaxSize > 1) {
+            this.groupCommitWriter.start(groupCommitMaxSize);
+        } else {
+            this.groupCommitWriter.stop();
+        }
+    }
+
     private void stopConnectionMonitorTask() {
         if (this.connectionMonitorFuture != null && !this.connectionMonitorFuture.isDone()) {
 
@@ -719,6 +809,64 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
         }
     }
 
+    // Publishes the given messages in order, stopping at the first message that cannot be published because of the
+    // in-flight messages limit. Messages held back by the rate limit are skipped and left in the store, the remaining
+    // ones are still published. The published state of the messages is updated in a single batch.
+    private synchronized List<DataMessage> publishBatchInternal(List<DataMessage> messages) throws KuraException {
+        final List<DataMessage> publishedMessages = new ArrayList<>(messages.size());
+        boolean rateLimited = false;
+
+        try {
+            for (DataMessage message : messages) {
+                if (message.getQos() > 0
+                        && this.inFlightMsgIds.size() >= this.dataServiceOptions.getMaxInFlightMessages()) {
+                    if (publishedMessages.isEmpty()) {
+                        logger.warn("The configured maximum number of in-flight messages has been reached");
+                        throw new KuraTooManyInflightMessagesException("Too many in-flight messages");
+                    }
+                    break;
+                }
+
+                if (this.dataServiceOptions.isRateLimitEnabled() && message.getPriority() >= 5
+                        && (rateLimited || !this.throttle.getToken())) {
+                    rateLimited = true;
+                    continue;
+                }
+
+                final int msgId = message.getId();
+
+                logger.debug("Publishing message with ID: {} on topic: {}, priority: {}", msgId, message.getTopic(),
+                        message.getPriority());
+
+                DataTransportToken token = this.dataTransportService.publish(message.getTopic(), message.getPayload(),
+                        message.getQos(), message.isRetain());
+
+                final DataMessage.Builder published = new DataMessage.Builder(msgId).withTopic(message.getTopic())
+                        .withQos(message.getQos()).withPriority(message.getPriority());
+
+                if (token != null) {
+                    // Check if the token is already tracked in the map (in which case we are in trouble)
+                    Integer trackedMsgId = this.inFlightMsgIds.get(token);
+                    if (trackedMsgId != null) {
+                        logger.error("Token already tracked: {} - {}", token.getSessionId(), token.getMessageId());
+                    }
+
+                    this.inFlightMsgIds.put(token, msgId);
+                    published.withPublishedMessageId(token.getMessageId()).withSessionId(token.getSessionId());
+                }
+
+                publishedMessages.add(published.build());
+            }
+        } finally {
+            if (!publishedMessages.isEmpty()) {
+                this.store.published(publishedMessages);
+                logger.debug("Published {} messages", publishedMessages.size());
+            }
+        }
+
+        return publishedMessages;
+    }
+
     private List<Integer> buildMessageIds(List<DataMessage> messages, String topicRegex) {
         Pattern topicPattern = Pattern.compile(topicRegex);
         List<Integer> ids = new ArrayList<>();
@@ -767,18 +915,31 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
 
                 if (DataServiceImpl.this.dataTransportService.isConnected()) {
                     try {
-                        DataMessage message = DataServiceImpl.this.store.getNextMessage();
+                        final int batchSize = DataServiceImpl.this.dataServiceOptions.getPublishBatchSize();
 
-                        if (message != null) {
-                            checkInFlightMessages(message);
+                        if (batchSize > 1) {
+                            List<DataMessage> messages = DataServiceImpl.this.store.getNextMessages(batchSize);
 
-                            if (DataServiceImpl.this.dataServiceOptions.isRateLimitEnabled()
-                                    && message.getPriority() >= 5) {
-                                messagePublished = publishMessageTokenBucket(message);
-                                sleepingTime = DataServiceImpl.this.throttle.getTokenWaitTime();
-                            } else {
-                                publishMessageUnbound(message);
-                                messagePublished = true;
+                            if (!messages.isEmpty()) {
+                                messagePublished = publishMessageBatch(messages);
+                                if (DataServiceImpl.this.dataServiceOptions.isRateLimitEnabled()) {
+                                    sleepingTime = DataServiceImpl.this.throttle.getTokenWaitTime();
+                                }
+                            }
+                        } else {
+                            DataMessage message = DataServiceImpl.this.store.getNextMessage();
+
+                            if (message != null) {
+                                checkInFlightMessages(message);
+
+                                if (DataServiceImpl.this.dataServiceOptions.isRateLimitEnabled()
+                                        && message.getPriority() >= 5) {
+                                    messagePublished = publishMessageTokenBucket(message);
+                                    sleepingTime = DataServiceImpl.this.throttle.getTokenWaitTime();
+                                } else {
+                                    publishMessageUnbound(message);
+                                    messagePublished = true;
+                                }
                             }
                         }
                     } catch (KuraNotConnectedException e) {
@@ -847,6 +1008,16 @@ public class DataServiceImpl implements DataService, DataTransportListener, Conf
             return false;
         }
 
+        private boolean publishMessageBatch(List<DataMessage> messages) throws KuraException {
+            final List<DataMessage> publishedMessages = publishBatchInternal(messages);
+
+            // Notify the listeners
+            for (DataMessage message : publishedMessages) {
+                DataServiceImpl.this.dataServiceListeners.onMessagePublished(message.getId(), message.getTopic());
+            }
+            return !publishedMessages.isEmpty();
+        }
+
         private void handleInFlightCongestion() {
             int timeout = DataServiceImpl.this.dataServiceOptions.getInFlightMessagesCongestionTimeout();
 
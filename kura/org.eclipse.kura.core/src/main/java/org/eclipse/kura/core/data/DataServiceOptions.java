@@ -26,10 +26,19 @@ public class DataServiceOptions {
     private static final String AUTOCONNECT_PROP_NAME = "connect.auto-on-startup";
     private static final String CONNECT_DELAY_PROP_NAME = "connect.retry-interval";
     private static final String DISCONNECT_DELAY_PROP_NAME = "disconnect.quiesce-timeout";
+    private static final String STORE_TYPE_PROP_NAME = "store.type";
+    private static final String STORE_LOG_DIRECTORY_PROP_NAME = "store.log.directory";
+    private static final String STORE_LOG_SYNC_INTERVAL_PROP_NAME = "store.log.sync-interval";
     private static final String STORE_DB_SERVICE_INSTANCE_PROP_NAME = "store.db.service.pid";
     private static final String STORE_HOUSEKEEPER_INTERVAL_PROP_NAME = "store.housekeeper-interval";
     private static final String STORE_PURGE_AGE_PROP_NAME = "store.purge-age";
     private static final String STORE_CAPACITY_PROP_NAME = "store.capacity";
+    private static final String STORE_GROUP_COMMIT_MAX_SIZE_PROP_NAME = "store.group-commit.max-size";
+    private static final String MEMORY_LANE_ENABLE_PROP_NAME = "memory-lane.enabled";
+    private static final String MEMORY_LANE_TOPIC_FILTER_PROP_NAME = "memory-lane.topic-filter";
+    private static final String MEMORY_LANE_MAX_QOS_PROP_NAME = "memory-lane.max-qos";
+    private static final String MEMORY_LANE_MAX_PRIORITY_PROP_NAME = "memory-lane.max-priority";
+    private static final String MEMORY_LANE_CAPACITY_PROP_NAME = "memory-lane.capacity";
     private static final String REPUBLISH_IN_FLIGHT_MSGS_PROP_NAME = "in-flight-messages.republish-on-new-session";
     private static final String MAX_IN_FLIGHT_MSGS_PROP_NAME = "in-flight-messages.max-number";
     private static final String IN_FLIGHT_MSGS_CONGESTION_TIMEOUT_PROP_NAME = "in-flight-messages.congestion-timeout";
@@ -39,14 +48,24 @@ public class DataServiceOptions {
     private static final String RATE_LIMIT_BURST_SIZE_PROP_NAME = "rate.limit.burst.size";
     private static final String RECOVERY_ENABLE_PROP_NAME = "enable.recovery.on.connection.failure";
     private static final String RECOVERY_MAX_FAILURES_PROP_NAME = "connection.recovery.max.failures";
+    private static final String PUBLISH_BATCH_SIZE_PROP_NAME = "publisher.batch-size";
 
     private static final boolean AUTOCONNECT_PROP_DEFAULT = false;
     private static final int CONNECT_DELAY_DEFAULT = 60;
     private static final int DISCONNECT_DELAY_DEFAULT = 10;
+    private static final String STORE_TYPE_DEFAULT = StoreType.H2.name();
+    private static final String STORE_LOG_DIRECTORY_DEFAULT = "/opt/eclipse/kura/data/message-store";
+    private static final long STORE_LOG_SYNC_INTERVAL_DEFAULT = 1000;
     private static final String DB_SERVICE_INSTANCE_DEFAULT = H2DbService.DEFAULT_INSTANCE_PID;
     private static final int STORE_HOUSEKEEPER_INTERVAL_DEFAULT = 900;
     private static final int STORE_PURGE_AGE_DEFAULT = 60;
     private static final int STORE_CAPACITY_DEFAULT = 10000;
+    private static final int STORE_GROUP_COMMIT_MAX_SIZE_DEFAULT = 1;
+    private static final boolean MEMORY_LANE_ENABLE_DEFAULT = false;
+    private static final String MEMORY_LANE_TOPIC_FILTER_DEFAULT = ".*";
+    private static final int MEMORY_LANE_MAX_QOS_DEFAULT = 0;
+    private static final int MEMORY_LANE_MAX_PRIORITY_DEFAULT = 0;
+    private static final int MEMORY_LANE_CAPACITY_DEFAULT = 1000;
     private static final boolean REPUBLISH_IN_FLIGHT_MSGS_DEFAULT = true;
     private static final int MAX_IN_FLIGHT_MSGS_DEFAULT = 9;
     private static final int IN_FLIGHT_MSGS_CONGESTION_TIMEOUT_DEFAULT = 0;
@@ -56,6 +75,7 @@ public class DataServiceOptions {
     private static final int RATE_LIMIT_BURST_SIZE_DEFAULT = 1;
     private static final boolean RECOVERY_ENABLE_DEFAULT = true;
     private static final int RECOVERY_MAX_FAILURES_DEFAULT = 10;
+    private static final int PUBLISH_BATCH_SIZE_DEFAULT = 1;
 
     private static final int CONNECT_CRITICAL_COMPONENT_TIMEOUT_MULTIPLIER = 5000;
 
@@ -79,6 +99,33 @@ public class DataServiceOptions {
         return (int) this.properties.getOrDefault(STORE_CAPACITY_PROP_NAME, STORE_CAPACITY_DEFAULT);
     }
 
+    int getStoreGroupCommitMaxSize() {
+        return (int) this.properties.getOrDefault(STORE_GROUP_COMMIT_MAX_SIZE_PROP_NAME,
+                STORE_GROUP_COMMIT_MAX_SIZE_DEFAULT);
+    }
+
+    boolean isMemoryLaneEnabled() {
+        return (boolean) this.properties.getOrDefault(MEMORY_LANE_ENABLE_PROP_NAME, MEMORY_LANE_ENABLE_DEFAULT);
+    }
+
+    String getMemoryLaneTopicFilter() {
+        return (String) this.properties.getOrDefault(MEMORY_LANE_TOPIC_FILTER_PROP_NAME,
+                MEMORY_LANE_TOPIC_FILTER_DEFAULT);
+    }
+
+    int getMemoryLaneMaxQos() {
+        return (int) this.properties.getOrDefault(MEMORY_LANE_MAX_QOS_PROP_NAME, MEMORY_LANE_MAX_QOS_DEFAULT);
+    }
+
+    int getMemoryLaneMaxPriority() {
+        return (int) this.properties.getOrDefault(MEMORY_LANE_MAX_PRIORITY_PROP_NAME,
+                MEMORY_LANE_MAX_PRIORITY_DEFAULT);
+    }
+
+    int getMemoryLaneCapacity() {
+        return (int) this.properties.getOrDefault(MEMORY_LANE_CAPACITY_PROP_NAME, MEMORY_LANE_CAPACITY_DEFAULT);
+    }
+
     boolean isPublishInFlightMessages() {
         return (boolean) this.properties.getOrDefault(REPUBLISH_IN_FLIGHT_MSGS_PROP_NAME,
                 REPUBLISH_IN_FLIGHT_MSGS_DEFAULT);
@@ -139,6 +186,19 @@ public class DataServiceOptions {
         return timeUnit.toNanos(1);
     }
 
+    StoreType getStoreType() {
+        return StoreType.valueOf((String) this.properties.getOrDefault(STORE_TYPE_PROP_NAME, STORE_TYPE_DEFAULT));
+    }
+
+    String getStoreLogDirectory() {
+        return (String) this.properties.getOrDefault(STORE_LOG_DIRECTORY_PROP_NAME, STORE_LOG_DIRECTORY_DEFAULT);
+    }
+
+    long getStoreLogSyncInterval() {
+        return (long) this.properties.getOrDefault(STORE_LOG_SYNC_INTERVAL_PROP_NAME,
+                STORE_LOG_SYNC_INTERVAL_DEFAULT);
+    }
+
     String getDbServiceInstancePid() {
         return (String) this.properties.getOrDefault(STORE_DB_SERVICE_INSTANCE_PROP_NAME, DB_SERVICE_INSTANCE_DEFAULT);
     }
@@ -155,7 +215,16 @@ public class DataServiceOptions {
         return (int) this.properties.getOrDefault(RECOVERY_MAX_FAILURES_PROP_NAME, RECOVERY_MAX_FAILURES_DEFAULT);
     }
 
+    int getPublishBatchSize() {
+        return (int) this.properties.getOrDefault(PUBLISH_BATCH_SIZE_PROP_NAME, PUBLISH_BATCH_SIZE_DEFAULT);
+    }
+
     int getCriticalComponentTimeout() {
         return getConnectDelay() * CONNECT_CRITICAL_COMPONENT_TIMEOUT_MULTIPLIER;
     }
+
+    enum StoreType {
+        H2,
+        LOG
+    }
 }
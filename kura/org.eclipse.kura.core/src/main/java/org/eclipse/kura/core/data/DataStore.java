@@ -50,6 +50,19 @@ public interface DataStore {
     public DataMessage store(String topic, byte[] payload, int qos, boolean retain, int priority)
             throws KuraStoreException;
 
+    /**
+     * Stores a batch of MQTT messages for deferred publication in a single transaction.
+     * The topic, payload, QoS, retain flag and priority of each message are taken from the provided
+     * DataMessages, any other field is ignored. Either all the messages are stored or none of them is.
+     *
+     * @param messages
+     *            the messages to be stored
+     * @return the stored messages, in the same order of the provided ones, with the generated identifiers
+     * @throws KuraStoreException
+     *             if the batch cannot be stored, or if storing it would exceed the store capacity
+     */
+    public List<DataMessage> store(List<DataMessage> messages) throws KuraStoreException;
+
     /**
      * Acknowledges the publication of the DataMessage with the given ID
      * associating it to the protocol (e.g. MQTT) message ID (QoS > 0).
@@ -72,6 +85,18 @@ public interface DataStore {
      */
     public void published(int msgId) throws KuraStoreException;
 
+    /**
+     * Acknowledges the publication of a batch of DataMessages in a single transaction.
+     * For the messages published with QoS > 0 the protocol (e.g. MQTT) message ID and the session ID
+     * are taken from {@link DataMessage#getPublishedMessageId()} and {@link DataMessage#getSessionId()}.
+     * Messages without a session ID are handled as messages published with QoS = 0.
+     *
+     * @param messages
+     *            the published messages
+     * @throws KuraStoreException
+     */
+    public void published(List<DataMessage> messages) throws KuraStoreException;
+
     /**
      * Acknowledges the delivery of the DataMessage published with the given
      * protocol (e.g. MQTT) message ID. This method is only called for messages
@@ -92,6 +117,17 @@ public interface DataStore {
      */
     public DataMessage getNextMessage() throws KuraStoreException;
 
+    /**
+     * Gets at most {@code maxCount} unpublished messages, in the same order in which they would be returned by
+     * subsequent invocations of {@link #getNextMessage()}.
+     *
+     * @param maxCount
+     *            the maximum number of messages to be returned
+     * @return the list of the next unpublished messages, possibly empty
+     * @throws KuraStoreException
+     */
+    public List<DataMessage> getNextMessages(int maxCount) throws KuraStoreException;
+
     /**
      * Returns a message from the DataStore by its message id.
      *
@@ -65,6 +65,8 @@ public class DbDataStore implements DataStore {
     private ScheduledExecutorService houseKeeperExecutor;
     private ScheduledFuture<?> houseKeeperTask;
     private int capacity;
+    // number of messages in the store, -1 if not known. Updated on insertion and refreshed by the housekeeper
+    private int messageCount = -1;
 
     private final String tableName;
     private final String sanitizedTableName;
@@ -76,6 +78,7 @@ public class DbDataStore implements DataStore {
     private final String sqlStore;
     private final String sqlGetMessage;
     private final String sqlGetNextMessage;
+    private final String sqlGetNextMessages;
     private final String sqlSetPublished;
     private final String sqlSetPublished2;
     private final String sqlSetConfirmed;
@@ -119,6 +122,10 @@ public class DbDataStore implements DataStore {
                 + this.sanitizedTableName + " AS a JOIN (SELECT id, publishedOn FROM " + this.sanitizedTableName
                 + " ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC LIMIT 1) AS b "
                 + "WHERE a.id = b.id AND b.publishedOn IS NULL;";
+        this.sqlGetNextMessages = "SELECT id, topic, qos, retain, createdOn, publishedOn, publishedMessageId, "
+                + "confirmedOn, payload, priority, sessionId, droppedOn FROM " + this.sanitizedTableName
+                + " WHERE publishedOn IS NULL ORDER BY publishedOn ASC NULLS FIRST, priority ASC, createdOn ASC "
+                + "LIMIT ?;";
         this.sqlSetPublished = UPDATE + this.sanitizedTableName
                 + " SET publishedOn = ?, publishedMessageId = ?, sessionId = ? WHERE id = ?;";
         this.sqlSetPublished2 = UPDATE + this.sanitizedTableName + " SET publishedOn = ? WHERE id = ?;";
@@ -181,6 +188,7 @@ public class DbDataStore implements DataStore {
             this.houseKeeperTask = null;
         }
         this.dbService = null;
+        this.messageCount = -1;
     }
 
     private boolean isRepairEnabled() {
@@ -216,6 +224,8 @@ public class DbDataStore implements DataStore {
             createIndex(sanitizeSql(this.tableName + "_CONFIRMEDON"), this.sanitizedTableName, "(CONFIRMEDON DESC)");
             createIndex(sanitizeSql(this.tableName + "_DROPPEDON"), this.sanitizedTableName, "(DROPPEDON DESC)");
 
+            refreshMessageCount();
+
             // Start the Housekeeper task
             this.houseKeeperTask = this.houseKeeperExecutor.scheduleWithFixedDelay(
                     new HouseKeeperTask(this, purgeAge, isRepairEnabled()), 1,    // start in one second
@@ -247,6 +257,28 @@ public class DbDataStore implements DataStore {
         }, "Cannot get message count");
     }
 
+    private synchronized int getCachedMessageCount() throws KuraStoreException {
+        if (this.messageCount < 0) {
+            this.messageCount = getMessageCount();
+        }
+        return this.messageCount;
+    }
+
+    private synchronized void refreshMessageCount() {
+        try {
+            this.messageCount = getMessageCount();
+        } catch (KuraStoreException e) {
+            logger.warn("Cannot refresh message count", e);
+            this.messageCount = -1;
+        }
+    }
+
+    private synchronized void incrementMessageCount(int delta) {
+        if (this.messageCount >= 0) {
+            this.messageCount += delta;
+        }
+    }
+
     private synchronized void resetIdentityGenerator() throws KuraStoreException {
         execute(this.sqlResetId);
     }
@@ -266,7 +298,7 @@ public class DbDataStore implements DataStore {
         // For those messages, bypass the max message count check of the DB cache;
         // we want to publish those message even if the db is full, so allow their storage.
         if (priority != 0 && priority != 1) {
-            int count = getMessageCount();
+            int count = getCachedMessageCount();
             logger.debug("Store message count: {}", count);
             if (count >= this.capacity) {
                 logger.error("Store capacity exceeded");
@@ -296,9 +328,81 @@ public class DbDataStore implements DataStore {
             }
         }
 
+        incrementMessageCount(1);
+
         return message;
     }
 
+    @Override
+    public synchronized List<DataMessage> store(List<DataMessage> messages) throws KuraStoreException {
+        if (this.dbService == null) {
+            throw new KuraStoreException("DbService instance not attached");
+        }
+        if (messages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        boolean isCapacityLimited = false;
+        for (final DataMessage message : messages) {
+            final String topic = message.getTopic();
+            if (topic == null || topic.trim().length() == 0) {
+                throw new IllegalArgumentException(TOPIC_ELEMENT);
+            }
+            // see store(String, byte[], int, boolean, int)
+            isCapacityLimited |= message.getPriority() != 0 && message.getPriority() != 1;
+        }
+
+        if (isCapacityLimited) {
+            int count = getCachedMessageCount();
+            logger.debug("Store message count: {}", count);
+            if (count + messages.size() > this.capacity) {
+                logger.error("Store capacity exceeded");
+                throw new KuraStoreCapacityReachedException("Store capacity exceeded");
+            }
+        }
+
+        final Timestamp now = new Timestamp(new Date().getTime());
+
+        final List<Integer> msgIds = withConnection(c -> {
+
+            final List<Integer> result = new ArrayList<>(messages.size());
+
+            try (PreparedStatement pstmt = c.prepareStatement(this.sqlStore, Statement.RETURN_GENERATED_KEYS)) {
+                for (final DataMessage message : messages) {
+                    setStoreParameters(pstmt, message.getTopic(), message.getPayload(), message.getQos(),
+                            message.isRetain(), message.getPriority(), now);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        result.add(rs.getInt(1));
+                    }
+                }
+            }
+
+            if (result.size() != messages.size()) {
+                throw new SQLException("Expected " + messages.size() + " generated ids, got " + result.size());
+            }
+
+            c.commit();
+
+            return result;
+        }, "Cannot store messages");
+
+        incrementMessageCount(messages.size());
+
+        final List<DataMessage> stored = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            final DataMessage message = messages.get(i);
+            stored.add(new DataMessage.Builder(msgIds.get(i)).withTopic(message.getTopic()).withQos(message.getQos())
+                    .withRetain(message.isRetain()).withCreatedOn(now).withPublishedMessageId(-1)
+                    .withPayload(message.getPayload()).withPriority(message.getPriority()).build());
+        }
+        return stored;
+    }
+
     private synchronized DataMessage storeInternal(String topic, byte[] payload, int qos, boolean retain, int priority)
             throws KuraStoreException {
         if (topic == null || topic.trim().length() == 0) {
@@ -313,17 +417,7 @@ public class DbDataStore implements DataStore {
 
             // store message
             try (PreparedStatement pstmt = c.prepareStatement(this.sqlStore)) {
-                pstmt.setString(1, topic);              // topic
-                pstmt.setInt(2, qos);               // qos
-                pstmt.setBoolean(3, retain);                // retain
-                pstmt.setTimestamp(4, now, this.utcCalendar); // createdOn
-                pstmt.setTimestamp(5, null);                // publishedOn
-                pstmt.setInt(6, -1);                 // publishedMessageId
-                pstmt.setTimestamp(7, null);                // confirmedOn
-                pstmt.setBinaryStream(8, new ByteArrayInputStream(payload));         // payload
-                pstmt.setInt(9, priority);            // priority
-                pstmt.setString(10, null);               // sessionId
-                pstmt.setTimestamp(11, null);               // droppedOn
+                setStoreParameters(pstmt, topic, payload, qos, retain, priority, now);
                 pstmt.execute();
             }
 
@@ -343,6 +437,21 @@ public class DbDataStore implements DataStore {
         return get(msgId);
     }
 
+    private void setStoreParameters(PreparedStatement pstmt, String topic, byte[] payload, int qos, boolean retain,
+            int priority, Timestamp now) throws SQLException {
+        pstmt.setString(1, topic);              // topic
+        pstmt.setInt(2, qos);               // qos
+        pstmt.setBoolean(3, retain);                // retain
+        pstmt.setTimestamp(4, now, this.utcCalendar); // createdOn
+        pstmt.setTimestamp(5, null);                // publishedOn
+        pstmt.setInt(6, -1);                 // publishedMessageId
+        pstmt.setTimestamp(7, null);                // confirmedOn
+        pstmt.setBinaryStream(8, new ByteArrayInputStream(payload));         // payload
+        pstmt.setInt(9, priority);            // priority
+        pstmt.setString(10, null);               // sessionId
+        pstmt.setTimestamp(11, null);               // droppedOn
+    }
+
     @Override
     public synchronized DataMessage get(int msgId) throws KuraStoreException {
 
@@ -375,6 +484,23 @@ public class DbDataStore implements DataStore {
         }, "Cannot get message next message");
     }
 
+    @Override
+    public synchronized List<DataMessage> getNextMessages(int maxCount) throws KuraStoreException {
+
+        return withConnection(c -> {
+            try (PreparedStatement stmt = c.prepareStatement(this.sqlGetNextMessages)) {
+                stmt.setInt(1, maxCount);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    final List<DataMessage> messages = new ArrayList<>();
+                    while (rs.next()) {
+                        messages.add(buildDataMessage(rs));
+                    }
+                    return messages;
+                }
+            }
+        }, "Cannot get next messages");
+    }
+
     @Override
     public synchronized void published(int msgId, int publishedMsgId, String sessionId) throws KuraStoreException {
         final Timestamp now = new Timestamp(new Date().getTime());
@@ -399,6 +525,48 @@ public class DbDataStore implements DataStore {
         updateTimestamp(this.sqlSetPublished2, msgId);
     }
 
+    @Override
+    public synchronized void published(List<DataMessage> messages) throws KuraStoreException {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        final Timestamp now = new Timestamp(new Date().getTime());
+
+        withConnection(c -> {
+            try (final PreparedStatement trackedStmt = c.prepareStatement(this.sqlSetPublished);
+                    final PreparedStatement untrackedStmt = c.prepareStatement(this.sqlSetPublished2)) {
+                boolean hasTracked = false;
+                boolean hasUntracked = false;
+
+                for (final DataMessage message : messages) {
+                    if (message.getSessionId() != null) {
+                        trackedStmt.setTimestamp(1, now, this.utcCalendar);
+                        trackedStmt.setInt(2, message.getPublishedMessageId());
+                        trackedStmt.setString(3, message.getSessionId());
+                        trackedStmt.setInt(4, message.getId());
+                        trackedStmt.addBatch();
+                        hasTracked = true;
+                    } else {
+                        untrackedStmt.setTimestamp(1, now, this.utcCalendar);
+                        untrackedStmt.setInt(2, message.getId());
+                        untrackedStmt.addBatch();
+                        hasUntracked = true;
+                    }
+                }
+
+                if (hasTracked) {
+                    trackedStmt.executeBatch();
+                }
+                if (hasUntracked) {
+                    untrackedStmt.executeBatch();
+                }
+                c.commit();
+                return (Void) null;
+            }
+        }, "Cannot update timestamps");
+    }
+
     @Override
     public synchronized void confirmed(int msgId) throws KuraStoreException {
         updateTimestamp(this.sqlSetConfirmed, msgId);
@@ -443,6 +611,8 @@ public class DbDataStore implements DataStore {
 
         // Delete stale published messages with QoS == 0
         executeDeleteMessagesQuery(this.sqlDeletePublishedMessages, now, purgeAge);
+
+        refreshMessageCount();
     }
 
     @Override
@@ -491,6 +661,8 @@ public class DbDataStore implements DataStore {
             return (Void) null;
         }, "Cannot repair database");
 
+        refreshMessageCount();
+
     }
 
     // ------------------------------------------------------------------
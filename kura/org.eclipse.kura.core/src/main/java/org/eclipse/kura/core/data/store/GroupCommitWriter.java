@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.DataStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group commit writer for a {@link DataStore}. Messages stored concurrently by several threads are queued and a
+ * single writer thread stores them with {@link DataStore#store(List)}, so that a whole batch is written with a single
+ * transaction. Each caller is blocked until the batch containing its message has been committed.
+ * <p>
+ * If a batch cannot be stored as a whole, for example because it would exceed the store capacity, its messages are
+ * stored one by one so that each caller gets the outcome of its own message. If the writer is not running, messages
+ * are stored directly by the calling thread.
+ */
+public class GroupCommitWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final DataStore store;
+
+    private ExecutorService executor;
+    private BlockingQueue<PendingMessage> queue;
+    private volatile int maxBatchSize;
+
+    public GroupCommitWriter(DataStore store) {
+        this.store = store;
+    }
+
+    public synchronized void start(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+
+        if (this.executor == null) {
+            final BlockingQueue<PendingMessage> runQueue = new LinkedBlockingQueue<>();
+            this.queue = runQueue;
+            this.executor = Executors.newSingleThreadExecutor();
+            this.executor.execute(() -> run(runQueue));
+        }
+    }
+
+    /**
+     * Stops the writer thread. The messages queued before this call are stored before the thread terminates, the
+     * writer thread is not interrupted so that a pending store operation is not aborted.
+     */
+    public void stop() {
+        final ExecutorService runExecutor;
+        final BlockingQueue<PendingMessage> runQueue;
+
+        synchronized (this) {
+            if (this.executor == null) {
+                return;
+            }
+            runExecutor = this.executor;
+            runQueue = this.queue;
+            this.executor = null;
+            this.queue = null;
+        }
+
+        runQueue.add(PendingMessage.END_OF_QUEUE);
+        runExecutor.shutdown();
+
+        try {
+            if (!runExecutor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Group commit writer did not terminate in {} seconds", STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for group commit writer termination");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return this.executor != null;
+    }
+
+    /**
+     * Queues a message for storage and waits until it has been stored. If the writer is not running the message is
+     * stored directly.
+     *
+     * @see DataStore#store(String, byte[], int, boolean, int)
+     */
+    public DataMessage store(String topic, byte[] payload, int qos, boolean retain, int priority)
+            throws KuraStoreException {
+        if (topic == null || topic.trim().length() == 0) {
+            throw new IllegalArgumentException("topic");
+        }
+
+        final PendingMessage message = new PendingMessage(new DataMessage.Builder(0).withTopic(topic)
+                .withPayload(payload).withQos(qos).withRetain(retain).withPriority(priority).build());
+
+        final boolean queued;
+        synchronized (this) {
+            queued = this.queue != null;
+            if (queued) {
+                this.queue.add(message);
+            }
+        }
+
+        if (!queued) {
+            return this.store.store(topic, payload, qos, retain, priority);
+        }
+
+        try {
+            return message.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KuraStoreException(e, "Interrupted while waiting for message storage");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof KuraStoreException) {
+                throw (KuraStoreException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new KuraStoreException(cause, "Cannot store message");
+        }
+    }
+
+    private void run(final BlockingQueue<PendingMessage> runQueue) {
+        Thread.currentThread().setName("DataServiceImpl:GroupCommit");
+
+        final List<PendingMessage> batch = new ArrayList<>();
+        boolean endOfQueue = false;
+
+        while (!endOfQueue) {
+            try {
+                batch.add(runQueue.take());
+                runQueue.drainTo(batch, this.maxBatchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            endOfQueue = batch.remove(PendingMessage.END_OF_QUEUE);
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+            batch.clear();
+        }
+
+        final List<PendingMessage> pending = new ArrayList<>();
+        runQueue.drainTo(pending);
+        for (final PendingMessage message : pending) {
+            message.result.completeExceptionally(new KuraStoreException("Group commit writer stopped"));
+        }
+        logger.debug("Exited group commit loop.");
+    }
+    private void flush(List<PendingMessage> batch) {
+        if (batch.size() == 1) {
+            storeSingle(batch.get(0));
+            return;
+        }
+
+        final List<DataMessage> messages = new ArrayList<>(batch.size());
+        for (final PendingMessage message : batch) {
+            messages.add(message.message);
+        }
+
+        try {
+            final List<DataMessage> stored = this.store.store(messages);
+            logger.debug("Stored {} messages", stored.size());
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(stored.get(i));
+            }
+        } catch (KuraStoreException | RuntimeException e) {
+            logger.debug("Cannot store batch of {} messages, storing them one by one", batch.size(), e);
+            for (final PendingMessage message : batch) {
+                storeSingle(message);
+            }
+        }
+    }
+
+    private void storeSingle(PendingMessage pending) {
+        final DataMessage message = pending.message;
+        try {
+            pending.result.complete(this.store.store(message.getTopic(), message.getPayload(), message.getQos(),
+                    message.isRetain(), message.getPriority()));
+        } catch (KuraStoreException | RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingMessage {
+
+        private static final PendingMessage END_OF_QUEUE = new PendingMessage(null);
+
+        private final DataMessage message;
+        private final CompletableFuture<DataMessage> result = new CompletableFuture<>();
+
+        PendingMessage(DataMessage message) {
+            this.message = message;
+        }
+    }
+}
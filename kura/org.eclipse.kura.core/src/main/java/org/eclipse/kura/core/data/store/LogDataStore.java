@@ -0,0 +1,775 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.eclipse.kura.KuraStoreCapacityReachedException;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.DataStore;
+import org.eclipse.kura.db.H2DbService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An implementation of the DataStore which stores messages into an append-only log of memory-mapped segment files,
+ * and keeps an in-memory index of the messages ordered by priority and creation time.
+ * <p>
+ * Every change to the store is appended to the log as a record: STORE records contain a message with its full state,
+ * STATE records track the publication, confirmation and drop of a message and DELETE records its removal. The index
+ * is rebuilt at startup by replaying the log. The log is forced to the storage device every {@code syncInterval}
+ * milliseconds, this bounds the amount of changes that can be lost on power failure. Records partially written
+ * before a power failure are detected with a checksum and discarded.
+ * <p>
+ * The housekeeper task deletes the oldest segments once all their messages have been purged, and compacts them by
+ * copying the messages that are still in the store to the end of the log when most of their records are obsolete.
+ * <p>
+ * The H2DbService instance provided in {@link #start(H2DbService, int, int, int)} is not used.
+ */
+public class LogDataStore implements DataStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogDataStore.class);
+
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    private static final byte RECORD_STORE = 1;
+    private static final byte RECORD_STATE = 2;
+    private static final byte RECORD_DELETE = 3;
+
+    private static final byte STATE_PUBLISHED = 1;
+    private static final byte STATE_CONFIRMED = 2;
+    private static final byte STATE_DROPPED = 3;
+    private static final byte STATE_UNPUBLISHED = 4;
+
+    private static final Comparator<Entry> PRIORITY_ORDER = Comparator.<Entry> comparingInt(e -> e.priority)
+            .thenComparingLong(e -> e.createdOn).thenComparingInt(e -> e.id);
+
+    private final File directory;
+    private final long syncInterval;
+
+    private final Map<Integer, Entry> messages = new HashMap<>();
+    private final TreeSet<Entry> unpublished = new TreeSet<>(PRIORITY_ORDER);
+    private final LinkedList<LogSegment> segments = new LinkedList<>();
+
+    private ScheduledExecutorService houseKeeperExecutor;
+    private ScheduledFuture<?> houseKeeperTask;
+    private ScheduledFuture<?> syncTask;
+    private int capacity;
+    private int nextId = 1;
+    private boolean started;
+
+    public LogDataStore(String directory, long syncInterval) {
+        this.directory = new File(directory);
+        this.syncInterval = syncInterval;
+    }
+
+    // ----------------------------------------------------------
+    //
+    // Start/Stop
+    //
+    // ----------------------------------------------------------
+
+    @Override
+    public synchronized void start(H2DbService dbService, int houseKeeperInterval, int purgeAge, int capacity)
+            throws KuraStoreException {
+        if (this.started) {
+            update(houseKeeperInterval, purgeAge, capacity);
+            return;
+        }
+
+        try {
+            recover();
+        } catch (IOException e) {
+            closeSegments();
+            throw new KuraStoreException(e, "Cannot open message log in " + this.directory);
+        }
+
+        this.started = true;
+        this.houseKeeperExecutor = Executors.newSingleThreadScheduledExecutor();
+
+        if (this.syncInterval > 0) {
+            this.syncTask = this.houseKeeperExecutor.scheduleWithFixedDelay(this::sync, this.syncInterval,
+                    this.syncInterval, TimeUnit.MILLISECONDS);
+        }
+
+        update(houseKeeperInterval, purgeAge, capacity);
+    }
+
+    @Override
+    public synchronized void update(int houseKeeperInterval, int purgeAge, int capacity) {
+        this.capacity = capacity;
+
+        if (!this.started) {
+            return;
+        }
+
+        if (this.houseKeeperTask != null) {
+            this.houseKeeperTask.cancel(true);
+        }
+
+        this.houseKeeperTask = this.houseKeeperExecutor.scheduleWithFixedDelay(
+                new HouseKeeperTask(this, purgeAge, false), 1, houseKeeperInterval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!this.started) {
+            return;
+        }
+
+        logger.info("Canceling the Housekeeper Task...");
+        if (this.houseKeeperTask != null) {
+            this.houseKeeperTask.cancel(true);
+            this.houseKeeperTask = null;
+        }
+        if (this.syncTask != null) {
+            this.syncTask.cancel(false);
+            this.syncTask = null;
+        }
+        this.houseKeeperExecutor.shutdownNow();
+
+        closeSegments();
+
+        this.messages.clear();
+        this.unpublished.clear();
+        this.started = false;
+    }
+
+    // ----------------------------------------------------------
+    //
+    // Message APIs
+    //
+    // ----------------------------------------------------------
+
+    @Override
+    public synchronized DataMessage store(String topic, byte[] payload, int qos, boolean retain, int priority)
+            throws KuraStoreException {
+        checkStarted();
+        if (topic == null || topic.trim().length() == 0) {
+            throw new IllegalArgumentException("topic");
+        }
+
+        // Priority 0 and 1 messages bypass the capacity check, see DbDataStore
+        if (priority != 0 && priority != 1 && this.messages.size() >= this.capacity) {
+            logger.error("Store capacity exceeded");
+            throw new KuraStoreCapacityReachedException("Store capacity exceeded");
+        }
+
+        final Entry entry = new Entry(allocateId(), topic, qos, retain, priority, System.currentTimeMillis());
+        appendStoreRecord(entry, payload);
+        addEntry(entry);
+        syncIfRequired();
+
+        return entry.toDataMessage(payload);
+    }
+
+    @Override
+    public synchronized List<DataMessage> store(List<DataMessage> messages) throws KuraStoreException {
+        checkStarted();
+
+        boolean isCapacityLimited = false;
+        for (final DataMessage message : messages) {
+            final String topic = message.getTopic();
+            if (topic == null || topic.trim().length() == 0) {
+                throw new IllegalArgumentException("topic");
+            }
+            isCapacityLimited |= message.getPriority() != 0 && message.getPriority() != 1;
+        }
+
+        if (isCapacityLimited && this.messages.size() + messages.size() > this.capacity) {
+            logger.error("Store capacity exceeded");
+            throw new KuraStoreCapacityReachedException("Store capacity exceeded");
+        }
+
+        final long now = System.currentTimeMillis();
+        final List<DataMessage> result = new ArrayList<>(messages.size());
+
+        for (final DataMessage message : messages) {
+            final Entry entry = new Entry(allocateId(), message.getTopic(), message.getQos(), message.isRetain(),
+                    message.getPriority(), now);
+            appendStoreRecord(entry, message.getPayload());
+            addEntry(entry);
+            result.add(entry.toDataMessage(message.getPayload()));
+        }
+        syncIfRequired();
+
+        return result;
+    }
+
+    @Override
+    public synchronized void published(int msgId, int publishedMsgId, String sessionId) throws KuraStoreException {
+        checkStarted();
+        markPublished(msgId, publishedMsgId, sessionId, System.currentTimeMillis());
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized void published(int msgId) throws KuraStoreException {
+        checkStarted();
+        markPublished(msgId, -1, null, System.currentTimeMillis());
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized void published(List<DataMessage> messages) throws KuraStoreException {
+        checkStarted();
+        final long now = System.currentTimeMillis();
+        for (final DataMessage message : messages) {
+            if (message.getSessionId() != null) {
+                markPublished(message.getId(), message.getPublishedMessageId(), message.getSessionId(), now);
+            } else {
+                markPublished(message.getId(), -1, null, now);
+            }
+        }
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized void confirmed(int msgId) throws KuraStoreException {
+        checkStarted();
+        final Entry entry = this.messages.get(msgId);
+        if (entry == null) {
+            return;
+        }
+        entry.confirmedOn = System.currentTimeMillis();
+        appendStateRecord(entry, STATE_CONFIRMED, entry.confirmedOn);
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized DataMessage getNextMessage() throws KuraStoreException {
+        checkStarted();
+        if (this.unpublished.isEmpty()) {
+            return null;
+        }
+        final Entry entry = this.unpublished.first();
+        return entry.toDataMessage(readPayload(entry));
+    }
+
+    @Override
+    public synchronized List<DataMessage> getNextMessages(int maxCount) throws KuraStoreException {
+        checkStarted();
+        final List<DataMessage> result = new ArrayList<>(Math.min(maxCount, this.unpublished.size()));
+        final Iterator<Entry> iterator = this.unpublished.iterator();
+        while (result.size() < maxCount && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            result.add(entry.toDataMessage(readPayload(entry)));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized DataMessage get(int msgId) throws KuraStoreException {
+        checkStarted();
+        final Entry entry = this.messages.get(msgId);
+        if (entry == null) {
+            return null;
+        }
+        return entry.toDataMessage(readPayload(entry));
+    }
+
+    @Override
+    public synchronized List<DataMessage> allUnpublishedMessagesNoPayload() throws KuraStoreException {
+        checkStarted();
+        final List<DataMessage> result = new ArrayList<>(this.unpublished.size());
+        for (final Entry entry : this.unpublished) {
+            result.add(entry.toDataMessage(null));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<DataMessage> allInFlightMessagesNoPayload() throws KuraStoreException {
+        checkStarted();
+        return listMessages(e -> e.isInFlight() && e.droppedOn < 0);
+    }
+
+    @Override
+    public synchronized List<DataMessage> allDroppedInFlightMessagesNoPayload() throws KuraStoreException {
+        checkStarted();
+        return listMessages(e -> e.droppedOn >= 0);
+    }
+
+    @Override
+    public synchronized void unpublishAllInFlighMessages() throws KuraStoreException {
+        checkStarted();
+        for (final Entry entry : this.messages.values()) {
+            if (entry.isInFlight()) {
+                entry.publishedOn = -1;
+                this.unpublished.add(entry);
+                appendStateRecord(entry, STATE_UNPUBLISHED, -1);
+            }
+        }
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized void dropAllInFlightMessages() throws KuraStoreException {
+        checkStarted();
+        final long now = System.currentTimeMillis();
+        for (final Entry entry : this.messages.values()) {
+            if (entry.isInFlight()) {
+                entry.droppedOn = now;
+                appendStateRecord(entry, STATE_DROPPED, now);
+            }
+        }
+        syncIfRequired();
+    }
+
+    @Override
+    public synchronized void deleteStaleMessages(int purgeAge) throws KuraStoreException {
+        checkStarted();
+        final long threshold = System.currentTimeMillis() - purgeAge * 1000L;
+
+        final Iterator<Entry> iterator = this.messages.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+
+            final boolean isStale = entry.droppedOn >= 0 && entry.droppedOn <= threshold
+                    || entry.confirmedOn >= 0 && entry.confirmedOn <= threshold
+                    || entry.qos == 0 && entry.publishedOn >= 0 && entry.publishedOn <= threshold;
+
+            if (isStale) {
+                iterator.remove();
+                this.unpublished.remove(entry);
+                entry.segment.decrementLiveCount();
+                appendDeleteRecord(entry);
+            }
+        }
+
+        compact();
+        sync();
+    }
+
+    @Override
+    public synchronized void repair() throws KuraStoreException {
+        // records are checksummed and invalid records are discarded when the log is replayed
+    }
+
+    // ------------------------------------------------------------------
+    //
+    // Private Methods
+    //
+    // ------------------------------------------------------------------
+
+    private void checkStarted() throws KuraStoreException {
+        if (!this.started) {
+            throw new KuraStoreException("Message log not open");
+        }
+    }
+
+    private int allocateId() {
+        // once the IDs wrap around, skip the ones of the messages still in the log, e.g. the in-flight ones
+        int id;
+        do {
+            id = this.nextId;
+            this.nextId = id == Integer.MAX_VALUE ? 1 : id + 1;
+        } while (this.messages.containsKey(id));
+        return id;
+    }
+
+    private void addEntry(Entry entry) {
+        final Entry previous = this.messages.put(entry.id, entry);
+        if (previous != null) {
+            this.unpublished.remove(previous);
+            previous.segment.decrementLiveCount();
+        }
+        if (entry.publishedOn < 0) {
+            this.unpublished.add(entry);
+        }
+        entry.segment.incrementLiveCount();
+    }
+
+    private void markPublished(int msgId, int publishedMsgId, String sessionId, long now) throws KuraStoreException {
+        final Entry entry = this.messages.get(msgId);
+        if (entry == null) {
+            return;
+        }
+        this.unpublished.remove(entry);
+        entry.publishedOn = now;
+        entry.publishedMessageId = publishedMsgId;
+        entry.sessionId = sessionId;
+        appendStateRecord(entry, STATE_PUBLISHED, now);
+    }
+
+    private List<DataMessage> listMessages(Predicate<Entry> filter) {
+        final List<Entry> entries = new ArrayList<>();
+        for (final Entry entry : this.messages.values()) {
+            if (filter.test(entry)) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries, PRIORITY_ORDER);
+
+        final List<DataMessage> result = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            result.add(entry.toDataMessage(null));
+        }
+        return result;
+    }
+
+    private byte[] readPayload(Entry entry) {
+        if (entry.payloadLength < 0) {
+            return null;
+        }
+        return entry.segment.read(entry.payloadOffset, entry.payloadLength);
+    }
+
+    private void syncIfRequired() {
+        if (this.syncInterval <= 0) {
+            sync();
+        }
+    }
+
+    private synchronized void sync() {
+        if (!this.segments.isEmpty()) {
+            this.segments.getLast().force();
+        }
+    }
+
+    // ------------------------------------------------------------------
+    //
+    // Private Methods: Log Management
+    //
+    // ------------------------------------------------------------------
+
+    private void appendStoreRecord(Entry entry, byte[] payload) throws KuraStoreException {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    64 + entry.topic.length() * 3 + (payload != null ? payload.length : 0));
+            final DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeByte(RECORD_STORE);
+            out.writeInt(entry.id);
+            out.writeLong(entry.createdOn);
+            out.writeInt(entry.qos);
+            out.writeBoolean(entry.retain);
+            out.writeInt(entry.priority);
+            out.writeLong(entry.publishedOn);
+            out.writeInt(entry.publishedMessageId);
+            out.writeLong(entry.confirmedOn);
+            out.writeLong(entry.droppedOn);
+            writeString(out, entry.sessionId);
+            writeString(out, entry.topic);
+
+            final int payloadPosition;
+            if (payload != null) {
+                out.writeInt(payload.length);
+                payloadPosition = out.size();
+                out.write(payload);
+            } else {
+                out.writeInt(-1);
+                payloadPosition = out.size();
+            }
+
+            final LogSegment segment = getSegmentForAppend(bytes.size());
+            final int dataOffset = segment.append(bytes.toByteArray());
+
+            entry.segment = segment;
+            entry.payloadOffset = dataOffset + payloadPosition;
+            entry.payloadLength = payload != null ? payload.length : -1;
+        } catch (IOException e) {
+            throw new KuraStoreException(e, "Cannot append message to log");
+        }
+    }
+
+    private void appendStateRecord(Entry entry, byte state, long timestamp) throws KuraStoreException {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            final DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeByte(RECORD_STATE);
+            out.writeInt(entry.id);
+            out.writeByte(state);
+            out.writeLong(timestamp);
+            out.writeInt(entry.publishedMessageId);
+            writeString(out, entry.sessionId);
+
+            getSegmentForAppend(bytes.size()).append(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new KuraStoreException(e, "Cannot append message state to log");
+        }
+    }
+
+    private void appendDeleteRecord(Entry entry) throws KuraStoreException {
+        try {
+            final byte[] data = new byte[5];
+            ByteBuffer.wrap(data).put(RECORD_DELETE).putInt(entry.id);
+
+            getSegmentForAppend(data.length).append(data);
+        } catch (IOException e) {
+            throw new KuraStoreException(e, "Cannot append message deletion to log");
+        }
+    }
+
+    private LogSegment getSegmentForAppend(int dataLength) throws IOException {
+        final int recordLength = dataLength + LogSegment.HEADER_SIZE;
+
+        if (!this.segments.isEmpty() && this.segments.getLast().getRemaining() >= recordLength) {
+            return this.segments.getLast();
+        }
+
+        final long sequenceNumber;
+        if (this.segments.isEmpty()) {
+            sequenceNumber = 0;
+        } else {
+            final LogSegment last = this.segments.getLast();
+            last.force();
+            sequenceNumber = last.getSequenceNumber() + 1;
+        }
+
+        final LogSegment segment = LogSegment.create(this.directory, sequenceNumber,
+                Math.max(SEGMENT_SIZE, recordLength));
+        this.segments.add(segment);
+        logger.debug("Created log segment {}", sequenceNumber);
+        return segment;
+    }
+
+    /*
+     * Segments are only deleted starting from the oldest one, this guarantees that the STATE and DELETE records of a
+     * message are never removed before its STORE record.
+     */
+    private void compact() throws KuraStoreException {
+        while (this.segments.size() > 1) {
+            final LogSegment head = this.segments.getFirst();
+
+            if (head.getLiveCount() > 0) {
+                if (head.getLiveCount() * 2 >= head.getRecordCount()) {
+                    return;
+                }
+                relocateMessages(head);
+            }
+
+            this.segments.removeFirst();
+            try {
+                head.delete();
+                logger.debug("Deleted log segment {}", head.getSequenceNumber());
+            } catch (IOException e) {
+                logger.warn("Cannot delete log segment {}", head.getSequenceNumber(), e);
+            }
+        }
+    }
+
+    private void relocateMessages(LogSegment segment) throws KuraStoreException {
+        logger.debug("Compacting log segment {}, live messages: {}", segment.getSequenceNumber(),
+                segment.getLiveCount());
+
+        for (final Entry entry : this.messages.values()) {
+            if (entry.segment == segment) {
+                final byte[] payload = readPayload(entry);
+                segment.decrementLiveCount();
+                appendStoreRecord(entry, payload);
+                entry.segment.incrementLiveCount();
+            }
+        }
+
+        // the relocated messages must be durable before the segment is deleted
+        this.segments.getLast().force();
+    }
+
+    private void recover() throws IOException {
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + this.directory);
+        }
+
+        final TreeMap<Long, File> files = new TreeMap<>();
+        final File[] children = this.directory.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                final long sequenceNumber = LogSegment.parseSequenceNumber(child.getName());
+                if (sequenceNumber >= 0) {
+                    files.put(sequenceNumber, child);
+                }
+            }
+        }
+
+        int maxId = 0;
+
+        for (final Map.Entry<Long, File> file : files.entrySet()) {
+            final LogSegment segment = LogSegment.open(file.getValue(), file.getKey());
+            this.segments.add(segment);
+
+            ByteBuffer record;
+            while ((record = segment.recoverNext()) != null) {
+                final int dataOffset = segment.getWritePosition() - record.remaining();
+                final int id = replay(segment, dataOffset, record);
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        if (!this.segments.isEmpty()) {
+            this.segments.getLast().clearRemaining();
+        }
+
+        this.nextId = maxId == Integer.MAX_VALUE ? 1 : maxId + 1;
+
+        logger.info("Recovered {} messages from {} log segments in {}", this.messages.size(), this.segments.size(),
+                this.directory);
+    }
+
+    private int replay(LogSegment segment, int dataOffset, ByteBuffer record) {
+        final byte type = record.get();
+        final int id = record.getInt();
+
+        if (type == RECORD_STORE) {
+            final long createdOn = record.getLong();
+            final int qos = record.getInt();
+            final boolean retain = record.get() != 0;
+            final int priority = record.getInt();
+
+            final Entry entry = new Entry(id, null, qos, retain, priority, createdOn);
+            entry.publishedOn = record.getLong();
+            entry.publishedMessageId = record.getInt();
+            entry.confirmedOn = record.getLong();
+            entry.droppedOn = record.getLong();
+            entry.sessionId = readString(record);
+            entry.topic = readString(record);
+            entry.payloadLength = record.getInt();
+            entry.payloadOffset = dataOffset + record.position();
+            entry.segment = segment;
+
+            addEntry(entry);
+        } else if (type == RECORD_STATE) {
+            final Entry entry = this.messages.get(id);
+            if (entry == null) {
+                return id;
+            }
+            final byte state = record.get();
+            final long timestamp = record.getLong();
+            final int publishedMessageId = record.getInt();
+            final String sessionId = readString(record);
+
+            if (state == STATE_PUBLISHED) {
+                this.unpublished.remove(entry);
+                entry.publishedOn = timestamp;
+                entry.publishedMessageId = publishedMessageId;
+                entry.sessionId = sessionId;
+            } else if (state == STATE_CONFIRMED) {
+                entry.confirmedOn = timestamp;
+            } else if (state == STATE_DROPPED) {
+                entry.droppedOn = timestamp;
+            } else if (state == STATE_UNPUBLISHED) {
+                entry.publishedOn = -1;
+                this.unpublished.add(entry);
+            }
+        } else if (type == RECORD_DELETE) {
+            final Entry entry = this.messages.remove(id);
+            if (entry != null) {
+                this.unpublished.remove(entry);
+                entry.segment.decrementLiveCount();
+            }
+        } else {
+            logger.warn("Unknown record type {} in log segment {}", type, segment.getSequenceNumber());
+        }
+
+        return id;
+    }
+
+    private void closeSegments() {
+        for (final LogSegment segment : this.segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close log segment {}", segment.getSequenceNumber(), e);
+            }
+        }
+        this.segments.clear();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+
+        private final int id;
+        private final int qos;
+        private final boolean retain;
+        private final int priority;
+        private final long createdOn;
+
+        private String topic;
+        private long publishedOn = -1;
+        private int publishedMessageId = -1;
+        private String sessionId;
+        private long confirmedOn = -1;
+        private long droppedOn = -1;
+
+        private LogSegment segment;
+        private int payloadOffset;
+        private int payloadLength;
+
+        Entry(int id, String topic, int qos, boolean retain, int priority, long createdOn) {
+            this.id = id;
+            this.topic = topic;
+            this.qos = qos;
+            this.retain = retain;
+            this.priority = priority;
+            this.createdOn = createdOn;
+        }
+
+        boolean isInFlight() {
+            return this.publishedOn >= 0 && this.qos > 0 && this.confirmedOn < 0;
+        }
+
+        DataMessage toDataMessage(byte[] payload) {
+            return new DataMessage.Builder(this.id).withTopic(this.topic).withQos(this.qos).withRetain(this.retain)
+                    .withCreatedOn(new Date(this.createdOn)).withPublishedOn(toDate(this.publishedOn))
+                    .withPublishedMessageId(this.publishedMessageId).withConfirmedOn(toDate(this.confirmedOn))
+                    .withPayload(payload).withPriority(this.priority).withSessionId(this.sessionId)
+                    .withDroppedOn(toDate(this.droppedOn)).build();
+        }
+
+        private static Date toDate(long timestamp) {
+            return timestamp >= 0 ? new Date(timestamp) : null;
+        }
+    }
+}
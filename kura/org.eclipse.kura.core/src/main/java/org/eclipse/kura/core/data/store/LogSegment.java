@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+/**
+ * A segment of the {@link LogDataStore} append-only log, backed by a memory-mapped file.
+ * <p>
+ * Each record is framed as {@code [length][crc][data]}, where {@code length} is the length of {@code data} and
+ * {@code crc} is its CRC32. A record with a zero length or a wrong checksum marks the end of the valid data, this
+ * allows to detect records that have been partially written before a power loss.
+ */
+final class LogSegment {
+
+    static final int HEADER_SIZE = 8;
+
+    private final long sequenceNumber;
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+
+    private int writePosition;
+    private boolean dirty;
+
+    // number of records in this segment and number of STORE records of messages that are still in the store
+    private int recordCount;
+    private int liveCount;
+
+    private LogSegment(long sequenceNumber, File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+        this.sequenceNumber = sequenceNumber;
+        this.file = file;
+        this.randomAccessFile = randomAccessFile;
+        this.buffer = buffer;
+    }
+
+    static LogSegment create(File directory, long sequenceNumber, int size) throws IOException {
+        final File file = new File(directory, fileName(sequenceNumber));
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(size);
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new LogSegment(sequenceNumber, file, randomAccessFile, buffer);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    static LogSegment open(File file, long sequenceNumber) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                    randomAccessFile.length());
+            return new LogSegment(sequenceNumber, file, randomAccessFile, buffer);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    static String fileName(long sequenceNumber) {
+        return String.format("segment-%016d.log", sequenceNumber);
+    }
+
+    static long parseSequenceNumber(String fileName) {
+        if (!fileName.startsWith("segment-") || !fileName.endsWith(".log")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring("segment-".length(), fileName.length() - ".log".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long getSequenceNumber() {
+        return this.sequenceNumber;
+    }
+
+    int getWritePosition() {
+        return this.writePosition;
+    }
+
+    int getRemaining() {
+        return this.buffer.capacity() - this.writePosition;
+    }
+
+    int getRecordCount() {
+        return this.recordCount;
+    }
+
+    int getLiveCount() {
+        return this.liveCount;
+    }
+
+    void incrementLiveCount() {
+        this.liveCount++;
+    }
+
+    void decrementLiveCount() {
+        this.liveCount--;
+    }
+
+    /**
+     * Appends a record to this segment.
+     *
+     * @return the offset of the record data in the segment
+     */
+    int append(byte[] data) {
+        final int dataOffset = this.writePosition + HEADER_SIZE;
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        final ByteBuffer view = this.buffer.duplicate();
+        view.position(this.writePosition);
+        view.putInt(data.length);
+        view.putInt((int) crc.getValue());
+        view.put(data);
+
+        this.writePosition = view.position();
+        this.recordCount++;
+        this.dirty = true;
+
+        return dataOffset;
+    }
+
+    /**
+     * Reads the next valid record starting from the current write position, and moves the write position after it.
+     * This is used to rebuild the store state after a restart.
+     *
+     * @return a buffer containing the record data, positioned at its start, or {@code null} if there are no more valid
+     *         records
+     */
+    ByteBuffer recoverNext() {
+        if (getRemaining() < HEADER_SIZE) {
+            return null;
+        }
+
+        final ByteBuffer view = this.buffer.duplicate();
+        view.position(this.writePosition);
+        final int length = view.getInt();
+        final int expectedCrc = view.getInt();
+
+        if (length <= 0 || length > view.remaining()) {
+            return null;
+        }
+
+        final byte[] data = new byte[length];
+        view.get(data);
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+
+        this.writePosition = view.position();
+        this.recordCount++;
+
+        return ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Clears the data after the write position, so that records left after a partially written one cannot be
+     * mistaken for valid records once new records are appended.
+     */
+    void clearRemaining() {
+        final ByteBuffer view = this.buffer.duplicate();
+        view.position(this.writePosition);
+        while (view.hasRemaining()) {
+            view.put((byte) 0);
+        }
+        this.dirty = true;
+    }
+
+    byte[] read(int offset, int length) {
+        final byte[] result = new byte[length];
+        final ByteBuffer view = this.buffer.duplicate();
+        view.position(offset);
+        view.get(result);
+        return result;
+    }
+
+    void force() {
+        if (this.dirty) {
+            this.buffer.force();
+            this.dirty = false;
+        }
+    }
+
+    void close() throws IOException {
+        force();
+        this.randomAccessFile.close();
+    }
+
+    void delete() throws IOException {
+        this.randomAccessFile.close();
+        Files.deleteIfExists(this.file.toPath());
+    }
+}
@@ -0,0 +1,492 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.DataStore;
+import org.eclipse.kura.db.H2DbService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A DataStore that keeps the messages matching a configurable policy in an in-memory lane, and delegates the storage
+ * of any other message to a persistent DataStore.
+ * <p>
+ * Messages in the memory lane are lost on restart, are never written to the persistent store and are returned by
+ * {@link #getNextMessage()} ahead of the persistent messages with the same or lower priority. They are identified by
+ * negative ids starting from -2, so that the lane of a message can be determined from its id. The memory lane has a
+ * bounded capacity, once it is full the matching messages are stored in the persistent store.
+ * <p>
+ * Messages published with QoS 0 are removed from the memory lane as soon as they are published, messages published
+ * with QoS > 0 once their delivery is confirmed or they are dropped. Dropped messages of the memory lane are not
+ * reported by {@link #allDroppedInFlightMessagesNoPayload()}.
+ */
+public class PriorityLaneDataStore implements DataStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityLaneDataStore.class);
+
+    private static final Comparator<MemoryMessage> PRIORITY_ORDER = Comparator
+            .<MemoryMessage> comparingInt(m -> m.priority).thenComparingLong(m -> m.sequenceNumber);
+
+    // -1 is used as "no message" by the callers tracking message IDs, e.g. the cloud service, and is never allocated
+    private static final int FIRST_MEMORY_ID = -2;
+
+    private final DataStore persistentStore;
+
+    private final Map<Integer, MemoryMessage> memoryMessages = new HashMap<>();
+    private final TreeSet<MemoryMessage> unpublishedMemoryMessages = new TreeSet<>(PRIORITY_ORDER);
+
+    private boolean memoryLaneEnabled;
+    private Pattern memoryLaneTopicPattern;
+    private int memoryLaneMaxQos;
+    private int memoryLaneMaxPriority;
+    private int memoryLaneCapacity;
+
+    private int nextId = FIRST_MEMORY_ID;
+    private long nextSequenceNumber;
+
+    public PriorityLaneDataStore(DataStore persistentStore) {
+        this.persistentStore = persistentStore;
+    }
+
+    /**
+     * Configures the policy of the memory lane. A message is stored in the memory lane if its topic matches
+     * {@code topicRegex} and either its QoS is less or equal than {@code maxQos} or its priority is less or equal than
+     * {@code maxPriority}.
+     *
+     * @param enabled
+     *            if false, all the messages are stored in the persistent store
+     * @param topicRegex
+     *            the regular expression matching the topics of the memory lane messages
+     * @param maxQos
+     *            the maximum QoS of the memory lane messages, -1 to ignore the QoS
+     * @param maxPriority
+     *            the maximum priority of the memory lane messages, -1 to ignore the priority
+     * @param capacity
+     *            the maximum number of messages kept in the memory lane
+     */
+    public synchronized void configureMemoryLane(boolean enabled, String topicRegex, int maxQos, int maxPriority,
+            int capacity) {
+        this.memoryLaneEnabled = enabled;
+        this.memoryLaneTopicPattern = Pattern.compile(topicRegex);
+        this.memoryLaneMaxQos = maxQos;
+        this.memoryLaneMaxPriority = maxPriority;
+        this.memoryLaneCapacity = capacity;
+    }
+
+    public DataStore getPersistentStore() {
+        return this.persistentStore;
+    }
+
+    // ----------------------------------------------------------
+    //
+    // Start/Stop
+    //
+    // ----------------------------------------------------------
+
+    @Override
+    public void start(H2DbService dbService, int houseKeeperInterval, int purgeAge, int capacity)
+            throws KuraStoreException {
+        this.persistentStore.start(dbService, houseKeeperInterval, purgeAge, capacity);
+    }
+
+    @Override
+    public void update(int houseKeeperInterval, int purgeAge, int capacity) {
+        this.persistentStore.update(houseKeeperInterval, purgeAge, capacity);
+    }
+
+    /**
+     * Stops the persistent store. The messages in the memory lane are retained and will be published once the
+     * persistent store is restarted.
+     */
+    @Override
+    public void stop() {
+        this.persistentStore.stop();
+    }
+
+    // ----------------------------------------------------------
+    //
+    // Message APIs
+    //
+    // ----------------------------------------------------------
+
+    @Override
+    public DataMessage store(String topic, byte[] payload, int qos, boolean retain, int priority)
+            throws KuraStoreException {
+        if (topic == null || topic.trim().length() == 0) {
+            throw new IllegalArgumentException("topic");
+        }
+
+        synchronized (this) {
+            if (isMemoryLaneAvailable(topic, qos, priority)) {
+                return storeInMemory(topic, payload, qos, retain, priority).toDataMessage(true);
+            }
+        }
+
+        return this.persistentStore.store(topic, payload, qos, retain, priority);
+    }
+
+    @Override
+    public List<DataMessage> store(List<DataMessage> messages) throws KuraStoreException {
+        final DataMessage[] result = new DataMessage[messages.size()];
+        final List<DataMessage> persistentMessages = new ArrayList<>(messages.size());
+        final List<MemoryMessage> stored = new ArrayList<>();
+
+        synchronized (this) {
+            for (int i = 0; i < result.length; i++) {
+                final DataMessage message = messages.get(i);
+                final String topic = message.getTopic();
+                if (topic == null || topic.trim().length() == 0) {
+                    removeFromMemory(stored);
+                    throw new IllegalArgumentException("topic");
+                }
+
+                if (isMemoryLaneAvailable(topic, message.getQos(), message.getPriority())) {
+                    final MemoryMessage memoryMessage = storeInMemory(topic, message.getPayload(), message.getQos(),
+                            message.isRetain(), message.getPriority());
+                    stored.add(memoryMessage);
+                    result[i] = memoryMessage.toDataMessage(true);
+                } else {
+                    persistentMessages.add(message);
+                }
+            }
+        }
+
+        if (!persistentMessages.isEmpty()) {
+            final List<DataMessage> persistentResult;
+            try {
+                persistentResult = this.persistentStore.store(persistentMessages);
+            } catch (KuraStoreException | RuntimeException e) {
+                synchronized (this) {
+                    removeFromMemory(stored);
+                }
+                throw e;
+            }
+
+            final Iterator<DataMessage> iterator = persistentResult.iterator();
+            for (int i = 0; i < result.length; i++) {
+                if (result[i] == null) {
+                    result[i] = iterator.next();
+                }
+            }
+        }
+
+        final List<DataMessage> resultList = new ArrayList<>(result.length);
+        for (final DataMessage message : result) {
+            resultList.add(message);
+        }
+        return resultList;
+    }
+
+    @Override
+    public void published(int msgId, int publishedMsgId, String sessionId) throws KuraStoreException {
+        if (!isMemoryLaneId(msgId)) {
+            this.persistentStore.published(msgId, publishedMsgId, sessionId);
+            return;
+        }
+
+        synchronized (this) {
+            markPublished(msgId, publishedMsgId, sessionId);
+        }
+    }
+
+    @Override
+    public void published(int msgId) throws KuraStoreException {
+        if (!isMemoryLaneId(msgId)) {
+            this.persistentStore.published(msgId);
+            return;
+        }
+
+        synchronized (this) {
+            markPublished(msgId, -1, null);
+        }
+    }
+
+    @Override
+    public void published(List<DataMessage> messages) throws KuraStoreException {
+        final List<DataMessage> persistentMessages = new ArrayList<>(messages.size());
+
+        synchronized (this) {
+            for (final DataMessage message : messages) {
+                if (!isMemoryLaneId(message.getId())) {
+                    persistentMessages.add(message);
+                } else if (message.getSessionId() != null) {
+                    markPublished(message.getId(), message.getPublishedMessageId(), message.getSessionId());
+                } else {
+                    markPublished(message.getId(), -1, null);
+                }
+            }
+        }
+
+        if (!persistentMessages.isEmpty()) {
+            this.persistentStore.published(persistentMessages);
+        }
+    }
+
+    @Override
+    public void confirmed(int msgId) throws KuraStoreException {
+        if (!isMemoryLaneId(msgId)) {
+            this.persistentStore.confirmed(msgId);
+            return;
+        }
+
+        synchronized (this) {
+            this.memoryMessages.remove(msgId);
+        }
+    }
+
+    @Override
+    public DataMessage getNextMessage() throws KuraStoreException {
+        final MemoryMessage next;
+        synchronized (this) {
+            next = this.unpublishedMemoryMessages.isEmpty() ? null : this.unpublishedMemoryMessages.first();
+        }
+
+        if (next != null && next.priority <= 0) {
+            // no persistent message can precede it
+            return next.toDataMessage(true);
+        }
+
+        final DataMessage persistentNext = this.persistentStore.getNextMessage();
+
+        if (next != null && (persistentNext == null || next.priority <= persistentNext.getPriority())) {
+            return next.toDataMessage(true);
+        }
+        return persistentNext;
+    }
+
+    @Override
+    public List<DataMessage> getNextMessages(int maxCount) throws KuraStoreException {
+        final List<DataMessage> memoryNext = new ArrayList<>();
+        synchronized (this) {
+            final Iterator<MemoryMessage> iterator = this.unpublishedMemoryMessages.iterator();
+            while (memoryNext.size() < maxCount && iterator.hasNext()) {
+                memoryNext.add(iterator.next().toDataMessage(true));
+            }
+        }
+
+        if (memoryNext.size() == maxCount && memoryNext.get(maxCount - 1).getPriority() <= 0) {
+            return memoryNext;
+        }
+
+        final List<DataMessage> persistentNext = this.persistentStore.getNextMessages(maxCount);
+
+        // merge the two lists, memory lane messages go first within each priority level
+        final List<DataMessage> result = new ArrayList<>(maxCount);
+        int i = 0;
+        int j = 0;
+        while (result.size() < maxCount && (i < memoryNext.size() || j < persistentNext.size())) {
+            if (j >= persistentNext.size() || i < memoryNext.size()
+                    && memoryNext.get(i).getPriority() <= persistentNext.get(j).getPriority()) {
+                result.add(memoryNext.get(i++));
+            } else {
+                result.add(persistentNext.get(j++));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DataMessage get(int msgId) throws KuraStoreException {
+        if (!isMemoryLaneId(msgId)) {
+            return this.persistentStore.get(msgId);
+        }
+
+        synchronized (this) {
+            final MemoryMessage message = this.memoryMessages.get(msgId);
+            return message != null ? message.toDataMessage(true) : null;
+        }
+    }
+
+    @Override
+    public List<DataMessage> allUnpublishedMessagesNoPayload() throws KuraStoreException {
+        final List<DataMessage> result = new ArrayList<>();
+        synchronized (this) {
+            for (final MemoryMessage message : this.unpublishedMemoryMessages) {
+                result.add(message.toDataMessage(false));
+            }
+        }
+        result.addAll(this.persistentStore.allUnpublishedMessagesNoPayload());
+        return result;
+    }
+
+    @Override
+    public List<DataMessage> allInFlightMessagesNoPayload() throws KuraStoreException {
+        final List<DataMessage> result = new ArrayList<>();
+        synchronized (this) {
+            for (final MemoryMessage message : this.memoryMessages.values()) {
+                if (message.isInFlight()) {
+                    result.add(message.toDataMessage(false));
+                }
+            }
+        }
+        result.addAll(this.persistentStore.allInFlightMessagesNoPayload());
+        return result;
+    }
+
+    @Override
+    public List<DataMessage> allDroppedInFlightMessagesNoPayload() throws KuraStoreException {
+        return this.persistentStore.allDroppedInFlightMessagesNoPayload();
+    }
+
+    @Override
+    public void unpublishAllInFlighMessages() throws KuraStoreException {
+        synchronized (this) {
+            for (final MemoryMessage message : this.memoryMessages.values()) {
+                if (message.isInFlight()) {
+                    message.publishedOn = null;
+                    message.publishedMessageId = -1;
+                    message.sessionId = null;
+                    this.unpublishedMemoryMessages.add(message);
+                }
+            }
+        }
+        this.persistentStore.unpublishAllInFlighMessages();
+    }
+
+    @Override
+    public void dropAllInFlightMessages() throws KuraStoreException {
+        synchronized (this) {
+            final Iterator<MemoryMessage> iterator = this.memoryMessages.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isInFlight()) {
+                    iterator.remove();
+                }
+            }
+        }
+        this.persistentStore.dropAllInFlightMessages();
+    }
+
+    @Override
+    public void deleteStaleMessages(int purgeAge) throws KuraStoreException {
+        this.persistentStore.deleteStaleMessages(purgeAge);
+    }
+
+    @Override
+    public void repair() throws KuraStoreException {
+        this.persistentStore.repair();
+    }
+
+    // ------------------------------------------------------------------
+    //
+    // Private Methods
+    //
+    // ------------------------------------------------------------------
+
+    private static boolean isMemoryLaneId(int msgId) {
+        return msgId < 0;
+    }
+
+    private boolean isMemoryLaneAvailable(String topic, int qos, int priority) {
+        if (!this.memoryLaneEnabled || qos > this.memoryLaneMaxQos && priority > this.memoryLaneMaxPriority) {
+            return false;
+        }
+        if (!this.memoryLaneTopicPattern.matcher(topic).matches()) {
+            return false;
+        }
+        if (this.memoryMessages.size() >= this.memoryLaneCapacity) {
+            logger.debug("Memory lane full, storing message on topic {} in the persistent store", topic);
+            return false;
+        }
+        return true;
+    }
+
+    private MemoryMessage storeInMemory(String topic, byte[] payload, int qos, boolean retain, int priority) {
+        final MemoryMessage message = new MemoryMessage(allocateId(), this.nextSequenceNumber++, topic, payload, qos,
+                retain, priority);
+        this.memoryMessages.put(message.id, message);
+        this.unpublishedMemoryMessages.add(message);
+        return message;
+    }
+
+    private void removeFromMemory(List<MemoryMessage> messages) {
+        for (final MemoryMessage message : messages) {
+            this.memoryMessages.remove(message.id);
+            this.unpublishedMemoryMessages.remove(message);
+        }
+    }
+
+    private int allocateId() {
+        int id;
+        do {
+            id = this.nextId;
+            this.nextId = id == Integer.MIN_VALUE ? FIRST_MEMORY_ID : id - 1;
+        } while (this.memoryMessages.containsKey(id));
+        return id;
+    }
+
+    private void markPublished(int msgId, int publishedMsgId, String sessionId) {
+        final MemoryMessage message = this.memoryMessages.get(msgId);
+        if (message == null) {
+            return;
+        }
+        this.unpublishedMemoryMessages.remove(message);
+
+        if (message.qos == 0) {
+            this.memoryMessages.remove(msgId);
+            return;
+        }
+        message.publishedOn = new Date();
+        message.publishedMessageId = publishedMsgId;
+        message.sessionId = sessionId;
+    }
+
+    private static final class MemoryMessage {
+
+        private final int id;
+        private final long sequenceNumber;
+        private final String topic;
+        private final byte[] payload;
+        private final int qos;
+        private final boolean retain;
+        private final int priority;
+        private final Date createdOn = new Date();
+
+        private Date publishedOn;
+        private int publishedMessageId = -1;
+        private String sessionId;
+
+        MemoryMessage(int id, long sequenceNumber, String topic, byte[] payload, int qos, boolean retain,
+                int priority) {
+            this.id = id;
+            this.sequenceNumber = sequenceNumber;
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+            this.priority = priority;
+        }
+
+        boolean isInFlight() {
+            return this.publishedOn != null;
+        }
+
+        DataMessage toDataMessage(boolean withPayload) {
+            return new DataMessage.Builder(this.id).withTopic(this.topic).withQos(this.qos).withRetain(this.retain)
+                    .withCreatedOn(this.createdOn).withPublishedOn(this.publishedOn)
+                    .withPublishedMessageId(this.publishedMessageId).withPriority(this.priority)
+                    .withSessionId(this.sessionId).withPayload(withPayload ? this.payload : null).build();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.db;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+
+/**
+ * Performs the online compaction of a file based H2 database, by rewriting the MVStore chunks having a low fill rate
+ * while the database is in use. The compaction is performed in steps, and stops when the time budget is exceeded.
+ * <p>
+ * The MVStore of the database is not exposed by the H2 public API, it is retrieved from the session of a connection.
+ */
+final class H2DbCompactor {
+
+    // the same value used by MVStore.compactFile(), the chunks to be rewritten by a step cannot be larger than this
+    private static final int REWRITE_STEP_BYTES = 16 * 1024 * 1024;
+
+    private static final int MAX_FAILED_ATTEMPTS = 3;
+
+    private static final String SQL_STORE_STATS = "SELECT SETTING_NAME, SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS "
+            + "WHERE SETTING_NAME IN ('info.FILE_SIZE', 'info.FILL_RATE', 'info.CHUNKS_FILL_RATE')";
+
+    private H2DbCompactor() {
+    }
+
+    /**
+     * Returns the size and fragmentation statistics of the database store, or {@code null} if they are not
+     * available.
+     */
+    static StoreStats getStoreStats(final Connection connection) throws SQLException {
+        long fileSize = -1;
+        int fillRate = -1;
+        int chunksFillRate = -1;
+
+        try (final Statement stmt = connection.createStatement();
+                final ResultSet rs = stmt.executeQuery(SQL_STORE_STATS)) {
+            while (rs.next()) {
+                final String name = rs.getString(1);
+                final String value = rs.getString(2);
+                if ("info.FILE_SIZE".equals(name)) {
+                    fileSize = Long.parseLong(value);
+                } else if ("info.FILL_RATE".equals(name)) {
+                    fillRate = Integer.parseInt(value);
+                } else if ("info.CHUNKS_FILL_RATE".equals(name)) {
+                    chunksFillRate = Integer.parseInt(value);
+                }
+            }
+        } catch (final NumberFormatException e) {
+            throw new SQLException("Unexpected store statistics format", e);
+        }
+
+        if (fileSize < 0 || fillRate < 0 || chunksFillRate < 0) {
+            return null;
+        }
+        return new StoreStats(fileSize, fillRate, chunksFillRate);
+    }
+
+    /**
+     * Rewrites the chunks of the database store until their fill rate reaches the target fill rate, the time budget
+     * is exceeded or no more chunks can be rewritten. Chunks written more recently than the store retention time are
+     * not rewritten.
+     *
+     * @return the number of performed compaction steps
+     * @throws SQLFeatureNotSupportedException
+     *             if online compaction is not supported for the provided connection
+     */
+    static int compact(final Connection connection, final int targetFillRate, final long timeBudgetMillis)
+            throws SQLFeatureNotSupportedException {
+        final MVStore store = getMvStore(connection);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+
+        int steps = 0;
+        int failedAttempts = 0;
+        while (System.nanoTime() < deadline && store.getChunksFillRate() < targetFillRate
+                && failedAttempts < MAX_FAILED_ATTEMPTS) {
+            // compact() also fails if the store is locked by the background writer, retry before giving up
+            if (store.compact(targetFillRate, REWRITE_STEP_BYTES)) {
+                steps++;
+                failedAttempts = 0;
+            } else {
+                failedAttempts++;
+            }
+        }
+        return steps;
+    }
+
+    private static MVStore getMvStore(final Connection connection) throws SQLFeatureNotSupportedException {
+        final Object mvStore;
+        try {
+            final Object session = connection.unwrap(JdbcConnection.class).getSession();
+            final Object database = invoke(session, "getDatabase");
+            final Object store = invoke(database, "getStore");
+            mvStore = invoke(store, "getMvStore");
+        } catch (final SQLException | ReflectiveOperationException | RuntimeException e) {
+            throw new SQLFeatureNotSupportedException("Online compaction is not supported", e);
+        }
+
+        if (!(mvStore instanceof MVStore)) {
+            throw new SQLFeatureNotSupportedException("The database is not backed by a MVStore");
+        }
+        return (MVStore) mvStore;
+    }
+
+    private static Object invoke(final Object target, final String methodName) throws ReflectiveOperationException {
+        if (target == null) {
+            throw new NoSuchMethodException(methodName);
+        }
+        final Method method = target.getClass().getMethod(methodName);
+        return method.invoke(target);
+    }
+
+    static final class StoreStats {
+
+        private final long fileSize;
+        private final int fillRate;
+        private final int chunksFillRate;
+
+        StoreStats(final long fileSize, final int fillRate, final int chunksFillRate) {
+            this.fileSize = fileSize;
+            this.fillRate = fillRate;
+            this.chunksFillRate = chunksFillRate;
+        }
+
+        long getFileSize() {
+            return this.fileSize;
+        }
+
+        int getFillRate() {
+            return this.fillRate;
+        }
+
+        int getChunksFillRate() {
+            return this.chunksFillRate;
+        }
+
+        @Override
+        public String toString() {
+            return "file size: " + this.fileSize + " bytes, fill rate: " + this.fillRate + "%, chunks fill rate: "
+                    + this.chunksFillRate + "%";
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Collections;
@@ -38,6 +39,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.core.db.H2DbCompactor.StoreStats;
+import org.eclipse.kura.core.db.H2DbServiceOptions.ExecutionMode;
 import org.eclipse.kura.crypto.CryptoService;
 import org.eclipse.kura.db.H2DbService;
 import org.h2.jdbcx.JdbcConnectionPool;
@@ -50,6 +53,7 @@ import org.slf4j.LoggerFactory;
 public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
 
     private static final String ANONYMOUS_MEM_INSTANCE_JDBC_URL = "jdbc:h2:mem:";
+    private static final long COMPACTION_IDLE_TIME_NANOS = TimeUnit.SECONDS.toNanos(1);
     private static Map<String, H2DbServiceImpl> activeInstances = Collections.synchronizedMap(new HashMap<>());
 
     private static Logger logger = LoggerFactory.getLogger(H2DbServiceImpl.class);
@@ -79,6 +83,12 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
 
     private ScheduledFuture<?> checkpointTask;
     private ScheduledFuture<?> defragTask;
+    private ScheduledFuture<?> metricsTask;
+    private ScheduledFuture<?> compactionTask;
+    private boolean isOnlineCompactionSupported = true;
+
+    private final H2DbServiceMetrics metrics = new H2DbServiceMetrics();
+    private volatile ExecutionMode executionMode = ExecutionMode.EXECUTOR;
 
     private final ReadWriteLock rwLock = new ReentrantReadWriteLock(true);
     private final AtomicInteger pendingUpdates = new AtomicInteger();
@@ -181,18 +191,26 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
         }
     }
 
-    private <T> T withConnectionInternal(ConnectionCallable<T> callable) throws SQLException {
+    private <T> T withConnectionInternal(ConnectionCallable<T> callable, long submitTimeNanos) throws SQLException {
         final Lock executorlock = this.rwLock.readLock();
         executorlock.lock();
         Connection connection = null;
+        long startTimeNanos = -1;
+        boolean failed = true;
         try {
             connection = getConnectionInternal();
-            return callable.call(connection);
+            startTimeNanos = this.metrics.callStarted(submitTimeNanos);
+            final T result = callable.call(connection);
+            failed = false;
+            return result;
         } catch (final SQLException e) {
             logger.warn("Db operation failed");
             rollback(connection);
             throw e;
         } finally {
+            if (startTimeNanos != -1) {
+                this.metrics.callCompleted(startTimeNanos, failed);
+            }
             close(connection);
             executorlock.unlock();
         }
@@ -204,11 +222,14 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
             syncWithExecutor();
         }
 
-        if (this.isOnExecutor.get()) {
-            return withConnectionInternal(callable);
+        final long submitTimeNanos = System.nanoTime();
+
+        // in DIRECT mode the caller thread runs the callable, holding the read lock as the executor threads do
+        if (this.isOnExecutor.get() || this.executionMode == ExecutionMode.DIRECT) {
+            return withConnectionInternal(callable, submitTimeNanos);
         }
 
-        final Future<T> result = this.executorService.submit(() -> withConnectionInternal(callable));
+        final Future<T> result = this.executorService.submit(() -> withConnectionInternal(callable, submitTimeNanos));
 
         try {
             return result.get();
@@ -333,6 +354,7 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
             if (newConfiguration.isFileBased()) {
                 restartCheckpointTask(newConfiguration);
                 restartDefragTask(newConfiguration);
+                restartCompactionTask(newConfiguration);
             }
 
             if (this.configuration == null
@@ -340,6 +362,9 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
                 this.executorService.setMaximumPoolSize(newConfiguration.getConnectionPoolMaxSize());
             }
 
+            this.executionMode = newConfiguration.getExecutionMode();
+            restartMetricsTask(newConfiguration);
+
             this.configuration = newConfiguration;
             activeInstances.put(baseUrl, this);
 
@@ -347,6 +372,7 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
         } catch (Exception e) {
             disposeConnectionPool();
             stopCheckpointTask();
+            stopCompactionTask();
             logger.error("Database initialization failed", e);
         } finally {
             lock.unlock();
@@ -420,6 +446,7 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
 
         stopDefragTask();
         stopCheckpointTask();
+        stopCompactionTask();
 
         Connection conn = null;
         Statement stmt = null;
@@ -528,7 +555,7 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
         if (delayMinutes <= 0) {
             return;
         }
-        this.checkpointTask = this.executor.scheduleWithFixedDelay(new DefragTask(config), delayMinutes, delayMinutes,
+        this.defragTask = this.executor.scheduleWithFixedDelay(new DefragTask(config), delayMinutes, delayMinutes,
                 TimeUnit.MINUTES);
     }
 
@@ -539,6 +566,53 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
         }
     }
 
+    private void restartCompactionTask(final H2DbServiceOptions config) {
+        stopCompactionTask();
+        final long delaySeconds = config.getCompactionIntervalSeconds();
+        if (delaySeconds <= 0 || !this.isOnlineCompactionSupported) {
+            return;
+        }
+        this.compactionTask = this.executor.scheduleWithFixedDelay(new CompactionTask(config), delaySeconds,
+                delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void stopCompactionTask() {
+        if (this.compactionTask != null) {
+            this.compactionTask.cancel(false);
+            this.compactionTask = null;
+        }
+    }
+
+    private StoreStats getStoreStats() throws SQLException {
+        final Lock lock = this.rwLock.readLock();
+        lock.lock();
+        Connection conn = null;
+        try {
+            conn = getConnectionInternal();
+            return H2DbCompactor.getStoreStats(conn);
+        } finally {
+            close(conn);
+            lock.unlock();
+        }
+    }
+
+    private void restartMetricsTask(final H2DbServiceOptions config) {
+        if (this.metricsTask != null) {
+            this.metricsTask.cancel(false);
+            this.metricsTask = null;
+        }
+        final long delaySeconds = config.getMetricsLogIntervalSeconds();
+        if (delaySeconds <= 0) {
+            return;
+        }
+        this.metricsTask = this.executor.scheduleWithFixedDelay(
+                () -> logger.info("{} metrics - {}, executor threads: {}/{}, executor queue: {}", config.getBaseUrl(),
+                        this.metrics.snapshotAndReset(config.getConnectionPoolMaxSize()),
+                        this.executorService.getActiveCount(), this.executorService.getPoolSize(),
+                        this.executorService.getQueue().size()),
+                delaySeconds, delaySeconds, TimeUnit.SECONDS);
+    }
+
     private class CheckpointTask implements Runnable {
 
         @Override
@@ -553,6 +627,49 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
         }
     }
 
+    private class CompactionTask implements Runnable {
+
+        private final H2DbServiceOptions configuration;
+
+        public CompactionTask(final H2DbServiceOptions configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public void run() {
+            if (!H2DbServiceImpl.this.metrics.isIdle(COMPACTION_IDLE_TIME_NANOS)) {
+                logger.debug("database in use, skipping compaction");
+                return;
+            }
+
+            final Lock lock = H2DbServiceImpl.this.rwLock.readLock();
+            lock.lock();
+            Connection conn = null;
+            try {
+                conn = getConnectionInternal();
+                final StoreStats stats = H2DbCompactor.getStoreStats(conn);
+                if (stats == null || stats.getChunksFillRate() >= this.configuration.getCompactionFillRate()) {
+                    logger.debug("compaction not needed, {}", stats);
+                    return;
+                }
+
+                logger.info("compacting db, {}...", stats);
+                final int steps = H2DbCompactor.compact(conn, this.configuration.getCompactionFillRate(),
+                        this.configuration.getCompactionTimeBudgetMillis());
+                logger.info("compacting db...done, {} steps, {}", steps, H2DbCompactor.getStoreStats(conn));
+            } catch (final SQLFeatureNotSupportedException e) {
+                logger.warn("online compaction is not supported, only offline defragmentation will be performed", e);
+                H2DbServiceImpl.this.isOnlineCompactionSupported = false;
+                stopCompactionTask();
+            } catch (final Exception e) {
+                logger.error("online compaction failed", e);
+            } finally {
+                close(conn);
+                lock.unlock();
+            }
+        }
+    }
+
     private class DefragTask implements Runnable {
 
         private final H2DbServiceOptions configuration;
@@ -574,8 +691,32 @@ public class H2DbServiceImpl implements H2DbService, ConfigurableComponent {
             }
         }
 
+        // when online compaction is active the offline defragmentation is only a fallback, performed if the online
+        // compaction is not able to keep the fill rate over the configured threshold
+        private boolean isDefragNeeded() {
+            if (this.configuration.getCompactionIntervalSeconds() <= 0
+                    || !H2DbServiceImpl.this.isOnlineCompactionSupported) {
+                return true;
+            }
+
+            try {
+                final StoreStats stats = getStoreStats();
+                if (stats != null && stats.getChunksFillRate() >= this.configuration.getCompactionFillRate()) {
+                    logger.info("defragmentation not needed, {}", stats);
+                    return false;
+                }
+            } catch (final SQLException e) {
+                logger.warn("failed to get store statistics", e);
+            }
+            return true;
+        }
+
         @Override
         public void run() {
+            if (!isDefragNeeded()) {
+                return;
+            }
+
             final Lock lock = H2DbServiceImpl.this.rwLock.writeLock();
             lock.lock();
             try {
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the metrics of the {@link H2DbServiceImpl#withConnection} calls. The queue wait time is the time elapsed
+ * between the call and the availability of a connection, including the time spent waiting for an executor thread, for
+ * the database lock and for the connection pool, the latency is the execution time of the callable.
+ */
+class H2DbServiceMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private final AtomicInteger maxActiveCalls = new AtomicInteger();
+    private volatile long lastCallCompletedNanos = System.nanoTime();
+
+    /**
+     * Must be called when a connection has been obtained, returns the start time of the callable execution.
+     */
+    long callStarted(final long submitTimeNanos) {
+        final long now = System.nanoTime();
+        final long queueWait = now - submitTimeNanos;
+
+        this.queueWaitNanos.add(queueWait);
+        this.maxQueueWaitNanos.accumulateAndGet(queueWait, Math::max);
+        this.maxActiveCalls.accumulateAndGet(this.activeCalls.incrementAndGet(), Math::max);
+
+        return now;
+    }
+
+    void callCompleted(final long startTimeNanos, final boolean failed) {
+        final long latency = System.nanoTime() - startTimeNanos;
+
+        this.activeCalls.decrementAndGet();
+        this.calls.increment();
+        if (failed) {
+            this.failedCalls.increment();
+        }
+        this.latencyNanos.add(latency);
+        this.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        this.lastCallCompletedNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns true if there are no calls in progress and no calls have been completed in the provided time.
+     */
+    boolean isIdle(final long idleTimeNanos) {
+        return this.activeCalls.get() == 0 && System.nanoTime() - this.lastCallCompletedNanos >= idleTimeNanos;
+    }
+
+    int getActiveCalls() {
+        return this.activeCalls.get();
+    }
+
+    long getCalls() {
+        return this.calls.sum();
+    }
+
+    /**
+     * Returns a description of the metrics collected since the last invocation, and resets them.
+     */
+    String snapshotAndReset(final int maxConnections) {
+        final long callCount = this.calls.sumThenReset();
+        final long failedCount = this.failedCalls.sumThenReset();
+        final long totalQueueWait = this.queueWaitNanos.sumThenReset();
+        final long totalLatency = this.latencyNanos.sumThenReset();
+        final long maxQueueWait = this.maxQueueWaitNanos.getAndSet(0);
+        final long maxLatency = this.maxLatencyNanos.getAndSet(0);
+        final int active = this.activeCalls.get();
+        final int maxActive = this.maxActiveCalls.getAndSet(active);
+
+        return String.format(
+                "calls: %d, failed: %d, avg queue wait: %d us, max queue wait: %d us, avg latency: %d us, "
+                        + "max latency: %d us, active connections: %d/%d, max active connections: %d/%d",
+                callCount, failedCount, toAverageMicros(totalQueueWait, callCount), toMicros(maxQueueWait),
+                toAverageMicros(totalLatency, callCount), toMicros(maxLatency), active, maxConnections, maxActive,
+                maxConnections);
+    }
+
+    private static long toAverageMicros(final long totalNanos, final long count) {
+        return count == 0 ? 0 : toMicros(totalNanos / count);
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
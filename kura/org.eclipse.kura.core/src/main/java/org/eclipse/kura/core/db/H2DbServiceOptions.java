@@ -27,6 +27,15 @@ class H2DbServiceOptions {
     private static final Property<Integer> DEFRAG_INTERVAL_MINUTES_PROP = new Property<>("db.defrag.interval.minutes",
             20);
     private static final Property<Integer> CONNECTION_POOL_MAX_SIZE = new Property<>("db.connection.pool.max.size", 10);
+    private static final Property<String> EXECUTION_MODE_PROP = new Property<>("db.execution.mode",
+            ExecutionMode.EXECUTOR.name());
+    private static final Property<Integer> METRICS_LOG_INTERVAL_SECONDS_PROP = new Property<>(
+            "db.metrics.log.interval.seconds", 0);
+    private static final Property<Integer> COMPACTION_INTERVAL_SECONDS_PROP = new Property<>(
+            "db.compaction.interval.seconds", 60);
+    private static final Property<Integer> COMPACTION_FILL_RATE_PROP = new Property<>("db.compaction.fill.rate", 50);
+    private static final Property<Integer> COMPACTION_TIME_BUDGET_MILLIS_PROP = new Property<>(
+            "db.compaction.time.budget.millis", 200);
 
     private static final Pattern FILE_LOG_LEVEL_PATTERN = generatePatternForProperty("trace_level_file");
     private static final Pattern USER_PATTERN = generatePatternForProperty("user");
@@ -40,6 +49,11 @@ class H2DbServiceOptions {
     private final long checkpointIntervalSeconds;
     private final long defragIntervalMinutes;
     private final int maxConnectionPoolSize;
+    private final ExecutionMode executionMode;
+    private final long metricsLogIntervalSeconds;
+    private final long compactionIntervalSeconds;
+    private final int compactionFillRate;
+    private final long compactionTimeBudgetMillis;
 
     private boolean isInMemory;
     private boolean isFileBased;
@@ -57,6 +71,11 @@ class H2DbServiceOptions {
         this.checkpointIntervalSeconds = CHECKPOINT_INTERVAL_SECONDS_PROP.get(properties);
         this.defragIntervalMinutes = DEFRAG_INTERVAL_MINUTES_PROP.get(properties);
         this.maxConnectionPoolSize = CONNECTION_POOL_MAX_SIZE.get(properties);
+        this.executionMode = parseExecutionMode(EXECUTION_MODE_PROP.get(properties));
+        this.metricsLogIntervalSeconds = METRICS_LOG_INTERVAL_SECONDS_PROP.get(properties);
+        this.compactionIntervalSeconds = COMPACTION_INTERVAL_SECONDS_PROP.get(properties);
+        this.compactionFillRate = Math.max(1, Math.min(99, COMPACTION_FILL_RATE_PROP.get(properties)));
+        this.compactionTimeBudgetMillis = COMPACTION_TIME_BUDGET_MILLIS_PROP.get(properties);
 
         String dbUrlProp = CONNECTOR_URL_PROP.get(properties);
 
@@ -67,6 +86,14 @@ class H2DbServiceOptions {
         computeUrlParts();
     }
 
+    private static ExecutionMode parseExecutionMode(String executionMode) {
+        try {
+            return ExecutionMode.valueOf(executionMode);
+        } catch (IllegalArgumentException e) {
+            return ExecutionMode.EXECUTOR;
+        }
+    }
+
     private static Pattern generatePatternForProperty(String property) {
         StringBuilder patternStringBuilder = new StringBuilder();
         patternStringBuilder.append(';');
@@ -186,6 +213,40 @@ class H2DbServiceOptions {
         return this.isFileBasedLogLevelSpecified;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return this.executionMode;
+    }
+
+    public long getMetricsLogIntervalSeconds() {
+        return this.metricsLogIntervalSeconds;
+    }
+
+    public long getCompactionIntervalSeconds() {
+        return this.compactionIntervalSeconds;
+    }
+
+    public int getCompactionFillRate() {
+        return this.compactionFillRate;
+    }
+
+    public long getCompactionTimeBudgetMillis() {
+        return this.compactionTimeBudgetMillis;
+    }
+
+    /**
+     * Defines the thread running the {@link org.eclipse.kura.db.H2DbService#withConnection} callables.
+     */
+    enum ExecutionMode {
+        /**
+         * The callables are run by a thread pool sized as the connection pool.
+         */
+        EXECUTOR,
+        /**
+         * The callables are run by the calling thread.
+         */
+        DIRECT
+    }
+
     private static class Property<T> {
 
         private final String key;
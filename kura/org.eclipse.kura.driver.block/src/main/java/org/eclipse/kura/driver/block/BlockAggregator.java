@@ -31,7 +31,8 @@ import java.util.stream.StreamSupport;
  * <ul>
  * <li>It does not contain prohibited blocks (see {@link ProhibitedBlock})</li>
  * <li>It does not contain overlapping blocks</li>
- * <li>For each pair of blocks (b1, b2) belonging to the set, {@code b1.getStart() != b2.getEnd()}</li>
+ * <li>For each pair of blocks (b1, b2) belonging to the set, {@code b1.getStart() != b2.getEnd()}, unless a
+ * {@code maximumBlockSize} is specified</li>
  * </ul>
  *
  * This class accepts a parameter, {@code minimumGapSize >= 0}:
@@ -46,6 +47,15 @@ import java.util.stream.StreamSupport;
  * </ul>
  *
  * <p>
+ * It is also possible to specify a {@code maximumBlockSize > 0} parameter. If specified, non overlapping input blocks
+ * will not be aggregated if the size of the resulting block would exceed {@code maximumBlockSize}. Overlapping input
+ * blocks are always aggregated, an output block can therefore exceed {@code maximumBlockSize} only if the input blocks
+ * that compose it overlap or if a single input block exceeds it.
+ * This parameter can be used if the protocol limits the size of a single request, for example the number of
+ * registers that can be read with a single Modbus request.
+ * </p>
+ *
+ * <p>
  * The input block list must not contain conflicting blocks (two overlapping blocks such as one is prohibited and the
  * other is not). If this requirement is not satisfied the aggregation process will fail (see
  * {@link BlockAggregator#stream()}).
@@ -73,6 +83,7 @@ public class BlockAggregator<T extends Block> {
     protected List<Block> blocks;
     private final BlockFactory<T> factory;
     private int minimumGapSize;
+    private int maximumBlockSize;
 
     /**
      * Creates a new {@link BlockAggregator} instance that operates on the given list of blocks.
@@ -133,6 +144,21 @@ public class BlockAggregator<T extends Block> {
         this.minimumGapSize = minimumGapSize;
     }
 
+    /**
+     * Specifies the {@code maximumBlockSize} parameter. The default for this parameter is 0, that means that the size
+     * of the output blocks is not limited.
+     *
+     * @param maximumBlockSize
+     * @throws IllegalArgumentException
+     *             If the provided argument is negative
+     */
+    public void setMaximumBlockSize(int maximumBlockSize) {
+        if (maximumBlockSize < 0) {
+            throw new IllegalArgumentException("Maximum block size paramenter must be non negative");
+        }
+        this.maximumBlockSize = maximumBlockSize;
+    }
+
     /**
      * Inserts a new {@link Block} into the input blocks list.
      *
@@ -157,6 +183,11 @@ public class BlockAggregator<T extends Block> {
             block.setEnd(Math.max(block.getEnd(), end));
         }
 
+        private boolean exceedsMaximumSize(Block block, int end) {
+            return BlockAggregator.this.maximumBlockSize > 0 && !(block instanceof ProhibitedBlock)
+                    && Math.max(block.getEnd(), end) - block.getStart() > BlockAggregator.this.maximumBlockSize;
+        }
+
         private void getNext() {
             if (!this.source.hasNext()) {
                 return;
@@ -172,7 +203,7 @@ public class BlockAggregator<T extends Block> {
                 if (this.last.getEnd() < next.getStart()) {
                     if (BlockAggregator.this.minimumGapSize > 0
                             && next.getStart() - this.last.getEnd() < BlockAggregator.this.minimumGapSize
-                            && !isTypeDifferent) {
+                            && !isTypeDifferent && !exceedsMaximumSize(this.last, next.getEnd())) {
                         extend(this.last, next.getEnd());
                         continue;
                     } else {
@@ -185,7 +216,8 @@ public class BlockAggregator<T extends Block> {
                     throw new IllegalArgumentException("Conflicting blocks: " + this.last + " " + next);
                 }
 
-                if (isTypeDifferent) {
+                if (isTypeDifferent
+                        || this.last.getEnd() == next.getStart() && exceedsMaximumSize(this.last, next.getEnd())) {
                     this.source.previous();
                     break;
                 }
@@ -106,6 +106,16 @@ public class UpdateBlockTaskAggregator extends BlockTaskAggregator {
         this.readTaskAggregator.setMinimumGapSize(minimumGapSize);
     }
 
+    /**
+     * Sets the {@code maximumBlockSize} that will be used for aggregating the {@link ToplevelBlockTask} tasks
+     * in both {@link Mode#READ} and {@link Mode#WRITE} modes.
+     */
+    @Override
+    public void setMaximumBlockSize(int maximumBlockSize) {
+        super.setMaximumBlockSize(maximumBlockSize);
+        this.readTaskAggregator.setMaximumBlockSize(maximumBlockSize);
+    }
+
     /**
      * {@inheritDoc}
      *
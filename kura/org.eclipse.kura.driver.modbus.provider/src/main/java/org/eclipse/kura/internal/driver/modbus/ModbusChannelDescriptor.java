@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.util.List;
+
+import org.eclipse.kura.core.configuration.metatype.Tad;
+import org.eclipse.kura.core.configuration.metatype.Toption;
+import org.eclipse.kura.core.configuration.metatype.Tscalar;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.util.collection.CollectionUtil;
+
+/**
+ * Modbus specific channel descriptor. The descriptor contains the following
+ * attribute definition identifiers.
+ *
+ * <ul>
+ * <li>unit.id</li> the unit identifier of the device
+ * <li>primary.table</li> the Modbus primary table
+ * <li>memory.address</li> the 1-based address of the coil or of the first register
+ * <li>modbus.data.type</li> the data type of the register table channels
+ * <li>bit.index</li> the bit index for the {@code BIT} data type
+ * <li>register.count</li> the number of registers to read for byte array channels
+ * </ul>
+ */
+public final class ModbusChannelDescriptor implements ChannelDescriptor {
+
+    public static final String UNIT_ID = "unit.id";
+    public static final String PRIMARY_TABLE_ID = "primary.table";
+    public static final String MEMORY_ADDRESS_ID = "memory.address";
+    public static final String MODBUS_DATA_TYPE_ID = "modbus.data.type";
+    public static final String BIT_INDEX_ID = "bit.index";
+    public static final String REGISTER_COUNT_ID = "register.count";
+
+    private static Toption generateOption(Enum<?> value) {
+        Toption option = new Toption();
+        option.setLabel(value.name());
+        option.setValue(value.name());
+        return option;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object getDescriptor() {
+        final List<Tad> elements = CollectionUtil.newArrayList();
+
+        final Tad unitId = new Tad();
+        unitId.setName(UNIT_ID);
+        unitId.setId(UNIT_ID);
+        unitId.setDescription("Unit ID");
+        unitId.setType(Tscalar.INTEGER);
+        unitId.setRequired(true);
+        unitId.setMin("0");
+        unitId.setMax("255");
+        unitId.setDefault("1");
+
+        elements.add(unitId);
+
+        final Tad primaryTable = new Tad();
+        primaryTable.setName(PRIMARY_TABLE_ID);
+        primaryTable.setId(PRIMARY_TABLE_ID);
+        primaryTable.setDescription("Primary Table");
+        primaryTable.setType(Tscalar.STRING);
+        primaryTable.setRequired(true);
+        primaryTable.setDefault(ModbusTable.HOLDING_REGISTERS.name());
+
+        for (ModbusTable t : ModbusTable.values()) {
+            primaryTable.setOption(generateOption(t));
+        }
+
+        elements.add(primaryTable);
+
+        final Tad address = new Tad();
+        address.setName(MEMORY_ADDRESS_ID);
+        address.setId(MEMORY_ADDRESS_ID);
+        address.setDescription("Memory Address (1-based)");
+        address.setType(Tscalar.INTEGER);
+        address.setRequired(true);
+        address.setMin("1");
+        address.setMax("65536");
+        address.setDefault("1");
+
+        elements.add(address);
+
+        final Tad dataType = new Tad();
+        dataType.setName(MODBUS_DATA_TYPE_ID);
+        dataType.setId(MODBUS_DATA_TYPE_ID);
+        dataType.setDescription("Modbus Data Type, ignored for coils and discrete inputs");
+        dataType.setType(Tscalar.STRING);
+        dataType.setRequired(true);
+        dataType.setDefault(ModbusDataType.INT16.name());
+
+        for (ModbusDataType t : ModbusDataType.values()) {
+            dataType.setOption(generateOption(t));
+        }
+
+        elements.add(dataType);
+
+        final Tad bitIndex = new Tad();
+        bitIndex.setName(BIT_INDEX_ID);
+        bitIndex.setId(BIT_INDEX_ID);
+        bitIndex.setDescription("Bit Index, 0 is the least significant bit of the register");
+        bitIndex.setType(Tscalar.INTEGER);
+        bitIndex.setRequired(true);
+        bitIndex.setMin("0");
+        bitIndex.setMax("15");
+        bitIndex.setDefault("0");
+
+        elements.add(bitIndex);
+
+        final Tad registerCount = new Tad();
+        registerCount.setName(REGISTER_COUNT_ID);
+        registerCount.setId(REGISTER_COUNT_ID);
+        registerCount.setDescription("Register Count, used by the BYTE_ARRAY and STRING value types");
+        registerCount.setType(Tscalar.INTEGER);
+        registerCount.setRequired(true);
+        registerCount.setMin("1");
+        registerCount.setDefault("1");
+
+        elements.add(registerCount);
+
+        return elements;
+    }
+
+}
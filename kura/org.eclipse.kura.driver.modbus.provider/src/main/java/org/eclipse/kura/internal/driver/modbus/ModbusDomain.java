@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+/**
+ * Identifies the (unit id, primary table) pair that a request operates on, requests for different domains are never
+ * aggregated together.
+ */
+public class ModbusDomain {
+
+    private final int unitId;
+    private final ModbusTable table;
+
+    public ModbusDomain(int unitId, ModbusTable table) {
+        this.unitId = unitId;
+        this.table = table;
+    }
+
+    public int getUnitId() {
+        return this.unitId;
+    }
+
+    public ModbusTable getTable() {
+        return this.table;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.unitId + this.table.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ModbusDomain other = (ModbusDomain) obj;
+        return this.unitId == other.unitId && this.table == other.table;
+    }
+
+    @Override
+    public String toString() {
+        return "unit id: " + this.unitId + " table: " + this.table;
+    }
+}
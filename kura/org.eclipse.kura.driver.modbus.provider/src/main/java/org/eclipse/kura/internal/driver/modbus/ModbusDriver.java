@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraConnectionStatus;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.driver.ChannelDescriptor;
+import org.eclipse.kura.driver.block.BlockFactory;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.BlockTaskAggregator;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.internal.driver.modbus.task.ModbusReadTask;
+import org.eclipse.kura.internal.driver.modbus.task.ModbusTaskBuilder;
+import org.eclipse.kura.internal.driver.modbus.task.ModbusToplevelBlockTask;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDevice;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDeviceService;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolErrorCode;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolException;
+import org.eclipse.kura.protocol.modbus.ModbusReadRequest;
+import org.eclipse.kura.protocol.modbus.ModbusReadResult;
+import org.eclipse.kura.usb.UsbService;
+import org.osgi.service.io.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Kura ModbusDriver is a Modbus TCP, RTU over TCP and serial RTU/ASCII Driver implementation for Kura
+ * Asset-Driver Topology.<br/>
+ * <br/>
+ *
+ * The driver aggregates the requests for channels having the same unit id and primary table into the minimum number
+ * of Modbus requests, the size of each request is limited by the {@code max.registers.per.request} and
+ * {@code max.coils.per.request} parameters and by the limits of the Modbus PDU.<br/>
+ * <br/>
+ *
+ * The read requests resulting from the aggregation are performed as a single batch by a {@link ModbusReadTask}, in
+ * TCP/IP mode up to {@code max.pending.transactions} requests are sent before waiting for the responses. In serial
+ * mode the requests are sent back to back, a unit that does not respond is skipped for the rest of the batch and does
+ * not cause a disconnection if other units responded.<br/>
+ * <br/>
+ *
+ * The required properties are enlisted in {@link ModbusChannelDescriptor} and
+ * the driver connection specific properties are enlisted in
+ * {@link ModbusOptions}
+ *
+ * @see ModbusChannelDescriptor
+ * @see ModbusOptions
+ */
+public class ModbusDriver extends AbstractBlockDriver<ModbusDomain> implements ConfigurableComponent {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusDriver.class);
+
+    private ModbusState state = new ModbusState(new ModbusOptions(Collections.emptyMap()), null);
+    private final AtomicReference<ModbusOptions> options = new AtomicReference<>();
+
+    private ConnectionFactory connectionFactory;
+    private UsbService usbService;
+
+    public void setConnectionFactory(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    public void unsetConnectionFactory(ConnectionFactory connectionFactory) {
+        this.connectionFactory = null;
+    }
+
+    public void setUsbService(UsbService usbService) {
+        this.usbService = usbService;
+    }
+
+    public void unsetUsbService(UsbService usbService) {
+        this.usbService = null;
+    }
+
+    public void activate(final Map<String, Object> properties) {
+        logger.debug("Activating Modbus Driver...");
+        updated(properties);
+        logger.debug("Activating Modbus Driver... Done");
+    }
+
+    public synchronized void deactivate() {
+        logger.debug("Deactivating Modbus Driver...");
+        try {
+            disconnect();
+        } catch (final ConnectionException e) {
+            logger.error("Error while disconnecting...", e);
+        }
+        logger.debug("Deactivating Modbus Driver... Done");
+    }
+
+    public void updated(final Map<String, Object> properties) {
+        logger.debug("Updating Modbus Driver...");
+        this.options.set(new ModbusOptions(properties));
+        logger.debug("Updating Modbus Driver... Done");
+    }
+
+    @Override
+    public synchronized void connect() throws ConnectionException {
+        final ModbusOptions currentOptions = this.options.get();
+
+        if (this.state.options != currentOptions) {
+            logger.info("configuration changed, disconnecting...");
+            disconnect();
+            this.state = new ModbusState(currentOptions, null);
+            logger.info("configuration changed, disconnecting...Done");
+        }
+
+        try {
+            if (this.state.device == null) {
+                this.state = new ModbusState(currentOptions, createDevice(currentOptions));
+            }
+
+            if (this.state.device.getConnectStatus() != KuraConnectionStatus.CONNECTED) {
+                logger.debug("Connecting to Modbus device...");
+                this.state.device.connect();
+                if (this.state.device.getConnectStatus() != KuraConnectionStatus.CONNECTED) {
+                    throw new ConnectionException("Failed to connect to Modbus device");
+                }
+                logger.debug("Connecting to Modbus device... Done");
+            }
+        } catch (ConnectionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConnectionException("Connection failed, unexpected exception", e);
+        }
+    }
+
+    @Override
+    public synchronized void disconnect() throws ConnectionException {
+        final ModbusProtocolDeviceService device = this.state.device;
+
+        if (device != null) {
+            logger.debug("Disconnecting from Modbus device...");
+            // the device needs to be configured again after disconnection
+            this.state = new ModbusState(this.state.options, null);
+            try {
+                device.disconnect();
+            } catch (ModbusProtocolException e) {
+                throw new ConnectionException(e);
+            }
+            logger.debug("Disconnecting from Modbus device... Done");
+        }
+    }
+
+    protected ModbusProtocolDeviceService createDevice(final ModbusOptions options) throws ModbusProtocolException {
+        final ModbusProtocolDevice device = new ModbusProtocolDevice();
+        device.setConnectionFactory(this.connectionFactory);
+        device.setUsbService(this.usbService);
+        device.configureConnection(options.toConnectionConfig());
+        return device;
+    }
+
+    @Override
+    protected int getReadMinimumGapSizeForDomain(ModbusDomain domain) {
+        final int minimumGapSize = this.options.get().getMinimumGapSize();
+        return domain.getTable().isRegisterTable() ? minimumGapSize * 2 : minimumGapSize;
+    }
+
+    @Override
+    protected void beforeAggregation(ModbusDomain domain, Mode mode, BlockTaskAggregator aggregator) {
+        final ModbusOptions currentOptions = this.options.get();
+
+        if (domain.getTable().isRegisterTable()) {
+            final int maxRegisters = mode == Mode.READ ? currentOptions.getMaxReadRegisters()
+                    : currentOptions.getMaxWriteRegisters();
+            aggregator.setMaximumBlockSize(maxRegisters * 2);
+        } else {
+            aggregator.setMaximumBlockSize(
+                    mode == Mode.READ ? currentOptions.getMaxReadCoils() : currentOptions.getMaxWriteCoils());
+        }
+    }
+
+    @Override
+    protected List<BlockTask> optimize(final List<ChannelRecord> records, final Mode mode) throws KuraException {
+        final List<BlockTask> tasks = super.optimize(records, mode);
+
+        final List<ModbusToplevelBlockTask> readTasks = new ArrayList<>();
+        final List<BlockTask> otherTasks = new ArrayList<>();
+
+        for (final BlockTask task : tasks) {
+            if (task.getMode() == Mode.READ && task instanceof ModbusToplevelBlockTask) {
+                readTasks.add((ModbusToplevelBlockTask) task);
+            } else {
+                otherTasks.add(task);
+            }
+        }
+
+        if (readTasks.isEmpty()) {
+            return tasks;
+        }
+
+        // read tasks must run first, they provide the data for the read-update-write operations
+        final List<BlockTask> result = new ArrayList<>(otherTasks.size() + 1);
+        result.add(new ModbusReadTask(this, readTasks, this.options.get().isSerial()));
+        result.addAll(otherTasks);
+        return result;
+    }
+
+    @Override
+    protected BlockFactory<ToplevelBlockTask> getTaskFactoryForDomain(final ModbusDomain domain, final Mode mode) {
+        return (start, end) -> new ModbusToplevelBlockTask(ModbusDriver.this, domain, mode, start, end);
+    }
+
+    @Override
+    protected Stream<Pair<ModbusDomain, BlockTask>> toTasks(List<ChannelRecord> records, Mode mode) {
+        return ModbusTaskBuilder.build(records, mode);
+    }
+
+    @Override
+    public ChannelDescriptor getChannelDescriptor() {
+        return new ModbusChannelDescriptor();
+    }
+
+    @Override
+    protected void runTask(BlockTask task) {
+        try {
+            task.run();
+        } catch (ModbusIOException e) {
+            handleModbusIOException(e);
+        } catch (Exception e) {
+            logger.warn("Unexpected exception", e);
+        }
+    }
+
+    private void handleModbusIOException(ModbusIOException e) {
+        logger.warn("Operation failed due to IO error", e);
+        if (e.isConnectionProblem()) {
+            logger.warn("Connection problems detected, disconnecting, will attempt to reconnect at next read/write");
+            try {
+                disconnect();
+            } catch (ConnectionException e1) {
+                logger.warn("Unable to Disconnect...", e1);
+            }
+        }
+    }
+
+    private ModbusProtocolDeviceService getDevice() throws IOException {
+        final ModbusProtocolDeviceService device = this.state.device;
+        if (device == null) {
+            throw new ModbusIOException("Not connected", ModbusProtocolErrorCode.NOT_CONNECTED);
+        }
+        return device;
+    }
+
+    public synchronized int[] readRegisters(ModbusDomain domain, int address, int count) throws IOException {
+        try {
+            if (domain.getTable() == ModbusTable.HOLDING_REGISTERS) {
+                return getDevice().readHoldingRegisters(domain.getUnitId(), address, count);
+            } else {
+                return getDevice().readInputRegisters(domain.getUnitId(), address, count);
+            }
+        } catch (ModbusProtocolException e) {
+            throw new ModbusIOException(domain, address, count, e);
+        }
+    }
+
+    /**
+     * Performs the provided read requests as a single batch, see {@link ModbusProtocolDeviceService#read(List)}. The
+     * failures of the single requests are reported by the returned results.
+     *
+     * @throws IOException
+     *             if the driver is not connected
+     */
+    public synchronized List<ModbusReadResult> readAll(List<ModbusReadRequest> requests) throws IOException {
+        return getDevice().read(requests);
+    }
+
+    public synchronized boolean[] readBits(ModbusDomain domain, int address, int count) throws IOException {
+        try {
+            if (domain.getTable() == ModbusTable.COILS) {
+                return getDevice().readCoils(domain.getUnitId(), address, count);
+            } else {
+                return getDevice().readDiscreteInputs(domain.getUnitId(), address, count);
+            }
+        } catch (ModbusProtocolException e) {
+            throw new ModbusIOException(domain, address, count, e);
+        }
+    }
+
+    public synchronized void writeRegisters(ModbusDomain domain, int address, int[] registers) throws IOException {
+        try {
+            if (registers.length == 1) {
+                getDevice().writeSingleRegister(domain.getUnitId(), address, registers[0]);
+            } else {
+                getDevice().writeMultipleRegister(domain.getUnitId(), address, registers);
+            }
+        } catch (ModbusProtocolException e) {
+            throw new ModbusIOException(domain, address, registers.length, e);
+        }
+    }
+
+    public synchronized void writeCoils(ModbusDomain domain, int address, boolean[] coils) throws IOException {
+        try {
+            if (coils.length == 1) {
+                getDevice().writeSingleCoil(domain.getUnitId(), address, coils[0]);
+            } else {
+                getDevice().writeMultipleCoils(domain.getUnitId(), address, coils);
+            }
+        } catch (ModbusProtocolException e) {
+            throw new ModbusIOException(domain, address, coils.length, e);
+        }
+    }
+
+    public static final class ModbusIOException extends IOException {
+
+        private static final long serialVersionUID = 2290306484316286521L;
+        private final ModbusProtocolErrorCode code;
+
+        ModbusIOException(String message, ModbusProtocolErrorCode code) {
+            super(message);
+            this.code = code;
+        }
+
+        public ModbusIOException(ModbusDomain domain, int address, int count, ModbusProtocolException cause) {
+            super(domain + " address: " + address + " count: " + count + " status: " + cause.getCode(), cause);
+            this.code = cause.getCode();
+        }
+
+        public ModbusProtocolErrorCode getCode() {
+            return this.code;
+        }
+
+        /**
+         * Returns true if this exception is not caused by an invalid address or data type, the driver disconnects
+         * and attempts to reconnect at the next operation in this case.
+         */
+        public boolean isConnectionProblem() {
+            return this.code != ModbusProtocolErrorCode.INVALID_DATA_ADDRESS
+                    && this.code != ModbusProtocolErrorCode.INVALID_DATA_TYPE;
+        }
+    }
+
+    static final class ModbusState {
+
+        private final ModbusOptions options;
+        private final ModbusProtocolDeviceService device;
+
+        ModbusState(final ModbusOptions options, final ModbusProtocolDeviceService device) {
+            this.options = options;
+            this.device = device;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDevice;
+
+final class ModbusOptions {
+
+    static final int MAX_READ_REGISTERS = 125;
+    static final int MAX_WRITE_REGISTERS = 123;
+    static final int MAX_READ_COILS = 2000;
+    static final int MAX_WRITE_COILS = 1968;
+
+    private static final Property<String> CONNECTION_TYPE_PROP = new Property<>("connection.type",
+            ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_ETHER_TCP);
+    private static final Property<String> IP_ADDRESS_PROP = new Property<>("ip.address", "");
+    private static final Property<Integer> PORT_PROP = new Property<>("port", 502);
+    private static final Property<String> SERIAL_PORT_PROP = new Property<>("serial.port", "/dev/ttyUSB0");
+    private static final Property<Integer> SERIAL_BAUDRATE_PROP = new Property<>("serial.baudrate", 9600);
+    private static final Property<Integer> SERIAL_DATA_BITS_PROP = new Property<>("serial.data.bits", 8);
+    private static final Property<Integer> SERIAL_STOP_BITS_PROP = new Property<>("serial.stop.bits", 1);
+    private static final Property<Integer> SERIAL_PARITY_PROP = new Property<>("serial.parity", 0);
+    private static final Property<String> TRANSMISSION_MODE_PROP = new Property<>("transmission.mode", "RTU");
+    private static final Property<Integer> TIMEOUT_PROP = new Property<>("timeout.ms", 1000);
+    private static final Property<Integer> MINIMUM_GAP_SIZE_PROP = new Property<>("read.minimum.gap.size", 0);
+    private static final Property<Integer> MAX_REGISTERS_PROP = new Property<>("max.registers.per.request",
+            MAX_READ_REGISTERS);
+    private static final Property<Integer> MAX_COILS_PROP = new Property<>("max.coils.per.request", MAX_READ_COILS);
+    private static final Property<Integer> MAX_PENDING_TRANSACTIONS_PROP = new Property<>("max.pending.transactions",
+            1);
+
+    private final String connectionType;
+    private final String ipAddress;
+    private final int port;
+    private final String serialPort;
+    private final int serialBaudrate;
+    private final int serialDataBits;
+    private final int serialStopBits;
+    private final int serialParity;
+    private final String transmissionMode;
+    private final int timeout;
+    private final int minimumGapSize;
+    private final int maxRegisters;
+    private final int maxCoils;
+    private final int maxPendingTransactions;
+
+    ModbusOptions(final Map<String, Object> properties) {
+        this.connectionType = CONNECTION_TYPE_PROP.get(properties);
+        this.ipAddress = IP_ADDRESS_PROP.get(properties);
+        this.port = PORT_PROP.get(properties);
+        this.serialPort = SERIAL_PORT_PROP.get(properties);
+        this.serialBaudrate = SERIAL_BAUDRATE_PROP.get(properties);
+        this.serialDataBits = SERIAL_DATA_BITS_PROP.get(properties);
+        this.serialStopBits = SERIAL_STOP_BITS_PROP.get(properties);
+        this.serialParity = SERIAL_PARITY_PROP.get(properties);
+        this.transmissionMode = TRANSMISSION_MODE_PROP.get(properties);
+        this.timeout = TIMEOUT_PROP.get(properties);
+        this.minimumGapSize = Math.max(0, MINIMUM_GAP_SIZE_PROP.get(properties));
+        this.maxRegisters = clamp(MAX_REGISTERS_PROP.get(properties), MAX_READ_REGISTERS);
+        this.maxCoils = clamp(MAX_COILS_PROP.get(properties), MAX_READ_COILS);
+        this.maxPendingTransactions = Math.max(1, MAX_PENDING_TRANSACTIONS_PROP.get(properties));
+    }
+
+    String getConnectionType() {
+        return this.connectionType;
+    }
+
+    boolean isSerial() {
+        return ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL.equals(this.connectionType);
+    }
+
+    int getTimeout() {
+        return this.timeout;
+    }
+
+    int getMinimumGapSize() {
+        return this.minimumGapSize;
+    }
+
+    int getMaxReadRegisters() {
+        return this.maxRegisters;
+    }
+
+    int getMaxWriteRegisters() {
+        return Math.min(this.maxRegisters, MAX_WRITE_REGISTERS);
+    }
+
+    int getMaxReadCoils() {
+        return this.maxCoils;
+    }
+
+    int getMaxWriteCoils() {
+        return Math.min(this.maxCoils, MAX_WRITE_COILS);
+    }
+
+    int getMaxPendingTransactions() {
+        return this.maxPendingTransactions;
+    }
+
+    /**
+     * Returns the connection configuration in the format expected by
+     * {@link org.eclipse.kura.protocol.modbus.ModbusProtocolDeviceService#configureConnection(Properties)}.
+     */
+    Properties toConnectionConfig() {
+        final Properties result = new Properties();
+
+        result.setProperty("connectionType", this.connectionType);
+        result.setProperty("transmissionMode", this.transmissionMode);
+        result.setProperty("respTimeout", Integer.toString(this.timeout));
+
+        if (isSerial()) {
+            result.setProperty("port", this.serialPort);
+            result.setProperty("baudRate", Integer.toString(this.serialBaudrate));
+            result.setProperty("bitsPerWord", Integer.toString(this.serialDataBits));
+            result.setProperty("stopBits", Integer.toString(this.serialStopBits));
+            result.setProperty("parity", Integer.toString(this.serialParity));
+        } else {
+            result.setProperty("ipAddress", this.ipAddress);
+            result.setProperty("ethport", Integer.toString(this.port));
+            result.setProperty("maxPendingTransactions", Integer.toString(this.maxPendingTransactions));
+        }
+
+        return result;
+    }
+
+    private static int clamp(final int value, final int max) {
+        return Math.min(Math.max(1, value), max);
+    }
+
+    private static class Property<T> {
+
+        private final String key;
+        private final T defaultValue;
+
+        public Property(String key, T defaultValue) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(Map<String, Object> properties) {
+            final Object value = properties.get(this.key);
+            if (this.defaultValue.getClass().isInstance(value)) {
+                return (T) value;
+            }
+            return this.defaultValue;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus;
+
+/**
+ * The Modbus primary tables. Coils and discrete inputs are single bit tables, input registers and holding registers
+ * are 16 bit tables.
+ */
+public enum ModbusTable {
+
+    COILS(false, false),
+    DISCRETE_INPUTS(false, true),
+    INPUT_REGISTERS(true, true),
+    HOLDING_REGISTERS(true, false);
+
+    private final boolean isRegisterTable;
+    private final boolean isReadOnly;
+
+    private ModbusTable(final boolean isRegisterTable, final boolean isReadOnly) {
+        this.isRegisterTable = isRegisterTable;
+        this.isReadOnly = isReadOnly;
+    }
+
+    public boolean isRegisterTable() {
+        return this.isRegisterTable;
+    }
+
+    public boolean isReadOnly() {
+        return this.isReadOnly;
+    }
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.io.IOException;
+
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.block.task.ChannelBlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.type.BooleanValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads or writes a single coil or discrete input. The buffer of a {@link ModbusToplevelBlockTask} operating on a
+ * single bit table contains a byte for each coil, set to 1 if the coil is on and to 0 otherwise.
+ */
+public class CoilTask extends ChannelBlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoilTask.class);
+
+    public CoilTask(ChannelRecord record, int address, Mode mode) {
+        super(record, address, address + 1, mode);
+    }
+
+    @Override
+    public void run() throws IOException {
+        final ToplevelBlockTask parent = getParent();
+        final Buffer buffer = parent.getBuffer();
+
+        if (getMode() == Mode.READ) {
+            final boolean value = buffer.get(getStart() - parent.getStart()) != 0;
+
+            logger.debug("Read coil: address: {} value: {}", getStart(), value);
+
+            this.record.setValue(new BooleanValue(value));
+            onSuccess();
+        } else {
+            final boolean value = (Boolean) this.record.getValue().getValue();
+
+            logger.debug("Write coil: address: {} value: {}", getStart(), value);
+
+            buffer.put(getStart() - parent.getStart(), (byte) (value ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.internal.driver.modbus.ModbusDriver;
+import org.eclipse.kura.internal.driver.modbus.ModbusDriver.ModbusIOException;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolErrorCode;
+import org.eclipse.kura.protocol.modbus.ModbusReadRequest;
+import org.eclipse.kura.protocol.modbus.ModbusReadResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the buffers of a list of {@link ModbusToplevelBlockTask} instances, possibly belonging to different domains,
+ * performing their requests as a single batch with {@link ModbusDriver#readAll(List)}.
+ * <p>
+ * A failed request only affects the children of the corresponding task. Once all the tasks have been completed,
+ * {@link #run()} rethrows the first failure reporting a connection problem, or the first failure if there is none,
+ * so that the driver disconnects if needed.
+ * <p>
+ * On a serial line the units share the bus, a response timeout only means that a unit is offline if other units
+ * answered in the same batch. The connection is kept in this case, and the serial transport polls the remaining units
+ * without waiting for the offline one again.
+ */
+public class ModbusReadTask extends BlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusReadTask.class);
+
+    private final ModbusDriver driver;
+    private final List<ModbusToplevelBlockTask> tasks;
+    private final boolean sharedBus;
+
+    /**
+     * @param sharedBus
+     *            true if the units are polled over a serial line, see the class description
+     */
+    public ModbusReadTask(ModbusDriver driver, List<ModbusToplevelBlockTask> tasks, boolean sharedBus) {
+        super(0, 0, Mode.READ);
+        this.driver = driver;
+        this.tasks = new ArrayList<>(tasks);
+        this.sharedBus = sharedBus;
+    }
+
+    public List<ModbusToplevelBlockTask> getTasks() {
+        return this.tasks;
+    }
+
+    @Override
+    public void run() throws IOException {
+        final List<ModbusReadRequest> requests = new ArrayList<>(this.tasks.size());
+        for (ModbusToplevelBlockTask task : this.tasks) {
+            requests.add(task.getReadRequest());
+        }
+
+        logger.debug("Reading from Modbus device, requests: {}", requests.size());
+
+        final List<ModbusReadResult> results;
+        try {
+            results = this.driver.readAll(requests);
+        } catch (IOException e) {
+            onFailure(e);
+            throw e;
+        }
+
+        IOException failure = null;
+        boolean responded = false;
+
+        for (int i = 0; i < this.tasks.size(); i++) {
+            final ModbusReadResult result = results.get(i);
+            responded |= result.isSuccessful();
+            try {
+                this.tasks.get(i).completeRead(result);
+            } catch (IOException e) {
+                if (failure == null || getSeverity(e) > getSeverity(failure)) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure == null) {
+            return;
+        }
+        if (this.sharedBus && responded && isResponseTimeout(failure)) {
+            logger.warn("Some units did not respond", failure);
+            return;
+        }
+        throw failure;
+    }
+
+    private static int getSeverity(final IOException e) {
+        if (!(e instanceof ModbusIOException) || !((ModbusIOException) e).isConnectionProblem()) {
+            return 0;
+        }
+        return isResponseTimeout(e) ? 1 : 2;
+    }
+
+    private static boolean isResponseTimeout(final IOException e) {
+        return e instanceof ModbusIOException
+                && ((ModbusIOException) e).getCode() == ModbusProtocolErrorCode.RESPONSE_TIMEOUT;
+    }
+
+    @Override
+    public void onSuccess() {
+        for (ModbusToplevelBlockTask task : this.tasks) {
+            task.onSuccess();
+        }
+    }
+
+    @Override
+    public void onFailure(Exception exception) {
+        for (ModbusToplevelBlockTask task : this.tasks) {
+            task.onFailure(exception);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.eclipse.kura.KuraErrorCode;
+import org.eclipse.kura.KuraException;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.channel.ChannelStatus;
+import org.eclipse.kura.driver.binary.BinaryData;
+import org.eclipse.kura.driver.binary.BinaryDataTypes;
+import org.eclipse.kura.driver.block.task.AbstractBlockDriver.Pair;
+import org.eclipse.kura.driver.block.task.BinaryDataTask;
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.ByteArrayTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.StringTask;
+import org.eclipse.kura.internal.driver.modbus.ModbusChannelDescriptor;
+import org.eclipse.kura.internal.driver.modbus.ModbusDataType;
+import org.eclipse.kura.internal.driver.modbus.ModbusDomain;
+import org.eclipse.kura.internal.driver.modbus.ModbusTable;
+import org.eclipse.kura.type.DataType;
+
+public final class ModbusTaskBuilder {
+
+    private ModbusTaskBuilder() {
+    }
+
+    private static int getIntProperty(ChannelRecord record, String propertyName, String failureMessage)
+            throws KuraException {
+        try {
+            return Integer.parseInt(record.getChannelConfig().get(propertyName).toString());
+        } catch (Exception e) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, failureMessage);
+        }
+    }
+
+    private static <T extends Enum<T>> T getEnumProperty(ChannelRecord record, String propertyName, Class<T> type,
+            String failureMessage) throws KuraException {
+        try {
+            return Enum.valueOf(type, record.getChannelConfig().get(propertyName).toString());
+        } catch (Exception e) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, failureMessage);
+        }
+    }
+
+    private static void assertChannelType(ChannelRecord record, DataType channelType) throws KuraException {
+        if (channelType != record.getValueType()) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Channel Value Type must be " + channelType);
+        }
+    }
+
+    private static ModbusDomain getDomain(ChannelRecord record) throws KuraException {
+        final int unitId = getIntProperty(record, ModbusChannelDescriptor.UNIT_ID, "Error while retrieving Unit ID");
+        final ModbusTable table = getEnumProperty(record, ModbusChannelDescriptor.PRIMARY_TABLE_ID, ModbusTable.class,
+                "Error while retrieving Primary Table");
+        return new ModbusDomain(unitId, table);
+    }
+
+    private static BlockTask build(ChannelRecord record, ModbusDomain domain, Mode mode) throws KuraException {
+
+        if (mode == Mode.WRITE && domain.getTable().isReadOnly()) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR,
+                    "Primary Table " + domain.getTable() + " is read only");
+        }
+
+        final int address = getIntProperty(record, ModbusChannelDescriptor.MEMORY_ADDRESS_ID,
+                "Error while retrieving Memory Address") - 1;
+
+        if (address < 0 || address > 0xffff) {
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Memory Address must be between 1 and 65536");
+        }
+
+        if (!domain.getTable().isRegisterTable()) {
+            assertChannelType(record, DataType.BOOLEAN);
+            return new CoilTask(record, address, mode);
+        }
+
+        final int offset = address * 2;
+        final DataType type = record.getValueType();
+
+        if (type == DataType.BYTE_ARRAY) {
+
+            final int registerCount = getIntProperty(record, ModbusChannelDescriptor.REGISTER_COUNT_ID,
+                    "Error while retrieving Register Count");
+            return new ByteArrayTask(record, offset, offset + registerCount * 2, mode);
+
+        } else if (type == DataType.STRING) {
+
+            final int registerCount = getIntProperty(record, ModbusChannelDescriptor.REGISTER_COUNT_ID,
+                    "Error while retrieving Register Count");
+            return new StringTask(record, offset, offset + registerCount * 2, mode);
+
+        }
+
+        final ModbusDataType modbusDataType = getEnumProperty(record, ModbusChannelDescriptor.MODBUS_DATA_TYPE_ID,
+                ModbusDataType.class, "Error while retrieving Modbus Data Type");
+
+        if (modbusDataType == ModbusDataType.BIT) {
+
+            assertChannelType(record, DataType.BOOLEAN);
+            final int bitIndex = getIntProperty(record, ModbusChannelDescriptor.BIT_INDEX_ID,
+                    "Error while retrieving Bit Index");
+            if (bitIndex < 0 || bitIndex > 15) {
+                throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Bit Index must be between 0 and 15");
+            }
+            return new RegisterBitTask(record, offset, bitIndex, mode == Mode.WRITE ? Mode.UPDATE : Mode.READ);
+
+        }
+
+        return new BinaryDataTask<>(record, offset, getBinaryDataType(modbusDataType), type, mode);
+    }
+
+    private static BinaryData<?> getBinaryDataType(ModbusDataType modbusDataType) throws KuraException {
+        switch (modbusDataType) {
+        case INT16:
+            return BinaryDataTypes.INT16_BE;
+        case UINT16:
+            return BinaryDataTypes.UINT16_BE;
+        case INT32:
+            return BinaryDataTypes.INT32_BE;
+        case UINT32:
+            return BinaryDataTypes.UINT32_BE;
+        case INT64:
+            return BinaryDataTypes.INT64_BE;
+        case FLOAT:
+            return BinaryDataTypes.FLOAT_BE;
+        case DOUBLE:
+            return BinaryDataTypes.DOUBLE_BE;
+        default:
+            throw new KuraException(KuraErrorCode.CONFIGURATION_ERROR, "Unable to determine operation");
+        }
+    }
+
+    public static Stream<Pair<ModbusDomain, BlockTask>> build(List<ChannelRecord> records, Mode mode) {
+        return records.stream().map(record -> {
+            try {
+                final ModbusDomain domain = getDomain(record);
+                return new Pair<ModbusDomain, BlockTask>(domain, build(record, domain, mode));
+            } catch (Exception e) {
+                record.setTimestamp(System.currentTimeMillis());
+                record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, e.getMessage(), e));
+                return null;
+            }
+        }).filter(Objects::nonNull);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import java.io.IOException;
+
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.binary.ByteArrayBuffer;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.internal.driver.modbus.ModbusDomain;
+import org.eclipse.kura.internal.driver.modbus.ModbusDriver;
+import org.eclipse.kura.internal.driver.modbus.ModbusDriver.ModbusIOException;
+import org.eclipse.kura.internal.driver.modbus.ModbusTable;
+import org.eclipse.kura.protocol.modbus.ModbusReadRequest;
+import org.eclipse.kura.protocol.modbus.ModbusReadResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs a single Modbus request for a contiguous range of coils or registers.
+ * <p>
+ * The block addresses of the tasks operating on single bit tables are coil addresses, the buffer contains a byte for
+ * each coil. The block addresses of the tasks operating on register tables are byte addresses ({@code 2 * register
+ * address}), the buffer contains the register values in big endian byte order.
+ */
+public class ModbusToplevelBlockTask extends ToplevelBlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusToplevelBlockTask.class);
+
+    private final ModbusDriver driver;
+    private final ModbusDomain domain;
+    private final boolean isRegisterTable;
+    private ByteArrayBuffer data;
+
+    public ModbusToplevelBlockTask(ModbusDriver driver, ModbusDomain domain, Mode mode, int start, int end) {
+        super(start, end, mode);
+        this.driver = driver;
+        this.domain = domain;
+        this.isRegisterTable = domain.getTable().isRegisterTable();
+    }
+
+    @Override
+    public void processBuffer() throws IOException {
+        final byte[] buffer = ((ByteArrayBuffer) getBuffer()).getBackingArray();
+
+        if (this.isRegisterTable) {
+            final int address = getStart() / 2;
+            final int count = buffer.length / 2;
+
+            if (getMode() == Mode.READ) {
+                logger.debug("Reading registers, {} address: {} count: {}", this.domain, address, count);
+                fillRegisters(this.driver.readRegisters(this.domain, address, count));
+            } else {
+                logger.debug("Writing registers, {} address: {} count: {}", this.domain, address, count);
+                final int[] registers = new int[count];
+                for (int i = 0; i < count; i++) {
+                    registers[i] = (buffer[2 * i] & 0xff) << 8 | buffer[2 * i + 1] & 0xff;
+                }
+                this.driver.writeRegisters(this.domain, address, registers);
+            }
+        } else {
+            final int address = getStart();
+            final int count = buffer.length;
+
+            if (getMode() == Mode.READ) {
+                logger.debug("Reading bits, {} address: {} count: {}", this.domain, address, count);
+                fillBits(this.driver.readBits(this.domain, address, count));
+            } else {
+                logger.debug("Writing coils, {} address: {} count: {}", this.domain, address, count);
+                final boolean[] coils = new boolean[count];
+                for (int i = 0; i < count; i++) {
+                    coils[i] = buffer[i] != 0;
+                }
+                this.driver.writeCoils(this.domain, address, coils);
+            }
+        }
+    }
+
+    /**
+     * Returns the request that reads the buffer of this task, used by a {@link ModbusReadTask}.
+     */
+    ModbusReadRequest getReadRequest() {
+        final int unitId = this.domain.getUnitId();
+        final ModbusTable table = this.domain.getTable();
+
+        if (table == ModbusTable.HOLDING_REGISTERS) {
+            return ModbusReadRequest.readHoldingRegisters(unitId, getStart() / 2, (getEnd() - getStart()) / 2);
+        } else if (table == ModbusTable.INPUT_REGISTERS) {
+            return ModbusReadRequest.readInputRegisters(unitId, getStart() / 2, (getEnd() - getStart()) / 2);
+        } else if (table == ModbusTable.COILS) {
+            return ModbusReadRequest.readCoils(unitId, getStart(), getEnd() - getStart());
+        } else {
+            return ModbusReadRequest.readDiscreteInputs(unitId, getStart(), getEnd() - getStart());
+        }
+    }
+
+    /**
+     * Completes a read performed by a {@link ModbusReadTask}, the children are run if the request of this task
+     * succeeded.
+     */
+    void completeRead(final ModbusReadResult result) throws IOException {
+        try {
+            if (!result.isSuccessful()) {
+                final ModbusReadRequest request = result.getRequest();
+                throw new ModbusIOException(this.domain, request.getDataAddress(), request.getCount(),
+                        result.getException());
+            }
+            if (this.isRegisterTable) {
+                fillRegisters(result.getRegisters());
+            } else {
+                fillBits(result.getBits());
+            }
+            runChildren();
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    private void fillRegisters(final int[] registers) {
+        final byte[] buffer = ((ByteArrayBuffer) getBuffer()).getBackingArray();
+        final int count = buffer.length / 2;
+
+        for (int i = 0; i < count && i < registers.length; i++) {
+            buffer[2 * i] = (byte) (registers[i] >> 8);
+            buffer[2 * i + 1] = (byte) registers[i];
+        }
+    }
+
+    private void fillBits(final boolean[] bits) {
+        final byte[] buffer = ((ByteArrayBuffer) getBuffer()).getBackingArray();
+
+        for (int i = 0; i < buffer.length && i < bits.length; i++) {
+            buffer[i] = (byte) (bits[i] ? 1 : 0);
+        }
+    }
+
+    @Override
+    public Buffer getBuffer() {
+        if (this.data == null) {
+            this.data = new ByteArrayBuffer(new byte[getEnd() - getStart()]);
+        }
+        return this.data;
+    }
+
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.modbus.task;
+
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.binary.Buffer;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.driver.block.task.UpdateBlockTask;
+import org.eclipse.kura.type.BooleanValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads or updates a single bit of a register. The task spans the whole register, so that in {@link Mode#UPDATE}
+ * mode the other bits of the register are written back with the value previously read from the device.
+ */
+public class RegisterBitTask extends UpdateBlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisterBitTask.class);
+
+    private final int bit;
+
+    public RegisterBitTask(ChannelRecord record, int offset, int bit, Mode mode) {
+        super(record, offset, offset + 2, mode);
+        this.bit = bit;
+    }
+
+    private int getRegister(Buffer buffer, int offset) {
+        return (buffer.get(offset) & 0xff) << 8 | buffer.get(offset + 1) & 0xff;
+    }
+
+    @Override
+    protected void runRead() {
+        final ToplevelBlockTask parent = getParent();
+
+        final boolean result = (getRegister(parent.getBuffer(), getStart() - parent.getStart()) >> this.bit
+                & 0x01) == 1;
+
+        logger.debug("Reading Bit: offset {} bit index {} result {}", getStart(), this.bit, result);
+
+        this.record.setValue(new BooleanValue(result));
+        onSuccess();
+    }
+
+    @Override
+    protected void runWrite() {
+        logger.warn("Write mode not supported");
+        onFailure(new UnsupportedOperationException(
+                "RegisterBitTask does not support WRITE mode, only READ and UPDATE modes are supported"));
+    }
+
+    @Override
+    protected void runUpdate(ToplevelBlockTask write, ToplevelBlockTask read) {
+        final Buffer outBuffer = write.getBuffer();
+        final Buffer inBuffer = read.getBuffer();
+
+        final int previousValueOffset = getStart() - read.getStart();
+        final boolean value = (Boolean) this.record.getValue().getValue();
+
+        int register = getRegister(inBuffer, previousValueOffset);
+
+        if (value) {
+            register |= 1 << this.bit;
+        } else {
+            register &= ~(1 << this.bit);
+        }
+
+        inBuffer.put(previousValueOffset, (byte) (register >> 8));
+        inBuffer.put(previousValueOffset + 1, (byte) register);
+
+        logger.debug("Write Bit: offset: {} value: {}", getStart(), value);
+
+        final int offset = getStart() - write.getStart();
+        outBuffer.put(offset, (byte) (register >> 8));
+        outBuffer.put(offset + 1, (byte) register);
+    }
+}
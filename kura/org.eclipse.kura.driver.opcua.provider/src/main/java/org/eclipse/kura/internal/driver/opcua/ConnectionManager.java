@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2018, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2018, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -20,9 +20,14 @@ import static org.eclipse.kura.internal.driver.opcua.Utils.runSafe;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -62,6 +67,8 @@ public class ConnectionManager {
     private final SubscriptionManager subscriptionManager;
     private final SubtreeSubscriptionManager subtreeSubscriptionManager;
     private final OpcUaOptions options;
+    private final ReadMetrics readMetrics;
+    private final String endpoint;
 
     public ConnectionManager(final OpcUaClient client, final OpcUaOptions options,
             final BiConsumer<ConnectionManager, Throwable> failureHandler,
@@ -75,6 +82,9 @@ public class ConnectionManager {
         this.subscriptionManager = new SubscriptionManager(options, client, this.queue, registrations);
         this.subtreeSubscriptionManager = new SubtreeSubscriptionManager(options, client, this.queue,
                 subtreeListenerRegistrations);
+        this.readMetrics = new ReadMetrics();
+        this.readMetrics.setLogInterval(options.getReadMetricsLogInterval());
+        this.endpoint = getEndpointString(options);
     }
 
     public static CompletableFuture<ConnectionManager> connect(final OpcUaOptions options,
@@ -107,11 +117,41 @@ public class ConnectionManager {
 
     public void read(final List<Request<ReadParams>> requests) throws Exception {
 
+        final List<Request<ReadParams>> uniqueRequests;
+        final Map<ReadParams, List<ChannelRecord>> duplicates;
+
+        if (this.options.shouldDeduplicateReadNodes()) {
+            final Map<ReadParams, Request<ReadParams>> unique = new LinkedHashMap<>();
+            duplicates = new HashMap<>();
+
+            for (final Request<ReadParams> request : requests) {
+                if (unique.putIfAbsent(request.getParameters(), request) != null) {
+                    duplicates.computeIfAbsent(request.getParameters(), p -> new ArrayList<>())
+                            .add(request.getRecord());
+                }
+            }
+            uniqueRequests = new ArrayList<>(unique.values());
+        } else {
+            uniqueRequests = requests;
+            duplicates = Collections.emptyMap();
+        }
+
         final int maxItemsPerRequest = this.options.getMaxItemCountPerRequest();
-        final ArrayList<ReadValueId> tempList = new ArrayList<>(maxItemsPerRequest);
+        final int maxOutstandingRequests = this.options.getMaxOutstandingReadRequests();
 
-        for (int i = 0; i < requests.size(); i += maxItemsPerRequest) {
-            this.read(requests.subList(i, Math.min(i + maxItemsPerRequest, requests.size())), tempList);
+        try {
+            if (maxOutstandingRequests > 1 && uniqueRequests.size() > maxItemsPerRequest) {
+                readConcurrently(uniqueRequests, duplicates, maxItemsPerRequest, maxOutstandingRequests);
+            } else {
+                final ArrayList<ReadValueId> tempList = new ArrayList<>(maxItemsPerRequest);
+
+                for (int i = 0; i < uniqueRequests.size(); i += maxItemsPerRequest) {
+                    this.read(uniqueRequests.subList(i, Math.min(i + maxItemsPerRequest, uniqueRequests.size())),
+                            duplicates, tempList);
+                }
+            }
+        } finally {
+            this.readMetrics.logIfDue(logger, this.endpoint);
         }
     }
 
@@ -125,24 +165,119 @@ public class ConnectionManager {
         }
     }
 
-    private void read(final List<Request<ReadParams>> requests, final List<ReadValueId> tempList) throws Exception {
+    private void read(final List<Request<ReadParams>> requests,
+            final Map<ReadParams, List<ChannelRecord>> duplicates, final List<ReadValueId> tempList)
+            throws Exception {
         tempList.clear();
 
         for (final Request<ReadParams> request : requests) {
             tempList.add(request.getParameters().getReadValueId());
         }
 
-        final ReadResponse response = runSafe(this.client.read(0.0, TimestampsToReturn.Both, tempList),
-                this.options.getRequestTimeout(), ex -> this.failureHandler.accept(this, ex));
+        final long start = System.nanoTime();
+        final ReadResponse response;
+        try {
+            response = runSafe(this.client.read(0.0, TimestampsToReturn.Both, tempList),
+                    this.options.getRequestTimeout(), ex -> this.failureHandler.accept(this, ex));
+        } catch (final Exception e) {
+            this.readMetrics.requestCompleted(requests.size(), System.nanoTime() - start, true);
+            throw e;
+        }
+        this.readMetrics.requestCompleted(requests.size(), System.nanoTime() - start, false);
+
+        fillRecords(requests, duplicates, response);
 
-        final DataValue[] results = response.getResults();
-        for (int i = 0; i < requests.size(); i++) {
-            fillRecord(results[i], requests.get(i).getRecord());
+        logger.debug("Read Successful");
+    }
+
+    /**
+     * Splits the requests in chunks and keeps up to {@code maxOutstandingRequests} of them pending on the server,
+     * a new chunk is sent as soon as the response for a previous one has been processed. If the read times out or
+     * fails, the remaining chunks are not sent and the pending requests are cancelled.
+     */
+    private void readConcurrently(final List<Request<ReadParams>> requests,
+            final Map<ReadParams, List<ChannelRecord>> duplicates, final int maxItemsPerRequest,
+            final int maxOutstandingRequests) throws Exception {
+
+        final List<List<Request<ReadParams>>> chunks = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i += maxItemsPerRequest) {
+            chunks.add(requests.subList(i, Math.min(i + maxItemsPerRequest, requests.size())));
+        }
+
+        final ConcurrentRead read = new ConcurrentRead(chunks.iterator(), duplicates);
+        final int outstandingRequests = Math.min(maxOutstandingRequests, chunks.size());
+        final CompletableFuture<?>[] sequences = new CompletableFuture<?>[outstandingRequests];
+
+        for (int i = 0; i < outstandingRequests; i++) {
+            sequences[i] = readNextChunk(read);
+        }
+
+        // each sequence sends its chunks one after another, allow the same time per chunk as the sequential read
+        final int chunksPerSequence = (chunks.size() + outstandingRequests - 1) / outstandingRequests;
+
+        try {
+            runSafe(CompletableFuture.allOf(sequences), (long) this.options.getRequestTimeout() * chunksPerSequence,
+                    ex -> this.failureHandler.accept(this, ex));
+        } catch (final Exception e) {
+            read.cancel();
+            for (final CompletableFuture<?> sequence : sequences) {
+                sequence.cancel(false);
+            }
+            throw e;
         }
 
         logger.debug("Read Successful");
     }
 
+    private CompletableFuture<Void> readNextChunk(final ConcurrentRead read) {
+
+        final List<Request<ReadParams>> requests = read.nextChunk();
+        if (requests == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final List<ReadValueId> readValueIds = new ArrayList<>(requests.size());
+        for (final Request<ReadParams> request : requests) {
+            readValueIds.add(request.getParameters().getReadValueId());
+        }
+
+        final long start = System.nanoTime();
+
+        final CompletableFuture<ReadResponse> response = this.client.read(0.0, TimestampsToReturn.Both,
+                readValueIds);
+        read.addPending(response);
+
+        return response //
+                .whenComplete((ok, ex) -> {
+                    read.removePending(response);
+                    this.readMetrics.requestCompleted(requests.size(), System.nanoTime() - start, ex != null);
+                }) //
+                .thenCompose(ok -> {
+                    if (read.isCancelled()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    fillRecords(requests, read.duplicates, ok);
+                    return readNextChunk(read);
+                });
+    }
+
+    private static void fillRecords(final List<Request<ReadParams>> requests,
+            final Map<ReadParams, List<ChannelRecord>> duplicates, final ReadResponse response) {
+
+        final DataValue[] results = response.getResults();
+        for (int i = 0; i < requests.size(); i++) {
+            final Request<ReadParams> request = requests.get(i);
+            fillRecord(results[i], request.getRecord());
+
+            final List<ChannelRecord> sameNodeRecords = duplicates.get(request.getParameters());
+            if (sameNodeRecords != null) {
+                for (final ChannelRecord record : sameNodeRecords) {
+                    fillRecord(results[i], record);
+                }
+            }
+        }
+    }
+
     private void write(final List<Request<WriteParams>> requests, final List<WriteValue> tempList) throws Exception {
         tempList.clear();
 
@@ -180,6 +315,57 @@ public class ConnectionManager {
                                 })));
     }
 
+    /**
+     * The state shared by the sequences of a concurrent read. Once the read is cancelled, because of a timeout or a
+     * failure, the sequences stop filling the records and sending new chunks, and the pending requests are cancelled.
+     */
+    private static final class ConcurrentRead {
+
+        private final Iterator<List<Request<ReadParams>>> pendingChunks;
+        private final Map<ReadParams, List<ChannelRecord>> duplicates;
+        private final Set<CompletableFuture<?>> pendingRequests = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        ConcurrentRead(final Iterator<List<Request<ReadParams>>> pendingChunks,
+                final Map<ReadParams, List<ChannelRecord>> duplicates) {
+            this.pendingChunks = pendingChunks;
+            this.duplicates = duplicates;
+        }
+
+        /**
+         * Returns the next chunk to be sent, or {@code null} if there are no more chunks or the read is cancelled.
+         */
+        synchronized List<Request<ReadParams>> nextChunk() {
+            if (this.cancelled || !this.pendingChunks.hasNext()) {
+                return null;
+            }
+            return this.pendingChunks.next();
+        }
+
+        boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        void addPending(final CompletableFuture<?> request) {
+            this.pendingRequests.add(request);
+            // the read may have been cancelled while the request was being sent
+            if (this.cancelled) {
+                request.cancel(false);
+            }
+        }
+
+        void removePending(final CompletableFuture<?> request) {
+            this.pendingRequests.remove(request);
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            for (final CompletableFuture<?> request : this.pendingRequests) {
+                request.cancel(false);
+            }
+        }
+    }
+
     private static String getEndpointString(final OpcUaOptions options) {
         // opc.tcp://<IP>:<PORT>/<SERVER_NAME>
         final String serverName = options.getServerName();
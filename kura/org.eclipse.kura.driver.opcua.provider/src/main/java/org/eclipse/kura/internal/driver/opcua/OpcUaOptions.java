@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -140,6 +140,12 @@ final class OpcUaOptions {
 
     private static final String MAX_REQUEST_ITEMS = "max.request.items";
 
+    private static final String MAX_OUTSTANDING_READ_REQUESTS = "max.outstanding.read.requests";
+
+    private static final String READ_DEDUPLICATE_NODES = "read.deduplicate.nodes";
+
+    private static final String READ_METRICS_LOG_INTERVAL = "read.metrics.log.interval.seconds";
+
     private static final String FORCE_ENDPOINT_URL = "force.endpoint.url";
 
     private static final String SUBTREE_SUBSCRIPTION_CHANNEL_NAME_FORMAT = "subtree.subscription.name.format";
@@ -431,6 +437,30 @@ final class OpcUaOptions {
         return 10;
     }
 
+    int getMaxOutstandingReadRequests() {
+        final Object maxOutstandingRequests = this.properties.get(MAX_OUTSTANDING_READ_REQUESTS);
+        if (maxOutstandingRequests instanceof Integer) {
+            return Math.max(1, (Integer) maxOutstandingRequests);
+        }
+        return 1;
+    }
+
+    boolean shouldDeduplicateReadNodes() {
+        final Object raw = this.properties.get(READ_DEDUPLICATE_NODES);
+        if (raw instanceof Boolean) {
+            return (Boolean) raw;
+        }
+        return false;
+    }
+
+    int getReadMetricsLogInterval() {
+        final Object logInterval = this.properties.get(READ_METRICS_LOG_INTERVAL);
+        if (logInterval instanceof Integer) {
+            return (Integer) logInterval;
+        }
+        return 0;
+    }
+
     boolean shouldForceEndpointUrl() {
         final Object raw = this.properties.get(FORCE_ENDPOINT_URL);
         if (raw instanceof Boolean) {
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ */
+
+package org.eclipse.kura.internal.driver.opcua;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+
+/**
+ * Collects the latency of the read requests sent by a {@link ConnectionManager}, a read operation containing more
+ * items than the configured maximum is split in several requests and each of them is tracked separately.
+ */
+class ReadMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime());
+
+    private volatile long logIntervalNanos;
+
+    /**
+     * Sets the interval between two metrics log messages, a value less than or equal to zero disables logging.
+     */
+    void setLogInterval(final long seconds) {
+        this.logIntervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    void requestCompleted(final int itemCount, final long requestLatencyNanos, final boolean failed) {
+        this.requests.increment();
+        if (failed) {
+            this.failedRequests.increment();
+        }
+        this.items.add(itemCount);
+        this.latencyNanos.add(requestLatencyNanos);
+        this.maxLatencyNanos.accumulateAndGet(requestLatencyNanos, Math::max);
+    }
+
+    /**
+     * Logs and resets the metrics collected since the last invocation, if the log interval has elapsed.
+     */
+    void logIfDue(final Logger logger, final String name) {
+        final long interval = this.logIntervalNanos;
+        if (interval <= 0) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long last = this.lastLogNanos.get();
+        if (now - last < interval || !this.lastLogNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        final long count = this.requests.sumThenReset();
+        logger.info("{} - read requests: {}, failed: {}, items: {}, avg latency: {} us, max latency: {} us", name,
+                count, this.failedRequests.sumThenReset(), this.items.sumThenReset(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.latencyNanos.sumThenReset() / count),
+                TimeUnit.NANOSECONDS.toMicros(this.maxLatencyNanos.getAndSet(0)));
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.kura.internal.driver.s7plc;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -28,8 +29,11 @@ import org.eclipse.kura.driver.ChannelDescriptor;
 import org.eclipse.kura.driver.block.BlockFactory;
 import org.eclipse.kura.driver.block.task.AbstractBlockDriver;
 import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.BlockTaskAggregator;
 import org.eclipse.kura.driver.block.task.Mode;
 import org.eclipse.kura.driver.block.task.ToplevelBlockTask;
+import org.eclipse.kura.driver.block.task.UpdateBlockTaskAggregator;
+import org.eclipse.kura.internal.driver.s7plc.task.S7PlcMultiVarTask;
 import org.eclipse.kura.internal.driver.s7plc.task.S7PlcTaskBuilder;
 import org.eclipse.kura.internal.driver.s7plc.task.S7PlcToplevelBlockTask;
 import org.slf4j.Logger;
@@ -37,6 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import Moka7.S7;
 import Moka7.S7Client;
+import Moka7.S7DataItem;
 
 /**
  * The Kura S7PlcDriver is a S7 PLC Driver implementation for Kura Asset-Driver
@@ -50,7 +55,12 @@ import Moka7.S7Client;
  *
  * The required properties are enlisted in {@link S7PlcChannelDescriptor} and
  * the driver connection specific properties are enlisted in
- * {@link S7PlcOptions}
+ * {@link S7PlcOptions}<br/>
+ * <br/>
+ *
+ * If multiple variable requests are enabled, the blocks resulting from the
+ * aggregation are transferred using ReadMultiVars/WriteMultiVars requests, see
+ * {@link S7PlcMultiVarTask}.
  *
  * @see S7PlcChannelDescriptor
  * @see S7PlcOptions
@@ -156,6 +166,60 @@ public class S7PlcDriver extends AbstractBlockDriver<S7PlcDomain> implements Con
         return this.options.get().getMinimumGapSize();
     }
 
+    @Override
+    protected void beforeAggregation(final S7PlcDomain domain, final Mode mode,
+            final BlockTaskAggregator aggregator) {
+        if (!this.options.get().shouldUseMultiVariableRequests()) {
+            return;
+        }
+
+        // merging two blocks across a gap is convenient only if the gap is smaller than the overhead of an item,
+        // gaps are never filled in write requests
+        if (mode == Mode.READ || aggregator instanceof UpdateBlockTaskAggregator) {
+            aggregator.setMinimumGapSize(
+                    Math.max(getReadMinimumGapSizeForDomain(domain), S7PlcMultiVarTask.getReadMinimumGapSize()));
+        }
+
+        // blocks should fit into a single item, the PDU length is known only if connected
+        final int pduLength = getPduLength();
+        if (pduLength > 0) {
+            aggregator.setMaximumBlockSize(S7PlcMultiVarTask.getMaximumItemSize(pduLength, mode));
+        }
+    }
+
+    @Override
+    protected List<BlockTask> optimize(final List<ChannelRecord> records, final Mode mode) throws KuraException {
+        final List<BlockTask> tasks = super.optimize(records, mode);
+
+        if (!this.options.get().shouldUseMultiVariableRequests()) {
+            return tasks;
+        }
+
+        final List<S7PlcToplevelBlockTask> readTasks = new ArrayList<>();
+        final List<S7PlcToplevelBlockTask> writeTasks = new ArrayList<>();
+
+        for (final BlockTask task : tasks) {
+            if (!(task instanceof S7PlcToplevelBlockTask)) {
+                return tasks;
+            }
+            if (task.getMode() == Mode.READ) {
+                readTasks.add((S7PlcToplevelBlockTask) task);
+            } else {
+                writeTasks.add((S7PlcToplevelBlockTask) task);
+            }
+        }
+
+        // read tasks must run first, they provide the data for the read-update-write operations
+        final List<BlockTask> result = new ArrayList<>(2);
+        if (!readTasks.isEmpty()) {
+            result.add(new S7PlcMultiVarTask(this, Mode.READ, readTasks));
+        }
+        if (!writeTasks.isEmpty()) {
+            result.add(new S7PlcMultiVarTask(this, Mode.WRITE, writeTasks));
+        }
+        return result;
+    }
+
     @Override
     protected BlockFactory<ToplevelBlockTask> getTaskFactoryForDomain(final S7PlcDomain domain, final Mode mode) {
         return (start, end) -> new S7PlcToplevelBlockTask(S7PlcDriver.this, mode, domain.getDB(), start, end);
@@ -188,7 +252,7 @@ public class S7PlcDriver extends AbstractBlockDriver<S7PlcDomain> implements Con
 
     private void handleMoka7IOException(Moka7Exception e) {
         logger.warn("Operation failed due to IO error", e);
-        if (e.getStatusCode() <= S7Client.errTCPConnectionReset) {
+        if (e.isConnectionProblem()) {
             logger.warn("Connection problems detected, disconnecting, will attempt to reconnect at next read/write");
             try {
                 disconnect();
@@ -214,8 +278,26 @@ public class S7PlcDriver extends AbstractBlockDriver<S7PlcDomain> implements Con
         }
     }
 
+    public synchronized int getPduLength() {
+        return this.state.client.Connected ? this.state.client.PDULength() : 0;
+    }
+
+    public synchronized void readMultiVars(S7DataItem[] items, int count) throws IOException {
+        int result = this.state.client.ReadMultiVars(items, count);
+        if (result != 0) {
+            throw new Moka7Exception("ReadMultiVars items: " + count + " status: " + result, result);
+        }
+    }
+
+    public synchronized void writeMultiVars(S7DataItem[] items, int count) throws IOException {
+        int result = this.state.client.WriteMultiVars(items, count);
+        if (result != 0) {
+            throw new Moka7Exception("WriteMultiVars items: " + count + " status: " + result, result);
+        }
+    }
+
     @SuppressWarnings("serial")
-    static final class Moka7Exception extends IOException {
+    public static final class Moka7Exception extends IOException {
 
         /**
          *
@@ -231,6 +313,14 @@ public class S7PlcDriver extends AbstractBlockDriver<S7PlcDomain> implements Con
         public int getStatusCode() {
             return this.statusCode;
         }
+
+        /**
+         * Returns true if this exception is caused by a TCP error, the driver disconnects and attempts to reconnect at
+         * the next operation in this case.
+         */
+        public boolean isConnectionProblem() {
+            return this.statusCode <= S7Client.errTCPConnectionReset;
+        }
     }
 
     static final class S7ClientState {
@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+
+package org.eclipse.kura.internal.driver.s7plc.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.kura.driver.block.task.BlockTask;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.internal.driver.s7plc.S7PlcDriver;
+import org.eclipse.kura.internal.driver.s7plc.S7PlcDriver.Moka7Exception;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import Moka7.S7Client;
+import Moka7.S7DataItem;
+
+/**
+ * Transfers the buffers of a list of {@link S7PlcToplevelBlockTask} instances, possibly belonging to different DBs,
+ * using ReadMultiVars/WriteMultiVars requests.
+ * <p>
+ * The tasks are packed in order into requests containing up to {@link S7Client#MaxVars} items, such that both the
+ * request and the response fit into the PDU length negotiated with the PLC. A task that cannot be packed with the
+ * following one, for example because its buffer alone fills the PDU, is run on its own and uses a plain read/write
+ * request.
+ * <p>
+ * A failure of a single item only affects the children of the corresponding task, the first failure is rethrown by
+ * {@link #run()} once all the requests have been performed. A request failing because of a TCP error stops the
+ * transfer instead: the remaining tasks are failed and the error is rethrown immediately, so that the driver
+ * disconnects.
+ */
+public class S7PlcMultiVarTask extends BlockTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(S7PlcDriver.class);
+
+    // S7 header, function and item count
+    private static final int REQUEST_HEADER_SIZE = 12;
+    private static final int RESPONSE_HEADER_SIZE = 14;
+    // variable specification of an item in the request
+    private static final int REQUEST_ITEM_SIZE = 12;
+    // return code, transport size and length of a data item, plus the fill byte that follows odd sized data
+    private static final int DATA_ITEM_OVERHEAD = 5;
+
+    private final S7PlcDriver driver;
+    private final List<S7PlcToplevelBlockTask> tasks;
+    private final S7DataItem[] items = new S7DataItem[S7Client.MaxVars];
+    private final S7PlcToplevelBlockTask[] batch = new S7PlcToplevelBlockTask[S7Client.MaxVars];
+
+    public S7PlcMultiVarTask(S7PlcDriver driver, Mode mode, List<S7PlcToplevelBlockTask> tasks) {
+        super(0, 0, mode);
+        this.driver = driver;
+        this.tasks = new ArrayList<>(tasks);
+    }
+
+    /**
+     * Returns the gap size below which merging two blocks is cheaper than transferring them as separate items of
+     * the same request: a read response contains the gap bytes in the first case and an item header in the second.
+     */
+    public static int getReadMinimumGapSize() {
+        return DATA_ITEM_OVERHEAD;
+    }
+
+    /**
+     * Returns the maximum size in bytes of a buffer that can be transferred as an item of a single request.
+     *
+     * @param pduLength
+     *            the negotiated PDU length
+     * @param mode
+     *            the mode of the transfer
+     * @return the maximum item size
+     */
+    public static int getMaximumItemSize(int pduLength, Mode mode) {
+        if (mode == Mode.READ) {
+            return pduLength - RESPONSE_HEADER_SIZE - DATA_ITEM_OVERHEAD;
+        }
+        return pduLength - REQUEST_HEADER_SIZE - REQUEST_ITEM_SIZE - DATA_ITEM_OVERHEAD;
+    }
+
+    public List<S7PlcToplevelBlockTask> getTasks() {
+        return this.tasks;
+    }
+
+    @Override
+    public void run() throws IOException {
+        final int pduLength = this.driver.getPduLength();
+        IOException failure = null;
+        int next = 0;
+
+        while (next < this.tasks.size()) {
+            final int count = countItems(next, pduLength);
+
+            try {
+                if (count <= 1) {
+                    this.tasks.get(next).run();
+                } else if (getMode() == Mode.READ) {
+                    read(next, count);
+                } else {
+                    write(next, count);
+                }
+            } catch (IOException e) {
+                if (isConnectionProblem(e)) {
+                    failRemaining(next + Math.max(1, count), e);
+                    throw e;
+                }
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+
+            next += Math.max(1, count);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static boolean isConnectionProblem(final IOException e) {
+        return e instanceof Moka7Exception && ((Moka7Exception) e).isConnectionProblem();
+    }
+
+    private void failRemaining(final int from, final IOException e) {
+        for (int i = from; i < this.tasks.size(); i++) {
+            this.tasks.get(i).onFailure(e);
+        }
+    }
+
+    private int countItems(final int from, final int pduLength) {
+        int requestSize = REQUEST_HEADER_SIZE;
+        int responseSize = RESPONSE_HEADER_SIZE;
+        int count = 0;
+
+        while (from + count < this.tasks.size() && count < S7Client.MaxVars) {
+            final S7PlcToplevelBlockTask task = this.tasks.get(from + count);
+            final int dataSize = task.getEnd() - task.getStart() + DATA_ITEM_OVERHEAD;
+
+            if (getMode() == Mode.READ) {
+                requestSize += REQUEST_ITEM_SIZE;
+                responseSize += dataSize;
+            } else {
+                requestSize += REQUEST_ITEM_SIZE + dataSize;
+                responseSize += 1;
+            }
+
+            if (requestSize > pduLength || responseSize > pduLength) {
+                break;
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    private void read(final int from, final int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            this.batch[i] = this.tasks.get(from + i);
+            this.items[i] = this.batch[i].getDataItem();
+        }
+
+        logger.debug("Reading from PLC, items: {}", count);
+
+        IOException requestFailure = null;
+        try {
+            this.driver.readMultiVars(this.items, count);
+        } catch (IOException e) {
+            requestFailure = e;
+        }
+
+        complete(count, requestFailure);
+    }
+
+    private void write(final int from, final int count) throws IOException {
+        IOException failure = null;
+        int prepared = 0;
+
+        for (int i = 0; i < count; i++) {
+            final S7PlcToplevelBlockTask task = this.tasks.get(from + i);
+            try {
+                task.prepareWrite();
+                this.batch[prepared] = task;
+                this.items[prepared] = task.getDataItem();
+                prepared++;
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (prepared > 0) {
+            logger.debug("Writing to PLC, items: {}", prepared);
+
+            IOException requestFailure = null;
+            try {
+                this.driver.writeMultiVars(this.items, prepared);
+            } catch (IOException e) {
+                requestFailure = e;
+            }
+
+            complete(prepared, requestFailure);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void complete(final int count, final IOException requestFailure) throws IOException {
+        IOException failure = null;
+
+        for (int i = 0; i < count; i++) {
+            try {
+                if (getMode() == Mode.READ) {
+                    this.batch[i].completeRead(requestFailure);
+                } else {
+                    this.batch[i].completeWrite(requestFailure);
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            this.batch[i] = null;
+            this.items[i] = null;
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void onSuccess() {
+        for (S7PlcToplevelBlockTask task : this.tasks) {
+            task.onSuccess();
+        }
+    }
+
+    @Override
+    public void onFailure(Exception exception) {
+        for (S7PlcToplevelBlockTask task : this.tasks) {
+            task.onFailure(exception);
+        }
+    }
+}
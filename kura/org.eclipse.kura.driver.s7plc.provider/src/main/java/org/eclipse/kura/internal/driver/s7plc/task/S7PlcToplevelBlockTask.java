@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,9 @@ import org.eclipse.kura.internal.driver.s7plc.S7PlcDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import Moka7.S7;
+import Moka7.S7DataItem;
+
 public class S7PlcToplevelBlockTask extends ToplevelBlockTask {
 
     private static final Logger logger = LoggerFactory.getLogger(S7PlcDriver.class);
@@ -30,6 +33,7 @@ public class S7PlcToplevelBlockTask extends ToplevelBlockTask {
     private final int areaNo;
     private ByteArrayBuffer data;
     private final S7PlcDriver driver;
+    private S7DataItem dataItem;
 
     public S7PlcToplevelBlockTask(S7PlcDriver driver, Mode mode, int dbNumber, int start, int end) {
         super(start, end, mode);
@@ -50,6 +54,69 @@ public class S7PlcToplevelBlockTask extends ToplevelBlockTask {
         }
     }
 
+    /**
+     * Returns the item describing this task in a multiple variable request, the data of the item is the backing array
+     * of the buffer of this task.
+     */
+    S7DataItem getDataItem() {
+        if (this.dataItem == null) {
+            this.dataItem = new S7DataItem(S7.S7AreaDB, this.areaNo, getStart(), getEnd() - getStart(),
+                    ((ByteArrayBuffer) getBuffer()).getBackingArray());
+        }
+        return this.dataItem;
+    }
+
+    /**
+     * Completes a read performed by a {@link S7PlcMultiVarTask}, the children are run if neither the request nor the
+     * item of this task failed.
+     */
+    void completeRead(final IOException requestFailure) throws IOException {
+        try {
+            throwIfFailed(requestFailure);
+            runChildren();
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the children of this task in {@link Mode#WRITE} mode, filling the buffer that will be transferred by a
+     * {@link S7PlcMultiVarTask}.
+     */
+    void prepareWrite() throws IOException {
+        try {
+            runChildren();
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Completes a write performed by a {@link S7PlcMultiVarTask}.
+     */
+    void completeWrite(final IOException requestFailure) throws IOException {
+        try {
+            throwIfFailed(requestFailure);
+            onSuccess();
+        } catch (Exception e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+
+    private void throwIfFailed(final IOException requestFailure) throws IOException {
+        if (requestFailure != null) {
+            throw requestFailure;
+        }
+        final S7DataItem item = getDataItem();
+        if (item.Result != 0) {
+            throw new IOException(
+                    "DB: " + this.areaNo + " off: " + getStart() + " len: " + item.Amount + " status: " + item.Result);
+        }
+    }
+
     @Override
     public Buffer getBuffer() {
         if (this.data == null) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -32,12 +32,30 @@ public class Crc16 {
      * @return CRC16 as calculated for buff
      */
     public static int getCrc16(byte[] buff, int buffLen, int crcSeed) {
+        return update(crcSeed, buff, 0, buffLen);
+    }
+
+    /**
+     * update the passed crc with a portion of a buffer, this allows to compute the crc of a frame while its bytes
+     * are received. The crc of a complete RTU frame, including the trailing crc bytes, is 0.
+     *
+     * @param crc
+     *            the crc computed so far, or the starting seed for the first portion of the frame
+     * @param buff
+     *            byte array to calculate CRC of
+     * @param offset
+     *            index of the first byte to process
+     * @param length
+     *            number of bytes to process
+     * @return CRC16 as calculated for the processed bytes
+     */
+    public static int update(int crc, byte[] buff, int offset, int length) {
         int hi, lo, tmp;
 
-        lo = crcSeed & 0x0ff;
-        hi = crcSeed >> 8 & 0x0ff;
+        lo = crc & 0x0ff;
+        hi = crc >> 8 & 0x0ff;
 
-        for (int i = 0; i < buffLen; i++) {
+        for (int i = offset; i < offset + length; i++) {
             tmp = (lo ^ buff[i]) & 0x0ff;
             lo = hi ^ abCrcTbl2[tmp];
             hi = abCrcTbl1[tmp];
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.kura.protocol.modbus;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -20,8 +21,13 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.eclipse.kura.KuraConnectionStatus;
 import org.eclipse.kura.comm.CommConnection;
@@ -59,7 +65,6 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
     private String connType = null;
     private Communicate comm;
     private Properties modbusProperties = null;
-    private static int transactionIndex = 0;
 
     public void setConnectionFactory(ConnectionFactory connectionFactory) {
         this.connectionFactory = connectionFactory;
@@ -189,6 +194,11 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
      * <td>port</td>
      * <td>port on the field device to connect to</td>
      * </tr>
+     * <tr>
+     * <td>maxPendingTransactions</td>
+     * <td>optional, the maximum number of requests of a {@link #read(List)} batch sent before receiving the
+     * responses, only used in "TCP/IP" mode, defaults to 1</td>
+     * </tr>
      * </table>
      */
     @Override
@@ -327,9 +337,12 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
      */
     private final class SerialCommunicate extends Communicate {
 
+        private static final int MAX_ASCII_FRAME_LENGTH = 513;
+
         InputStream in;
         OutputStream out;
         CommConnection conn = null;
+        ModbusRtuFramer framer;
 
         public SerialCommunicate(ConnectionFactory connFactory, Properties connectionConfig)
                 throws ModbusProtocolException {
@@ -354,8 +367,11 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             int parity = Integer.valueOf(sParity).intValue();
             int bits = Integer.valueOf(sBits).intValue();
 
+            // reads return when the line has been silent for the RTU inter-frame delay
+            int receiveTimeout = ModbusRtuFramer.getReceiveTimeout(baud, bits, parity, stop);
+
             String uri = new CommURI.Builder(sPort).withBaudRate(baud).withDataBits(bits).withStopBits(stop)
-                    .withParity(parity).withTimeout(2000).build().toString();
+                    .withParity(parity).withOpenTimeout(2000).withReceiveTimeout(receiveTimeout).build().toString();
 
             try {
                 this.conn = (CommConnection) connFactory.createConnection(uri, 1, false);
@@ -370,6 +386,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             } catch (Exception e) {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.CONNECTION_FAILURE, e);
             }
+            this.framer = new ModbusRtuFramer(this.in, this.out, baud, bits, parity, stop);
             logger.info("Serial connection connected");
         }
 
@@ -460,184 +477,126 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         }
 
         /**
-         * msgTransaction must be called with a byte array having two extra
-         * bytes for the CRC. It will return a byte array of the response to the
-         * message. Validation will include checking the CRC and verifying the
-         * command matches.
+         * msgTransaction returns a byte array of the response to the message, without the CRC or LRC. Validation
+         * will include checking the CRC or LRC and verifying the command matches.
          */
         @Override
         public byte[] msgTransaction(byte[] msg) throws ModbusProtocolException {
-
-            byte[] cmd = null;
-
-            if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
-                cmd = new byte[msg.length + 2];
-                for (int i = 0; i < msg.length; i++) {
-                    cmd[i] = msg[i];
-                }
-                // Add crc calculation to end of message
-                int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
-                cmd[msg.length] = (byte) crc;
-                cmd[msg.length + 1] = (byte) (crc >> 8);
-            } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                cmd = convertCommandToAscii(msg);
-            }
-
-            // Send the message
             try {
                 synchronized (this.out) {
                     synchronized (this.in) {
-                        // flush input
-                        while (this.in.available() > 0) {
-                            this.in.read();
-                        }
-                        // send all data
-                        this.out.write(cmd, 0, cmd.length);
-                        this.out.flush();
-                        // outputStream.waitAllSent(respTout);
-
-                        // wait for and process response
-                        byte[] response = new byte[262]; // response buffer
-                        int respIndex = 0;
-                        int minimumLength = 5; // default minimum message length
                         if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                            minimumLength = 11;
+                            return asciiTransaction(msg);
                         }
-                        int timeOut = ModbusProtocolDevice.this.respTout;
-                        for (int maxLoop = 0; maxLoop < 1000; maxLoop++) {
-                            boolean endFrame = false;
-                            // while (respIndex < minimumLength) {
-                            while (!endFrame) {
-                                long start = System.currentTimeMillis();
-                                while (this.in.available() == 0) {
-                                    try {
-                                        Thread.sleep(5);	// avoid a high cpu load
-                                    } catch (InterruptedException e) {
-                                        throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                                "Thread interrupted");
-                                    }
-
-                                    long elapsed = System.currentTimeMillis() - start;
-                                    if (elapsed > timeOut) {
-                                        String failMsg = "Recv timeout";
-                                        logger.warn(failMsg + " : " + elapsed + " minimumLength=" + minimumLength
-                                                + " respIndex=" + respIndex);
-                                        throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT,
-                                                failMsg);
-                                    }
-                                }
-                                // address byte must match first
-                                if (respIndex == 0) {
-                                    if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        if ((response[0] = (byte) this.in.read()) == ':') {
-                                            respIndex++;
-                                        }
-                                    } else {
-                                        if ((response[0] = (byte) this.in.read()) == msg[0]) {
-                                            respIndex++;
-                                        }
-                                    }
-                                } else {
-                                    response[respIndex++] = (byte) this.in.read();
-                                }
-
-                                if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
-                                    timeOut = 100; // move to character timeout
-                                    if (respIndex >= minimumLength) {
-                                        endFrame = true;
-                                    }
-                                } else {
-                                    if (response[respIndex - 1] == 10 && response[respIndex - 2] == 13) {
-                                        endFrame = true;
-                                    }
-                                }
-                            }
-                            // if ASCII mode convert response
-                            if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                byte lrcRec = asciiLrcCalc(response, respIndex);
-                                response = convertAsciiResponseToBin(response, respIndex);
-                                byte lrcCalc = (byte) binLrcCalc(response);
-                                if (lrcRec != lrcCalc) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Bad LRC");
-                                }
-                            }
+                        return this.framer.transact(msg, ModbusProtocolDevice.this.respTout);
+                    }
+                }
+            } catch (IOException e) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getMessage());
+            }
+        }
 
-                            // Check first for an Exception response
-                            if ((response[1] & 0x80) == 0x80) {
-                                if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                        || Crc16.getCrc16(response, 5, 0xffff) == 0) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Exception response = " + Byte.toString(response[2]));
-                                }
-                            } else {
-                                // then check for a valid message
-                                switch (response[1]) {
-                                case ModbusFunctionCodes.FORCE_SINGLE_COIL:
-                                case ModbusFunctionCodes.PRESET_SINGLE_REG:
-                                case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
-                                case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
-                                    if (respIndex < 8) {
-                                        // wait for more data
-                                        minimumLength = 8;
-                                    } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, 8, 0xffff) == 0) {
-                                        byte[] ret = new byte[6];
-                                        for (int i = 0; i < 6; i++) {
-                                            ret[i] = response[i];
-                                        }
-                                        return ret;
-                                    }
-                                    break;
-                                case ModbusFunctionCodes.READ_COIL_STATUS:
-                                case ModbusFunctionCodes.READ_INPUT_STATUS:
-                                case ModbusFunctionCodes.READ_INPUT_REGS:
-                                case ModbusFunctionCodes.READ_HOLDING_REGS:
-                                    int byteCnt;
-                                    if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE) {
-                                        byteCnt = (response[2] & 0xff) + 3;
-                                    } else {
-                                        byteCnt = (response[2] & 0xff) + 5;
-                                    }
-                                    if (respIndex < byteCnt) {
-                                        // wait for more data
-                                        minimumLength = byteCnt;
-                                    } else if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.ASCII_MODE
-                                            || Crc16.getCrc16(response, byteCnt, 0xffff) == 0) {
-                                        byte[] ret = new byte[byteCnt];
-                                        for (int i = 0; i < byteCnt; i++) {
-                                            ret[i] = response[i];
-                                        }
-                                        return ret;
-                                    }
-                                }
-                            }
+        /**
+         * Performs the transactions back to back, each request is sent as soon as the response to the previous
+         * one has been received and the inter-frame delay has elapsed. If a unit does not respond, the following
+         * requests of the batch addressed to the same unit fail immediately without using the bus.
+         *
+         * @return an array containing, for each message, either the response or the
+         *         {@link ModbusProtocolException} reported for the transaction
+         */
+        public Object[] pollTransactions(List<byte[]> msgs) {
+            Object[] results = new Object[msgs.size()];
+            Set<Byte> silentUnits = new HashSet<>();
+
+            for (int i = 0; i < results.length; i++) {
+                byte[] msg = msgs.get(i);
+                if (silentUnits.contains(msg[0])) {
+                    results[i] = new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT,
+                            "Unit " + (msg[0] & 0xff) + " did not respond to a previous request");
+                    continue;
+                }
+                try {
+                    results[i] = msgTransaction(msg);
+                } catch (ModbusProtocolException e) {
+                    if (e.getCode() == ModbusProtocolErrorCode.RESPONSE_TIMEOUT) {
+                        silentUnits.add(msg[0]);
+                    }
+                    results[i] = e;
+                }
+            }
 
-                            /*
-                             * if required length then must have failed, drop
-                             * first byte and try again
-                             */
-                            if (respIndex >= minimumLength) {
-                                respIndex--;
-                                for (int i = 0; i < respIndex; i++) {
-                                    response[i] = response[i + 1];
-                                }
-                                minimumLength = 5; // reset minimum length
-                            }
+            return results;
+        }
+
+        private byte[] asciiTransaction(byte[] msg) throws ModbusProtocolException, IOException {
+            byte[] cmd = convertCommandToAscii(msg);
+
+            // flush input
+            int available;
+            while ((available = this.in.available()) > 0) {
+                if (this.in.skip(available) <= 0) {
+                    break;
+                }
+            }
+            // send all data
+            this.out.write(cmd, 0, cmd.length);
+            this.out.flush();
+
+            // wait for and process response, the frame starts with ':' and ends with CR LF
+            byte[] response = new byte[MAX_ASCII_FRAME_LENGTH];
+            int respIndex = 0;
+            long deadline = System.currentTimeMillis() + ModbusProtocolDevice.this.respTout;
+            while (respIndex < 2 || response[respIndex - 1] != 10 || response[respIndex - 2] != 13) {
+                if (respIndex == response.length) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                            "Too much activity on recv line");
+                }
+                int count = Math.max(1, Math.min(this.in.available(), response.length - respIndex));
+                int read = this.in.read(response, respIndex, count);
+                if (read > 0) {
+                    if (respIndex == 0) {
+                        // skip anything before the start of frame
+                        int start = 0;
+                        while (start < read && response[start] != ':') {
+                            start++;
                         }
+                        System.arraycopy(response, start, response, 0, read - start);
+                        read -= start;
                     }
+                    respIndex += read;
+                } else if (System.currentTimeMillis() > deadline) {
+                    String failMsg = "Recv timeout";
+                    logger.warn(failMsg + " : respIndex=" + respIndex);
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, failMsg);
                 }
-            } catch (IOException e) {
-                // e.printStackTrace();
-                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getMessage());
             }
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                    "Too much activity on recv line");
+
+            if (respIndex < 11) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Invalid frame");
+            }
+            byte lrcRec = asciiLrcCalc(response, respIndex);
+            byte[] ret = convertAsciiResponseToBin(response, respIndex);
+            byte lrcCalc = (byte) binLrcCalc(ret);
+            if (lrcRec != lrcCalc) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad LRC");
+            }
+            if (ret[0] != msg[0] || (ret[1] & 0x7f) != msg[1]) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Response does not match the request");
+            }
+            // Check for an Exception response
+            if ((ret[1] & 0x80) == 0x80) {
+                throw ModbusProtocolException.forExceptionResponse(ret[2]);
+            }
+            return ret;
         }
     }
 
     /**
      * Installation of an ethernet connection to communicate
+     * <p>
+     * In "TCP/IP" mode the transactions are performed by a {@link ModbusTcpTransport}, that allows to pipeline the
+     * requests of a {@link ModbusProtocolDevice#read(List)} batch up to the <b>maxPendingTransactions</b> limit.
      */
     private final class EthernetCommunicate extends Communicate {
 
@@ -647,6 +606,8 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         int port;
         String ipAddress;
         String connType;
+        int maxPendingTransactions = 1;
+        ModbusTcpTransport transport;
         boolean connected = false;
 
         public EthernetCommunicate(ConnectionFactory connFactory, Properties connectionConfig)
@@ -660,6 +621,19 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
             }
             this.port = Integer.valueOf(sPort).intValue();
+
+            String sMaxPending = connectionConfig.getProperty("maxPendingTransactions");
+            if (sMaxPending != null) {
+                try {
+                    this.maxPendingTransactions = Integer.parseInt(sMaxPending.trim());
+                } catch (NumberFormatException e) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
+                }
+                if (this.maxPendingTransactions < 1) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_CONFIGURATION);
+                }
+            }
+
             ModbusProtocolDevice.this.connConfigd = true;
             this.socket = new Socket();
         }
@@ -675,8 +649,13 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                         this.socket.connect(new InetSocketAddress(this.ipAddress, this.port),
                                 ModbusProtocolDevice.this.respTout);
                         try {
+                            this.socket.setSoTimeout(ModbusProtocolDevice.this.respTout);
                             this.inputStream = this.socket.getInputStream();
                             this.outputStream = this.socket.getOutputStream();
+                            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
+                                this.transport = new ModbusTcpTransport(this.inputStream, this.outputStream,
+                                        this.maxPendingTransactions);
+                            }
                             this.connected = true;
                             logger.info("TCP connected");
                         } catch (IOException e) {
@@ -711,6 +690,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                     }
                     this.inputStream = null;
                     this.outputStream = null;
+                    this.transport = null;
                     this.connected = false;
                     this.socket = null;
                 }
@@ -728,44 +708,80 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             }
         }
 
+        public boolean isPipeliningSupported() {
+            return PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)
+                    && ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE;
+        }
+
         @Override
         public byte[] msgTransaction(byte[] msg) throws ModbusProtocolException {
-            byte[] cmd = null;
-
-            // ---------------------------------------------- Send Message
-            // ---------------------------------------------------
-            if (ModbusProtocolDevice.this.txMode == ModbusTransmissionMode.RTU_MODE) {
-                if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                    cmd = new byte[msg.length + 6];
-                    // build MBAP header
-                    int index = getNextTransactionIndex();
-                    cmd[0] = (byte) (index >> 8);
-                    cmd[1] = (byte) index;
-                    cmd[2] = 0;
-                    cmd[3] = 0;
-                    // length
-                    int len = msg.length;
-                    cmd[4] = (byte) (len >> 8);
-                    cmd[5] = (byte) len;
-                    for (int i = 0; i < msg.length; i++) {
-                        cmd[i + 6] = msg[i];
-                    }
-                    // No crc in Modbus TCP
-                } else {
-                    cmd = new byte[msg.length + 2];
-                    for (int i = 0; i < msg.length; i++) {
-                        cmd[i] = msg[i];
-                    }
-                    // Add crc calculation to end of message
-                    int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
-                    cmd[msg.length] = (byte) crc;
-                    cmd[msg.length + 1] = (byte) (crc >> 8);
-                }
-            } else {
+            if (ModbusProtocolDevice.this.txMode != ModbusTransmissionMode.RTU_MODE) {
                 throw new ModbusProtocolException(ModbusProtocolErrorCode.METHOD_NOT_SUPPORTED,
                         "Only RTU over TCP/IP supported");
             }
 
+            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
+                Object result = msgTransactions(Collections.singletonList(msg))[0];
+                if (result instanceof ModbusProtocolException) {
+                    throw (ModbusProtocolException) result;
+                }
+                return (byte[]) result;
+            }
+
+            return rtuTransaction(msg);
+        }
+
+        /**
+         * Performs a MODBUS-TCP transaction for each of the provided messages, keeping up to
+         * <b>maxPendingTransactions</b> transactions in flight.
+         *
+         * @return an array containing, for each message, either the response starting with the unit identifier or the
+         *         {@link ModbusProtocolException} reported for the transaction
+         */
+        public Object[] msgTransactions(List<byte[]> msgs) throws ModbusProtocolException {
+            // Check connection status and connect
+            connect();
+            if (!this.connected) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Cannot transact on closed socket");
+            }
+
+            Object[] results = new Object[msgs.size()];
+
+            try {
+                this.transport.transact(msgs, results);
+            } catch (SocketTimeoutException e) {
+                String failMsg = "Recv timeout";
+                logger.warn(failMsg);
+                fillMissingResults(results,
+                        new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, failMsg));
+            } catch (IOException e) {
+                // Assume this means the socket is closed...make sure it is
+                logger.error("Socket disconnect in transaction: " + e);
+                disconnect();
+                fillMissingResults(results, new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Transaction failure: " + e.getMessage()));
+            }
+
+            return results;
+        }
+
+        private void fillMissingResults(Object[] results, ModbusProtocolException exception) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = exception;
+                }
+            }
+        }
+
+        private byte[] rtuTransaction(byte[] msg) throws ModbusProtocolException {
+            byte[] cmd = new byte[msg.length + 2];
+            System.arraycopy(msg, 0, cmd, 0, msg.length);
+            // Add crc calculation to end of message
+            int crc = Crc16.getCrc16(msg, msg.length, 0x0ffff);
+            cmd[msg.length] = (byte) crc;
+            cmd[msg.length + 1] = (byte) (crc >> 8);
+
             // Check connection status and connect
             connect();
             if (!this.connected) {
@@ -777,7 +793,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             try {
                 // flush input
                 while (this.inputStream.available() > 0) {
-                    this.inputStream.read();
+                    this.inputStream.skip(this.inputStream.available());
                 }
                 // send all data
                 this.outputStream.write(cmd, 0, cmd.length);
@@ -790,96 +806,59 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
                         "Send failure: " + e.getMessage());
             }
 
-            // ---------------------------------------------- Receive response
-            // ---------------------------------------------------
-            // wait for and process response
-
-            boolean endFrame = false;
-            byte[] response = new byte[262]; // response buffer
-            int respIndex = 0;
-            int minimumLength = 5; // default minimum message length
-            if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                minimumLength += 6;
-            }
-            while (!endFrame) {
-                try {
-                    this.socket.setSoTimeout(ModbusProtocolDevice.this.respTout);
-                    int resp = this.inputStream.read(response, respIndex, 1);
-                    if (resp > 0) {
-                        respIndex += resp;
-                        if (PROTOCOL_CONNECTION_TYPE_ETHER_TCP.equals(this.connType)) {
-                            if (respIndex == 7) {
-                                // test modbus id
-                                if (response[6] != msg[0]) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "incorrect modbus id " + String.format("%02X", response[6]));
-                                }
-                            } else if (respIndex == 8) {
-                                // test function number
-                                if ((response[7] & 0x7f) != msg[1]) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "incorrect function number " + String.format("%02X", response[7]));
-                                }
-                            } else if (respIndex == 9) {
-                                // Check first for an Exception response
-                                if ((response[7] & 0x80) == 0x80) {
-                                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
-                                            "Modbus responds an error = " + String.format("%02X", response[8]));
-                                } else {
-                                    if (response[7] == ModbusFunctionCodes.FORCE_SINGLE_COIL
-                                            || response[7] == ModbusFunctionCodes.PRESET_SINGLE_REG
-                                            || response[7] == ModbusFunctionCodes.FORCE_MULTIPLE_COILS
-                                            || response[7] == ModbusFunctionCodes.PRESET_MULTIPLE_REGS) {
-                                        minimumLength = 12;
-                                    } else {
-                                        // bytes count
-                                        minimumLength = (response[8] & 0xff) + 9;
-                                    }
-                                }
-                            } else if (respIndex == minimumLength) {
-                                endFrame = true;
-                            }
-                        } else {
+            // wait for and process response, the frame length is derived from the function code and byte count
+            byte[] response = new byte[262];
+            try {
+                readFully(response, 0, 3);
+                if (response[0] != msg[0]) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                            "incorrect modbus id " + String.format("%02X", response[0]));
+                }
+                if ((response[1] & 0x7f) != msg[1]) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                            "incorrect function number " + String.format("%02X", response[1]));
+                }
 
-                        }
-                    } else {
-                        logger.error("Socket disconnect in recv");
-                        throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
-                    }
-                } catch (SocketTimeoutException e) {
-                    String failMsg = "Recv timeout";
-                    logger.warn(failMsg);
-                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, failMsg);
-                } catch (IOException e) {
-                    logger.error("Socket disconnect in recv: " + e);
-                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
+                int length;
+                if ((response[1] & 0x80) == 0x80) {
+                    length = 5;
+                } else if (response[1] == ModbusFunctionCodes.FORCE_SINGLE_COIL
+                        || response[1] == ModbusFunctionCodes.PRESET_SINGLE_REG
+                        || response[1] == ModbusFunctionCodes.FORCE_MULTIPLE_COILS
+                        || response[1] == ModbusFunctionCodes.PRESET_MULTIPLE_REGS) {
+                    length = 8;
+                } else {
+                    length = (response[2] & 0xff) + 5;
                 }
+                readFully(response, 3, length - 3);
 
+                if (Crc16.getCrc16(response, length, 0xffff) != 0) {
+                    throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad CRC");
+                }
+                if ((response[1] & 0x80) == 0x80) {
+                    throw ModbusProtocolException.forExceptionResponse(response[2]);
+                }
+                return Arrays.copyOf(response, length - 2);
+            } catch (SocketTimeoutException e) {
+                String failMsg = "Recv timeout";
+                logger.warn(failMsg);
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, failMsg);
+            } catch (IOException e) {
+                logger.error("Socket disconnect in recv: " + e);
+                disconnect();
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Recv failure");
             }
+        }
 
-            // then check for a valid message
-            switch (response[7]) {
-            case ModbusFunctionCodes.FORCE_SINGLE_COIL:
-            case ModbusFunctionCodes.PRESET_SINGLE_REG:
-            case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
-            case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
-                byte[] ret = new byte[8];
-                for (int i = 6; i < 12; i++) {
-                    ret[i - 6] = response[i];
+        private void readFully(byte[] buffer, int offset, int length) throws IOException {
+            int count = 0;
+            while (count < length) {
+                int read = this.inputStream.read(buffer, offset + count, length - count);
+                if (read < 0) {
+                    throw new EOFException("Connection closed by the remote device");
                 }
-                return ret;
-            case ModbusFunctionCodes.READ_COIL_STATUS:
-            case ModbusFunctionCodes.READ_INPUT_STATUS:
-            case ModbusFunctionCodes.READ_INPUT_REGS:
-            case ModbusFunctionCodes.READ_HOLDING_REGS:
-                int byteCnt = (response[8] & 0xff) + 3 + 6;
-                ret = new byte[byteCnt - 6];
-                for (int i = 6; i < byteCnt; i++) {
-                    ret[i - 6] = response[i];
-                }
-                return ret;
+                count += read;
             }
-            return null;
         }
     }
 
@@ -889,53 +868,17 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
         }
 
-        boolean[] ret = new boolean[count];
-        int index = 0;
-
-        byte[] resp;
         /*
          * construct the command issue and get results
          */
-        byte[] cmd = new byte[6];
-        cmd[0] = (byte) unitAddr;
-        cmd[1] = (byte) ModbusFunctionCodes.READ_COIL_STATUS;
-        cmd[2] = (byte) (dataAddress / 256);
-        cmd[3] = (byte) (dataAddress % 256);
-        cmd[4] = (byte) (count / 256);
-        cmd[5] = (byte) (count % 256);
+        byte[] cmd = buildReadCommand(unitAddr, ModbusFunctionCodes.READ_COIL_STATUS, dataAddress, count);
 
         /*
          * send the message and get the response
          */
-        resp = this.comm.msgTransaction(cmd);
-
-        /*
-         * process the response (address & CRC already confirmed)
-         */
-        if (resp.length < 3 || resp.length < (resp[2] & 0xff) + 3) {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_TYPE);
-        }
-        if ((resp[2] & 0xff) == (count + 7) / 8) {
-            byte mask = 1;
-            int byteOffset = 3;
-            for (int j = 0; j < count; j++, index++) {
-                // get this point's value
-                if ((resp[byteOffset] & mask) == mask) {
-                    ret[index] = true;
-                } else {
-                    ret[index] = false;
-                }
-                // advance the mask and offset index
-                if ((mask <<= 1) == 0) {
-                    mask = 1;
-                    byteOffset++;
-                }
-            }
-        } else {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS);
-        }
+        byte[] resp = this.comm.msgTransaction(cmd);
 
-        return ret;
+        return decodeBits(resp, count);
     }
 
     @Override
@@ -944,53 +887,17 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
         }
 
-        boolean[] ret = new boolean[count];
-        int index = 0;
-
-        byte[] resp;
         /*
          * construct the command issue and get results
          */
-        byte[] cmd = new byte[6];
-        cmd[0] = (byte) unitAddr;
-        cmd[1] = (byte) ModbusFunctionCodes.READ_INPUT_STATUS;
-        cmd[2] = (byte) (dataAddress / 256);
-        cmd[3] = (byte) (dataAddress % 256);
-        cmd[4] = (byte) (count / 256);
-        cmd[5] = (byte) (count % 256);
+        byte[] cmd = buildReadCommand(unitAddr, ModbusFunctionCodes.READ_INPUT_STATUS, dataAddress, count);
 
         /*
          * send the message and get the response
          */
-        resp = this.comm.msgTransaction(cmd);
-
-        /*
-         * process the response (address & CRC already confirmed)
-         */
-        if (resp.length < 3 || resp.length < (resp[2] & 0xff) + 3) {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_TYPE);
-        }
-        if ((resp[2] & 0xff) == (count + 7) / 8) {
-            byte mask = 1;
-            int byteOffset = 3;
-            for (int j = 0; j < count; j++, index++) {
-                // get this point's value
-                if ((resp[byteOffset] & mask) == mask) {
-                    ret[index] = true;
-                } else {
-                    ret[index] = false;
-                }
-                // advance the mask and offset index
-                if ((mask <<= 1) == 0) {
-                    mask = 1;
-                    byteOffset++;
-                }
-            }
-        } else {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS);
-        }
+        byte[] resp = this.comm.msgTransaction(cmd);
 
-        return ret;
+        return decodeBits(resp, count);
     }
 
     @Override
@@ -1094,77 +1001,136 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
             throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
         }
 
-        int[] ret = new int[count];
-        int index = 0;
-
-        byte[] resp;
         /*
-         * construct the command issue and get results, putting the results
-         * away at index and then incrementing index for the next command
+         * construct the command issue and get results
          */
-        byte[] cmd = new byte[6];
-        cmd[0] = (byte) unitAddr;
-        cmd[1] = (byte) ModbusFunctionCodes.READ_HOLDING_REGS;
-        cmd[2] = (byte) (dataAddress / 256);
-        cmd[3] = (byte) (dataAddress % 256);
-        cmd[4] = 0;
-        cmd[5] = (byte) count;
+        byte[] cmd = buildReadCommand(unitAddr, ModbusFunctionCodes.READ_HOLDING_REGS, dataAddress, count);
 
         /*
          * send the message and get the response
          */
-        resp = this.comm.msgTransaction(cmd);
+        byte[] resp = this.comm.msgTransaction(cmd);
+
+        return decodeRegisters(resp, count);
+    }
+
+    @Override
+    public int[] readInputRegisters(int unitAddr, int dataAddress, int count) throws ModbusProtocolException {
+        if (!this.connConfigd) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
+        }
 
         /*
-         * process the response (address & CRC already confirmed)
+         * construct the command issue and get results
          */
-        if (resp.length < 3 || resp.length < (resp[2] & 0xff) + 3) {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_TYPE);
+        byte[] cmd = buildReadCommand(unitAddr, ModbusFunctionCodes.READ_INPUT_REGS, dataAddress, count);
+
+        /*
+         * send the message and get the response
+         */
+        byte[] resp = this.comm.msgTransaction(cmd);
+
+        return decodeRegisters(resp, count);
+    }
+
+    /**
+     * In "TCP/IP" mode the requests are pipelined, up to the number of transactions specified by the
+     * <b>maxPendingTransactions</b> connection property are sent before waiting for the responses. In serial mode
+     * the requests are performed back to back, and the requests addressed to a unit that did not respond to a previous
+     * request of the batch fail without using the bus. In "TCP-RTU" mode the requests are performed one at a time.
+     */
+    @Override
+    public List<ModbusReadResult> read(List<ModbusReadRequest> requests) {
+        final boolean isPipelined = this.comm instanceof EthernetCommunicate
+                && ((EthernetCommunicate) this.comm).isPipeliningSupported();
+
+        if (!this.connConfigd || !isPipelined && !(this.comm instanceof SerialCommunicate)) {
+            return ModbusProtocolDeviceService.super.read(requests);
         }
-        if ((resp[2] & 0xff) == count * 2) {
-            int byteOffset = 3;
-            for (int j = 0; j < count; j++, index++) {
-                int val = resp[byteOffset + ModbusDataOrder.MODBUS_WORD_ORDER_BIG_ENDIAN.charAt(0) - '1'] & 0xff;
-                val <<= 8;
-                val += resp[byteOffset + ModbusDataOrder.MODBUS_WORD_ORDER_BIG_ENDIAN.charAt(1) - '1'] & 0xff;
 
-                ret[index] = val;
+        final List<ModbusReadResult> results = new ArrayList<>(requests.size());
+        final List<byte[]> cmds = new ArrayList<>(requests.size());
 
-                byteOffset += 2;
+        for (ModbusReadRequest request : requests) {
+            cmds.add(buildReadCommand(request.getUnitAddr(), request.getFunctionCode(), request.getDataAddress(),
+                    request.getCount()));
+        }
+
+        Object[] resps;
+        if (isPipelined) {
+            try {
+                resps = ((EthernetCommunicate) this.comm).msgTransactions(cmds);
+            } catch (ModbusProtocolException e) {
+                for (ModbusReadRequest request : requests) {
+                    results.add(ModbusReadResult.failure(request, e));
+                }
+                return results;
             }
         } else {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS);
+            resps = ((SerialCommunicate) this.comm).pollTransactions(cmds);
         }
-        return ret;
-    }
 
-    @Override
-    public int[] readInputRegisters(int unitAddr, int dataAddress, int count) throws ModbusProtocolException {
-
-        if (!this.connConfigd) {
-            throw new ModbusProtocolException(ModbusProtocolErrorCode.NOT_CONNECTED);
+        for (int i = 0; i < requests.size(); i++) {
+            final ModbusReadRequest request = requests.get(i);
+            try {
+                if (resps[i] instanceof ModbusProtocolException) {
+                    throw (ModbusProtocolException) resps[i];
+                }
+                final byte[] resp = (byte[]) resps[i];
+                if (request.isBitRequest()) {
+                    results.add(ModbusReadResult.bits(request, decodeBits(resp, request.getCount())));
+                } else {
+                    results.add(ModbusReadResult.registers(request, decodeRegisters(resp, request.getCount())));
+                }
+            } catch (ModbusProtocolException e) {
+                results.add(ModbusReadResult.failure(request, e));
+            }
         }
 
-        int[] ret = new int[count];
-        int index = 0;
+        return results;
+    }
 
-        byte[] resp;
-        /*
-         * construct the command issue and get results, putting the results
-         * away at index and then incrementing index for the next command
-         */
+    private static byte[] buildReadCommand(int unitAddr, int functionCode, int dataAddress, int count) {
         byte[] cmd = new byte[6];
         cmd[0] = (byte) unitAddr;
-        cmd[1] = (byte) ModbusFunctionCodes.READ_INPUT_REGS;
+        cmd[1] = (byte) functionCode;
         cmd[2] = (byte) (dataAddress / 256);
         cmd[3] = (byte) (dataAddress % 256);
-        cmd[4] = 0;
-        cmd[5] = (byte) count;
+        cmd[4] = (byte) (count / 256);
+        cmd[5] = (byte) (count % 256);
+        return cmd;
+    }
+
+    private static boolean[] decodeBits(byte[] resp, int count) throws ModbusProtocolException {
+        boolean[] ret = new boolean[count];
 
         /*
-         * send the message and get the response
+         * process the response (address & CRC already confirmed)
          */
-        resp = this.comm.msgTransaction(cmd);
+        if (resp.length < 3 || resp.length < (resp[2] & 0xff) + 3) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_TYPE);
+        }
+        if ((resp[2] & 0xff) == (count + 7) / 8) {
+            byte mask = 1;
+            int byteOffset = 3;
+            for (int index = 0; index < count; index++) {
+                // get this point's value
+                ret[index] = (resp[byteOffset] & mask) == mask;
+                // advance the mask and offset index
+                if ((mask <<= 1) == 0) {
+                    mask = 1;
+                    byteOffset++;
+                }
+            }
+        } else {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS);
+        }
+
+        return ret;
+    }
+
+    private static int[] decodeRegisters(byte[] resp, int count) throws ModbusProtocolException {
+        int[] ret = new int[count];
 
         /*
          * process the response (address & CRC already confirmed)
@@ -1174,7 +1140,7 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         }
         if ((resp[2] & 0xff) == count * 2) {
             int byteOffset = 3;
-            for (int j = 0; j < count; j++, index++) {
+            for (int index = 0; index < count; index++) {
                 int val = resp[byteOffset + ModbusDataOrder.MODBUS_WORD_ORDER_BIG_ENDIAN.charAt(0) - '1'] & 0xff;
                 val <<= 8;
                 val += resp[byteOffset + ModbusDataOrder.MODBUS_WORD_ORDER_BIG_ENDIAN.charAt(1) - '1'] & 0xff;
@@ -1404,17 +1370,4 @@ public class ModbusProtocolDevice implements ModbusProtocolDeviceService {
         return mce;
     }
 
-    /**
-     * Calculates and returns the next transaction index for Modbus TCP.
-     *
-     * @return the next transaction index.
-     */
-    private int getNextTransactionIndex() {
-        transactionIndex++;
-        if (transactionIndex > 0xffff) {
-            transactionIndex = 0;
-        }
-        return transactionIndex;
-    }
-
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.kura.protocol.modbus;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.eclipse.kura.KuraConnectionStatus;
@@ -111,6 +113,9 @@ public interface ModbusProtocolDeviceService {
      *            <ul>
      *            <li>port : TCP port to be used
      *            <li>ipAddress : the 4 bytes IP address of the field device (xxx.xxx.xxx.xxx)
+     *            <li>maxPendingTransactions : optional, in "TCP/IP" mode the maximum number of requests of a
+     *            {@link #read(List)} batch that can be sent before receiving the corresponding responses, defaults
+     *            to 1
      *            </ul>
      *            <br>
      *            Modbus properties :
@@ -402,4 +407,50 @@ public interface ModbusProtocolDeviceService {
      *             the cause of the exception
      */
     public void writeMultipleRegister(int unitAddr, int dataAddress, int[] data) throws ModbusProtocolException;
+
+    /**
+     * Performs a batch of read operations, using function 01, 02, 03 or 04 depending on the request.
+     * <p>
+     * The failure of a request does not prevent the execution of the following ones, the outcome of each request is
+     * reported by the corresponding {@link ModbusReadResult}.
+     * <p>
+     * The default implementation performs the requests one at a time. In "TCP/IP" mode the implementation can instead
+     * send up to <b>maxPendingTransactions</b> requests before waiting for the responses, matching the responses with
+     * the requests using the MBAP transaction identifier, this reduces the number of network round trips required
+     * for reading from devices that process the requests in parallel or that have a high latency.
+     *
+     * @param requests
+     *            the requests to be performed
+     * @return a list containing the result of each request, in the same order as the requests
+     */
+    public default List<ModbusReadResult> read(List<ModbusReadRequest> requests) {
+        final List<ModbusReadResult> results = new ArrayList<>(requests.size());
+
+        for (ModbusReadRequest request : requests) {
+            final int unitAddr = request.getUnitAddr();
+            final int dataAddress = request.getDataAddress();
+            final int count = request.getCount();
+
+            try {
+                switch (request.getFunctionCode()) {
+                case ModbusFunctionCodes.READ_COIL_STATUS:
+                    results.add(ModbusReadResult.bits(request, readCoils(unitAddr, dataAddress, count)));
+                    break;
+                case ModbusFunctionCodes.READ_INPUT_STATUS:
+                    results.add(ModbusReadResult.bits(request, readDiscreteInputs(unitAddr, dataAddress, count)));
+                    break;
+                case ModbusFunctionCodes.READ_HOLDING_REGS:
+                    results.add(
+                            ModbusReadResult.registers(request, readHoldingRegisters(unitAddr, dataAddress, count)));
+                    break;
+                default:
+                    results.add(ModbusReadResult.registers(request, readInputRegisters(unitAddr, dataAddress, count)));
+                }
+            } catch (ModbusProtocolException e) {
+                results.add(ModbusReadResult.failure(request, e));
+            }
+        }
+
+        return results;
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2011, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,10 @@ public class ModbusProtocolException extends Exception {
 
     private static final Logger s_logger = LoggerFactory.getLogger(ModbusProtocolException.class);
 
+    // exception codes of the Modbus application protocol
+    private static final int ILLEGAL_DATA_ADDRESS = 0x02;
+    private static final int ILLEGAL_DATA_VALUE = 0x03;
+
     protected ModbusProtocolErrorCode m_code;
     private Object[] m_arguments;
     private String m_complement;
@@ -97,6 +101,31 @@ public class ModbusProtocolException extends Exception {
         this.m_arguments = arguments;
     }
 
+    /**
+     * Builds the exception reporting an exception response received from a device. The illegal data address and
+     * illegal data value exception codes are reported as {@link ModbusProtocolErrorCode#INVALID_DATA_ADDRESS} and
+     * {@link ModbusProtocolErrorCode#INVALID_DATA_TYPE}, the other codes as
+     * {@link ModbusProtocolErrorCode#TRANSACTION_FAILURE}.
+     *
+     * @param exceptionCode
+     *            the exception code contained in the response
+     */
+    static ModbusProtocolException forExceptionResponse(int exceptionCode) {
+        final ModbusProtocolErrorCode code;
+        switch (exceptionCode & 0xff) {
+        case ILLEGAL_DATA_ADDRESS:
+            code = ModbusProtocolErrorCode.INVALID_DATA_ADDRESS;
+            break;
+        case ILLEGAL_DATA_VALUE:
+            code = ModbusProtocolErrorCode.INVALID_DATA_TYPE;
+            break;
+        default:
+            code = ModbusProtocolErrorCode.TRANSACTION_FAILURE;
+        }
+        return new ModbusProtocolException(code,
+                "Modbus responds an error = " + String.format("%02X", exceptionCode & 0xff));
+    }
+
     public ModbusProtocolErrorCode getCode() {
         return this.m_code;
     }
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+/**
+ * Describes a single read operation of a batch submitted with
+ * {@link ModbusProtocolDeviceService#read(java.util.List)}.
+ * <p>
+ * Instances are created using the static factory methods, one for each of the supported read function codes.
+ */
+public final class ModbusReadRequest {
+
+    private final int unitAddr;
+    private final int functionCode;
+    private final int dataAddress;
+    private final int count;
+
+    private ModbusReadRequest(int unitAddr, int functionCode, int dataAddress, int count) {
+        this.unitAddr = unitAddr;
+        this.functionCode = functionCode;
+        this.dataAddress = dataAddress;
+        this.count = count;
+    }
+
+    /**
+     * <b>Modbus function 01</b><br>
+     * Creates a request for reading 1 to 2000 contiguous coils.
+     *
+     * @param unitAddr
+     *            modbus slave address (must be unique in the range 1 - 247)
+     * @param dataAddress
+     *            starting address
+     * @param count
+     *            quantity of coils
+     * @return the request
+     */
+    public static ModbusReadRequest readCoils(int unitAddr, int dataAddress, int count) {
+        return new ModbusReadRequest(unitAddr, ModbusFunctionCodes.READ_COIL_STATUS, dataAddress, count);
+    }
+
+    /**
+     * <b>Modbus function 02</b><br>
+     * Creates a request for reading 1 to 2000 contiguous discrete inputs.
+     *
+     * @param unitAddr
+     *            modbus slave address (must be unique in the range 1 - 247)
+     * @param dataAddress
+     *            starting address
+     * @param count
+     *            quantity of inputs
+     * @return the request
+     */
+    public static ModbusReadRequest readDiscreteInputs(int unitAddr, int dataAddress, int count) {
+        return new ModbusReadRequest(unitAddr, ModbusFunctionCodes.READ_INPUT_STATUS, dataAddress, count);
+    }
+
+    /**
+     * <b>Modbus function 03</b><br>
+     * Creates a request for reading 1 to 125 contiguous holding registers.
+     *
+     * @param unitAddr
+     *            modbus slave address (must be unique in the range 1 - 247)
+     * @param dataAddress
+     *            starting address
+     * @param count
+     *            quantity of registers
+     * @return the request
+     */
+    public static ModbusReadRequest readHoldingRegisters(int unitAddr, int dataAddress, int count) {
+        return new ModbusReadRequest(unitAddr, ModbusFunctionCodes.READ_HOLDING_REGS, dataAddress, count);
+    }
+
+    /**
+     * <b>Modbus function 04</b><br>
+     * Creates a request for reading 1 to 125 contiguous input registers.
+     *
+     * @param unitAddr
+     *            modbus slave address (must be unique in the range 1 - 247)
+     * @param dataAddress
+     *            starting address
+     * @param count
+     *            quantity of registers
+     * @return the request
+     */
+    public static ModbusReadRequest readInputRegisters(int unitAddr, int dataAddress, int count) {
+        return new ModbusReadRequest(unitAddr, ModbusFunctionCodes.READ_INPUT_REGS, dataAddress, count);
+    }
+
+    public int getUnitAddr() {
+        return this.unitAddr;
+    }
+
+    /**
+     * Returns the function code of this request, as defined in {@link ModbusFunctionCodes}.
+     *
+     * @return the function code
+     */
+    public int getFunctionCode() {
+        return this.functionCode;
+    }
+
+    public int getDataAddress() {
+        return this.dataAddress;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns true if this request reads coils or discrete inputs, false if it reads registers.
+     *
+     * @return true if this request reads single bit values
+     */
+    public boolean isBitRequest() {
+        return this.functionCode == ModbusFunctionCodes.READ_COIL_STATUS
+                || this.functionCode == ModbusFunctionCodes.READ_INPUT_STATUS;
+    }
+
+    @Override
+    public String toString() {
+        return "ModbusReadRequest [unitAddr=" + this.unitAddr + ", functionCode=" + this.functionCode
+                + ", dataAddress=" + this.dataAddress + ", count=" + this.count + "]";
+    }
+}
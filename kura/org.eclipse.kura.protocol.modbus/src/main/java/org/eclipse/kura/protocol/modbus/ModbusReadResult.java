@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+/**
+ * The outcome of a single {@link ModbusReadRequest} of a batch submitted with
+ * {@link ModbusProtocolDeviceService#read(java.util.List)}.
+ * <p>
+ * A successful result provides the bit values for coil and discrete input requests or the register values for
+ * holding and input register requests, a failed result provides the exception reported for the request.
+ */
+public final class ModbusReadResult {
+
+    private final ModbusReadRequest request;
+    private final boolean[] bits;
+    private final int[] registers;
+    private final ModbusProtocolException exception;
+
+    private ModbusReadResult(ModbusReadRequest request, boolean[] bits, int[] registers,
+            ModbusProtocolException exception) {
+        this.request = request;
+        this.bits = bits;
+        this.registers = registers;
+        this.exception = exception;
+    }
+
+    public static ModbusReadResult bits(ModbusReadRequest request, boolean[] bits) {
+        return new ModbusReadResult(request, bits, null, null);
+    }
+
+    public static ModbusReadResult registers(ModbusReadRequest request, int[] registers) {
+        return new ModbusReadResult(request, null, registers, null);
+    }
+
+    public static ModbusReadResult failure(ModbusReadRequest request, ModbusProtocolException exception) {
+        return new ModbusReadResult(request, null, null, exception);
+    }
+
+    public ModbusReadRequest getRequest() {
+        return this.request;
+    }
+
+    public boolean isSuccessful() {
+        return this.exception == null;
+    }
+
+    /**
+     * Returns the values read by a successful coil or discrete input request.
+     *
+     * @return the bit values, or null if the request failed or if it reads registers
+     */
+    public boolean[] getBits() {
+        return this.bits;
+    }
+
+    /**
+     * Returns the values read by a successful holding or input register request.
+     *
+     * @return the register values, or null if the request failed or if it reads bits
+     */
+    public int[] getRegisters() {
+        return this.registers;
+    }
+
+    /**
+     * Returns the reason for which the request failed.
+     *
+     * @return the exception, or null if the request succeeded
+     */
+    public ModbusProtocolException getException() {
+        return this.exception;
+    }
+}
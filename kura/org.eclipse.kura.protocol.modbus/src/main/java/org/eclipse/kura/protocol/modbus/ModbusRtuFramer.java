@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs Modbus RTU transactions over the streams of a serial connection.
+ * <p>
+ * The serial port is expected to be opened with a receive timeout equal to {@link #getReceiveTimeout(int, int, int, int)}, so that a
+ * read returns no data once the line has been silent for about 3.5 character times, which marks the end of a RTU
+ * frame. The bytes are read in bulk as they become available and the CRC is updated as they are received, a response
+ * is returned as soon as its expected length, derived from the function code and byte count, has been received with a
+ * valid CRC. Frames with an unknown length are terminated by the silent interval.
+ * <p>
+ * A new request is sent as soon as the silent interval following the previous frame has elapsed.
+ */
+final class ModbusRtuFramer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusRtuFramer.class);
+
+    private static final int MAX_FRAME_LENGTH = 256;
+    // fixed value recommended by the Modbus over serial line specification for baud rates greater than 19200
+    private static final long MIN_SILENT_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(1750);
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final long silentIntervalNanos;
+
+    private final byte[] buffer = new byte[MAX_FRAME_LENGTH];
+    private long lastFrameNanos;
+
+    ModbusRtuFramer(InputStream in, OutputStream out, int baudRate, int dataBits, int parity, int stopBits) {
+        this.in = in;
+        this.out = out;
+        this.silentIntervalNanos = getSilentIntervalNanos(baudRate, dataBits, parity, stopBits);
+        this.lastFrameNanos = System.nanoTime() - this.silentIntervalNanos;
+    }
+
+    /**
+     * Returns the duration of 3.5 characters at the provided line settings, or 1.75 ms for baud rates greater than
+     * 19200.
+     */
+    static long getSilentIntervalNanos(int baudRate, int dataBits, int parity, int stopBits) {
+        if (baudRate > 19200) {
+            return MIN_SILENT_INTERVAL_NANOS;
+        }
+        // start bit, data bits, optional parity bit, stop bits (javax.comm uses 3 for 1.5 stop bits)
+        final int characterBits = 1 + dataBits + (parity != 0 ? 1 : 0) + (stopBits >= 2 ? 2 : 1);
+        return TimeUnit.SECONDS.toNanos(characterBits) * 7 / (2L * Math.max(1, baudRate));
+    }
+
+    /**
+     * Returns the receive timeout in milliseconds to be configured on the serial port, the silent interval rounded
+     * up.
+     */
+    static int getReceiveTimeout(int baudRate, int dataBits, int parity, int stopBits) {
+        final long silentIntervalNanos = getSilentIntervalNanos(baudRate, dataBits, parity, stopBits);
+        return (int) Math.max(1, (silentIntervalNanos + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Sends the provided message, that must contain the unit identifier followed by the PDU, and returns the response
+     * without the CRC.
+     */
+    byte[] transact(byte[] msg, int responseTimeout) throws ModbusProtocolException, IOException {
+        final byte[] cmd = Arrays.copyOf(msg, msg.length + 2);
+        // Add crc calculation to end of message
+        final int crc = Crc16.update(0xffff, msg, 0, msg.length);
+        cmd[msg.length] = (byte) crc;
+        cmd[msg.length + 1] = (byte) (crc >> 8);
+
+        discardInput();
+        waitSilentInterval();
+
+        this.out.write(cmd, 0, cmd.length);
+        this.out.flush();
+
+        try {
+            return readResponse(msg, TimeUnit.MILLISECONDS.toNanos(responseTimeout));
+        } finally {
+            this.lastFrameNanos = System.nanoTime();
+        }
+    }
+
+    private byte[] readResponse(byte[] msg, long responseTimeoutNanos) throws ModbusProtocolException, IOException {
+        final long deadline = System.nanoTime() + responseTimeoutNanos;
+
+        int length = 0;
+        int expectedLength = -1;
+        int crc = 0xffff;
+
+        // wait for the first bytes of the response
+        while (length == 0) {
+            length = read(0);
+            if (length == 0 && System.nanoTime() - deadline > 0) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, "Recv timeout");
+            }
+        }
+        crc = Crc16.update(crc, this.buffer, 0, length);
+
+        while (true) {
+            if (expectedLength < 0 && length >= 3) {
+                expectedLength = getExpectedLength(this.buffer);
+            }
+            if (expectedLength > 0 && length >= expectedLength || length == this.buffer.length) {
+                break;
+            }
+            final int read = read(length);
+            if (read == 0) {
+                // silent interval, end of frame
+                break;
+            }
+            crc = Crc16.update(crc, this.buffer, length, read);
+            length += read;
+            if (System.nanoTime() - deadline > 0) {
+                throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                        "Too much activity on recv line");
+            }
+        }
+
+        if (expectedLength > 0 && length > expectedLength) {
+            discardInput();
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "Unexpected data after the response");
+        }
+        if (length < 4 || crc != 0) {
+            logger.debug("Invalid frame received, length: {}", length);
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE, "Bad CRC");
+        }
+        if (this.buffer[0] != msg[0]) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect modbus id " + String.format("%02X", this.buffer[0]));
+        }
+        if ((this.buffer[1] & 0x7f) != msg[1]) {
+            throw new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect function number " + String.format("%02X", this.buffer[1]));
+        }
+        if ((this.buffer[1] & 0x80) == 0x80) {
+            throw ModbusProtocolException.forExceptionResponse(this.buffer[2]);
+        }
+
+        return Arrays.copyOf(this.buffer, length - 2);
+    }
+
+    /**
+     * Returns the length of the frame including the CRC, or 0 if it cannot be derived from the first 3 bytes.
+     */
+    private static int getExpectedLength(byte[] frame) {
+        if ((frame[1] & 0x80) == 0x80) {
+            return 5;
+        }
+        switch (frame[1]) {
+        case ModbusFunctionCodes.FORCE_SINGLE_COIL:
+        case ModbusFunctionCodes.PRESET_SINGLE_REG:
+        case ModbusFunctionCodes.FORCE_MULTIPLE_COILS:
+        case ModbusFunctionCodes.PRESET_MULTIPLE_REGS:
+        case ModbusFunctionCodes.GET_COMM_EVENT_COUNTER:
+            return 8;
+        case ModbusFunctionCodes.READ_EXCEPTION_STATUS:
+            return 5;
+        case ModbusFunctionCodes.READ_COIL_STATUS:
+        case ModbusFunctionCodes.READ_INPUT_STATUS:
+        case ModbusFunctionCodes.READ_HOLDING_REGS:
+        case ModbusFunctionCodes.READ_INPUT_REGS:
+        case ModbusFunctionCodes.GET_COMM_EVENT_LOG:
+            return (frame[2] & 0xff) + 5;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the available bytes, or blocks until some data is received if no data is available.
+     *
+     * @return the number of bytes read, 0 if the line has been silent for the silent interval
+     */
+    private int read(int offset) throws IOException {
+        final long start = System.nanoTime();
+
+        while (true) {
+            final int available = this.in.available();
+            final int count = Math.max(1, Math.min(available, this.buffer.length - offset));
+            final int read = this.in.read(this.buffer, offset, count);
+            if (read < 0) {
+                throw new EOFException("End of stream");
+            }
+            if (read > 0) {
+                return read;
+            }
+            // the read should block for the port receive timeout, wait if it returned earlier
+            final long remaining = start + this.silentIntervalNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return 0;
+            }
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private void discardInput() throws IOException {
+        int available;
+        while ((available = this.in.available()) > 0) {
+            if (this.in.read(this.buffer, 0, Math.min(available, this.buffer.length)) <= 0) {
+                break;
+            }
+        }
+    }
+
+    private void waitSilentInterval() {
+        long remaining;
+        while ((remaining = this.lastFrameNanos + this.silentIntervalNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.protocol.modbus;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs MODBUS-TCP transactions over the streams of a connected socket.
+ * <p>
+ * The requests are sent with a MBAP header containing a transaction identifier, up to
+ * {@code maxPendingTransactions} requests can be sent before reading the responses, which are matched with the
+ * requests using the transaction identifier and can therefore be received in any order. Responses with an unknown
+ * transaction identifier, for example late responses to requests that timed out, are discarded.
+ * <p>
+ * The responses are decoded from an internal buffer filled with bulk reads, the length of each frame is taken from
+ * the MBAP header. The bytes of a frame partially received before a timeout are kept in the buffer, so that the
+ * following transactions can skip the whole late frame instead of losing the frame boundaries.
+ */
+final class ModbusTcpTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModbusTcpTransport.class);
+
+    private static final int MBAP_HEADER_LENGTH = 6;
+    private static final int MAX_FRAME_LENGTH = 254;
+
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final int maxPendingTransactions;
+
+    private final byte[] buffer = new byte[4096];
+    private int bufferStart;
+    private int bufferEnd;
+
+    private int transactionIndex;
+
+    ModbusTcpTransport(InputStream inputStream, OutputStream outputStream, int maxPendingTransactions) {
+        this.inputStream = inputStream;
+        this.outputStream = new BufferedOutputStream(outputStream);
+        this.maxPendingTransactions = Math.max(1, maxPendingTransactions);
+    }
+
+    /**
+     * Performs a transaction for each of the provided messages. Each message must contain the unit identifier
+     * followed by the PDU.
+     * <p>
+     * The result for each message is stored at the same index of the {@code results} array: it is either the
+     * response, starting with the unit identifier, or a {@link ModbusProtocolException} if the device reported an
+     * exception or if the response does not match the request.
+     *
+     * @throws IOException
+     *             if the transactions cannot be completed because of an I/O error, a timeout or an invalid frame, in
+     *             this case the results of the transactions not completed yet are left to null
+     */
+    void transact(List<byte[]> messages, Object[] results) throws IOException {
+        final Map<Integer, Integer> pending = new HashMap<>();
+        int next = 0;
+        int completed = 0;
+
+        while (completed < messages.size()) {
+            while (next < messages.size() && pending.size() < this.maxPendingTransactions) {
+                final int transactionId = getNextTransactionIndex();
+                writeFrame(transactionId, messages.get(next));
+                pending.put(transactionId, next);
+                next++;
+            }
+            this.outputStream.flush();
+
+            final int transactionId = readFrameHeader();
+            final int length = readUnsignedShort(this.bufferStart + 4);
+            final byte[] response = readFrameBody(length);
+
+            final Integer index = pending.remove(transactionId);
+            if (index == null) {
+                logger.debug("Discarding response with unexpected transaction id {}", transactionId);
+                continue;
+            }
+
+            results[index] = checkResponse(messages.get(index), response);
+            completed++;
+        }
+    }
+
+    private void writeFrame(int transactionId, byte[] message) throws IOException {
+        final byte[] header = new byte[MBAP_HEADER_LENGTH];
+        header[0] = (byte) (transactionId >> 8);
+        header[1] = (byte) transactionId;
+        header[2] = 0;
+        header[3] = 0;
+        header[4] = (byte) (message.length >> 8);
+        header[5] = (byte) message.length;
+
+        this.outputStream.write(header);
+        this.outputStream.write(message);
+    }
+
+    private int readFrameHeader() throws IOException {
+        fill(MBAP_HEADER_LENGTH);
+
+        final int protocolId = readUnsignedShort(this.bufferStart + 2);
+        final int length = readUnsignedShort(this.bufferStart + 4);
+
+        if (protocolId != 0 || length < 2 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid MBAP header, protocol id: " + protocolId + " length: " + length);
+        }
+
+        return readUnsignedShort(this.bufferStart);
+    }
+
+    private byte[] readFrameBody(int length) throws IOException {
+        fill(MBAP_HEADER_LENGTH + length);
+
+        final byte[] result = new byte[length];
+        System.arraycopy(this.buffer, this.bufferStart + MBAP_HEADER_LENGTH, result, 0, length);
+        this.bufferStart += MBAP_HEADER_LENGTH + length;
+
+        return result;
+    }
+
+    private void fill(int count) throws IOException {
+        if (this.buffer.length - this.bufferStart < count) {
+            System.arraycopy(this.buffer, this.bufferStart, this.buffer, 0, this.bufferEnd - this.bufferStart);
+            this.bufferEnd -= this.bufferStart;
+            this.bufferStart = 0;
+        }
+
+        while (this.bufferEnd - this.bufferStart < count) {
+            final int read = this.inputStream.read(this.buffer, this.bufferEnd, this.buffer.length - this.bufferEnd);
+            if (read < 0) {
+                throw new EOFException("Connection closed by the remote device");
+            }
+            this.bufferEnd += read;
+        }
+    }
+
+    private int readUnsignedShort(int offset) {
+        return (this.buffer[offset] & 0xff) << 8 | this.buffer[offset + 1] & 0xff;
+    }
+
+    private static Object checkResponse(byte[] message, byte[] response) {
+        if (response[0] != message[0]) {
+            return new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect modbus id " + String.format("%02X", response[0]));
+        }
+        if ((response[1] & 0x7f) != message[1]) {
+            return new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE,
+                    "incorrect function number " + String.format("%02X", response[1]));
+        }
+        if ((response[1] & 0x80) == 0x80) {
+            return ModbusProtocolException.forExceptionResponse(response.length > 2 ? response[2] : 0);
+        }
+        return response;
+    }
+
+    private int getNextTransactionIndex() {
+        this.transactionIndex = this.transactionIndex + 1 & 0xffff;
+        return this.transactionIndex;
+    }
+}
@@ -27,12 +27,12 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.internal.wire.conditional.ConditionalOptions.ConditionLanguage;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireReceiver;
-import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.graph.EmitterPort;
 import org.eclipse.kura.wire.graph.MultiportWireSupport;
 import org.osgi.framework.ServiceReference;
@@ -64,6 +64,7 @@ public final class Conditional implements WireReceiver, WireEmitter, Configurabl
 
     private ConditionalOptions conditionalOptions;
     private Optional<CompiledScript> script = Optional.empty();
+    private volatile Optional<ConditionalExpression> expression = Optional.empty();
 
     public void bindWireHelperService(final WireHelperService wireHelperService) {
         if (isNull(this.wireHelperService)) {
@@ -101,11 +102,17 @@ public final class Conditional implements WireReceiver, WireEmitter, Configurabl
     public synchronized void updated(final Map<String, Object> properties) {
         logger.info("Updating Conditional component...");
         this.conditionalOptions = new ConditionalOptions(properties);
+        this.script = Optional.empty();
+        this.expression = Optional.empty();
         try {
-            this.script = Optional.of(tryCompileScript(this.conditionalOptions.getBooleanExpression()));
+            if (this.conditionalOptions.getConditionLanguage() == ConditionLanguage.EXPRESSION) {
+                this.expression = Optional
+                        .of(ConditionalExpression.compile(this.conditionalOptions.getBooleanExpression()));
+            } else {
+                this.script = Optional.of(tryCompileScript(this.conditionalOptions.getBooleanExpression()));
+            }
         } catch (Exception e) {
             logger.warn("Failed to compile boolean expression", e);
-            this.script = Optional.empty();
         }
         logger.info("Updating Conditional component...done");
     }
@@ -118,36 +125,23 @@ public final class Conditional implements WireReceiver, WireEmitter, Configurabl
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
+    public void onWireReceive(final WireEnvelope wireEnvelope) {
         requireNonNull(wireEnvelope, "Wire Envelope cannot be null");
 
         try {
+            // compiled expressions are evaluated without locking, the script engine bindings are shared instead
+            final Optional<ConditionalExpression> currentExpression = this.expression;
+            final Optional<Boolean> decision = currentExpression.isPresent()
+                    ? toDecision(currentExpression.get().evaluate(wireEnvelope))
+                    : evaluateScript(wireEnvelope);
 
-            if (!this.script.isPresent()) {
-                logger.warn(
-                        "The script compilation failed during component configuration update, please review the script.");
-                return;
-            }
-
-            final List<WireRecord> inputRecords = wireEnvelope.getRecords();
-
-            final WireRecordListWrapper wireRecordList = new WireRecordListWrapper(inputRecords);
-            final String emitterPid = wireEnvelope.getEmitterPid();
-
-            this.bindings.put("input", new WireEnvelopeWrapper(wireRecordList, emitterPid));
-            this.bindings.put("records", wireRecordList);
-            this.bindings.put("emitterPid", emitterPid);
-
-            final Object decision = this.script.get().eval(this.bindings);
-
-            if (!(decision instanceof Boolean)) {
-                logger.warn("Expression result is not a boolean: {}", decision);
+            if (!decision.isPresent()) {
                 return;
             }
 
-            final WireEnvelope outputEnvelope = this.wireSupport.createWireEnvelope(inputRecords);
+            final WireEnvelope outputEnvelope = this.wireSupport.createWireEnvelope(wireEnvelope.getRecords());
 
-            if ((Boolean) decision) {
+            if (decision.get()) {
                 this.thenPort.emit(outputEnvelope);
             } else {
                 this.elsePort.emit(outputEnvelope);
@@ -157,6 +151,31 @@ public final class Conditional implements WireReceiver, WireEmitter, Configurabl
         }
     }
 
+    private synchronized Optional<Boolean> evaluateScript(final WireEnvelope wireEnvelope) throws ScriptException {
+        if (!this.script.isPresent()) {
+            logger.warn(
+                    "The script compilation failed during component configuration update, please review the script.");
+            return Optional.empty();
+        }
+
+        final WireRecordListWrapper wireRecordList = new WireRecordListWrapper(wireEnvelope.getRecords());
+        final String emitterPid = wireEnvelope.getEmitterPid();
+
+        this.bindings.put("input", new WireEnvelopeWrapper(wireRecordList, emitterPid));
+        this.bindings.put("records", wireRecordList);
+        this.bindings.put("emitterPid", emitterPid);
+
+        return toDecision(this.script.get().eval(this.bindings));
+    }
+
+    private static Optional<Boolean> toDecision(final Object result) {
+        if (!(result instanceof Boolean)) {
+            logger.warn("Expression result is not a boolean: {}", result);
+            return Optional.empty();
+        }
+        return Optional.of((Boolean) result);
+    }
+
     private CompiledScript tryCompileScript(final String script) throws ScriptException {
         final Compilable engine = ((Compilable) this.scriptEngine);
         return engine.compile(script);
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.conditional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * A boolean expression over the records of a {@link WireEnvelope}, compiled once into a tree of nodes that directly
+ * reads the {@link TypedValue}s of the records.
+ * <p>
+ * The supported syntax is a subset of the JavaScript expressions: number, string, boolean and {@code null} literals,
+ * the {@code records}, {@code emitterPid} and {@code input} variables, member access ({@code records[0].TEMP},
+ * {@code records[0]['TEMP']}, {@code records.length}), arithmetic, comparison, equality and boolean operators.
+ * Accessing a record property returns the value of the {@link TypedValue}, or {@code null} if the property is missing;
+ * for compatibility with the JavaScript conditions {@code getValue()} can be invoked on the result.
+ * <p>
+ * As in JavaScript, the strict equality operators {@code ===} and {@code !==} only consider values of the same type
+ * as equal, while {@code ==} and {@code !=} convert strings and booleans to numbers before comparing them with a
+ * different type. Numbers are compared by value whatever their Java type, {@code null} and {@code undefined} are the
+ * same value, equal only to themselves, and cannot be compared with the relational operators.
+ * <p>
+ * Compiled expressions are immutable and can be evaluated concurrently.
+ */
+final class ConditionalExpression {
+
+    private static final int NOT_COMPARABLE = Integer.MIN_VALUE;
+
+    private final Node root;
+
+    private ConditionalExpression(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles the provided expression.
+     *
+     * @throws IllegalArgumentException
+     *             if the expression is not valid
+     */
+    static ConditionalExpression compile(final String expression) {
+        return new ConditionalExpression(new ConditionalExpressionParser(expression).parse());
+    }
+
+    /**
+     * Evaluates the expression, the result is not necessarily a {@link Boolean}.
+     */
+    Object evaluate(final WireEnvelope envelope) {
+        return this.root.evaluate(envelope);
+    }
+
+    @FunctionalInterface
+    interface Node {
+
+        Object evaluate(WireEnvelope envelope);
+    }
+
+    static Node literal(final Object value) {
+        return envelope -> value;
+    }
+
+    static Node records() {
+        return WireEnvelope::getRecords;
+    }
+
+    static Node emitterPid() {
+        return WireEnvelope::getEmitterPid;
+    }
+
+    static Node input() {
+        return envelope -> envelope;
+    }
+
+    static Node member(final Node target, final String name) {
+        return envelope -> getMember(target.evaluate(envelope), name);
+    }
+
+    static Node index(final Node target, final Node index) {
+        return envelope -> {
+            final Object targetValue = target.evaluate(envelope);
+            final Object indexValue = index.evaluate(envelope);
+
+            if (indexValue instanceof String) {
+                return getMember(targetValue, (String) indexValue);
+            }
+            if (targetValue instanceof List && indexValue instanceof Number) {
+                final List<?> list = (List<?>) targetValue;
+                final double position = ((Number) indexValue).doubleValue();
+                final int intPosition = (int) position;
+                if (intPosition == position && intPosition >= 0 && intPosition < list.size()) {
+                    return list.get(intPosition);
+                }
+            }
+            return null;
+        };
+    }
+
+    static Node not(final Node operand) {
+        return envelope -> !isTrue(operand.evaluate(envelope));
+    }
+
+    static Node negate(final Node operand) {
+        return envelope -> -toNumber(operand.evaluate(envelope));
+    }
+
+    static Node and(final Node left, final Node right) {
+        return envelope -> isTrue(left.evaluate(envelope)) && isTrue(right.evaluate(envelope));
+    }
+
+    static Node or(final Node left, final Node right) {
+        return envelope -> isTrue(left.evaluate(envelope)) || isTrue(right.evaluate(envelope));
+    }
+
+    static Node equal(final Node left, final Node right, final boolean strict, final boolean negated) {
+        if (strict) {
+            return envelope -> isStrictEqual(left.evaluate(envelope), right.evaluate(envelope)) != negated;
+        }
+        return envelope -> isLooseEqual(left.evaluate(envelope), right.evaluate(envelope)) != negated;
+    }
+
+    static Node compare(final Node left, final Node right, final String operator) {
+        final IntPredicate predicate;
+        switch (operator) {
+        case "<":
+            predicate = result -> result < 0;
+            break;
+        case "<=":
+            predicate = result -> result <= 0;
+            break;
+        case ">":
+            predicate = result -> result > 0;
+            break;
+        case ">=":
+            predicate = result -> result >= 0;
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported operator " + operator);
+        }
+        return envelope -> {
+            final int result = compare(left.evaluate(envelope), right.evaluate(envelope));
+            return result != NOT_COMPARABLE && predicate.test(result);
+        };
+    }
+
+    static Node arithmetic(final Node left, final Node right, final char operator) {
+        switch (operator) {
+        case '+':
+            return envelope -> {
+                final Object leftValue = left.evaluate(envelope);
+                final Object rightValue = right.evaluate(envelope);
+                if (leftValue instanceof String || rightValue instanceof String) {
+                    return String.valueOf(leftValue) + rightValue;
+                }
+                return toNumber(leftValue) + toNumber(rightValue);
+            };
+        case '-':
+            return envelope -> toNumber(left.evaluate(envelope)) - toNumber(right.evaluate(envelope));
+        case '*':
+            return envelope -> toNumber(left.evaluate(envelope)) * toNumber(right.evaluate(envelope));
+        case '/':
+            return envelope -> toNumber(left.evaluate(envelope)) / toNumber(right.evaluate(envelope));
+        case '%':
+            return envelope -> toNumber(left.evaluate(envelope)) % toNumber(right.evaluate(envelope));
+        default:
+            throw new IllegalArgumentException("Unsupported operator " + operator);
+        }
+    }
+
+    private static Object getMember(final Object target, final String name) {
+        if (target instanceof WireRecord) {
+            final TypedValue<?> value = ((WireRecord) target).getProperties().get(name);
+            return value == null ? null : value.getValue();
+        } else if (target instanceof List && "length".equals(name)) {
+            return ((List<?>) target).size();
+        } else if (target instanceof WireEnvelope) {
+            if ("records".equals(name)) {
+                return ((WireEnvelope) target).getRecords();
+            } else if ("emitterPid".equals(name)) {
+                return ((WireEnvelope) target).getEmitterPid();
+            }
+        } else if (target instanceof String && "length".equals(name)) {
+            return ((String) target).length();
+        }
+        return null;
+    }
+
+    private static boolean isTrue(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            return number != 0 && !Double.isNaN(number);
+        } else if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+        return value != null;
+    }
+
+    private static double toNumber(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof String) {
+            return parseNumber((String) value);
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Converts a string to a number as JavaScript does: blank strings are 0, invalid numbers are NaN.
+     */
+    private static double parseNumber(final String value) {
+        final String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+        // the Java type suffixes are not valid in JavaScript
+        final char last = Character.toLowerCase(trimmed.charAt(trimmed.length() - 1));
+        if (last == 'd' || last == 'f') {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (final NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean isPrimitive(final Object value) {
+        return value instanceof Number || value instanceof String || value instanceof Boolean;
+    }
+
+    private static boolean isStrictEqual(final Object left, final Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        } else if (left instanceof byte[] && right instanceof byte[]) {
+            return Arrays.equals((byte[]) left, (byte[]) right);
+        }
+        return Objects.equals(left, right);
+    }
+
+    private static boolean isLooseEqual(final Object left, final Object right) {
+        if (left == null || right == null) {
+            return left == right;
+        }
+        if (isPrimitive(left) && isPrimitive(right) && !(left instanceof Number && right instanceof Number)
+                && left.getClass() != right.getClass()) {
+            return toNumber(left) == toNumber(right);
+        }
+        return isStrictEqual(left, right);
+    }
+
+    /**
+     * Compares strings by their characters and the other numbers, strings and booleans by their numeric value.
+     * Returns {@link #NOT_COMPARABLE} if the values cannot be compared so that all the comparisons evaluate to false,
+     * as for the JavaScript NaN.
+     */
+    private static int compare(final Object left, final Object right) {
+        if (left instanceof String && right instanceof String) {
+            return Integer.signum(((String) left).compareTo((String) right));
+        } else if (isPrimitive(left) && isPrimitive(right)) {
+            final double leftNumber = toNumber(left);
+            final double rightNumber = toNumber(right);
+            if (leftNumber < rightNumber) {
+                return -1;
+            } else if (leftNumber > rightNumber) {
+                return 1;
+            } else if (leftNumber == rightNumber) {
+                return 0;
+            }
+        }
+        return NOT_COMPARABLE;
+    }
+}
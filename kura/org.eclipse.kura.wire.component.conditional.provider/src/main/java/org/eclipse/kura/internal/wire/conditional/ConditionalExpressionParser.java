@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.conditional;
+
+import static java.util.Objects.requireNonNull;
+
+import org.eclipse.kura.internal.wire.conditional.ConditionalExpression.Node;
+
+/**
+ * A recursive descent parser for the {@link ConditionalExpression} syntax. The operator precedence is the same as in
+ * JavaScript, from the lowest: {@code ||}, {@code &&}, equality, comparison, additive, multiplicative, unary.
+ */
+final class ConditionalExpressionParser {
+
+    private final String expression;
+    private int position;
+
+    ConditionalExpressionParser(final String expression) {
+        this.expression = requireNonNull(expression, "Expression cannot be null");
+    }
+
+    Node parse() {
+        final Node result = parseOr();
+
+        // a trailing semicolon is accepted for compatibility with the JavaScript conditions
+        accept(";");
+        skipWhitespace();
+        if (this.position < this.expression.length()) {
+            throw error("Unexpected character '" + this.expression.charAt(this.position) + "'");
+        }
+        return result;
+    }
+
+    private Node parseOr() {
+        Node result = parseAnd();
+        while (accept("||")) {
+            result = ConditionalExpression.or(result, parseAnd());
+        }
+        return result;
+    }
+
+    private Node parseAnd() {
+        Node result = parseEquality();
+        while (accept("&&")) {
+            result = ConditionalExpression.and(result, parseEquality());
+        }
+        return result;
+    }
+
+    private Node parseEquality() {
+        Node result = parseComparison();
+        while (true) {
+            if (accept("===")) {
+                result = ConditionalExpression.equal(result, parseComparison(), true, false);
+            } else if (accept("==")) {
+                result = ConditionalExpression.equal(result, parseComparison(), false, false);
+            } else if (accept("!==")) {
+                result = ConditionalExpression.equal(result, parseComparison(), true, true);
+            } else if (accept("!=")) {
+                result = ConditionalExpression.equal(result, parseComparison(), false, true);
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseComparison() {
+        Node result = parseAdditive();
+        while (true) {
+            if (accept("<=")) {
+                result = ConditionalExpression.compare(result, parseAdditive(), "<=");
+            } else if (accept(">=")) {
+                result = ConditionalExpression.compare(result, parseAdditive(), ">=");
+            } else if (accept("<")) {
+                result = ConditionalExpression.compare(result, parseAdditive(), "<");
+            } else if (accept(">")) {
+                result = ConditionalExpression.compare(result, parseAdditive(), ">");
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseAdditive() {
+        Node result = parseMultiplicative();
+        while (true) {
+            if (accept("+")) {
+                result = ConditionalExpression.arithmetic(result, parseMultiplicative(), '+');
+            } else if (accept("-")) {
+                result = ConditionalExpression.arithmetic(result, parseMultiplicative(), '-');
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseMultiplicative() {
+        Node result = parseUnary();
+        while (true) {
+            if (accept("*")) {
+                result = ConditionalExpression.arithmetic(result, parseUnary(), '*');
+            } else if (accept("/")) {
+                result = ConditionalExpression.arithmetic(result, parseUnary(), '/');
+            } else if (accept("%")) {
+                result = ConditionalExpression.arithmetic(result, parseUnary(), '%');
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        if (peek("!=")) {
+            throw error("Unexpected operator");
+        }
+        if (accept("!")) {
+            return ConditionalExpression.not(parseUnary());
+        }
+        if (accept("-")) {
+            return ConditionalExpression.negate(parseUnary());
+        }
+        return parsePostfix(parsePrimary());
+    }
+
+    private Node parsePostfix(final Node target) {
+        Node result = target;
+        while (true) {
+            if (accept(".")) {
+                final String name = parseIdentifier();
+                if (accept("(")) {
+                    if (!"getValue".equals(name) || !accept(")")) {
+                        throw error("Unsupported method invocation " + name);
+                    }
+                    // record properties are already unwrapped from the TypedValue
+                } else {
+                    result = ConditionalExpression.member(result, name);
+                }
+            } else if (accept("[")) {
+                final Node index = parseOr();
+                expect("]");
+                result = ConditionalExpression.index(result, index);
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parsePrimary() {
+        skipWhitespace();
+        if (this.position >= this.expression.length()) {
+            throw error("Unexpected end of expression");
+        }
+
+        final char c = this.expression.charAt(this.position);
+
+        if (accept("(")) {
+            final Node result = parseOr();
+            expect(")");
+            return result;
+        } else if (c == '\'' || c == '"') {
+            return ConditionalExpression.literal(parseString(c));
+        } else if (Character.isDigit(c) || c == '.') {
+            return ConditionalExpression.literal(parseNumber());
+        } else if (Character.isJavaIdentifierStart(c)) {
+            final String identifier = parseIdentifier();
+            switch (identifier) {
+            case "true":
+                return ConditionalExpression.literal(Boolean.TRUE);
+            case "false":
+                return ConditionalExpression.literal(Boolean.FALSE);
+            case "null":
+            case "undefined":
+                return ConditionalExpression.literal(null);
+            case "records":
+                return ConditionalExpression.records();
+            case "emitterPid":
+                return ConditionalExpression.emitterPid();
+            case "input":
+                return ConditionalExpression.input();
+            default:
+                throw error("Unknown identifier " + identifier);
+            }
+        }
+        throw error("Unexpected character '" + c + "'");
+    }
+
+    private String parseIdentifier() {
+        skipWhitespace();
+        final int start = this.position;
+        if (start >= this.expression.length() || !Character.isJavaIdentifierStart(this.expression.charAt(start))) {
+            throw error("Identifier expected");
+        }
+        this.position++;
+        while (this.position < this.expression.length()
+                && Character.isJavaIdentifierPart(this.expression.charAt(this.position))) {
+            this.position++;
+        }
+        return this.expression.substring(start, this.position);
+    }
+
+    private Double parseNumber() {
+        final int start = this.position;
+        while (this.position < this.expression.length()) {
+            final char c = this.expression.charAt(this.position);
+            final boolean exponentSign = (c == '+' || c == '-') && this.position > start
+                    && Character.toLowerCase(this.expression.charAt(this.position - 1)) == 'e';
+            if (!Character.isDigit(c) && c != '.' && c != 'e' && c != 'E' && !exponentSign) {
+                break;
+            }
+            this.position++;
+        }
+        try {
+            return Double.valueOf(this.expression.substring(start, this.position));
+        } catch (final NumberFormatException e) {
+            this.position = start;
+            throw error("Invalid number");
+        }
+    }
+
+    private String parseString(final char quote) {
+        final StringBuilder result = new StringBuilder();
+        this.position++;
+        while (this.position < this.expression.length()) {
+            final char c = this.expression.charAt(this.position++);
+            if (c == quote) {
+                return result.toString();
+            }
+            if (c == '\\' && this.position < this.expression.length()) {
+                final char escaped = this.expression.charAt(this.position++);
+                switch (escaped) {
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                default:
+                    result.append(escaped);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.expression.length()
+                && Character.isWhitespace(this.expression.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private boolean peek(final String token) {
+        skipWhitespace();
+        return this.expression.startsWith(token, this.position);
+    }
+
+    private boolean accept(final String token) {
+        if (!peek(token)) {
+            return false;
+        }
+        this.position += token.length();
+        return true;
+    }
+
+    private void expect(final String token) {
+        if (!accept(token)) {
+            throw error("'" + token + "' expected");
+        }
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position " + this.position + " in: " + this.expression);
+    }
+}
@@ -20,8 +20,15 @@ import javax.script.ScriptException;
 
 public class ConditionalOptions {
 
+    enum ConditionLanguage {
+        JAVASCRIPT,
+        EXPRESSION
+    }
+
     private static final String CONDITION_PROPERTY_KEY = "condition";
 
+    private static final String CONDITION_LANGUAGE_PROPERTY_KEY = "condition.language";
+
     private static final String DEFAULT_CONDITION = "records[0].TIMER !== null && "
             + "records[0].TIMER.getValue() > 10 && records[0]['TIMER'].getValue() < 30;";
 
@@ -42,4 +49,17 @@ public class ConditionalOptions {
         return (String) booleanExpression;
     }
 
+    ConditionLanguage getConditionLanguage() {
+        final Object language = this.properties.get(CONDITION_LANGUAGE_PROPERTY_KEY);
+
+        if (language instanceof String) {
+            try {
+                return ConditionLanguage.valueOf((String) language);
+            } catch (final IllegalArgumentException e) {
+                // fall back to default
+            }
+        }
+        return ConditionLanguage.JAVASCRIPT;
+    }
+
 }
@@ -20,9 +20,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
@@ -30,6 +35,7 @@ import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.graph.MultiportWireSupport;
+import org.eclipse.kura.wire.graph.ReceiverPort;
 import org.eclipse.kura.wire.multiport.MultiportWireReceiver;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
@@ -41,12 +47,18 @@ public final class JoinComponent implements MultiportWireReceiver, WireEmitter,
 
     private static final Logger logger = LoggerFactory.getLogger(JoinComponent.class);
 
+    private static final long MIN_EXPIRATION_PERIOD_MS = 10;
+
     private volatile WireHelperService wireHelperService;
 
     private MultiportWireSupport wireSupport;
     private ComponentContext context;
     private JoinComponentOptions joinComponentOptions;
 
+    private final JoinMetrics metrics = new JoinMetrics();
+    private ScheduledExecutorService expirationExecutor;
+    private ScheduledFuture<?> expirationTask;
+
     public void bindWireHelperService(final WireHelperService wireHelperService) {
         if (isNull(this.wireHelperService)) {
             this.wireHelperService = wireHelperService;
@@ -70,16 +82,77 @@ public final class JoinComponent implements MultiportWireReceiver, WireEmitter,
         logger.debug("Activating Join Wire Component... Done");
     }
 
-    public void updated(final Map<String, Object> properties) {
+    public synchronized void updated(final Map<String, Object> properties) {
         logger.debug("Updating Join Wire Component...");
         this.joinComponentOptions = new JoinComponentOptions(properties, context.getBundleContext());
 
-        this.joinComponentOptions.getPortAggregatorFactory().build(wireSupport.getReceiverPorts())
-                .onWireReceive(this::onWireReceive);
+        stopExpirationTask();
+
+        if (this.joinComponentOptions.getJoinMode() == JoinMode.KEYED) {
+            startKeyedJoin(String.valueOf(properties.get(ConfigurationService.KURA_SERVICE_PID)));
+        } else {
+            this.joinComponentOptions.getPortAggregatorFactory().build(wireSupport.getReceiverPorts())
+                    .onWireReceive(this::onWireReceive);
+        }
 
         logger.debug("Updating Join Wire Component... Done");
     }
 
+    private void startKeyedJoin(final String componentPid) {
+        final List<ReceiverPort> ports = this.wireSupport.getReceiverPorts();
+
+        final KeyedJoin keyedJoin;
+        try {
+            keyedJoin = new KeyedJoin(this.joinComponentOptions.getJoinKey(), this.joinComponentOptions.getJoinType(),
+                    this.joinComponentOptions.getJoinWindowMillis(), this.joinComponentOptions.getJoinMaxEntries(),
+                    this.metrics);
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Invalid keyed join configuration, received envelopes will be discarded", e);
+            for (final ReceiverPort port : ports) {
+                port.onWireReceive(envelope -> {
+                    // do nothing
+                });
+            }
+            return;
+        }
+
+        this.metrics.setLogInterval(this.joinComponentOptions.getMetricsLogInterval());
+
+        ports.get(KeyedJoin.LEFT).onWireReceive(
+                envelope -> emit(keyedJoin.join(KeyedJoin.LEFT, envelope.getRecords(), System.nanoTime())));
+        ports.get(KeyedJoin.RIGHT).onWireReceive(
+                envelope -> emit(keyedJoin.join(KeyedJoin.RIGHT, envelope.getRecords(), System.nanoTime())));
+
+        if (this.expirationExecutor == null) {
+            this.expirationExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "JoinExpiration-" + componentPid);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        // the records leaving the window are checked a few times per window, so that the unmatched records of a
+        // LEFT_OUTER join are emitted shortly after the end of their window
+        final long period = Math.max(MIN_EXPIRATION_PERIOD_MS, this.joinComponentOptions.getJoinWindowMillis() / 4);
+        this.expirationTask = this.expirationExecutor.scheduleWithFixedDelay(() -> {
+            emit(keyedJoin.expire(System.nanoTime()));
+            this.metrics.logIfDue(logger, componentPid);
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopExpirationTask() {
+        if (this.expirationTask != null) {
+            this.expirationTask.cancel(false);
+            this.expirationTask = null;
+        }
+    }
+
+    private void emit(final List<WireRecord> records) {
+        if (!records.isEmpty()) {
+            this.wireSupport.emit(records);
+        }
+    }
+
     private void onWireReceive(List<WireEnvelope> envelopes) {
         final WireEnvelope firstEnvelope = envelopes.get(0);
         final WireEnvelope secondEnvelope = envelopes.get(1);
@@ -112,9 +185,13 @@ public final class JoinComponent implements MultiportWireReceiver, WireEmitter,
         }
     }
 
-    protected void deactivate(final ComponentContext componentContext) {
+    protected synchronized void deactivate(final ComponentContext componentContext) {
         logger.debug("Deactivating Join Wire Component...");
-        // remained for debugging purposes
+        stopExpirationTask();
+        if (this.expirationExecutor != null) {
+            this.expirationExecutor.shutdown();
+            this.expirationExecutor = null;
+        }
         logger.debug("Deactivating Join Wire Component... Done");
     }
 
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.join;
 
+import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Map;
@@ -27,6 +28,16 @@ public class JoinComponentOptions {
 
     private static final boolean BARRIER_MODALITY_PROPERTY_DEFAULT = true;
 
+    private static final String JOIN_MODE_PROPERTY_KEY = "join.mode";
+    private static final String JOIN_KEY_PROPERTY_KEY = "join.key";
+    private static final String JOIN_TYPE_PROPERTY_KEY = "join.type";
+    private static final String JOIN_WINDOW_PROPERTY_KEY = "join.window.ms";
+    private static final String JOIN_MAX_ENTRIES_PROPERTY_KEY = "join.max.entries";
+    private static final String METRICS_LOG_INTERVAL_PROPERTY_KEY = "join.metrics.log.interval.seconds";
+
+    private static final int JOIN_WINDOW_PROPERTY_DEFAULT = 10000;
+    private static final int JOIN_MAX_ENTRIES_PROPERTY_DEFAULT = 1000;
+
     private final Map<String, Object> properties;
     private final BundleContext context;
 
@@ -46,4 +57,47 @@ public class JoinComponentOptions {
         }
     }
 
+    JoinMode getJoinMode() {
+        final Object joinMode = this.properties.get(JOIN_MODE_PROPERTY_KEY);
+        if (nonNull(joinMode) && joinMode instanceof String) {
+            return JoinMode.valueOf((String) joinMode);
+        }
+        return JoinMode.POSITIONAL;
+    }
+
+    String getJoinKey() {
+        final Object joinKey = this.properties.get(JOIN_KEY_PROPERTY_KEY);
+        if (nonNull(joinKey) && joinKey instanceof String && !((String) joinKey).trim().isEmpty()) {
+            return ((String) joinKey).trim();
+        }
+        throw new IllegalArgumentException("The join key must be specified in KEYED join mode");
+    }
+
+    JoinType getJoinType() {
+        final Object joinType = this.properties.get(JOIN_TYPE_PROPERTY_KEY);
+        if (nonNull(joinType) && joinType instanceof String) {
+            return JoinType.valueOf((String) joinType);
+        }
+        return JoinType.INNER;
+    }
+
+    int getJoinWindowMillis() {
+        return Math.max(1, getInteger(JOIN_WINDOW_PROPERTY_KEY, JOIN_WINDOW_PROPERTY_DEFAULT));
+    }
+
+    int getJoinMaxEntries() {
+        return Math.max(1, getInteger(JOIN_MAX_ENTRIES_PROPERTY_KEY, JOIN_MAX_ENTRIES_PROPERTY_DEFAULT));
+    }
+
+    int getMetricsLogInterval() {
+        return getInteger(METRICS_LOG_INTERVAL_PROPERTY_KEY, 0);
+    }
+
+    private int getInteger(final String key, final int defaultValue) {
+        final Object value = this.properties.get(key);
+        if (nonNull(value) && value instanceof Integer) {
+            return (Integer) value;
+        }
+        return defaultValue;
+    }
 }
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+
+/**
+ * Collects the keyed join metrics of a {@link JoinComponent}. A record is unmatched if it leaves the join window
+ * without being paired with any record received on the other port, or if it does not contain the join key. A record
+ * is evicted if it is removed from the join table before the end of the window because the table is full.
+ */
+class JoinMetrics {
+
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime());
+
+    private volatile long logIntervalNanos;
+
+    /**
+     * Sets the interval between two metrics log messages, a value less than or equal to zero disables logging.
+     */
+    void setLogInterval(final long seconds) {
+        this.logIntervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    void matched(final int count) {
+        this.matched.add(count);
+    }
+
+    void unmatched(final int count) {
+        this.unmatched.add(count);
+    }
+
+    void evicted(final int count) {
+        this.evicted.add(count);
+    }
+
+    /**
+     * Logs and resets the metrics collected since the last invocation, if the log interval has elapsed.
+     */
+    void logIfDue(final Logger logger, final String name) {
+        final long interval = this.logIntervalNanos;
+        if (interval <= 0) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long last = this.lastLogNanos.get();
+        if (now - last < interval || !this.lastLogNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        logger.info("{} - matched pairs: {}, unmatched records: {}, evicted records: {}", name,
+                this.matched.sumThenReset(), this.unmatched.sumThenReset(), this.evicted.sumThenReset());
+    }
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+/**
+ * The strategies used by the {@link JoinComponent} for pairing the records received on its ports.
+ */
+enum JoinMode {
+    /**
+     * The records of the envelopes received on the two ports are paired by position.
+     */
+    POSITIONAL,
+    /**
+     * The records received on the two ports are paired if they have the same value for the join key property and
+     * they have been received within the join window.
+     */
+    KEYED
+}
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+/**
+ * The join semantics supported in {@link JoinMode#KEYED} mode.
+ */
+enum JoinType {
+    /**
+     * Only the pairs of matching records are emitted.
+     */
+    INNER,
+    /**
+     * The pairs of matching records are emitted. The records received on the first port that do not match any
+     * record within the join window are emitted alone when they leave the window.
+     */
+    LEFT_OUTER
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * Performs a symmetric hash join of the records received on two ports, on the value of a key property and within a
+ * time window.
+ * <p>
+ * The records received on each port are stored in a hash table indexed by key, and are probed by the records received
+ * on the other port. A record leaves its table when it becomes older than the join window, or when the table reaches
+ * its maximum size, in which case the oldest record is evicted. The numeric key values are compared by value
+ * regardless of their type, so that for example an INTEGER key matches a LONG key and an INTEGER key equal to 1 matches
+ * a DOUBLE key equal to 1.0. Since FLOAT values are widened to double, a FLOAT key only matches a DOUBLE key if the
+ * latter is exactly representable as a float.
+ * <p>
+ * The methods of this class return the records that must be emitted and are thread safe.
+ */
+final class KeyedJoin {
+
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+
+    private final String keyProperty;
+    private final JoinType joinType;
+    private final long windowNanos;
+    private final int maxEntries;
+    private final JoinMetrics metrics;
+
+    private final Side[] sides;
+
+    KeyedJoin(final String keyProperty, final JoinType joinType, final long windowMillis, final int maxEntries,
+            final JoinMetrics metrics) {
+        this.keyProperty = keyProperty;
+        this.joinType = joinType;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxEntries = maxEntries;
+        this.metrics = metrics;
+        this.sides = new Side[] { new Side(LEFT), new Side(RIGHT) };
+    }
+
+    /**
+     * Joins the provided records, received on the provided port, with the records received on the other port.
+     *
+     * @param port
+     *            the port index, either {@link #LEFT} or {@link #RIGHT}
+     * @param records
+     *            the received records
+     * @param nowNanos
+     *            the current {@link System#nanoTime()}
+     * @return the records to be emitted
+     */
+    synchronized List<WireRecord> join(final int port, final List<WireRecord> records, final long nowNanos) {
+        final List<WireRecord> result = new ArrayList<>();
+
+        expire(nowNanos, result);
+
+        final Side side = this.sides[port];
+        final Side other = this.sides[1 - port];
+
+        for (final WireRecord record : records) {
+            final TypedValue<?> keyValue = record.getProperties().get(this.keyProperty);
+
+            if (keyValue == null) {
+                this.metrics.unmatched(1);
+                if (port == LEFT && this.joinType == JoinType.LEFT_OUTER) {
+                    result.add(record);
+                }
+                continue;
+            }
+
+            final Entry entry = new Entry(toKey(keyValue), record, nowNanos);
+            final ArrayDeque<Entry> matches = other.buckets.get(entry.key);
+
+            if (matches != null) {
+                for (final Entry match : matches) {
+                    final Entry left = port == LEFT ? entry : match;
+                    final Entry right = port == LEFT ? match : entry;
+                    result.add(merge(left.record, right.record));
+                    left.matched = true;
+                    right.matched = true;
+                }
+                this.metrics.matched(matches.size());
+            }
+
+            side.add(entry, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the records that are older than the join window.
+     *
+     * @param nowNanos
+     *            the current {@link System#nanoTime()}
+     * @return the records to be emitted, if the join type is {@link JoinType#LEFT_OUTER}
+     */
+    synchronized List<WireRecord> expire(final long nowNanos) {
+        final List<WireRecord> result = new ArrayList<>();
+        expire(nowNanos, result);
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    /**
+     * Returns the number of records currently stored for the provided port.
+     */
+    synchronized int size(final int port) {
+        return this.sides[port].entries.size();
+    }
+
+    private void expire(final long nowNanos, final List<WireRecord> result) {
+        for (final Side side : this.sides) {
+            Entry oldest;
+            while ((oldest = side.entries.peekFirst()) != null && nowNanos - oldest.timestampNanos >= this.windowNanos) {
+                side.removeOldest(result);
+            }
+        }
+    }
+
+    private static WireRecord merge(final WireRecord left, final WireRecord right) {
+        final Map<String, TypedValue<?>> leftProperties = left.getProperties();
+        final Map<String, TypedValue<?>> rightProperties = right.getProperties();
+
+        final Map<String, TypedValue<?>> properties = new HashMap<>(
+                (int) ((leftProperties.size() + rightProperties.size()) / 0.75f) + 1);
+        properties.putAll(leftProperties);
+        properties.putAll(rightProperties);
+        return new WireRecord(properties);
+    }
+
+    private static Object toKey(final TypedValue<?> keyValue) {
+        final Object value = keyValue.getValue();
+
+        switch (keyValue.getType()) {
+        case INTEGER:
+        case LONG:
+            return ((Number) value).longValue();
+        case FLOAT:
+        case DOUBLE:
+            return toNumericKey(((Number) value).doubleValue());
+        case BYTE_ARRAY:
+            return ByteBuffer.wrap((byte[]) value);
+        default:
+            return value;
+        }
+    }
+
+    /**
+     * Integral values in the long range are mapped to the same key as the corresponding INTEGER or LONG values.
+     */
+    private static Object toNumericKey(final double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 0x1p63) {
+            return (long) value;
+        }
+        return value;
+    }
+
+    private final class Side {
+
+        private final int port;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private final Map<Object, ArrayDeque<Entry>> buckets = new HashMap<>();
+
+        Side(final int port) {
+            this.port = port;
+        }
+
+        void add(final Entry entry, final List<WireRecord> result) {
+            if (this.entries.size() >= KeyedJoin.this.maxEntries) {
+                KeyedJoin.this.metrics.evicted(1);
+                removeOldest(result);
+            }
+
+            this.entries.addLast(entry);
+            this.buckets.computeIfAbsent(entry.key, k -> new ArrayDeque<>(2)).addLast(entry);
+        }
+
+        void removeOldest(final List<WireRecord> result) {
+            final Entry oldest = this.entries.pollFirst();
+
+            // entries are added to the buckets in arrival order, the oldest entry is the first of its bucket
+            final ArrayDeque<Entry> bucket = this.buckets.get(oldest.key);
+            bucket.pollFirst();
+            if (bucket.isEmpty()) {
+                this.buckets.remove(oldest.key);
+            }
+
+            if (!oldest.matched) {
+                KeyedJoin.this.metrics.unmatched(1);
+                if (this.port == LEFT && KeyedJoin.this.joinType == JoinType.LEFT_OUTER) {
+                    result.add(oldest.record);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object key;
+        private final WireRecord record;
+        private final long timestampNanos;
+        private boolean matched;
+
+        Entry(final Object key, final WireRecord record, final long timestampNanos) {
+            this.key = key;
+            this.record = record;
+            this.timestampNanos = timestampNanos;
+        }
+    }
+}
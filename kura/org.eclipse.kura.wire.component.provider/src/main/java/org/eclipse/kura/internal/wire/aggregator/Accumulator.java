@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * Accumulates the samples of a numeric property in constant space, using primitive fields only.
+ * <p>
+ * The mean and the variance are tracked with the Welford algorithm, which is numerically stable, and two accumulators
+ * can be merged with the parallel variant of the same algorithm. This allows to compute sliding windows as the merge
+ * of the accumulators of the panes that compose the window.
+ */
+final class Accumulator {
+
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+    private double mean;
+    private double m2;
+    private double last;
+
+    Accumulator() {
+        reset();
+    }
+
+    void add(final double value) {
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+
+        final double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (value - this.mean);
+        this.last = value;
+    }
+
+    /**
+     * Merges the samples of the provided accumulator into this one. The samples of the provided accumulator are
+     * considered more recent than the samples of this accumulator.
+     */
+    void merge(final Accumulator other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (this.count == 0) {
+            copyFrom(other);
+            return;
+        }
+
+        final long total = this.count + other.count;
+        final double delta = other.mean - this.mean;
+
+        this.mean += delta * other.count / total;
+        this.m2 += other.m2 + delta * delta * ((double) this.count * other.count / total);
+        this.count = total;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.last = other.last;
+    }
+
+    void reset() {
+        this.count = 0;
+        this.sum = 0;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+        this.mean = 0;
+        this.m2 = 0;
+        this.last = Double.NaN;
+    }
+
+    long getCount() {
+        return this.count;
+    }
+
+    double getSum() {
+        return this.sum;
+    }
+
+    double getMin() {
+        return this.min;
+    }
+
+    double getMax() {
+        return this.max;
+    }
+
+    double getMean() {
+        return this.mean;
+    }
+
+    double getLast() {
+        return this.last;
+    }
+
+    /**
+     * Returns the population standard deviation of the accumulated samples.
+     */
+    double getStandardDeviation() {
+        return this.count == 0 ? 0 : Math.sqrt(this.m2 / this.count);
+    }
+
+    private void copyFrom(final Accumulator other) {
+        this.count = other.count;
+        this.sum = other.sum;
+        this.min = other.min;
+        this.max = other.max;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.last = other.last;
+    }
+}
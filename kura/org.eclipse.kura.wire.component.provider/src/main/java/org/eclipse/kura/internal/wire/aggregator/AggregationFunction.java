@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+
+/**
+ * The aggregation functions supported by the {@link Aggregator}. The result of each function is emitted in a property
+ * named as the aggregated property followed by the function suffix.
+ */
+enum AggregationFunction {
+
+    MIN("_min"),
+    MAX("_max"),
+    AVG("_avg"),
+    SUM("_sum"),
+    COUNT("_count"),
+    LAST("_last"),
+    STDDEV("_stddev");
+
+    private final String suffix;
+
+    private AggregationFunction(final String suffix) {
+        this.suffix = suffix;
+    }
+
+    String getSuffix() {
+        return this.suffix;
+    }
+
+    DataType getResultType() {
+        return this == COUNT ? DataType.LONG : DataType.DOUBLE;
+    }
+
+    TypedValue<?> apply(final Accumulator accumulator) {
+        switch (this) {
+        case MIN:
+            return TypedValues.newDoubleValue(accumulator.getMin());
+        case MAX:
+            return TypedValues.newDoubleValue(accumulator.getMax());
+        case AVG:
+            return TypedValues.newDoubleValue(accumulator.getMean());
+        case SUM:
+            return TypedValues.newDoubleValue(accumulator.getSum());
+        case COUNT:
+            return TypedValues.newLongValue(accumulator.getCount());
+        case LAST:
+            return TypedValues.newDoubleValue(accumulator.getLast());
+        case STDDEV:
+            return TypedValues.newDoubleValue(accumulator.getStandardDeviation());
+        default:
+            throw new IllegalStateException("Unsupported aggregation function " + this);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static java.util.Objects.isNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEmitter;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.wireadmin.Wire;
+
+/**
+ * The Class Aggregator is a Wire Component that computes tumbling or sliding window aggregations of the numeric
+ * properties of the received {@link WireRecord}s.
+ * <p>
+ * At the end of each window, or of each window slide for sliding windows, a single {@link WireRecord} is emitted that
+ * contains, for each aggregated property, a {@code <property>_<function>} property for each configured aggregation
+ * function, together with the {@code windowStart} and {@code windowEnd} properties expressed as milliseconds since
+ * the epoch. The window boundaries are aligned to the multiples of the window slide on the system clock.
+ * <p>
+ * The received values are folded into primitive accumulators as soon as they are received and are not retained, the
+ * memory used for each property depends only on the number of window slides in a window.
+ */
+public class Aggregator implements WireEmitter, WireReceiver, ConfigurableComponent {
+
+    static final String WINDOW_START_PROP_NAME = "windowStart";
+    static final String WINDOW_END_PROP_NAME = "windowEnd";
+
+    private static final Logger logger = LogManager.getLogger(Aggregator.class);
+
+    private volatile WireHelperService wireHelperService;
+    private WireSupport wireSupport;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "AggregatorThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AggregatorOptions options;
+    private PanedWindow window;
+    private ScheduledFuture<?> paneTask;
+    private long paneEnd;
+
+    public void bindWireHelperService(final WireHelperService wireHelperService) {
+        if (isNull(this.wireHelperService)) {
+            this.wireHelperService = wireHelperService;
+        }
+    }
+
+    public void unbindWireHelperService(final WireHelperService wireHelperService) {
+        if (this.wireHelperService == wireHelperService) {
+            this.wireHelperService = null;
+        }
+    }
+
+    public void activate(final Map<String, Object> properties, ComponentContext componentContext) {
+        logger.info("Activating Aggregator...");
+        this.wireSupport = this.wireHelperService.newWireSupport(this,
+                (ServiceReference<WireComponent>) componentContext.getServiceReference());
+        updated(properties);
+        logger.info("Activating Aggregator... Done");
+    }
+
+    public synchronized void updated(final Map<String, Object> properties) {
+        logger.info("Updating Aggregator...");
+
+        stop();
+
+        try {
+            this.options = new AggregatorOptions(properties);
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Invalid configuration, aggregation will be disabled", e);
+            this.options = null;
+            return;
+        }
+
+        final PanedWindow newWindow = new PanedWindow(this.options.getPaneCount(), this.options.getFunctions());
+        this.window = newWindow;
+
+        final long slide = this.options.getWindowSlideMillis();
+        final long now = System.currentTimeMillis();
+
+        this.paneEnd = (now / slide + 1) * slide;
+        this.paneTask = this.executor.scheduleAtFixedRate(() -> closePane(newWindow), this.paneEnd - now, slide,
+                TimeUnit.MILLISECONDS);
+
+        logger.info("Updating Aggregator... Done");
+    }
+
+    public synchronized void deactivate() {
+        logger.info("Deactivating Aggregator...");
+        stop();
+        this.executor.shutdown();
+        logger.info("Deactivating Aggregator... Done");
+    }
+
+    private void stop() {
+        if (this.paneTask != null) {
+            this.paneTask.cancel(false);
+            this.paneTask = null;
+        }
+        this.window = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
+        if (this.window == null) {
+            return;
+        }
+
+        final Pattern propertyFilter = this.options.getPropertyFilter();
+
+        for (final WireRecord wireRecord : wireEnvelope.getRecords()) {
+            for (final Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
+                final TypedValue<?> value = entry.getValue();
+
+                if (value != null && isNumeric(value.getType()) && propertyFilter.matcher(entry.getKey()).matches()) {
+                    this.window.add(entry.getKey(), ((Number) value.getValue()).doubleValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the current pane and emits the summary of the window that ends with it, if any. Nothing is done if the
+     * provided window, the one the task has been scheduled for, has been replaced in the meantime: a cancelled task
+     * can still be waiting for the monitor while {@link #updated(Map)} swaps the window.
+     */
+    void closePane(final PanedWindow scheduledWindow) {
+        final Map<String, TypedValue<?>> summary;
+
+        synchronized (this) {
+            if (this.window == null || this.window != scheduledWindow) {
+                return;
+            }
+
+            summary = this.window.closePane();
+
+            final long windowEnd = this.paneEnd;
+            this.paneEnd += this.options.getWindowSlideMillis();
+
+            if (summary.isEmpty() && !this.options.emitEmptyWindows()) {
+                return;
+            }
+
+            summary.put(WINDOW_START_PROP_NAME,
+                    TypedValues.newLongValue(windowEnd - this.options.getWindowSizeMillis()));
+            summary.put(WINDOW_END_PROP_NAME, TypedValues.newLongValue(windowEnd));
+        }
+
+        try {
+            this.wireSupport.emit(Collections.singletonList(new WireRecord(summary)));
+        } catch (final Exception e) {
+            logger.warn("Failed to emit window summary", e);
+        }
+    }
+
+    private static boolean isNumeric(final DataType type) {
+        return type == DataType.INTEGER || type == DataType.LONG || type == DataType.FLOAT || type == DataType.DOUBLE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Object polled(final Wire wire) {
+        return this.wireSupport.polled(wire);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void consumersConnected(final Wire[] wires) {
+        this.wireSupport.consumersConnected(wires);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updated(final Wire wire, final Object value) {
+        this.wireSupport.updated(wire, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void producersConnected(final Wire[] wires) {
+        this.wireSupport.producersConnected(wires);
+    }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The Class AggregatorOptions is responsible to contain all the Aggregator related configurable options
+ */
+final class AggregatorOptions {
+
+    private static final String PROP_WINDOW_TYPE = "window.type";
+    private static final String PROP_WINDOW_SIZE = "window.size";
+    private static final String PROP_WINDOW_SLIDE = "window.slide";
+    private static final String PROP_WINDOW_TIME_UNIT = "window.time.unit";
+    private static final String PROP_AGGREGATIONS = "aggregations";
+    private static final String PROP_PROPERTY_FILTER = "property.filter";
+    private static final String PROP_EMIT_EMPTY_WINDOWS = "emit.empty.windows";
+
+    private static final int DEFAULT_WINDOW_SIZE = 60;
+    private static final String DEFAULT_AGGREGATIONS = "min,max,avg";
+    private static final String DEFAULT_PROPERTY_FILTER = ".*";
+
+    private final WindowType windowType;
+    private final long windowSizeMillis;
+    private final long windowSlideMillis;
+    private final Set<AggregationFunction> functions;
+    private final Pattern propertyFilter;
+    private final boolean emitEmptyWindows;
+
+    /**
+     * Instantiates a new Aggregator options.
+     *
+     * @param properties
+     *            the provided properties
+     * @throws IllegalArgumentException
+     *             if any of the properties is not valid
+     */
+    AggregatorOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+
+        this.windowType = getWindowType(properties);
+
+        final long timeUnitMillis = getTimeUnitMultiplier(properties);
+        final int windowSize = getInteger(properties, PROP_WINDOW_SIZE, DEFAULT_WINDOW_SIZE);
+        final int windowSlide = getInteger(properties, PROP_WINDOW_SLIDE, windowSize);
+
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be greater than zero");
+        }
+        this.windowSizeMillis = windowSize * timeUnitMillis;
+
+        if (this.windowType == WindowType.SLIDING) {
+            if (windowSlide <= 0 || windowSlide > windowSize || windowSize % windowSlide != 0) {
+                throw new IllegalArgumentException(
+                        "Window slide must be greater than zero and the window size must be a multiple of it");
+            }
+            this.windowSlideMillis = windowSlide * timeUnitMillis;
+        } else {
+            this.windowSlideMillis = this.windowSizeMillis;
+        }
+
+        this.functions = getFunctions(properties);
+
+        final Object propertyFilter = properties.get(PROP_PROPERTY_FILTER);
+        this.propertyFilter = Pattern.compile(nonNull(propertyFilter) && propertyFilter instanceof String
+                && !((String) propertyFilter).isEmpty() ? (String) propertyFilter : DEFAULT_PROPERTY_FILTER);
+
+        final Object emitEmptyWindows = properties.get(PROP_EMIT_EMPTY_WINDOWS);
+        this.emitEmptyWindows = nonNull(emitEmptyWindows) && emitEmptyWindows instanceof Boolean
+                && (Boolean) emitEmptyWindows;
+    }
+
+    WindowType getWindowType() {
+        return this.windowType;
+    }
+
+    long getWindowSizeMillis() {
+        return this.windowSizeMillis;
+    }
+
+    /**
+     * Returns the interval between two summaries, that is equal to the window size for tumbling windows.
+     *
+     * @return the window slide in milliseconds
+     */
+    long getWindowSlideMillis() {
+        return this.windowSlideMillis;
+    }
+
+    /**
+     * Returns the number of panes that compose a window.
+     *
+     * @return the pane count
+     */
+    int getPaneCount() {
+        return (int) (this.windowSizeMillis / this.windowSlideMillis);
+    }
+
+    Set<AggregationFunction> getFunctions() {
+        return this.functions;
+    }
+
+    Pattern getPropertyFilter() {
+        return this.propertyFilter;
+    }
+
+    boolean emitEmptyWindows() {
+        return this.emitEmptyWindows;
+    }
+
+    private static WindowType getWindowType(final Map<String, Object> properties) {
+        final Object windowType = properties.get(PROP_WINDOW_TYPE);
+        if (nonNull(windowType) && windowType instanceof String) {
+            return WindowType.valueOf((String) windowType);
+        }
+        return WindowType.TUMBLING;
+    }
+
+    private static int getInteger(final Map<String, Object> properties, final String key, final int defaultValue) {
+        final Object value = properties.get(key);
+        if (nonNull(value) && value instanceof Integer) {
+            return (Integer) value;
+        }
+        return defaultValue;
+    }
+
+    private static long getTimeUnitMultiplier(final Map<String, Object> properties) {
+        final Object timeUnit = properties.getOrDefault(PROP_WINDOW_TIME_UNIT, TimeUnit.SECONDS.name());
+        if (!(timeUnit instanceof String)) {
+            throw new IllegalArgumentException("Invalid time unit");
+        }
+        return TimeUnit.valueOf((String) timeUnit).toMillis(1);
+    }
+
+    private static Set<AggregationFunction> getFunctions(final Map<String, Object> properties) {
+        final Object aggregations = properties.get(PROP_AGGREGATIONS);
+        final String value = nonNull(aggregations) && aggregations instanceof String ? (String) aggregations
+                : DEFAULT_AGGREGATIONS;
+
+        final Set<AggregationFunction> result = EnumSet.noneOf(AggregationFunction.class);
+        for (final String function : value.split(",")) {
+            final String trimmed = function.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(AggregationFunction.valueOf(trimmed.toUpperCase()));
+            }
+        }
+
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("At least one aggregation function must be specified");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.kura.type.TypedValue;
+
+/**
+ * Keeps the accumulators of a window divided in a fixed number of panes, each one lasting a window slide. A tumbling
+ * window is a window with a single pane.
+ * <p>
+ * The samples are added to the accumulator of the current pane. When a pane is closed, the accumulators of all the
+ * panes are merged to obtain the summary of the window, then the oldest pane is reset and becomes the current one.
+ * The memory used for each property is proportional to the number of panes and does not depend on the number of
+ * samples.
+ * <p>
+ * This class is not thread safe.
+ */
+final class PanedWindow {
+
+    private final int paneCount;
+    private final Set<AggregationFunction> functions;
+    private final Map<String, Accumulator[]> accumulators = new LinkedHashMap<>();
+    private final Accumulator merged = new Accumulator();
+
+    private int currentPane;
+
+    PanedWindow(final int paneCount, final Set<AggregationFunction> functions) {
+        if (paneCount < 1) {
+            throw new IllegalArgumentException("Pane count must be greater than zero");
+        }
+        this.paneCount = paneCount;
+        this.functions = functions;
+    }
+
+    void add(final String property, final double value) {
+        Accumulator[] panes = this.accumulators.get(property);
+
+        if (panes == null) {
+            panes = new Accumulator[this.paneCount];
+            for (int i = 0; i < this.paneCount; i++) {
+                panes[i] = new Accumulator();
+            }
+            this.accumulators.put(property, panes);
+        }
+
+        panes[this.currentPane].add(value);
+    }
+
+    /**
+     * Computes the summary of the window ending with the current pane and moves to the next pane. The properties that
+     * did not receive any sample during the window are not included in the summary and are discarded.
+     *
+     * @return the summary properties, an empty map if no samples have been received during the window
+     */
+    Map<String, TypedValue<?>> closePane() {
+        final Map<String, TypedValue<?>> result = new HashMap<>(
+                this.accumulators.size() * this.functions.size() * 2);
+        final int nextPane = (this.currentPane + 1) % this.paneCount;
+
+        final Iterator<Entry<String, Accumulator[]>> iterator = this.accumulators.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            final Entry<String, Accumulator[]> entry = iterator.next();
+            final String property = entry.getKey();
+            final Accumulator[] panes = entry.getValue();
+
+            this.merged.reset();
+            for (int i = 1; i <= this.paneCount; i++) {
+                this.merged.merge(panes[(this.currentPane + i) % this.paneCount]);
+            }
+
+            if (this.merged.getCount() == 0) {
+                iterator.remove();
+                continue;
+            }
+
+            for (final AggregationFunction function : this.functions) {
+                result.put(property + function.getSuffix(), function.apply(this.merged));
+            }
+
+            panes[nextPane].reset();
+        }
+
+        this.currentPane = nextPane;
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+/**
+ * The window types supported by the {@link Aggregator}.
+ */
+enum WindowType {
+    /**
+     * Consecutive, non overlapping windows: a summary is emitted every window size.
+     */
+    TUMBLING,
+    /**
+     * Overlapping windows: a summary of the last window size is emitted every window slide.
+     */
+    SLIDING
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.asset;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.CompactWireRecord;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireRecordSchema;
+
+/**
+ * Creates {@link CompactWireRecord}s for a given list of channels, with the same properties that would be emitted
+ * by the {@link RecordFiller}s and {@link TimestampFiller}s.
+ * <p>
+ * The schema contains, for each channel, the value, unit, and depending on the options the timestamp and error
+ * fields, followed by the single timestamp field and by the asset name. The field indexes depend only on the channel
+ * list and on the options, the schema is recreated only if a driver returns a value whose type differs from the one
+ * in the schema.
+ */
+final class CompactRecordFactory {
+
+    private static final Logger logger = LogManager.getLogger(CompactRecordFactory.class);
+
+    private final WireAssetOptions options;
+    private final String[] channelNames;
+    private final int fieldsPerChannel;
+    private final int timestampOffset;
+    private final int errorOffset;
+    private final int singleTimestampField;
+    private final int assetNameField;
+
+    private volatile WireRecordSchema schema;
+    private boolean disabled;
+
+    CompactRecordFactory(final List<ChannelRecord> records, final WireAssetOptions options) {
+        this.options = options;
+        this.channelNames = new String[records.size()];
+        for (int i = 0; i < this.channelNames.length; i++) {
+            this.channelNames[i] = records.get(i).getChannelName();
+        }
+
+        final boolean isPerChannel = options.getTimestampMode() == TimestampMode.PER_CHANNEL;
+
+        int fields = 2;
+        this.timestampOffset = isPerChannel ? fields++ : -1;
+        this.errorOffset = options.emitErrors() ? fields++ : -1;
+        this.fieldsPerChannel = fields;
+
+        int nextField = this.channelNames.length * this.fieldsPerChannel;
+        this.singleTimestampField = hasSingleTimestamp(options.getTimestampMode()) ? nextField++ : -1;
+        this.assetNameField = nextField;
+
+        final DataType[] valueTypes = new DataType[records.size()];
+        for (int i = 0; i < valueTypes.length; i++) {
+            valueTypes[i] = records.get(i).getValueType();
+        }
+        this.schema = createSchema(valueTypes);
+    }
+
+    /**
+     * Returns true if this factory can create the records for the provided channel list.
+     */
+    boolean isCompatible(final List<ChannelRecord> records, final WireAssetOptions currentOptions) {
+        if (currentOptions != this.options || records.size() != this.channelNames.length) {
+            return false;
+        }
+        for (int i = 0; i < this.channelNames.length; i++) {
+            if (!this.channelNames[i].equals(records.get(i).getChannelName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a record for the provided channel records, that must be compatible with this factory. Returns an empty
+     * optional if the records cannot be represented with a schema, for example because of conflicting property
+     * names.
+     */
+    Optional<WireRecord> create(final List<ChannelRecord> records, final String assetName) {
+        final WireRecordSchema currentSchema = getSchema(records);
+        if (currentSchema == null) {
+            return Optional.empty();
+        }
+
+        final CompactWireRecord.Builder builder = CompactWireRecord.builder(currentSchema);
+
+        long maxTimestamp = 0;
+        long minTimestamp = Long.MAX_VALUE;
+
+        for (int i = 0; i < this.channelNames.length; i++) {
+            final ChannelRecord record = records.get(i);
+            final int base = i * this.fieldsPerChannel;
+
+            if (record.getChannelStatus().getChannelFlag() == ChannelFlag.SUCCESS && record.getValue() != null) {
+                builder.set(base, record.getValue());
+
+                final String unit = record.getUnit();
+                if (unit != null && !unit.trim().isEmpty()) {
+                    builder.setString(base + 1, unit);
+                }
+            }
+            if (this.timestampOffset >= 0) {
+                builder.setLong(base + this.timestampOffset, record.getTimestamp());
+            }
+            if (this.errorOffset >= 0) {
+                builder.setString(base + this.errorOffset, RecordFillers.getErrorMessage(record.getChannelStatus()));
+            }
+
+            maxTimestamp = Math.max(maxTimestamp, record.getTimestamp());
+            minTimestamp = Math.min(minTimestamp, record.getTimestamp());
+        }
+
+        if (this.singleTimestampField >= 0) {
+            final TimestampMode timestampMode = this.options.getTimestampMode();
+            final long timestamp;
+            if (timestampMode == TimestampMode.SINGLE_DRIVER_GENERATED_MAX) {
+                timestamp = maxTimestamp;
+            } else if (timestampMode == TimestampMode.SINGLE_DRIVER_GENERATED_MIN) {
+                timestamp = minTimestamp;
+            } else {
+                timestamp = System.currentTimeMillis();
+            }
+            builder.setLong(this.singleTimestampField, timestamp);
+        }
+
+        if (assetName != null) {
+            builder.setString(this.assetNameField, assetName);
+        }
+
+        return Optional.of(builder.build());
+    }
+
+    private WireRecordSchema getSchema(final List<ChannelRecord> records) {
+        final WireRecordSchema currentSchema = this.schema;
+
+        if (currentSchema != null && valueTypesMatch(currentSchema, records)) {
+            return currentSchema;
+        }
+
+        synchronized (this) {
+            if (this.disabled) {
+                return null;
+            }
+
+            final DataType[] valueTypes = new DataType[this.channelNames.length];
+            for (int i = 0; i < valueTypes.length; i++) {
+                final TypedValue<?> value = records.get(i).getValue();
+                valueTypes[i] = value != null ? value.getType()
+                        : currentSchema.getFieldType(i * this.fieldsPerChannel);
+            }
+
+            logger.debug("Value types changed, recreating record schema");
+            this.schema = createSchema(valueTypes);
+            return this.schema;
+        }
+    }
+
+    private boolean valueTypesMatch(final WireRecordSchema currentSchema, final List<ChannelRecord> records) {
+        for (int i = 0; i < this.channelNames.length; i++) {
+            final TypedValue<?> value = records.get(i).getValue();
+            if (value != null && value.getType() != currentSchema.getFieldType(i * this.fieldsPerChannel)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private WireRecordSchema createSchema(final DataType[] valueTypes) {
+        final WireRecordSchema.Builder builder = WireRecordSchema.builder();
+
+        try {
+            for (int i = 0; i < this.channelNames.length; i++) {
+                final String channelName = this.channelNames[i];
+
+                builder.addField(channelName, valueTypes[i]);
+                builder.addField(channelName + WireAssetConstants.PROP_SUFFIX_UNIT.value(), DataType.STRING);
+                if (this.timestampOffset >= 0) {
+                    builder.addField(channelName + WireAssetConstants.PROP_SUFFIX_TIMESTAMP.value(), DataType.LONG);
+                }
+                if (this.errorOffset >= 0) {
+                    builder.addField(channelName + WireAssetConstants.PROP_SUFFIX_ERROR.value(), DataType.STRING);
+                }
+            }
+            if (this.singleTimestampField >= 0) {
+                builder.addField(WireAssetConstants.PROP_SINGLE_TIMESTAMP_NAME.value(), DataType.LONG);
+            }
+            builder.addField(WireAssetConstants.PROP_ASSET_NAME.value(), DataType.STRING);
+        } catch (final IllegalArgumentException e) {
+            logger.warn("Channel property names are conflicting, compact records will not be emitted", e);
+            this.disabled = true;
+            return null;
+        }
+
+        return builder.build();
+    }
+
+    private static boolean hasSingleTimestamp(final TimestampMode timestampMode) {
+        return timestampMode != TimestampMode.NO_TIMESTAMPS && timestampMode != TimestampMode.PER_CHANNEL;
+    }
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.asset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.channel.Channel;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValue;
+
+/**
+ * Selects the channel records to be emitted in {@link ReportMode#ON_CHANGE} mode.
+ * <p>
+ * A channel is reported if its status changed or if its value changed since the last reported value. Numeric values
+ * are compared as primitives against the channel deadband, other values are compared for equality. The last reported
+ * values are kept in arrays indexed by the channel position, so that the comparison does not allocate. All the
+ * channels are reported on the first invocation and every time the heartbeat interval elapses.
+ */
+final class ReportByExceptionFilter {
+
+    private static final Logger logger = LogManager.getLogger(ReportByExceptionFilter.class);
+
+    private final WireAssetOptions options;
+    private final String[] channelNames;
+    private final double[] deadbands;
+    private final boolean[] percentDeadbands;
+    private final long heartbeatIntervalNanos;
+
+    private final TypedValue<?>[] lastValues;
+    private final double[] lastNumericValues;
+    private final ChannelFlag[] lastFlags;
+    private final boolean[] changed;
+
+    private boolean initialized;
+    private long lastFullReportNanos;
+
+    ReportByExceptionFilter(final List<ChannelRecord> records, final Map<String, Channel> channels,
+            final WireAssetOptions options) {
+        final int channelCount = records.size();
+
+        this.options = options;
+        this.channelNames = new String[channelCount];
+        this.deadbands = new double[channelCount];
+        this.percentDeadbands = new boolean[channelCount];
+        this.heartbeatIntervalNanos = TimeUnit.SECONDS.toNanos(options.getReportHeartbeatInterval());
+
+        this.lastValues = new TypedValue<?>[channelCount];
+        this.lastNumericValues = new double[channelCount];
+        this.lastFlags = new ChannelFlag[channelCount];
+        this.changed = new boolean[channelCount];
+
+        for (int i = 0; i < channelCount; i++) {
+            this.channelNames[i] = records.get(i).getChannelName();
+
+            final Channel channel = channels.get(this.channelNames[i]);
+            if (channel != null) {
+                final Map<String, Object> configuration = channel.getConfiguration();
+                this.deadbands[i] = getDeadband(configuration);
+                this.percentDeadbands[i] = getDeadbandMode(configuration) == DeadbandMode.PERCENT;
+            }
+        }
+    }
+
+    /**
+     * Returns true if this filter can be used for the provided channel list.
+     */
+    boolean isCompatible(final List<ChannelRecord> records, final WireAssetOptions currentOptions) {
+        if (currentOptions != this.options || records.size() != this.channelNames.length) {
+            return false;
+        }
+        for (int i = 0; i < this.channelNames.length; i++) {
+            if (!this.channelNames[i].equals(records.get(i).getChannelName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the records to be emitted: the provided list itself if all the channels must be reported, an empty list
+     * if no channel must be reported, or a new list with the changed channels otherwise. The returned records become
+     * the last reported values.
+     */
+    synchronized List<ChannelRecord> filter(final List<ChannelRecord> records) {
+        final long now = System.nanoTime();
+
+        if (!this.initialized
+                || this.heartbeatIntervalNanos > 0 && now - this.lastFullReportNanos >= this.heartbeatIntervalNanos) {
+            for (int i = 0; i < this.channelNames.length; i++) {
+                update(i, records.get(i));
+            }
+            this.initialized = true;
+            this.lastFullReportNanos = now;
+            return records;
+        }
+
+        int changedCount = 0;
+
+        for (int i = 0; i < this.channelNames.length; i++) {
+            final ChannelRecord record = records.get(i);
+            this.changed[i] = isChanged(i, record);
+            if (this.changed[i]) {
+                update(i, record);
+                changedCount++;
+            }
+        }
+
+        if (changedCount == 0) {
+            return Collections.emptyList();
+        } else if (changedCount == this.channelNames.length) {
+            return records;
+        }
+
+        final List<ChannelRecord> result = new ArrayList<>(changedCount);
+        for (int i = 0; i < this.channelNames.length; i++) {
+            if (this.changed[i]) {
+                result.add(records.get(i));
+            }
+        }
+        return result;
+    }
+
+    private boolean isChanged(final int index, final ChannelRecord record) {
+        final ChannelFlag flag = record.getChannelStatus().getChannelFlag();
+
+        if (flag != this.lastFlags[index]) {
+            return true;
+        }
+        if (flag != ChannelFlag.SUCCESS) {
+            return false;
+        }
+
+        final TypedValue<?> value = record.getValue();
+        final TypedValue<?> lastValue = this.lastValues[index];
+
+        if (value == null || lastValue == null || value.getType() != lastValue.getType()) {
+            return value != lastValue;
+        }
+        if (!isNumeric(value.getType())) {
+            return !value.equals(lastValue);
+        }
+
+        final double current = toDouble(value);
+        final double last = this.lastNumericValues[index];
+        final double delta = Math.abs(current - last);
+
+        if (Double.isNaN(delta)) {
+            return Double.compare(current, last) != 0;
+        }
+
+        final double threshold = this.percentDeadbands[index] ? Math.abs(last) * this.deadbands[index] / 100
+                : this.deadbands[index];
+
+        return threshold > 0 ? delta > threshold : delta > 0;
+    }
+
+    private void update(final int index, final ChannelRecord record) {
+        final TypedValue<?> value = record.getValue();
+
+        this.lastFlags[index] = record.getChannelStatus().getChannelFlag();
+
+        if (this.lastFlags[index] != ChannelFlag.SUCCESS) {
+            return;
+        }
+
+        this.lastValues[index] = value;
+        if (value != null && isNumeric(value.getType())) {
+            this.lastNumericValues[index] = toDouble(value);
+        }
+    }
+
+    private static boolean isNumeric(final DataType type) {
+        return type == DataType.INTEGER || type == DataType.LONG || type == DataType.FLOAT || type == DataType.DOUBLE;
+    }
+
+    private static double toDouble(final TypedValue<?> value) {
+        return ((Number) value.getValue()).doubleValue();
+    }
+
+    private static double getDeadband(final Map<String, Object> configuration) {
+        final Object deadband = configuration.get(WireAssetConstants.DEADBAND_PROP_NAME.value());
+
+        if (deadband == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, deadband instanceof Number ? ((Number) deadband).doubleValue()
+                    : Double.parseDouble(deadband.toString()));
+        } catch (final NumberFormatException e) {
+            logger.warn("Invalid deadband {}, changes will be reported without deadband", deadband);
+            return 0;
+        }
+    }
+
+    private static DeadbandMode getDeadbandMode(final Map<String, Object> configuration) {
+        final Object deadbandMode = configuration.get(WireAssetConstants.DEADBAND_MODE_PROP_NAME.value());
+
+        try {
+            return deadbandMode == null ? DeadbandMode.ABSOLUTE : DeadbandMode.valueOf(deadbandMode.toString());
+        } catch (final IllegalArgumentException e) {
+            return DeadbandMode.ABSOLUTE;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
@@ -40,6 +41,7 @@ import org.eclipse.kura.driver.PreparedRead;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
 import org.eclipse.kura.util.collection.CollectionUtil;
+import org.eclipse.kura.wire.CompactWireRecord;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireEnvelope;
@@ -105,6 +107,10 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
 
     private PreparedEmit preparedEmit;
 
+    private volatile CompactRecordFactory compactRecordFactory;
+
+    private volatile ReportByExceptionFilter reportByExceptionFilter;
+
     /**
      * Binds the Wire Helper Service.
      *
@@ -156,6 +162,8 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
     public void updated(final Map<String, Object> properties) {
         logger.debug("Updating Wire Asset...");
         this.options = new WireAssetOptions(properties);
+        this.compactRecordFactory = null;
+        this.reportByExceptionFilter = null;
         super.updated(properties);
         logger.debug("Updating Wire Asset...Done");
     }
@@ -230,7 +238,18 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
     private void emitAllReadChannels() {
         if (hasReadChannels()) {
             try {
-                emitChannelRecords(readAllChannels());
+                final List<ChannelRecord> channelRecords = readAllChannels();
+                final List<ChannelRecord> recordsToEmit = filterUnchangedChannels(channelRecords);
+
+                if (recordsToEmit.isEmpty()) {
+                    return;
+                }
+
+                final boolean isFullEmit = recordsToEmit == channelRecords;
+
+                if (!isFullEmit || !this.options.emitCompactRecords() || !emitCompactRecord(channelRecords)) {
+                    emitChannelRecords(recordsToEmit);
+                }
             } catch (final Exception e) {
                 logger.error("Error while performing read from the Wire Asset...", e);
             }
@@ -308,6 +327,63 @@ public final class WireAsset extends BaseAsset implements WireEmitter, WireRecei
         this.wireSupport.emit(Collections.singletonList(new WireRecord(wireRecordProperties)));
     }
 
+    /**
+     * Returns the channel records to be emitted according to the configured {@link ReportMode}.
+     *
+     * @param channelRecords
+     *            the records of all channels
+     * @return the provided list if all the channels must be emitted, or the list of the changed channels
+     */
+    private List<ChannelRecord> filterUnchangedChannels(final List<ChannelRecord> channelRecords) {
+        final WireAssetOptions currentOptions = this.options;
+
+        if (currentOptions.getReportMode() != ReportMode.ON_CHANGE) {
+            return channelRecords;
+        }
+
+        ReportByExceptionFilter filter = this.reportByExceptionFilter;
+        if (filter == null || !filter.isCompatible(channelRecords, currentOptions)) {
+            filter = new ReportByExceptionFilter(channelRecords, getAssetConfiguration().getAssetChannels(),
+                    currentOptions);
+            this.reportByExceptionFilter = filter;
+        }
+
+        return filter.filter(channelRecords);
+    }
+
+    /**
+     * Emits the provided list of channel records as a {@link CompactWireRecord}. The {@link CompactRecordFactory} is
+     * reused as long as the channel list does not change.
+     *
+     * @param channelRecords
+     *            the list of channel records
+     * @return false if the records cannot be emitted as a {@link CompactWireRecord}
+     */
+    private boolean emitCompactRecord(final List<ChannelRecord> channelRecords) {
+        final WireAssetOptions currentOptions = this.options;
+
+        CompactRecordFactory factory = this.compactRecordFactory;
+        if (factory == null || !factory.isCompatible(channelRecords, currentOptions)) {
+            factory = new CompactRecordFactory(channelRecords, currentOptions);
+            this.compactRecordFactory = factory;
+        }
+
+        String assetName = null;
+        try {
+            assetName = getKuraServicePid();
+        } catch (KuraException e) {
+            logger.error("Configurations cannot be null", e);
+        }
+
+        final Optional<WireRecord> wireRecord = factory.create(channelRecords, assetName);
+        if (!wireRecord.isPresent()) {
+            return false;
+        }
+
+        this.wireSupport.emit(Collections.singletonList(wireRecord.get()));
+        return true;
+    }
+
     /**
      * Perform Channel Write operation
      *
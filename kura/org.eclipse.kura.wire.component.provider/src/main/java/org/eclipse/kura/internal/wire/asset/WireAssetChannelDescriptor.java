@@ -13,6 +13,8 @@
 
 package org.eclipse.kura.internal.wire.asset;
 
+import static org.eclipse.kura.internal.wire.asset.WireAssetConstants.DEADBAND_MODE_PROP_NAME;
+import static org.eclipse.kura.internal.wire.asset.WireAssetConstants.DEADBAND_PROP_NAME;
 import static org.eclipse.kura.internal.wire.asset.WireAssetConstants.LISTEN_PROP_NAME;
 
 import org.eclipse.kura.asset.provider.BaseChannelDescriptor;
@@ -36,6 +38,32 @@ public class WireAssetChannelDescriptor extends BaseChannelDescriptor {
 
         this.defaultElements.add(listen);
 
+        final Tad deadband = new Tad();
+        deadband.setName(DEADBAND_PROP_NAME.value().substring(1));
+        deadband.setId(DEADBAND_PROP_NAME.value());
+        deadband.setDescription("The minimum change of a numeric value, since the last reported value, "
+                + "for the channel to be reported when the asset report.mode is ON_CHANGE. "
+                + "If set to 0 any change is reported. Non numeric values are reported on any change.");
+        deadband.setType(Tscalar.DOUBLE);
+        deadband.setRequired(false);
+        deadband.setDefault("0.0");
+        deadband.setMin("0.0");
+
+        this.defaultElements.add(deadband);
+
+        final Tad deadbandMode = new Tad();
+        deadbandMode.setName(DEADBAND_MODE_PROP_NAME.value().substring(1));
+        deadbandMode.setId(DEADBAND_MODE_PROP_NAME.value());
+        deadbandMode.setDescription("Specifies whether the deadband is an absolute value (ABSOLUTE) "
+                + "or a percentage of the last reported value (PERCENT)");
+        deadbandMode.setType(Tscalar.STRING);
+        deadbandMode.setRequired(false);
+        deadbandMode.setDefault(DeadbandMode.ABSOLUTE.name());
+
+        addOptions(deadbandMode, DeadbandMode.values());
+
+        this.defaultElements.add(deadbandMode);
+
     }
 
     public static WireAssetChannelDescriptor get() {
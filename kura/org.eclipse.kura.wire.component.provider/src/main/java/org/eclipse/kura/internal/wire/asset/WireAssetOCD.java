@@ -39,6 +39,11 @@ public class WireAssetOCD extends BaseAssetOCD {
     private static final String EMIT_ERRORS_DESCRIPTION = "Specifies wheter errors should be included or not "
             + "in the emitted envelope";
 
+    private static final String EMIT_COMPACT_RECORDS_DESCRIPTION = "Specifies whether the values read from all "
+            + "channels should be emitted as compact records, that store the values in a schema shared across "
+            + "emissions instead of a map. The emitted properties are the same, "
+            + "this reduces the memory allocated for each emission.";
+
     private static void addOptions(Tad target, Enum<?>[] values) {
         final List<Option> options = target.getOption();
         for (Enum<?> value : values) {
@@ -50,6 +55,16 @@ public class WireAssetOCD extends BaseAssetOCD {
         }
     }
 
+    private static final String REPORT_MODE_DESCRIPTION = "If set to ALWAYS, the values of all READ or READ_WRITE "
+            + "channels are emitted every time the asset is triggered. If set to ON_CHANGE, only the channels whose "
+            + "value or status changed since the last reported value are emitted, according to the deadband "
+            + "of each channel, and nothing is emitted if no channel changed. Does not apply to the emissions "
+            + "caused by a single channel event.";
+
+    private static final String REPORT_HEARTBEAT_INTERVAL_DESCRIPTION = "The interval in seconds after which the "
+            + "values of all channels are emitted even if unchanged, in ON_CHANGE report mode. "
+            + "Set to 0 to disable.";
+
     public WireAssetOCD() {
         super();
 
@@ -88,6 +103,42 @@ public class WireAssetOCD extends BaseAssetOCD {
 
         addAD(emitErrorsAd);
 
+        final Tad emitCompactRecordsAd = new Tad();
+        emitCompactRecordsAd.setId(WireAssetOptions.EMIT_COMPACT_RECORDS_PROP_NAME);
+        emitCompactRecordsAd.setName(WireAssetOptions.EMIT_COMPACT_RECORDS_PROP_NAME);
+        emitCompactRecordsAd.setCardinality(0);
+        emitCompactRecordsAd.setType(Tscalar.BOOLEAN);
+        emitCompactRecordsAd.setDescription(EMIT_COMPACT_RECORDS_DESCRIPTION);
+        emitCompactRecordsAd.setRequired(true);
+        emitCompactRecordsAd.setDefault("false");
+
+        addAD(emitCompactRecordsAd);
+
+        final Tad reportModeAd = new Tad();
+        reportModeAd.setId(WireAssetOptions.REPORT_MODE_PROP_NAME);
+        reportModeAd.setName(WireAssetOptions.REPORT_MODE_PROP_NAME);
+        reportModeAd.setCardinality(0);
+        reportModeAd.setType(Tscalar.STRING);
+        reportModeAd.setDescription(REPORT_MODE_DESCRIPTION);
+        reportModeAd.setRequired(true);
+        reportModeAd.setDefault(ReportMode.ALWAYS.name());
+
+        addOptions(reportModeAd, ReportMode.values());
+
+        addAD(reportModeAd);
+
+        final Tad reportHeartbeatIntervalAd = new Tad();
+        reportHeartbeatIntervalAd.setId(WireAssetOptions.REPORT_HEARTBEAT_INTERVAL_PROP_NAME);
+        reportHeartbeatIntervalAd.setName(WireAssetOptions.REPORT_HEARTBEAT_INTERVAL_PROP_NAME);
+        reportHeartbeatIntervalAd.setCardinality(0);
+        reportHeartbeatIntervalAd.setType(Tscalar.INTEGER);
+        reportHeartbeatIntervalAd.setDescription(REPORT_HEARTBEAT_INTERVAL_DESCRIPTION);
+        reportHeartbeatIntervalAd.setRequired(true);
+        reportHeartbeatIntervalAd.setDefault("0");
+        reportHeartbeatIntervalAd.setMin("0");
+
+        addAD(reportHeartbeatIntervalAd);
+
     }
 
 }
@@ -20,10 +20,16 @@ class WireAssetOptions {
     public static final String EMIT_ALL_CHANNELS_PROP_NAME = "emit.all.channels";
     public static final String TIMESTAMP_MODE_PROP_NAME = "timestamp.mode";
     public static final String EMIT_ERRORS_PROP_NAME = "emit.errors";
+    public static final String EMIT_COMPACT_RECORDS_PROP_NAME = "emit.compact.records";
+    public static final String REPORT_MODE_PROP_NAME = "report.mode";
+    public static final String REPORT_HEARTBEAT_INTERVAL_PROP_NAME = "report.heartbeat.interval";
 
     private boolean emitAllChannels;
     private TimestampMode timestampMode;
     private boolean emitErrors;
+    private boolean emitCompactRecords;
+    private ReportMode reportMode = ReportMode.ALWAYS;
+    private int reportHeartbeatInterval;
 
     public WireAssetOptions() {
     }
@@ -31,11 +37,19 @@ class WireAssetOptions {
     public WireAssetOptions(Map<String, Object> properties) {
         final Object emitAllChannelsProp = properties.get(EMIT_ALL_CHANNELS_PROP_NAME);
         final Object emitErrorsProp = properties.get(EMIT_ERRORS_PROP_NAME);
+        final Object emitCompactRecordsProp = properties.get(EMIT_COMPACT_RECORDS_PROP_NAME);
 
         this.emitAllChannels = emitAllChannelsProp instanceof Boolean && (Boolean) emitAllChannelsProp;
         this.emitErrors = emitErrorsProp instanceof Boolean && (Boolean) emitErrorsProp;
+        this.emitCompactRecords = emitCompactRecordsProp instanceof Boolean && (Boolean) emitCompactRecordsProp;
 
         this.timestampMode = extractTimestampMode(properties);
+        this.reportMode = extractReportMode(properties);
+
+        final Object reportHeartbeatIntervalProp = properties.get(REPORT_HEARTBEAT_INTERVAL_PROP_NAME);
+        this.reportHeartbeatInterval = reportHeartbeatIntervalProp instanceof Integer
+                ? Math.max(0, (Integer) reportHeartbeatIntervalProp)
+                : 0;
     }
 
     public boolean emitAllChannels() {
@@ -50,6 +64,30 @@ class WireAssetOptions {
         return this.emitErrors;
     }
 
+    public boolean emitCompactRecords() {
+        return this.emitCompactRecords;
+    }
+
+    public ReportMode getReportMode() {
+        return this.reportMode;
+    }
+
+    /**
+     * Returns the interval in seconds between two emissions of all the channels in {@link ReportMode#ON_CHANGE}
+     * mode, 0 if disabled.
+     */
+    public int getReportHeartbeatInterval() {
+        return this.reportHeartbeatInterval;
+    }
+
+    private static ReportMode extractReportMode(final Map<String, Object> properties) {
+        try {
+            return ReportMode.valueOf(properties.get(REPORT_MODE_PROP_NAME).toString());
+        } catch (Exception e) {
+            return ReportMode.ALWAYS;
+        }
+    }
+
     private static TimestampMode extractTimestampMode(final Map<String, Object> properties) {
         try {
             return TimestampMode.valueOf(properties.get(TIMESTAMP_MODE_PROP_NAME).toString());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -16,9 +16,12 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
@@ -31,6 +34,7 @@ import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireReceiver;
+import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
@@ -40,13 +44,17 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
 
     private static final String DISCARD_ENVELOPES_PROP_NAME = "discard.envelopes";
     private static final String QUEUE_CAPACITY_PROP_NAME = "queue.capacity";
+    private static final String QUEUE_TYPE_PROP_NAME = "queue.type";
+    private static final String COALESCE_ENVELOPES_PROP_NAME = "coalesce.envelopes";
+
+    private static final String QUEUE_TYPE_RING_BUFFER = "RING_BUFFER";
 
     private static final Logger logger = LogManager.getLogger(Fifo.class);
 
     private volatile WireHelperService wireHelperService;
     private WireSupport wireSupport;
 
-    private FifoEmitterThread emitterThread;
+    private EmitterThread emitterThread;
 
     public void bindWireHelperService(final WireHelperService wireHelperService) {
         if (isNull(this.wireHelperService)) {
@@ -81,8 +89,11 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
                 + "-EmitterThread";
         int queueCapacity = (Integer) properties.getOrDefault(QUEUE_CAPACITY_PROP_NAME, 50);
         boolean discardEnvelopes = (Boolean) properties.getOrDefault(DISCARD_ENVELOPES_PROP_NAME, false);
+        String queueType = (String) properties.getOrDefault(QUEUE_TYPE_PROP_NAME, "LOCK_BASED");
+        boolean coalesceEnvelopes = (Boolean) properties.getOrDefault(COALESCE_ENVELOPES_PROP_NAME, false);
 
-        restartEmitterThread(threadName, queueCapacity, discardEnvelopes);
+        restartEmitterThread(threadName, queueCapacity, discardEnvelopes, QUEUE_TYPE_RING_BUFFER.equals(queueType),
+                coalesceEnvelopes);
 
         logger.info("Updating Fifo... Done");
     }
@@ -94,12 +105,20 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
         }
     }
 
-    private synchronized void restartEmitterThread(String threadName, int queueCapacity, boolean discardEnvelopes) {
+    private synchronized void restartEmitterThread(String threadName, int queueCapacity, boolean discardEnvelopes,
+            boolean ringBuffer, boolean coalesceEnvelopes) {
         stopEmitterThread();
 
-        logger.debug("Creating new emitter thread: {}, queue capacity: {}, discard envelopes: {}", threadName,
-                queueCapacity, discardEnvelopes);
-        this.emitterThread = new FifoEmitterThread(threadName, queueCapacity, discardEnvelopes);
+        logger.debug(
+                "Creating new emitter thread: {}, queue capacity: {}, discard envelopes: {}, ring buffer: {}, "
+                        + "coalesce envelopes: {}",
+                threadName, queueCapacity, discardEnvelopes, ringBuffer, coalesceEnvelopes);
+        if (ringBuffer) {
+            this.emitterThread = new RingBufferEmitterThread(threadName, queueCapacity, discardEnvelopes,
+                    coalesceEnvelopes);
+        } else {
+            this.emitterThread = new FifoEmitterThread(threadName, queueCapacity, discardEnvelopes);
+        }
         this.emitterThread.start();
     }
 
@@ -131,7 +150,14 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
         this.wireSupport.producersConnected(wires);
     }
 
-    private class FifoEmitterThread extends Thread {
+    private abstract class EmitterThread extends Thread {
+
+        public abstract void submit(WireEnvelope envelope);
+
+        public abstract void shutdown();
+    }
+
+    private class FifoEmitterThread extends EmitterThread {
 
         private final Lock lock = new ReentrantLock();
 
@@ -195,6 +221,7 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
             };
         }
 
+        @Override
         public void shutdown() {
             try {
                 this.lock.lock();
@@ -206,6 +233,7 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
             }
         }
 
+        @Override
         public void submit(WireEnvelope envelope) {
             this.submitter.accept(envelope);
         }
@@ -236,4 +264,149 @@ public class Fifo implements WireEmitter, WireReceiver, ConfigurableComponent {
             logger.debug("exiting");
         }
     }
+
+    /**
+     * An emitter thread that stores the envelopes in a lock-free ring buffer. The emitter thread parks when the
+     * buffer is empty and it is unparked by the producers, producers blocked on a full buffer retry periodically.
+     * If envelopes coalescing is enabled, all the queued envelopes are merged and delivered as a single emit.
+     */
+    private class RingBufferEmitterThread extends EmitterThread {
+
+        private final MpscRingBuffer<WireEnvelope> queue;
+        private final boolean discardEnvelopes;
+        private final boolean coalesceEnvelopes;
+
+        // producers blocked on a full ring buffer wait on notFull, the consumer signals it only if some are waiting
+        private final Lock producerLock = new ReentrantLock();
+        private final Condition notFull = this.producerLock.newCondition();
+        private final AtomicInteger waitingProducers = new AtomicInteger();
+
+        private volatile boolean run = true;
+        private volatile boolean waiting;
+
+        public RingBufferEmitterThread(String threadName, int queueCapacity, boolean discardEnvelopes,
+                boolean coalesceEnvelopes) {
+            this.queue = new MpscRingBuffer<>(queueCapacity);
+            this.discardEnvelopes = discardEnvelopes;
+            this.coalesceEnvelopes = coalesceEnvelopes;
+            setName(threadName);
+        }
+
+        @Override
+        public void submit(WireEnvelope envelope) {
+            if (!this.queue.offer(envelope)) {
+                if (this.discardEnvelopes) {
+                    logger.debug("envelope discarded");
+                    return;
+                }
+                if (!awaitOffer(envelope)) {
+                    return;
+                }
+            }
+
+            if (this.waiting) {
+                LockSupport.unpark(this);
+            }
+            logger.debug("envelope submitted");
+        }
+
+        /**
+         * Waits until the envelope is added to the full queue, returns false if the thread is shut down or the
+         * producer is interrupted. The counter is incremented before retrying the offer, so that the consumer,
+         * which checks it after taking envelopes, cannot miss a waiting producer.
+         */
+        private boolean awaitOffer(final WireEnvelope envelope) {
+            this.producerLock.lock();
+            this.waitingProducers.incrementAndGet();
+            try {
+                while (this.run) {
+                    if (this.queue.offer(envelope)) {
+                        return true;
+                    }
+                    this.notFull.await();
+                }
+                return false;
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while adding new envelope to queue");
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                this.waitingProducers.decrementAndGet();
+                this.producerLock.unlock();
+            }
+        }
+
+        private void signalNotFull() {
+            if (this.waitingProducers.get() == 0) {
+                return;
+            }
+            this.producerLock.lock();
+            try {
+                this.notFull.signalAll();
+            } finally {
+                this.producerLock.unlock();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            this.run = false;
+            LockSupport.unpark(this);
+            signalNotFull();
+        }
+
+        @Override
+        public void run() {
+            final List<WireEnvelope> batch = new ArrayList<>();
+
+            while (this.run) {
+                try {
+                    if (this.coalesceEnvelopes) {
+                        this.queue.drainTo(batch, this.queue.capacity());
+                        if (!batch.isEmpty()) {
+                            signalNotFull();
+                            emitCoalesced(batch);
+                            continue;
+                        }
+                    } else {
+                        final WireEnvelope next = this.queue.poll();
+                        if (next != null) {
+                            signalNotFull();
+                            Fifo.this.wireSupport.emit(next.getRecords());
+                            continue;
+                        }
+                    }
+                    awaitEnvelopes();
+                } catch (Exception e) {
+                    logger.warn("Unexpected exception while dispatching envelope", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+            logger.debug("exiting");
+        }
+
+        private void emitCoalesced(final List<WireEnvelope> envelopes) {
+            if (envelopes.size() == 1) {
+                Fifo.this.wireSupport.emit(envelopes.get(0).getRecords());
+                return;
+            }
+
+            final List<WireRecord> records = new ArrayList<>();
+            for (final WireEnvelope envelope : envelopes) {
+                records.addAll(envelope.getRecords());
+            }
+            logger.debug("emitting {} coalesced envelopes", envelopes.size());
+            Fifo.this.wireSupport.emit(records);
+        }
+
+        private void awaitEnvelopes() {
+            // producers unpark this thread only if waiting is set, check again the queue after setting it
+            this.waiting = true;
+            if (this.run && this.queue.isEmpty()) {
+                LockSupport.park(this);
+            }
+            this.waiting = false;
+        }
+    }
 }
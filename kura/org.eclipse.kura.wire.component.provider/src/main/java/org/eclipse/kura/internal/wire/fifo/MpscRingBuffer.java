@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.fifo;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue supporting multiple producers and a single consumer.
+ * <p>
+ * Each slot has a sequence number that tells whether it can be written by the producer claiming a given position,
+ * or read by the consumer. Producers claim positions with a CAS on the tail and publish the element by advancing the
+ * slot sequence, the consumer releases a slot by advancing its sequence by the buffer capacity.
+ * <p>
+ * The {@link #poll()}, {@link #drainTo(List, int)} and {@link #isEmpty()} methods must only be called by the consumer
+ * thread.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    MpscRingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Adds the provided element, returns false if the buffer is full.
+     */
+    boolean offer(final E element) {
+        requireNonNull(element, "Element cannot be null");
+
+        long position = this.tail.get();
+        while (true) {
+            final int index = index(position);
+            final long difference = this.sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                // another producer claimed this position
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element, or returns null if the buffer is empty.
+     */
+    E poll() {
+        final long position = this.head;
+        final int index = index(position);
+
+        if (this.sequences.get(index) != position + 1) {
+            return null;
+        }
+
+        final E element = this.elements.get(index);
+        this.elements.lazySet(index, null);
+        this.sequences.set(index, position + this.capacity);
+        this.head = position + 1;
+        return element;
+    }
+
+    /**
+     * Removes at most {@code maxElements} elements and adds them to the provided list, returns the number of removed
+     * elements.
+     */
+    int drainTo(final List<? super E> target, final int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        final long position = this.head;
+        return this.sequences.get(index(position)) != position + 1;
+    }
+
+    /**
+     * Returns the number of elements in the buffer, the result is approximate if producers are concurrently adding
+     * elements.
+     */
+    int size() {
+        final long size = this.tail.get() - this.head;
+        return (int) Math.max(0, Math.min(size, this.capacity));
+    }
+
+    private int index(final long position) {
+        return (int) (position % this.capacity);
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -19,12 +19,18 @@ import static java.util.Objects.requireNonNull;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -54,7 +60,14 @@ import org.osgi.service.wireadmin.Wire;
  * <br/>
  *
  * For every {@link WireRecord} as found in {@link WireEnvelope} will be wrapped inside a Kura
- * Payload and will be sent to the Cloud Platform.
+ * Payload and will be sent to the Cloud Platform.<br/>
+ * <br/>
+ *
+ * If batching is enabled, the records are accumulated until the configured batch size is reached or the configured
+ * delay elapses, and are published in a single Kura Payload. The metrics of each record are prefixed with the index
+ * of the record in the batch ({@code <index>.<property>}) and the {@code batch.records} metric contains the number of
+ * records in the batch. A batch only contains records of the same emitter and asset, and the message properties used
+ * for resolving the topic are the record properties having the same value in all the records of the batch.
  */
 public final class CloudPublisher implements WireReceiver, ConfigurableComponent {
 
@@ -62,6 +75,8 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
     private static final String ASSET_NAME_PROPERTY_KEY = "assetName";
 
+    private static final String BATCH_RECORDS_METRIC_NAME = "batch.records";
+
     private CloudPublisherOptions cloudPublisherOptions;
 
     private volatile WireHelperService wireHelperService;
@@ -71,6 +86,9 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
     private org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudConnectionPublisher;
 
+    private final Map<List<Object>, PendingBatch> pendingBatches = new LinkedHashMap<>();
+    private ScheduledExecutorService batchExecutor;
+
     // ----------------------------------------------------------------
     //
     // Dependencies
@@ -136,6 +154,7 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
      */
     public void updated(final Map<String, Object> properties) {
         logger.debug("Updating Cloud Publisher Wire Component...");
+        flushBatches();
         // Update properties
         this.cloudPublisherOptions = new CloudPublisherOptions(properties);
 
@@ -150,7 +169,13 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
      */
     protected void deactivate(final ComponentContext componentContext) {
         logger.debug("Deactivating Cloud Publisher Wire Component...");
-
+        flushBatches();
+        synchronized (this.pendingBatches) {
+            if (this.batchExecutor != null) {
+                this.batchExecutor.shutdown();
+                this.batchExecutor = null;
+            }
+        }
         logger.debug("Deactivating Cloud Publisher Wire Component... Done");
     }
 
@@ -161,7 +186,11 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
 
         if (nonNull(this.cloudConnectionPublisher)) {
             final List<WireRecord> records = wireEnvelope.getRecords();
-            publish(records);
+            if (this.cloudPublisherOptions.getBatchMaxRecords() > 1) {
+                enqueue(wireEnvelope.getEmitterPid(), records);
+            } else {
+                publish(records);
+            }
         }
     }
 
@@ -194,6 +223,44 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
      */
     private KuraPayload buildKuraPayload(final WireRecord wireRecord) {
         requireNonNull(wireRecord, "Wire Record cannot be null");
+        final KuraPayload kuraPayload = newKuraPayload();
+
+        final Map<String, TypedValue<?>> wireRecordProperties = wireRecord.getProperties();
+
+        for (final Entry<String, TypedValue<?>> entry : wireRecordProperties.entrySet()) {
+            kuraPayload.addMetric(entry.getKey(), entry.getValue().getValue());
+        }
+
+        setBody(kuraPayload, wireRecordProperties);
+
+        return kuraPayload;
+    }
+
+    /**
+     * Builds a single Kura payload containing the metrics of all the provided {@link WireRecord}s, prefixed with the
+     * index of the record. The body, if configured, is taken from the first record.
+     *
+     * @param wireRecords
+     *            the non empty list of {@link WireRecord}s
+     * @return the Kura payload
+     */
+    private KuraPayload buildBatchKuraPayload(final List<WireRecord> wireRecords) {
+        final KuraPayload kuraPayload = newKuraPayload();
+
+        for (int i = 0; i < wireRecords.size(); i++) {
+            final String prefix = i + ".";
+            for (final Entry<String, TypedValue<?>> entry : wireRecords.get(i).getProperties().entrySet()) {
+                kuraPayload.addMetric(prefix + entry.getKey(), entry.getValue().getValue());
+            }
+        }
+        kuraPayload.addMetric(BATCH_RECORDS_METRIC_NAME, wireRecords.size());
+
+        setBody(kuraPayload, wireRecords.get(0).getProperties());
+
+        return kuraPayload;
+    }
+
+    private KuraPayload newKuraPayload() {
         final KuraPayload kuraPayload = new KuraPayload();
 
         kuraPayload.setTimestamp(new Date());
@@ -203,19 +270,15 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
             kuraPayload.setPosition(kuraPosition);
         }
 
-        final Map<String, TypedValue<?>> wireRecordProperties = wireRecord.getProperties();
-
-        for (final Entry<String, TypedValue<?>> entry : wireRecordProperties.entrySet()) {
-            kuraPayload.addMetric(entry.getKey(), entry.getValue().getValue());
-        }
+        return kuraPayload;
+    }
 
+    private void setBody(final KuraPayload kuraPayload, final Map<String, TypedValue<?>> wireRecordProperties) {
         final Optional<String> bodyProperty = this.cloudPublisherOptions.getBodyProperty();
 
         if (bodyProperty.isPresent()) {
             publishBody(kuraPayload, wireRecordProperties, bodyProperty.get());
         }
-
-        return kuraPayload;
     }
 
     private void publishBody(final KuraPayload kuraPayload, final Map<String, TypedValue<?>> wireRecordProperties,
@@ -278,6 +341,132 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
         }
     }
 
+    /**
+     * Adds the provided {@link WireRecord}s to the pending batch of their emitter and asset, and publishes the batches
+     * that are complete. If the batch delay is not positive, the remaining records are published immediately,
+     * otherwise each batch is published when it is complete or the delay elapses since its first record.
+     *
+     * @param emitterPid
+     *            the pid of the component that emitted the records
+     * @param wireRecords
+     *            the provided list of {@link WireRecord}s
+     */
+    private void enqueue(final String emitterPid, final List<WireRecord> wireRecords) {
+        final int maxRecords = this.cloudPublisherOptions.getBatchMaxRecords();
+        final int maxDelay = this.cloudPublisherOptions.getBatchMaxDelay();
+        final List<List<WireRecord>> batches = new ArrayList<>();
+
+        synchronized (this.pendingBatches) {
+            for (final WireRecord wireRecord : wireRecords) {
+                final List<Object> key = Arrays.asList(emitterPid, getAssetName(wireRecord));
+                final PendingBatch pendingBatch = this.pendingBatches.computeIfAbsent(key, PendingBatch::new);
+
+                pendingBatch.records.add(wireRecord);
+                if (pendingBatch.records.size() >= maxRecords) {
+                    batches.add(removePendingBatch(pendingBatch));
+                }
+            }
+
+            if (maxDelay <= 0) {
+                for (final PendingBatch pendingBatch : new ArrayList<>(this.pendingBatches.values())) {
+                    batches.add(removePendingBatch(pendingBatch));
+                }
+            } else {
+                for (final PendingBatch pendingBatch : this.pendingBatches.values()) {
+                    if (pendingBatch.flushTask == null) {
+                        pendingBatch.flushTask = getBatchExecutor().schedule(() -> flushBatch(pendingBatch),
+                                maxDelay, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+
+        for (final List<WireRecord> batch : batches) {
+            publishBatch(batch);
+        }
+    }
+
+    private ScheduledExecutorService getBatchExecutor() {
+        if (this.batchExecutor == null) {
+            this.batchExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "CloudPublisherBatch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.batchExecutor;
+    }
+
+    private static Object getAssetName(final WireRecord wireRecord) {
+        final TypedValue<?> assetName = wireRecord.getProperties().get(ASSET_NAME_PROPERTY_KEY);
+        return assetName != null ? assetName.getValue() : null;
+    }
+
+    /**
+     * Removes the provided batch from the pending ones and cancels its flush task, must be called while holding the
+     * {@link #pendingBatches} lock.
+     */
+    private List<WireRecord> removePendingBatch(final PendingBatch pendingBatch) {
+        this.pendingBatches.remove(pendingBatch.key);
+        if (pendingBatch.flushTask != null) {
+            pendingBatch.flushTask.cancel(false);
+        }
+        return pendingBatch.records;
+    }
+
+    private void flushBatch(final PendingBatch pendingBatch) {
+        synchronized (this.pendingBatches) {
+            // the batch could have been completed, or flushed, while the task was waiting for the lock
+            if (this.pendingBatches.get(pendingBatch.key) != pendingBatch) {
+                return;
+            }
+            removePendingBatch(pendingBatch);
+        }
+
+        publishBatch(pendingBatch.records);
+    }
+
+    private void flushBatches() {
+        final List<List<WireRecord>> batches = new ArrayList<>();
+
+        synchronized (this.pendingBatches) {
+            for (final PendingBatch pendingBatch : new ArrayList<>(this.pendingBatches.values())) {
+                batches.add(removePendingBatch(pendingBatch));
+            }
+        }
+
+        for (final List<WireRecord> batch : batches) {
+            publishBatch(batch);
+        }
+    }
+
+    /**
+     * Publishes the provided {@link WireRecord}s in a single message. The message properties, that are used for
+     * resolving the topic, are the record properties having the same value in all the records.
+     *
+     * @param wireRecords
+     *            the non empty list of {@link WireRecord}s
+     */
+    private void publishBatch(final List<WireRecord> wireRecords) {
+        final org.eclipse.kura.cloudconnection.publisher.CloudPublisher publisher = this.cloudConnectionPublisher;
+
+        if (isNull(publisher)) {
+            logger.warn("Cloud publisher not available, discarding {} wire records", wireRecords.size());
+            return;
+        }
+
+        try {
+            final Map<String, Object> properties = buildKuraMessageProperties(wireRecords.get(0));
+            for (int i = 1; i < wireRecords.size(); i++) {
+                properties.entrySet().retainAll(buildKuraMessageProperties(wireRecords.get(i)).entrySet());
+            }
+            final KuraPayload kuraPayload = buildBatchKuraPayload(wireRecords);
+            publisher.publish(new KuraMessage(kuraPayload, properties));
+        } catch (final Exception e) {
+            logger.error("Error in publishing wire records using cloud publisher..", e);
+        }
+    }
+
     private Map<String, Object> buildKuraMessageProperties(final WireRecord wireRecord) {
         Map<String, TypedValue<?>> wireRecordProps = wireRecord.getProperties();
 
@@ -288,4 +477,18 @@ public final class CloudPublisher implements WireReceiver, ConfigurableComponent
         }
         return properties;
     }
+
+    /**
+     * The records waiting to be published in a single message, with the same emitter and asset.
+     */
+    private static final class PendingBatch {
+
+        private final List<Object> key;
+        private final List<WireRecord> records = new ArrayList<>();
+        private ScheduledFuture<?> flushTask;
+
+        PendingBatch(final List<Object> key) {
+            this.key = key;
+        }
+    }
 }
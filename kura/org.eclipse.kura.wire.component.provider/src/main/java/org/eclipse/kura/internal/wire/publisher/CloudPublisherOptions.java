@@ -32,6 +32,11 @@ final class CloudPublisherOptions {
 
     private static final String CONF_POSITION = "publish.position";
     private static final String CONF_BODY_PROPERTY = "set.body.from.property";
+    private static final String CONF_BATCH_MAX_RECORDS = "publish.batch.max.records";
+    private static final String CONF_BATCH_MAX_DELAY = "publish.batch.max.delay.ms";
+
+    private static final int DEFAULT_BATCH_MAX_RECORDS = 1;
+    private static final int DEFAULT_BATCH_MAX_DELAY = 1000;
 
     private final Map<String, Object> properties;
 
@@ -82,4 +87,32 @@ final class CloudPublisherOptions {
 
         return Optional.of(property);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the maximum number of records published in a single message. A value less than or equal to 1 disables
+     * batching.
+     *
+     * @return the maximum batch size
+     */
+    int getBatchMaxRecords() {
+        final Object batchMaxRecords = this.properties.get(CONF_BATCH_MAX_RECORDS);
+        if (nonNull(batchMaxRecords) && batchMaxRecords instanceof Integer) {
+            return (Integer) batchMaxRecords;
+        }
+        return DEFAULT_BATCH_MAX_RECORDS;
+    }
+
+    /**
+     * Returns the maximum time a record can wait for a batch to be filled before being published. If less than or
+     * equal to zero, the records of each envelope are published as soon as they are received.
+     *
+     * @return the maximum batch delay in milliseconds
+     */
+    int getBatchMaxDelay() {
+        final Object batchMaxDelay = this.properties.get(CONF_BATCH_MAX_DELAY);
+        if (nonNull(batchMaxDelay) && batchMaxDelay instanceof Integer) {
+            return (Integer) batchMaxDelay;
+        }
+        return DEFAULT_BATCH_MAX_DELAY;
+    }
+}
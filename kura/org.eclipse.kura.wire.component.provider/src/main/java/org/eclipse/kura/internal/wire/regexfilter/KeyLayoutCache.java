@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.regexfilter;
+
+import static org.eclipse.kura.internal.wire.regexfilter.FilterType.RETAIN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.CompactWireRecord;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireRecordSchema;
+
+/**
+ * Filters the properties of {@link WireRecord}s with a precompiled pattern, memoizing the result of the pattern
+ * matching for each distinct property key set.
+ * <p>
+ * The first time a key set is seen, each key is matched against the pattern and the list of the retained keys is
+ * stored. The records with a known key set are then projected on the stored key list without invoking the regular
+ * expression engine. For {@link CompactWireRecord}s the decision is stored for the record schema, as a list of field
+ * indexes. The number of memoized key sets is bounded, the least recently used ones are discarded.
+ * <p>
+ * This class is not thread safe.
+ */
+final class KeyLayoutCache {
+
+    private static final int MAX_LAYOUTS = 64;
+
+    private final Pattern pattern;
+    private final FilterType type;
+
+    private final Map<Set<String>, String[]> layouts = new LinkedHashMap<Set<String>, String[]>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Entry<Set<String>, String[]> eldest) {
+            return size() > MAX_LAYOUTS;
+        }
+    };
+
+    private final Map<WireRecordSchema, int[]> schemas = new LinkedHashMap<WireRecordSchema, int[]>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Entry<WireRecordSchema, int[]> eldest) {
+            return size() > MAX_LAYOUTS;
+        }
+    };
+
+    private WireRecordSchema lastSchema;
+    private int[] lastSchemaIndexes;
+
+    KeyLayoutCache(final Pattern pattern, final FilterType type) {
+        this.pattern = pattern;
+        this.type = type;
+    }
+
+    /**
+     * Returns the filtered properties of the provided record.
+     *
+     * @param wireRecord
+     *            the record to be filtered
+     * @return the filtered properties, or null if all the properties are retained and the record can be emitted as is
+     */
+    Map<String, TypedValue<?>> filter(final WireRecord wireRecord) {
+        if (wireRecord instanceof CompactWireRecord) {
+            return filter((CompactWireRecord) wireRecord);
+        }
+
+        final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+
+        // if the properties map is empty, no need to invoke filter mechanism
+        if (properties.isEmpty()) {
+            return null;
+        }
+
+        String[] retainedKeys = this.layouts.get(properties.keySet());
+
+        if (retainedKeys == null) {
+            final List<String> retained = new ArrayList<>(properties.size());
+            for (final String key : properties.keySet()) {
+                if (isRetained(key)) {
+                    retained.add(key);
+                }
+            }
+            retainedKeys = retained.toArray(new String[retained.size()]);
+            this.layouts.put(new HashSet<>(properties.keySet()), retainedKeys);
+        }
+
+        if (retainedKeys.length == properties.size()) {
+            return null;
+        }
+        if (retainedKeys.length == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, TypedValue<?>> result = new HashMap<>((int) (retainedKeys.length / 0.75f) + 1);
+        for (final String key : retainedKeys) {
+            result.put(key, properties.get(key));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private Map<String, TypedValue<?>> filter(final CompactWireRecord wireRecord) {
+        final WireRecordSchema schema = wireRecord.getSchema();
+
+        int[] retainedIndexes;
+
+        if (schema == this.lastSchema) {
+            retainedIndexes = this.lastSchemaIndexes;
+        } else {
+            retainedIndexes = this.schemas.get(schema);
+
+            if (retainedIndexes == null) {
+                retainedIndexes = getRetainedIndexes(schema);
+                this.schemas.put(schema, retainedIndexes);
+            }
+
+            this.lastSchema = schema;
+            this.lastSchemaIndexes = retainedIndexes;
+        }
+
+        if (retainedIndexes.length == schema.getFieldCount()) {
+            return null;
+        }
+        if (retainedIndexes.length == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, TypedValue<?>> result = new HashMap<>((int) (retainedIndexes.length / 0.75f) + 1);
+        for (final int index : retainedIndexes) {
+            final TypedValue<?> value = wireRecord.getValue(index);
+            if (value != null) {
+                result.put(schema.getFieldName(index), value);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private int[] getRetainedIndexes(final WireRecordSchema schema) {
+        final int[] indexes = new int[schema.getFieldCount()];
+        int count = 0;
+
+        for (int i = 0; i < indexes.length; i++) {
+            if (isRetained(schema.getFieldName(i))) {
+                indexes[count++] = i;
+            }
+        }
+
+        final int[] result = new int[count];
+        System.arraycopy(indexes, 0, result, 0, count);
+        return result;
+    }
+
+    private boolean isRetained(final String key) {
+        return this.pattern.matcher(key).matches() == (this.type == RETAIN);
+    }
+}
@@ -13,26 +13,17 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.regexfilter;
 
-import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.toMap;
 import static org.eclipse.kura.configuration.ConfigurationService.KURA_SERVICE_PID;
 import static org.eclipse.kura.internal.wire.regexfilter.FilterType.REMOVE;
 import static org.eclipse.kura.internal.wire.regexfilter.FilterType.RETAIN;
-import static org.eclipse.kura.util.collection.CollectionUtil.newArrayList;
-import static org.eclipse.kura.util.collection.CollectionUtil.newHashMap;
+import static org.eclipse.kura.util.collection.CollectionUtil.newArrayListWithCapacity;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -74,6 +65,9 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
     /** Associated Filter Type available in the component properties */
     private FilterType filterType;
 
+    /** The compiled filter and the memoized filtering decisions, null if the filter is not valid */
+    private KeyLayoutCache keyLayoutCache;
+
     /** Wire Component PID */
     private String componentPid;
 
@@ -116,6 +110,7 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
         this.filter = String.valueOf(properties.getOrDefault(REGEX_PROP, ""));
         this.componentPid = String.valueOf(properties.get(KURA_SERVICE_PID));
         this.filterType = getType(properties);
+        this.keyLayoutCache = createKeyLayoutCache(this.filter, this.filterType);
         this.wireSupport = this.wireHelperService.newWireSupport(this,
                 (ServiceReference<WireComponent>) componentContext.getServiceReference());
         logger.debug("Activating Regex Filter... Done");
@@ -131,6 +126,7 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
         logger.debug("Updating Regex Filter...");
         this.filter = String.valueOf(properties.getOrDefault(REGEX_PROP, ""));
         this.filterType = getType(properties);
+        this.keyLayoutCache = createKeyLayoutCache(this.filter, this.filterType);
         logger.debug("Updating Regex Filter... Done");
     }
 
@@ -162,8 +158,8 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
     @Override
     public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
         final List<WireRecord> receivedRecords = wireEnvelope.getRecords();
-        if (isNull(this.filter) || this.filter.trim().isEmpty()) {
-            // no filter has been associated
+        if (isNull(this.keyLayoutCache)) {
+            // no valid filter has been associated
             this.wireSupport.emit(receivedRecords);
             return;
         }
@@ -189,8 +185,7 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
             final WireEnvelope nonFilteredWireEnvelope) {
         WireEnvelope filteredWireEnvelope;
         try {
-            filteredWireEnvelope = new WireEnvelope(this.componentPid,
-                    filter(wireRecords, this.filter, this.filterType));
+            filteredWireEnvelope = new WireEnvelope(this.componentPid, filter(wireRecords, this.keyLayoutCache));
         } catch (final Exception ex) {
             // if any exception occurs while filtering, just emit the not filtered
             // Wire Records
@@ -206,31 +201,23 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
      *
      * @param wireRecords
      *            the list of {@link WireRecord}s
-     * @param filter
-     *            the filter to match
-     * @param type
-     *            the associated type that signifies either to retain matched keys or remove
+     * @param keyLayoutCache
+     *            the compiled filter
      * @return the list of {@link WireRecord}s containing the filtered properties
      * @throws NullPointerException
      *             if any of the arguments is null
-     * @throws java.util.regex.PatternSyntaxException
-     *             If the filter's syntax is invalid
      */
-    private static List<WireRecord> filter(final List<WireRecord> wireRecords, final String filter,
-            final FilterType type) {
+    private static List<WireRecord> filter(final List<WireRecord> wireRecords, final KeyLayoutCache keyLayoutCache) {
         requireNonNull(wireRecords, "Wire Records cannot be null");
-        requireNonNull(filter, "Filter cannot be null");
+        requireNonNull(keyLayoutCache, "Filter cannot be null");
 
-        final List<WireRecord> filteredWireRecords = newArrayList();
+        final List<WireRecord> filteredWireRecords = newArrayListWithCapacity(wireRecords.size());
         for (final WireRecord wireRecord : wireRecords) {
-            final Map<String, TypedValue<?>> previousProperties = wireRecord.getProperties();
-            final Map<String, TypedValue<?>> filteredProperties = match(filter, previousProperties, type);
+            final Map<String, TypedValue<?>> filteredProperties = keyLayoutCache.filter(wireRecord);
 
-            // If both the maps' references refer to the same map instance, there is no need
-            // to create a new Wire Record. This is an optimization functionality, in which
-            // the regular expression filter matches all the provided keys of the properties
-            // or the properties is empty
-            if (previousProperties == filteredProperties) {
+            // If the regular expression filter retains all the provided keys of the properties
+            // or the properties is empty, there is no need to create a new Wire Record
+            if (filteredProperties == null) {
                 filteredWireRecords.add(wireRecord);
                 continue;
             }
@@ -241,50 +228,25 @@ public final class RegexFilter implements WireEmitter, WireReceiver, Configurabl
     }
 
     /**
-     * Filters out the keys from the provided {@link Map} instance
+     * Compiles the provided regular expression.
      *
-     * @param regularExpression
-     *            the regular expression to match
-     * @param map
-     *            the {@link Map} instance to filter
+     * @param filter
+     *            the regular expression
      * @param type
      *            the associated type that signifies either to retain matched keys or remove
-     * @return the {@link Map} instance comprising the keys
-     *         that match the provided regular expression
-     * @throws java.util.regex.PatternSyntaxException
-     *             If the regular expression's syntax is invalid
+     * @return the {@link KeyLayoutCache} for the provided regular expression, or null if the regular
+     *         expression is empty or not valid
      */
-    private static <V> Map<String, V> match(final String regularExpression, final Map<String, V> map,
-            final FilterType type) {
-        // if the properties map is empty, no need to invoke filter mechanism
-        if (map.isEmpty()) {
-            return map;
+    private static KeyLayoutCache createKeyLayoutCache(final String filter, final FilterType type) {
+        if (filter.trim().isEmpty()) {
+            return null;
         }
-        final Pattern pattern = Pattern.compile(regularExpression);
-        final Set<Entry<String, V>> entrySet = map.entrySet();
-        final Supplier<Stream<Entry<String, V>>> streamSupplier = entrySet::stream;
-        // If the provided regular expression matches all the keys of the provided map,
-        // there is no need to create a new map instance (in case of RETAIN type)
-        final boolean allMatch = streamSupplier.get().allMatch(matches(pattern, type));
-        if (allMatch) {
-            return type == RETAIN ? map : unmodifiableMap(newHashMap());
+        try {
+            return new KeyLayoutCache(Pattern.compile(filter), type);
+        } catch (final PatternSyntaxException e) {
+            logger.warn("Invalid Regular Expression, the received Wire Records will not be filtered", e);
+            return null;
         }
-        return streamSupplier.get().filter(matches(pattern, type))
-                .collect(collectingAndThen(toMap(Entry::getKey, Entry::getValue), Collections::unmodifiableMap));
-    }
-
-    /**
-     * The {@link Predicate} instance denoting the provided {@link Pattern} instance to match
-     *
-     * @param pattern
-     *            the {@link Pattern} instance to match
-     * @param type
-     *            the type that signifies either to match entries or not
-     * @return a {@link Predicate} instance
-     */
-    private static <V> Predicate<Entry<String, V>> matches(final Pattern pattern, final FilterType type) {
-        final Predicate<Entry<String, V>> predicate = entry -> pattern.matcher(entry.getKey()).matches();
-        return type == RETAIN ? predicate : predicate.negate();
     }
 
     /**
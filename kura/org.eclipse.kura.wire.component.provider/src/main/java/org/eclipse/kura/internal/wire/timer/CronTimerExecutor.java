@@ -13,11 +13,14 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.timer;
 
+import java.text.ParseException;
+import java.util.Date;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.clock.ClockEvent;
 import org.eclipse.kura.wire.WireSupport;
@@ -26,84 +29,65 @@ import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.EventConstants;
 import org.osgi.service.event.EventHandler;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.JobBuilder;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.TriggerBuilder;
-import org.quartz.TriggerKey;
-import org.quartz.impl.StdSchedulerFactory;
-import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.CronExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class CronTimerExecutor implements TimerExecutor {
+/**
+ * Emits ticks at the times defined by a CRON expression. The expression is evaluated against the system clock, the
+ * next tick is recomputed when the system time changes.
+ */
+public class CronTimerExecutor extends WheelTimerExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(CronTimerExecutor.class);
-    private static final String GROUP_ID = "wires";
 
-    private static AtomicInteger nextJobId = new AtomicInteger(0);
-    private static SchedulerManager schedulerManager = new SchedulerManager();
+    private static ClockChangeListener clockChangeListener = new ClockChangeListener();
 
-    private final JobKey jobKey;
+    private final CronExpression expression;
 
-    public CronTimerExecutor(final TimerOptions options, final WireSupport wireSupport) throws SchedulerException {
+    // the wall clock time of the last scheduled tick, used to avoid emitting twice for the same fire time
+    private long lastFireTimeMillis;
 
-        final String expression = options.getCronExpression();
-        final int id = nextJobId.incrementAndGet();
+    public CronTimerExecutor(final TimerOptions options, final WireSupport wireSupport) throws ParseException {
+        super(options.getOwnPid(), wireSupport);
 
-        this.jobKey = new JobKey("emitJob" + id, GROUP_ID);
-        final Trigger trigger = TriggerBuilder.newTrigger().withIdentity("emitTrigger" + id, GROUP_ID)
-                .withSchedule(CronScheduleBuilder.cronSchedule(expression)).build();
+        this.expression = new CronExpression(options.getCronExpression());
 
-        final TimerJobDataMap jobDataMap = new TimerJobDataMap();
-        jobDataMap.putWireSupport(wireSupport);
-        final JobDetail job = JobBuilder.newJob(EmitJob.class).withIdentity(this.jobKey).setJobData(jobDataMap).build();
+        clockChangeListener.add(this);
+        start();
+    }
+
+    @Override
+    protected long computeNextTick(final long nowNanos) {
+        final long nowMillis = System.currentTimeMillis();
+        final Date nextFireTime = this.expression
+                .getNextValidTimeAfter(new Date(Math.max(nowMillis, this.lastFireTimeMillis)));
 
-        try {
-            schedulerManager.onInstanceCreated();
-            schedulerManager.scheduleJob(job, trigger);
-        } catch (final Exception e) {
-            schedulerManager.onInstanceDestroyed();
-            throw e;
+        if (nextFireTime == null) {
+            return -1;
         }
+
+        this.lastFireTimeMillis = nextFireTime.getTime();
+        return nowNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, this.lastFireTimeMillis - nowMillis));
+    }
+
+    private synchronized void onClockChanged() {
+        this.lastFireTimeMillis = 0;
+        rescheduleNextTick();
     }
 
     @Override
     public void shutdown() {
-        try {
-            schedulerManager.deleteJob(this.jobKey);
-        } catch (final Exception e) {
-            logger.warn("failed to delete job", e);
-        }
-        schedulerManager.onInstanceDestroyed();
+        clockChangeListener.remove(this);
+        super.shutdown();
     }
 
-    private static class SchedulerManager {
+    private static class ClockChangeListener {
 
-        private int instanceCount;
-        private Optional<Scheduler> scheduler = Optional.empty();
+        private final Set<CronTimerExecutor> executors = new CopyOnWriteArraySet<>();
         private Optional<ServiceRegistration<EventHandler>> clockChangeEventHandler = Optional.empty();
 
-        Scheduler getScheduler() throws SchedulerException {
-            if (this.scheduler.isPresent()) {
-                return this.scheduler.get();
-            }
-
-            final Scheduler newScheduler = new StdSchedulerFactory().getScheduler();
-            newScheduler.start();
-
-            this.scheduler = Optional.of(newScheduler);
-
-            return newScheduler;
-        }
-
-        synchronized void onInstanceCreated() {
-            this.instanceCount++;
-
+        synchronized void add(final CronTimerExecutor executor) {
             if (!this.clockChangeEventHandler.isPresent()) {
                 final Dictionary<String, Object> eventHandlerProperties = new Hashtable<>();
                 eventHandlerProperties.put(EventConstants.EVENT_TOPIC, ClockEvent.CLOCK_EVENT_TOPIC);
@@ -111,70 +95,33 @@ public class CronTimerExecutor implements TimerExecutor {
                 final BundleContext bundleContext = FrameworkUtil.getBundle(CronTimerExecutor.class).getBundleContext();
 
                 this.clockChangeEventHandler = Optional.of(bundleContext.registerService(EventHandler.class,
-                        e -> rescheduleTriggers(), eventHandlerProperties));
+                        e -> rescheduleTimers(), eventHandlerProperties));
             }
-        }
 
-        synchronized void onInstanceDestroyed() {
-            this.instanceCount--;
+            this.executors.add(executor);
+        }
 
-            if (this.instanceCount > 0) {
-                return;
-            }
+        synchronized void remove(final CronTimerExecutor executor) {
+            this.executors.remove(executor);
 
-            if (this.clockChangeEventHandler.isPresent()) {
+            if (this.executors.isEmpty() && this.clockChangeEventHandler.isPresent()) {
                 this.clockChangeEventHandler.get().unregister();
                 this.clockChangeEventHandler = Optional.empty();
             }
-
-            if (this.scheduler.isPresent()) {
-                try {
-                    this.scheduler.get().shutdown();
-                } catch (final Exception e) {
-                    logger.warn("failed to shutdown scheduler", e);
-                }
-                this.scheduler = Optional.empty();
-            }
-        }
-
-        synchronized void scheduleJob(final JobDetail jobDetail, final Trigger trigger) throws SchedulerException {
-            getScheduler().scheduleJob(jobDetail, trigger);
         }
 
-        synchronized void deleteJob(final JobKey jobKey) throws SchedulerException {
-            getScheduler().deleteJob(jobKey);
-        }
-
-        synchronized void rescheduleTriggers() {
-            if (!this.scheduler.isPresent()) {
-                return;
-            }
-
-            logger.info("system time changed, rescheduling triggers...");
-
-            final Scheduler currentScheduler = this.scheduler.get();
-
-            final Set<TriggerKey> keys;
-
-            try {
-                keys = currentScheduler.getTriggerKeys(GroupMatcher.anyTriggerGroup());
-            } catch (final SchedulerException e) {
-                logger.warn("failed to get scheduled triggers", e);
-                return;
-            }
+        void rescheduleTimers() {
+            logger.info("system time changed, rescheduling timers...");
 
-            for (final TriggerKey key : keys) {
+            for (final CronTimerExecutor executor : this.executors) {
                 try {
-                    final Trigger newTrigger = currentScheduler.getTrigger(key).getTriggerBuilder().startNow().build();
-                    logger.debug("rescheduling {}...", key);
-                    currentScheduler.rescheduleJob(key, newTrigger);
-                    logger.debug("rescheduling {}...done", key);
+                    executor.onClockChanged();
                 } catch (final Exception e) {
-                    logger.warn("failed to reschedule trigger {}", key, e);
+                    logger.warn("failed to reschedule timer", e);
                 }
             }
 
-            logger.info("system time changed, rescheduling triggers...done");
+            logger.info("system time changed, rescheduling timers...done");
         }
     }
 
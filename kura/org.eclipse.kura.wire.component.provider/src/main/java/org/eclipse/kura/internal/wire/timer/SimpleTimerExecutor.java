@@ -12,41 +12,71 @@
  *******************************************************************************/
 package org.eclipse.kura.internal.wire.timer;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.wire.WireSupport;
 
-public class SimpleTimerExecutor implements TimerExecutor {
+/**
+ * Emits ticks at a fixed rate. Each tick deadline is computed from the previous deadline rather than from the actual
+ * tick time, so that the ticks do not drift.
+ */
+public class SimpleTimerExecutor extends WheelTimerExecutor {
 
-    private final ScheduledExecutorService executor;
+    private final long periodNanos;
+    private final long firstTickDelayNanos;
+    private long nextTickNanos;
+    private boolean firstTick = true;
 
     public SimpleTimerExecutor(final TimerOptions options, final WireSupport wireSupport) {
-        this.executor = Executors.newSingleThreadScheduledExecutor(getThreadFactory(options.getOwnPid()));
+        this(options, wireSupport, null);
+    }
+
+    SimpleTimerExecutor(final TimerOptions options, final WireSupport wireSupport, final TimerWheel wheel) {
+        super(options.getOwnPid(), wireSupport, wheel);
 
-        long firstTickInterval = options.getSimpleInterval() * options.getSimpleTimeUnitMultiplier();
-        if (!options.isDefaultFirstTickBehavior()) {
-            firstTickInterval = options.firstTickInterval() * options.getSimpleTimeUnitMultiplier();
+        final long multiplier = options.getSimpleTimeUnitMultiplier();
+        final long periodMillis = options.getSimpleInterval() * multiplier;
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Timer interval must be greater than zero");
         }
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
 
-        this.executor.scheduleAtFixedRate(() -> Timer.emit(wireSupport), firstTickInterval,
-                options.getSimpleInterval() * options.getSimpleTimeUnitMultiplier(), TimeUnit.MILLISECONDS);
-    }
+        long firstTickDelayMillis = periodMillis;
+        if (options.isAlignedFirstTickBehavior()) {
+            firstTickDelayMillis = getAlignedDelay(System.currentTimeMillis(), periodMillis,
+                    options.getPhaseOffset() * multiplier);
+        } else if (!options.isDefaultFirstTickBehavior()) {
+            firstTickDelayMillis = options.firstTickInterval() * multiplier;
+        }
+        this.firstTickDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, firstTickDelayMillis));
 
-    private static ThreadFactory getThreadFactory(final String pid) {
-        final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        start();
+    }
 
-        return runnable -> {
-            final Thread result = defaultFactory.newThread(runnable);
-            result.setName("WiresTimer_" + pid + "_" + System.identityHashCode(result));
-            return result;
-        };
+    /**
+     * Returns the delay until the next wall clock time that is a multiple of the period plus the phase offset, timers
+     * having the same period and phase offset tick at the same time.
+     */
+    static long getAlignedDelay(final long nowMillis, final long periodMillis, final long phaseOffsetMillis) {
+        return periodMillis - Math.floorMod(nowMillis - phaseOffsetMillis, periodMillis);
     }
 
     @Override
-    public void shutdown() {
-        this.executor.shutdownNow();
+    protected long computeNextTick(final long nowNanos) {
+        if (this.firstTick) {
+            this.firstTick = false;
+            this.nextTickNanos = nowNanos + this.firstTickDelayNanos;
+            return this.nextTickNanos;
+        }
+
+        this.nextTickNanos += this.periodNanos;
+
+        // a tick is skipped only if the following one is already due
+        if (this.nextTickNanos + this.periodNanos <= nowNanos) {
+            final long missedTicks = (nowNanos - this.nextTickNanos) / this.periodNanos;
+            this.nextTickNanos += missedTicks * this.periodNanos;
+            onMissedTicks(missedTicks);
+        }
+        return this.nextTickNanos;
     }
 }
@@ -37,9 +37,12 @@ final class TimerOptions {
 
     private static final String PROP_SIMPLE_TICK_POLICY = "simple.first.tick.policy";
     private static final String PROP_SIMPLE_TICK_POLICY_DEFAULT_VALUE = "DEFAULT";
+    private static final String PROP_SIMPLE_TICK_POLICY_ALIGNED_VALUE = "ALIGNED";
 
     private static final String PROP_SIMPLE_TICK_CUSTOM_INTERVAL = "simple.custom.first.tick.interval";
 
+    private static final String PROP_SIMPLE_PHASE_OFFSET = "simple.phase.offset";
+
     private static final String PROP_INTERVAL_TYPE = "type";
 
     private final Map<String, Object> properties;
@@ -97,6 +100,27 @@ final class TimerOptions {
         return result;
     }
 
+    boolean isAlignedFirstTickBehavior() {
+        final Object selectedBehavior = this.properties.get(PROP_SIMPLE_TICK_POLICY);
+        return nonNull(selectedBehavior) && selectedBehavior instanceof String
+                && PROP_SIMPLE_TICK_POLICY_ALIGNED_VALUE.equalsIgnoreCase((String) selectedBehavior);
+    }
+
+    /**
+     * Returns the offset of the ticks with respect to the multiples of the interval, effective only if the first tick
+     * policy is ALIGNED.
+     *
+     * @return the phase offset, in the time unit specified by the simple time unit property
+     */
+    int getPhaseOffset() {
+        int offset = 0;
+        final Object phaseOffset = this.properties.get(PROP_SIMPLE_PHASE_OFFSET);
+        if (nonNull(phaseOffset) && phaseOffset instanceof Integer) {
+            offset = (Integer) phaseOffset;
+        }
+        return offset;
+    }
+
     int firstTickInterval() {
         int interval = 0;
         final Object firstTickInterval = this.properties.get(PROP_SIMPLE_TICK_CUSTOM_INTERVAL);
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A hashed timing wheel shared by all the Timer components.
+ * <p>
+ * A single thread advances the wheel every {@link #TICK_DURATION_MILLIS} milliseconds and hands the expired tasks to
+ * a pool of worker threads, that are created only while there are tasks being executed. Deadlines are absolute
+ * {@link System#nanoTime()} values, so the scheduling error does not accumulate over time. The wheel thread parks
+ * when there are no scheduled tasks.
+ * <p>
+ * The time source and the worker pool can be provided to the package private constructor, in that case the wheel
+ * thread is not started and the wheel is advanced by calling {@link #advance()}.
+ */
+final class TimerWheel {
+
+    private static final Logger logger = LogManager.getLogger(TimerWheel.class);
+
+    static final long TICK_DURATION_MILLIS = 10;
+
+    private static final long TICK_DURATION_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_DURATION_MILLIS);
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static TimerWheel instance;
+    private static int referenceCount;
+
+    private final AtomicInteger workerCount = new AtomicInteger();
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final LongSupplier ticker;
+    private final ExecutorService workers;
+    private final List<Deque<Timeout>> buckets = new ArrayList<>(WHEEL_SIZE);
+
+    private final long startTime;
+    private Thread wheelThread;
+    private long tick;
+    private int scheduledTimeouts;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    private TimerWheel() {
+        this(System::nanoTime, null);
+
+        this.wheelThread = new Thread(this::run, "WiresTimer_wheel");
+        this.wheelThread.setDaemon(true);
+        this.wheelThread.start();
+    }
+
+    TimerWheel(final LongSupplier ticker, final ExecutorService workers) {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.buckets.add(new LinkedList<>());
+        }
+
+        this.ticker = requireNonNull(ticker, "Ticker cannot be null");
+        if (workers != null) {
+            this.workers = workers;
+        } else {
+            this.workers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), runnable -> {
+                        final Thread thread = new Thread(runnable,
+                                "WiresTimer_worker_" + this.workerCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        this.startTime = ticker.getAsLong();
+    }
+
+    /**
+     * Returns the shared wheel, starting it if needed. Every call must be paired with a call to {@link #release()}.
+     */
+    static synchronized TimerWheel acquire() {
+        if (instance == null) {
+            logger.debug("Starting timer wheel...");
+            instance = new TimerWheel();
+        }
+        referenceCount++;
+        return instance;
+    }
+
+    /**
+     * Releases the shared wheel, the wheel is stopped when it is no longer used.
+     */
+    static synchronized void release() {
+        if (instance == null) {
+            return;
+        }
+        referenceCount--;
+        if (referenceCount <= 0) {
+            logger.debug("Stopping timer wheel...");
+            instance.stop();
+            instance = null;
+            referenceCount = 0;
+        }
+    }
+
+    /**
+     * Returns the current time of the wheel time source, in nanoseconds.
+     */
+    long nanoTime() {
+        return this.ticker.getAsLong();
+    }
+
+    /**
+     * Schedules the provided task for execution on a worker thread, at the provided {@link #nanoTime()} deadline or
+     * up to {@link #TICK_DURATION_MILLIS} milliseconds later.
+     */
+    Timeout schedule(final Runnable task, final long deadlineNanos) {
+        requireNonNull(task, "Task cannot be null");
+
+        final Timeout timeout = new Timeout(task, deadlineNanos - this.startTime);
+        this.pendingTimeouts.add(timeout);
+        if (this.parked) {
+            LockSupport.unpark(this.wheelThread);
+        }
+        return timeout;
+    }
+
+    private void stop() {
+        this.running = false;
+        if (this.wheelThread != null) {
+            LockSupport.unpark(this.wheelThread);
+        }
+        this.workers.shutdownNow();
+    }
+
+    /**
+     * Expires the ticks elapsed up to the current time, must only be called if the wheel thread is not started.
+     */
+    void advance() {
+        final long currentTime = this.ticker.getAsLong() - this.startTime;
+        while (this.running && (this.tick + 1) * TICK_DURATION_NANOS <= currentTime) {
+            expireTick(currentTime);
+        }
+    }
+
+    private void run() {
+        while (this.running) {
+            if (this.scheduledTimeouts == 0 && this.pendingTimeouts.isEmpty()) {
+                awaitTimeouts();
+                // the skipped buckets are empty, resume from the current time
+                this.tick = Math.max(this.tick, (this.ticker.getAsLong() - this.startTime) / TICK_DURATION_NANOS);
+            }
+
+            final long currentTime = waitForTick(this.tick);
+            if (!this.running) {
+                break;
+            }
+
+            expireTick(currentTime);
+        }
+    }
+
+    private void expireTick(final long currentTime) {
+        transferPendingTimeouts(this.tick);
+        expireTimeouts(this.buckets.get((int) (this.tick & WHEEL_MASK)), currentTime);
+        this.tick++;
+    }
+
+    private void awaitTimeouts() {
+        this.parked = true;
+        if (this.running && this.pendingTimeouts.isEmpty()) {
+            LockSupport.park(this);
+        }
+        this.parked = false;
+    }
+
+    private long waitForTick(final long tick) {
+        final long tickDeadline = (tick + 1) * TICK_DURATION_NANOS;
+
+        while (this.running) {
+            final long currentTime = this.ticker.getAsLong() - this.startTime;
+            final long sleepNanos = tickDeadline - currentTime;
+            if (sleepNanos <= 0) {
+                return currentTime;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+        }
+        return -1;
+    }
+
+    private void transferPendingTimeouts(final long currentTick) {
+        Timeout timeout;
+        while ((timeout = this.pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            final long calculatedTick = timeout.deadline / TICK_DURATION_NANOS;
+            timeout.remainingRounds = (calculatedTick - currentTick) / WHEEL_SIZE;
+
+            // deadlines in the past are expired in the current tick
+            final long targetTick = Math.max(calculatedTick, currentTick);
+            this.buckets.get((int) (targetTick & WHEEL_MASK)).add(timeout);
+            this.scheduledTimeouts++;
+        }
+    }
+
+    private void expireTimeouts(final Deque<Timeout> bucket, final long currentTime) {
+        final Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            final Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+                this.scheduledTimeouts--;
+            } else if (timeout.remainingRounds <= 0 && timeout.deadline <= currentTime) {
+                iterator.remove();
+                this.scheduledTimeouts--;
+                execute(timeout);
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void execute(final Timeout timeout) {
+        try {
+            this.workers.execute(timeout.task);
+        } catch (final RejectedExecutionException e) {
+            logger.debug("Timer wheel stopped, discarding task");
+        }
+    }
+
+    static final class Timeout {
+
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.wire.WireSupport;
+
+/**
+ * Base class for the {@link TimerExecutor}s scheduled on the shared {@link TimerWheel}.
+ * <p>
+ * The next tick is scheduled before emitting, so that the tick rate does not depend on the time spent by the
+ * downstream components. Ticks of the same timer are never emitted concurrently: if the previous tick is still being
+ * processed when a new one is due, the new tick is skipped and counted as an overrun.
+ */
+abstract class WheelTimerExecutor implements TimerExecutor {
+
+    private static final Logger logger = LogManager.getLogger(WheelTimerExecutor.class);
+
+    private static final long OVERRUN_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String pid;
+    private final WireSupport wireSupport;
+
+    private final AtomicBoolean emitting = new AtomicBoolean();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong maxTickDurationNanos = new AtomicLong();
+    private volatile long lastOverrunLogNanos = System.nanoTime() - OVERRUN_LOG_INTERVAL_NANOS;
+
+    private TimerWheel wheel;
+    private boolean sharedWheel;
+    private TimerWheel.Timeout timeout;
+    private boolean shutdown;
+
+    protected WheelTimerExecutor(final String pid, final WireSupport wireSupport) {
+        this(pid, wireSupport, null);
+    }
+
+    /**
+     * Creates an executor scheduled on the provided wheel, or on the shared one if null.
+     */
+    protected WheelTimerExecutor(final String pid, final WireSupport wireSupport, final TimerWheel wheel) {
+        this.pid = pid;
+        this.wireSupport = wireSupport;
+        this.wheel = wheel;
+    }
+
+    /**
+     * Schedules the first tick, must be called once by the subclasses when ready for ticking.
+     */
+    protected final synchronized void start() {
+        if (this.wheel == null) {
+            this.wheel = TimerWheel.acquire();
+            this.sharedWheel = true;
+        }
+        scheduleNextTick();
+    }
+
+    /**
+     * Returns the {@link TimerWheel#nanoTime()} deadline of the next tick, or a negative value if no more ticks must be
+     * emitted.
+     */
+    protected abstract long computeNextTick(long nowNanos);
+
+    protected final synchronized void scheduleNextTick() {
+        if (this.shutdown || this.wheel == null) {
+            return;
+        }
+
+        final long nextTick = computeNextTick(this.wheel.nanoTime());
+        if (nextTick < 0) {
+            logger.info("Timer {} has no more ticks to emit", this.pid);
+            return;
+        }
+        this.timeout = this.wheel.schedule(this::onTick, nextTick);
+    }
+
+    protected final synchronized void rescheduleNextTick() {
+        if (this.timeout != null) {
+            this.timeout.cancel();
+        }
+        scheduleNextTick();
+    }
+
+    /**
+     * Records ticks that have not been emitted because their deadline has already expired when scheduling.
+     */
+    protected final void onMissedTicks(final long count) {
+        this.overruns.addAndGet(count);
+        logOverruns();
+    }
+
+    long getOverrunCount() {
+        return this.overruns.get();
+    }
+
+    private void onTick() {
+        scheduleNextTick();
+
+        if (!this.emitting.compareAndSet(false, true)) {
+            onMissedTicks(1);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            Timer.emit(this.wireSupport);
+        } catch (final Exception e) {
+            logger.warn("Timer {} failed to emit", this.pid, e);
+        } finally {
+            this.maxTickDurationNanos.accumulateAndGet(System.nanoTime() - start, Math::max);
+            this.emitting.set(false);
+        }
+    }
+
+    private void logOverruns() {
+        final long now = System.nanoTime();
+        if (now - this.lastOverrunLogNanos < OVERRUN_LOG_INTERVAL_NANOS) {
+            return;
+        }
+        this.lastOverrunLogNanos = now;
+        logger.warn(
+                "Timer {} tick overrun, the previous tick was still being processed by the downstream components. "
+                        + "Skipped ticks: {}, max tick processing time: {} ms",
+                this.pid, this.overruns.get(), TimeUnit.NANOSECONDS.toMillis(this.maxTickDurationNanos.get()));
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (this.shutdown) {
+            return;
+        }
+        this.shutdown = true;
+        if (this.timeout != null) {
+            this.timeout.cancel();
+        }
+        if (this.sharedWheel) {
+            TimerWheel.release();
+        }
+        this.wheel = null;
+    }
+}
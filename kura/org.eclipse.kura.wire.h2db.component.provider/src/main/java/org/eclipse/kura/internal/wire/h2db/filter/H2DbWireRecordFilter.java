@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -17,25 +17,23 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 
-import java.sql.Blob;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
-import org.eclipse.kura.type.TypedValue;
-import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.internal.wire.h2db.filter.H2DbWireRecordFilterOptions.QueryMode;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
 import org.eclipse.kura.wire.WireEnvelope;
@@ -56,6 +54,11 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
 
     private static final Logger logger = LogManager.getLogger(H2DbWireRecordFilter.class);
 
+    private static final Pattern QUOTED_TEXT = Pattern.compile("'(?:[^']|'')*'|\"(?:[^\"]|\"\")*\"");
+
+    private static final Pattern UNWRAPPABLE_CLAUSE = Pattern
+            .compile("\\b(?:ORDER\\s+BY|LIMIT|OFFSET|FETCH|TOP)\\b", Pattern.CASE_INSENSITIVE);
+
     private List<WireRecord> lastRecords;
 
     private H2DbServiceHelper dbHelper;
@@ -72,6 +75,9 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
 
     private int cacheExpirationInterval;
 
+    // the value of the incremental column for the last emitted row, null if no rows have been emitted yet
+    private Object lastIncrementalValue;
+
     public synchronized void bindDbService(H2DbService dbService) {
         this.dbService = dbService;
         this.dbHelper = H2DbServiceHelper.of(dbService);
@@ -142,7 +148,8 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
     public void updated(final Map<String, Object> properties) {
         logger.debug("Updating DB Wire Record Filter... {}", properties);
 
-        final String oldSqlView = this.options.getSqlView();
+        final H2DbWireRecordFilterOptions oldOptions = this.options;
+        final String oldSqlView = oldOptions.getSqlView();
 
         this.options = new H2DbWireRecordFilterOptions(properties);
 
@@ -158,6 +165,15 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
             this.lastRecords = null;
         }
 
+        if (!oldSqlView.equals(this.options.getSqlView()) || oldOptions.getQueryMode() != this.options.getQueryMode()
+                || !oldOptions.getIncrementalColumn().equals(this.options.getIncrementalColumn())) {
+            this.lastIncrementalValue = null;
+        }
+
+        if (!isCaching()) {
+            this.lastRecords = null;
+        }
+
         logger.debug("Updating DB Wire Record Filter... Done");
     }
 
@@ -182,58 +198,92 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
     }
 
     private List<WireRecord> performSQLQuery() throws SQLException {
-
-        final String sqlView = this.options.getSqlView();
+        final String sql = this.options.getSqlView();
 
         return this.dbHelper.withConnection(c -> {
-            final List<WireRecord> dataRecords = new ArrayList<>();
+            try (final Statement stmt = c.createStatement(); final ResultSet rset = stmt.executeQuery(sql)) {
+                final H2DbWireRecordReader reader = new H2DbWireRecordReader(rset.getMetaData());
 
-            try (final Statement stmt = c.createStatement(); final ResultSet rset = stmt.executeQuery(sqlView)) {
+                final List<WireRecord> dataRecords = new ArrayList<>();
                 while (rset.next()) {
-                    final WireRecord wireRecord = new WireRecord(convertSQLRowToWireRecord(rset));
-                    dataRecords.add(wireRecord);
+                    dataRecords.add(reader.read(rset));
                 }
+
+                logger.debug("Refreshed typed values");
+                return dataRecords;
             }
-            logger.debug("Refreshed typed values");
-            return dataRecords;
         });
     }
 
-    private Map<String, TypedValue<?>> convertSQLRowToWireRecord(ResultSet rset) throws SQLException {
-        final Map<String, TypedValue<?>> wireRecordProperties = new HashMap<>();
-        final ResultSetMetaData rmet = rset.getMetaData();
-        for (int i = 1; i <= rmet.getColumnCount(); i++) {
-            String fieldName = rmet.getColumnLabel(i);
-            Object dbExtractedData = rset.getObject(i);
+    /**
+     * Executes, in its own connection, a query built by {@link #getPageQuery(boolean, int)}, binding the provided
+     * value of the incremental column as lower bound if it is not null.
+     */
+    private Page performPageQuery(final String sql, final Object fromValue) throws SQLException {
+        return this.dbHelper.withConnection(c -> {
+            try (final PreparedStatement stmt = c.prepareStatement(sql)) {
+                if (nonNull(fromValue)) {
+                    stmt.setObject(1, fromValue);
+                }
 
-            if (isNull(fieldName)) {
-                fieldName = rmet.getColumnName(i);
+                try (final ResultSet rset = stmt.executeQuery()) {
+                    return readPage(rset);
+                }
             }
+        });
+    }
 
-            if (isNull(dbExtractedData)) {
-                continue;
-            }
+    private Page readPage(final ResultSet rset) throws SQLException {
+        final H2DbWireRecordReader reader = new H2DbWireRecordReader(rset.getMetaData());
 
-            if (dbExtractedData instanceof Blob) {
-                final Blob dbExtractedBlob = (Blob) dbExtractedData;
-                final int dbExtractedBlobLength = (int) dbExtractedBlob.length();
-                dbExtractedData = dbExtractedBlob.getBytes(1, dbExtractedBlobLength);
-            }
+        final int incrementalColumnIndex = reader.getColumnIndex(this.options.getIncrementalColumn());
+        if (incrementalColumnIndex < 0) {
+            throw new SQLException(
+                    "The query result does not contain the column " + this.options.getIncrementalColumn());
+        }
 
-            try {
-                final TypedValue<?> value = TypedValues.newTypedValue(dbExtractedData);
-                wireRecordProperties.put(fieldName, value);
-            } catch (final Exception e) {
-                logger.error(
-                        "Failed to convert result for column {} (SQL type {}, Java type {}) "
-                                + "to any of the supported Wires data type, "
-                                + "please consider using a conversion function like CAST in your query. "
-                                + "The result for this column will not be included in emitted envelope",
-                        fieldName, rmet.getColumnTypeName(i), dbExtractedData.getClass().getName(), e);
-            }
+        final List<WireRecord> dataRecords = new ArrayList<>();
+        Object lastValue = null;
 
+        while (rset.next()) {
+            dataRecords.add(reader.read(rset));
+            lastValue = rset.getObject(incrementalColumnIndex);
         }
-        return wireRecordProperties;
+
+        return new Page(dataRecords, lastValue);
+    }
+
+    /**
+     * Wraps the user query in order to filter and sort its result by the incremental column. The user query must not
+     * limit or sort its own result, otherwise the wrapping query would page over a different set of rows, for
+     * example always the same first rows.
+     */
+    private String getPageQuery(final boolean hasLowerBound, final int limit) throws SQLException {
+        String sqlView = this.options.getSqlView().trim();
+        while (sqlView.endsWith(";")) {
+            sqlView = sqlView.substring(0, sqlView.length() - 1).trim();
+        }
+
+        final String unquotedView = QUOTED_TEXT.matcher(sqlView).replaceAll("''");
+        if (UNWRAPPABLE_CLAUSE.matcher(unquotedView).find()) {
+            throw new SQLException("In INCREMENTAL mode, or if emit.chunk.size is greater than 0, the sql.view query "
+                    + "cannot contain ORDER BY, LIMIT, OFFSET, FETCH or TOP clauses: the result is ordered by "
+                    + "incremental.column and limited by emit.chunk.size");
+        }
+
+        final String sqlColName = this.dbHelper.sanitizeSqlTableAndColumnName(this.options.getIncrementalColumn());
+
+        final StringBuilder query = new StringBuilder();
+        query.append("SELECT * FROM (").append(sqlView).append(") AS INCREMENTAL_VIEW WHERE ").append(sqlColName)
+                .append(" IS NOT NULL");
+        if (hasLowerBound) {
+            query.append(" AND ").append(sqlColName).append(" > ?");
+        }
+        query.append(" ORDER BY ").append(sqlColName);
+        if (limit > 0) {
+            query.append(" LIMIT ").append(limit);
+        }
+        return query.append(';').toString();
     }
 
     /**
@@ -243,6 +293,10 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
      * The cache validity is determined by the {@link H2DbWireRecordFilterOptions#CONF_CACHE_EXPIRATION_INTERVAL}
      * property
      * provided by the user in the component configuration.
+     * <p>
+     * In {@link QueryMode#INCREMENTAL} mode, or if the records are emitted in chunks, the query result is not cached:
+     * only the records read by the last query are emitted, once, and the cache validity determines the minimum
+     * interval between two database reads.
      */
     @Override
     public synchronized void onWireReceive(final WireEnvelope wireEnvelope) {
@@ -253,6 +307,11 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
             return;
         }
 
+        if (!isCaching()) {
+            emitQueryResult();
+            return;
+        }
+
         if (isCacheExpired() && this.dbHelper != null) {
             refreshCachedRecords();
         }
@@ -279,6 +338,50 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
         }
     }
 
+    /**
+     * Reads the query result one page of at most chunk size records at a time, each page in its own connection, and
+     * emits every page before reading the next one, so that neither the whole result is kept in memory nor the
+     * connection is held while the downstream components run.
+     */
+    private void emitQueryResult() {
+        final boolean incremental = this.options.getQueryMode() == QueryMode.INCREMENTAL;
+        final int chunkSize = this.options.getEmitChunkSize();
+        boolean emitted = false;
+
+        if (isCacheExpired()) {
+            try {
+                Object fromValue = incremental ? this.lastIncrementalValue : null;
+                Page page;
+
+                do {
+                    page = performPageQuery(getPageQuery(nonNull(fromValue), chunkSize), fromValue);
+
+                    if (!page.records.isEmpty()) {
+                        fromValue = page.lastValue;
+                        if (incremental) {
+                            this.lastIncrementalValue = fromValue;
+                        }
+
+                        this.wireSupport.emit(Collections.unmodifiableList(page.records));
+                        emitted = true;
+                    }
+                } while (chunkSize > 0 && page.records.size() >= chunkSize);
+
+                this.lastRefreshedTime = Calendar.getInstance(this.lastRefreshedTime.getTimeZone());
+            } catch (SQLException e) {
+                logger.error("Error while filtering Wire Records...", e);
+            }
+        }
+
+        if (!emitted && this.options.emitOnEmptyResult()) {
+            this.wireSupport.emit(Collections.unmodifiableList(new ArrayList<WireRecord>()));
+        }
+    }
+
+    private boolean isCaching() {
+        return this.options.getQueryMode() == QueryMode.FULL && this.options.getEmitChunkSize() == 0;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Object polled(final Wire wire) {
@@ -308,4 +411,17 @@ public class H2DbWireRecordFilter implements WireEmitter, WireReceiver, Configur
         }
         return true;
     }
+
+    private static final class Page {
+
+        private final List<WireRecord> records;
+
+        // the value of the incremental column for the last row of the page
+        private final Object lastValue;
+
+        Page(final List<WireRecord> records, final Object lastValue) {
+            this.records = records;
+            this.lastValue = lastValue;
+        }
+    }
 }
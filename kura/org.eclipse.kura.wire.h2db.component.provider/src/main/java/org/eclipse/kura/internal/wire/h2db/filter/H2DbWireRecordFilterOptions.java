@@ -32,6 +32,28 @@ final class H2DbWireRecordFilterOptions {
 
     private static final String EMIT_ON_EMPTY_RESULT = "emit.on.empty.result";
 
+    private static final String CONF_QUERY_MODE = "query.mode";
+
+    private static final String CONF_INCREMENTAL_COLUMN = "incremental.column";
+
+    private static final String CONF_EMIT_CHUNK_SIZE = "emit.chunk.size";
+
+    private static final String DEFAULT_INCREMENTAL_COLUMN = "ID";
+
+    /**
+     * The modes for performing the configured query.
+     */
+    enum QueryMode {
+        /**
+         * The query result is read at every cache expiration.
+         */
+        FULL,
+        /**
+         * Only the rows having a value of the incremental column greater than the last emitted one are read.
+         */
+        INCREMENTAL
+    }
+
     private final Map<String, Object> properties;
 
     /**
@@ -81,4 +103,50 @@ final class H2DbWireRecordFilterOptions {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the configured query mode, {@link QueryMode#FULL} if not configured or invalid.
+     *
+     * @return the configured query mode
+     */
+    QueryMode getQueryMode() {
+        final Object queryMode = this.properties.get(CONF_QUERY_MODE);
+        if (nonNull(queryMode) && queryMode instanceof String) {
+            try {
+                return QueryMode.valueOf((String) queryMode);
+            } catch (final IllegalArgumentException e) {
+                // fall back to the default
+            }
+        }
+        return QueryMode.FULL;
+    }
+
+    /**
+     * Returns the name of the column used to track the emitted rows in {@link QueryMode#INCREMENTAL} mode.
+     *
+     * @return the configured incremental column
+     */
+    String getIncrementalColumn() {
+        String incrementalColumn = DEFAULT_INCREMENTAL_COLUMN;
+        final Object column = this.properties.get(CONF_INCREMENTAL_COLUMN);
+        if (nonNull(column) && column instanceof String && !((String) column).trim().isEmpty()) {
+            incrementalColumn = ((String) column).trim();
+        }
+        return incrementalColumn;
+    }
+
+    /**
+     * Returns the maximum number of records to be emitted in a single envelope, 0 if the query result must be emitted
+     * as a whole.
+     *
+     * @return the configured emit chunk size
+     */
+    int getEmitChunkSize() {
+        int chunkSize = 0;
+        final Object chunk = this.properties.get(CONF_EMIT_CHUNK_SIZE);
+        if (nonNull(chunk) && chunk instanceof Integer) {
+            chunkSize = Math.max(0, (Integer) chunk);
+        }
+        return chunkSize;
+    }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.h2db.filter;
+
+import static java.util.Objects.isNull;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+
+/**
+ * The Class H2DbWireRecordReader converts the rows of a {@link ResultSet} to {@link WireRecord}s. The column names
+ * and the conversion to be applied to each column are resolved once from the {@link ResultSetMetaData}, instead of
+ * being looked up for every row.
+ */
+final class H2DbWireRecordReader {
+
+    private static final Logger logger = LogManager.getLogger(H2DbWireRecordReader.class);
+
+    @FunctionalInterface
+    private interface ColumnReader {
+
+        TypedValue<?> read(ResultSet rset, int index) throws SQLException;
+    }
+
+    private final String[] columnNames;
+
+    private final String[] columnTypeNames;
+
+    private final ColumnReader[] columnReaders;
+
+    H2DbWireRecordReader(final ResultSetMetaData rmet) throws SQLException {
+        final int columnCount = rmet.getColumnCount();
+
+        this.columnNames = new String[columnCount];
+        this.columnTypeNames = new String[columnCount];
+        this.columnReaders = new ColumnReader[columnCount];
+
+        for (int i = 0; i < columnCount; i++) {
+            String fieldName = rmet.getColumnLabel(i + 1);
+            if (isNull(fieldName)) {
+                fieldName = rmet.getColumnName(i + 1);
+            }
+            this.columnNames[i] = fieldName;
+            this.columnTypeNames[i] = rmet.getColumnTypeName(i + 1);
+            this.columnReaders[i] = getColumnReader(rmet.getColumnType(i + 1));
+        }
+    }
+
+    /**
+     * Returns the 1-based index of the column with the provided name, or -1 if the result does not contain such
+     * column. The comparison is case insensitive, as for unquoted SQL identifiers.
+     */
+    int getColumnIndex(final String columnName) {
+        for (int i = 0; i < this.columnNames.length; i++) {
+            if (this.columnNames[i] != null && this.columnNames[i].equalsIgnoreCase(columnName)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts the current row of the provided {@link ResultSet}, NULL values are not included in the result.
+     */
+    WireRecord read(final ResultSet rset) throws SQLException {
+        final Map<String, TypedValue<?>> wireRecordProperties = new HashMap<>();
+        for (int i = 0; i < this.columnReaders.length; i++) {
+            final TypedValue<?> value = this.columnReaders[i].read(rset, i + 1);
+            if (value != null) {
+                wireRecordProperties.put(this.columnNames[i], value);
+            }
+        }
+        return new WireRecord(wireRecordProperties);
+    }
+
+    private ColumnReader getColumnReader(final int sqlType) {
+        switch (sqlType) {
+        case Types.BOOLEAN:
+            return (rset, index) -> {
+                final boolean value = rset.getBoolean(index);
+                return rset.wasNull() ? null : TypedValues.newBooleanValue(value);
+            };
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+            return (rset, index) -> {
+                final int value = rset.getInt(index);
+                return rset.wasNull() ? null : TypedValues.newIntegerValue(value);
+            };
+        case Types.BIGINT:
+            return (rset, index) -> {
+                final long value = rset.getLong(index);
+                return rset.wasNull() ? null : TypedValues.newLongValue(value);
+            };
+        case Types.REAL:
+            return (rset, index) -> {
+                final float value = rset.getFloat(index);
+                return rset.wasNull() ? null : TypedValues.newFloatValue(value);
+            };
+        case Types.FLOAT:
+        case Types.DOUBLE:
+            return (rset, index) -> {
+                final double value = rset.getDouble(index);
+                return rset.wasNull() ? null : TypedValues.newDoubleValue(value);
+            };
+        case Types.CHAR:
+        case Types.VARCHAR:
+            return (rset, index) -> {
+                final String value = rset.getString(index);
+                return isNull(value) ? null : TypedValues.newStringValue(value);
+            };
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.BLOB:
+            return (rset, index) -> {
+                final byte[] value = rset.getBytes(index);
+                return isNull(value) ? null : TypedValues.newByteArrayValue(value);
+            };
+        default:
+            return this::readObject;
+        }
+    }
+
+    private TypedValue<?> readObject(final ResultSet rset, final int index) throws SQLException {
+        Object dbExtractedData = rset.getObject(index);
+
+        if (isNull(dbExtractedData)) {
+            return null;
+        }
+
+        if (dbExtractedData instanceof Blob) {
+            final Blob dbExtractedBlob = (Blob) dbExtractedData;
+            final int dbExtractedBlobLength = (int) dbExtractedBlob.length();
+            dbExtractedData = dbExtractedBlob.getBytes(1, dbExtractedBlobLength);
+        }
+
+        try {
+            return TypedValues.newTypedValue(dbExtractedData);
+        } catch (final Exception e) {
+            logger.error(
+                    "Failed to convert result for column {} (SQL type {}, Java type {}) "
+                            + "to any of the supported Wires data type, "
+                            + "please consider using a conversion function like CAST in your query. "
+                            + "The result for this column will not be included in emitted envelope",
+                    this.columnNames[index - 1], this.columnTypeNames[index - 1],
+                    dbExtractedData.getClass().getName(), e);
+            return null;
+        }
+    }
+}
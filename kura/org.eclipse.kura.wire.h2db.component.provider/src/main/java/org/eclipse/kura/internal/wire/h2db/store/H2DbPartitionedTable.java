@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.h2db.store;
+
+import static java.util.Objects.requireNonNull;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
+
+/**
+ * The Class H2DbPartitionedTable manages a logical table stored as a sequence of partition tables named
+ * {@code <table>_P<sequence number>}. Records are inserted in the most recent partition, the retention is performed by
+ * dropping the oldest partitions and a view named as the logical table provides the union of all the partitions.
+ * <p>
+ * The partitions share a sequence for the generation of the record ids, so that the ids are unique and increasing
+ * across partitions. Columns are only added to the most recent partition: in the view the columns that are missing,
+ * or have a different type, in an older partition are reported as NULL for its records.
+ */
+final class H2DbPartitionedTable {
+
+    private static final Logger logger = LogManager.getLogger(H2DbPartitionedTable.class);
+
+    private static final String PARTITION_SUFFIX = "_P";
+
+    private static final String SEQUENCE_SUFFIX = "_SEQ";
+
+    private static final Pattern PARTITION_SEQUENCE_NUMBER = Pattern.compile("\\d{8}");
+
+    private static final String SQL_CREATE_SEQUENCE = "CREATE SEQUENCE IF NOT EXISTS {0} START WITH {1};";
+
+    private static final String SQL_CREATE_PARTITION = "CREATE TABLE IF NOT EXISTS {0} (ID BIGINT DEFAULT "
+            + "NEXT VALUE FOR {1} PRIMARY KEY, TIMESTAMP BIGINT);";
+
+    private static final String SQL_CREATE_TIMESTAMP_INDEX = "CREATE INDEX IF NOT EXISTS {0} ON {1} (TIMESTAMP DESC);";
+
+    private static final String SQL_ADD_COLUMN = "ALTER TABLE {0} ADD COLUMN {1} {2};";
+
+    private static final String SQL_RENAME_TABLE = "ALTER TABLE {0} RENAME TO {1};";
+
+    private static final String SQL_CREATE_VIEW = "CREATE OR REPLACE VIEW {0} AS {1};";
+
+    private static final String SQL_DROP_VIEW = "DROP VIEW IF EXISTS {0};";
+
+    private static final String SQL_DROP_TABLE = "DROP TABLE IF EXISTS {0};";
+
+    private static final String SQL_MAX_ID = "SELECT MAX(ID) FROM {0};";
+
+    private static final String SQL_MIN_TIMESTAMP = "SELECT MIN(TIMESTAMP) FROM {0};";
+
+    private static final String[] TABLE_TYPE = new String[] { "TABLE" };
+
+    private static final String[] VIEW_TYPE = new String[] { "VIEW" };
+
+    private final H2DbServiceHelper dbHelper;
+
+    private final String tableName;
+
+    // partition table names by sequence number
+    private final TreeMap<Integer, String> partitions = new TreeMap<>();
+
+    private long currentPartitionStart;
+
+    H2DbPartitionedTable(final H2DbServiceHelper dbHelper, final String tableName) {
+        requireNonNull(dbHelper, "DB Service Helper cannot be null");
+        requireNonNull(tableName, "Table name cannot be null");
+        this.dbHelper = dbHelper;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Drops the view over the partitions of the provided table, if any. The partition tables are kept.
+     */
+    static void dropView(final H2DbServiceHelper dbHelper, final Connection c, final String tableName)
+            throws SQLException {
+        try (final ResultSet rsViews = c.getMetaData().getTables(c.getCatalog(), null, tableName, VIEW_TYPE)) {
+            if (rsViews.next()) {
+                logger.warn("Dropping view {}, its partition tables are retained", tableName);
+                dbHelper.execute(c,
+                        MessageFormat.format(SQL_DROP_VIEW, dbHelper.sanitizeSqlTableAndColumnName(tableName)));
+            }
+        }
+    }
+
+    String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * Returns the name of the partition where new records must be inserted.
+     */
+    String getCurrentPartition() {
+        return this.partitions.lastEntry().getValue();
+    }
+
+    long getCurrentPartitionStart() {
+        return this.currentPartitionStart;
+    }
+
+    int getPartitionCount() {
+        return this.partitions.size();
+    }
+
+    /**
+     * Discovers the existing partitions, creates the first one if needed and drops the oldest partitions in order to
+     * keep at most {@code maxPartitions} partitions. A table having the same name of the logical table, created when
+     * partitioning was disabled, contains records newer than the ones of any existing partition and becomes the most
+     * recent one; since its ids are not generated by the shared sequence, new records are inserted in a new partition.
+     */
+    void open(final Connection c, final int maxPartitions) throws SQLException {
+        this.partitions.clear();
+
+        final DatabaseMetaData dbMetaData = c.getMetaData();
+        final String prefix = this.tableName + PARTITION_SUFFIX;
+
+        String unpartitionedTable = null;
+        try (final ResultSet rsTbls = dbMetaData.getTables(c.getCatalog(), null, null, TABLE_TYPE)) {
+            while (rsTbls.next()) {
+                final String name = rsTbls.getString("TABLE_NAME");
+                if (name.equals(this.tableName)) {
+                    unpartitionedTable = name;
+                } else if (name.startsWith(prefix)
+                        && PARTITION_SEQUENCE_NUMBER.matcher(name.substring(prefix.length())).matches()) {
+                    this.partitions.put(Integer.parseInt(name.substring(prefix.length())), name);
+                }
+            }
+        }
+
+        if (unpartitionedTable != null) {
+            final int sequenceNumber = getNextSequenceNumber();
+            final String partition = getPartitionName(sequenceNumber);
+            logger.info("Converting table {} to partition {}...", this.tableName, partition);
+            this.dbHelper.execute(c, MessageFormat.format(SQL_RENAME_TABLE, sanitize(this.tableName),
+                    sanitize(partition)));
+            this.partitions.put(sequenceNumber, partition);
+        }
+
+        long nextId = 1;
+        for (final String partition : this.partitions.values()) {
+            nextId = Math.max(nextId, queryLong(c, MessageFormat.format(SQL_MAX_ID, sanitize(partition)), 0) + 1);
+        }
+        this.dbHelper.execute(c,
+                MessageFormat.format(SQL_CREATE_SEQUENCE, sanitize(this.tableName + SEQUENCE_SUFFIX),
+                        Long.toString(nextId)));
+
+        if (this.partitions.isEmpty()) {
+            createPartition(c, 0);
+            this.currentPartitionStart = System.currentTimeMillis();
+        } else if (unpartitionedTable != null) {
+            createPartitionLike(c, getCurrentPartition());
+            this.currentPartitionStart = System.currentTimeMillis();
+        } else {
+            this.currentPartitionStart = queryLong(c,
+                    MessageFormat.format(SQL_MIN_TIMESTAMP, sanitize(getCurrentPartition())),
+                    System.currentTimeMillis());
+        }
+
+        dropOldestPartitions(c, maxPartitions);
+    }
+
+    /**
+     * Creates a new partition with the same columns of the current one, and drops the oldest partitions in order to
+     * keep at most {@code maxPartitions} partitions.
+     */
+    void rollover(final Connection c, final int maxPartitions) throws SQLException {
+        createPartitionLike(c, getCurrentPartition());
+        this.currentPartitionStart = System.currentTimeMillis();
+
+        dropOldestPartitions(c, maxPartitions);
+    }
+
+    /**
+     * Recreates the view over the partitions, must be called after the columns of the current partition change.
+     */
+    void updateView(final Connection c) throws SQLException {
+        final Map<String, Map<String, String>> partitionColumns = new LinkedHashMap<>();
+        for (final String partition : this.partitions.values()) {
+            partitionColumns.put(partition, getColumns(c, partition));
+        }
+        final Map<String, String> viewColumns = partitionColumns.get(getCurrentPartition());
+
+        final StringBuilder query = new StringBuilder();
+        for (final Entry<String, Map<String, String>> partition : partitionColumns.entrySet()) {
+            if (query.length() > 0) {
+                query.append(" UNION ALL ");
+            }
+            query.append("SELECT ");
+
+            boolean first = true;
+            for (final Entry<String, String> column : viewColumns.entrySet()) {
+                if (!first) {
+                    query.append(", ");
+                }
+                first = false;
+
+                final String sqlColName = sanitize(column.getKey());
+                if (column.getValue().equals(partition.getValue().get(column.getKey()))) {
+                    query.append(sqlColName);
+                } else {
+                    query.append("CAST(NULL AS ").append(column.getValue()).append(") AS ").append(sqlColName);
+                }
+            }
+            query.append(" FROM ").append(sanitize(partition.getKey()));
+        }
+
+        this.dbHelper.execute(c, MessageFormat.format(SQL_CREATE_VIEW, sanitize(this.tableName), query.toString()));
+    }
+
+    private void dropOldestPartitions(final Connection c, final int maxPartitions) throws SQLException {
+        final List<String> dropped = new ArrayList<>();
+        while (this.partitions.size() > Math.max(1, maxPartitions)) {
+            dropped.add(this.partitions.pollFirstEntry().getValue());
+        }
+
+        // the view must not depend on the dropped partitions
+        updateView(c);
+
+        for (final String droppedPartition : dropped) {
+            logger.info("Dropping partition {}...", droppedPartition);
+            this.dbHelper.execute(c, MessageFormat.format(SQL_DROP_TABLE, sanitize(droppedPartition)));
+        }
+    }
+
+    private int getNextSequenceNumber() {
+        return this.partitions.isEmpty() ? 0 : this.partitions.lastKey() + 1;
+    }
+
+    private String createPartition(final Connection c, final int sequenceNumber) throws SQLException {
+        final String partition = getPartitionName(sequenceNumber);
+        logger.info("Creating partition {}...", partition);
+
+        this.dbHelper.execute(c, MessageFormat.format(SQL_CREATE_PARTITION, sanitize(partition),
+                sanitize(this.tableName + SEQUENCE_SUFFIX)));
+        this.dbHelper.execute(c, MessageFormat.format(SQL_CREATE_TIMESTAMP_INDEX,
+                sanitize(partition + "_TIMESTAMP"), sanitize(partition)));
+
+        this.partitions.put(sequenceNumber, partition);
+        return partition;
+    }
+
+    // creates a new partition after the last one, having the same columns of the provided table
+    private void createPartitionLike(final Connection c, final String table) throws SQLException {
+        final Map<String, String> columns = getColumns(c, table);
+
+        final String partition = createPartition(c, getNextSequenceNumber());
+        for (final Entry<String, String> column : columns.entrySet()) {
+            if (!"ID".equals(column.getKey()) && !"TIMESTAMP".equals(column.getKey())) {
+                this.dbHelper.execute(c, MessageFormat.format(SQL_ADD_COLUMN, sanitize(partition),
+                        sanitize(column.getKey()), column.getValue()));
+            }
+        }
+    }
+
+    private String getPartitionName(final int sequenceNumber) {
+        return this.tableName + PARTITION_SUFFIX + String.format("%08d", sequenceNumber);
+    }
+
+    // returns the column type names by column name, in column order
+    private static Map<String, String> getColumns(final Connection c, final String table) throws SQLException {
+        final TreeMap<Integer, String[]> columns = new TreeMap<>();
+        try (final ResultSet rsColumns = c.getMetaData().getColumns(c.getCatalog(), null, table, null)) {
+            while (rsColumns.next()) {
+                columns.put(rsColumns.getInt("ORDINAL_POSITION"),
+                        new String[] { rsColumns.getString("COLUMN_NAME"), rsColumns.getString("TYPE_NAME") });
+            }
+        }
+
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (final String[] column : columns.values()) {
+            result.put(column[0], column[1]);
+        }
+        return result;
+    }
+
+    private static long queryLong(final Connection c, final String sql, final long defaultValue)
+            throws SQLException {
+        try (final Statement stmt = c.createStatement(); final ResultSet rset = stmt.executeQuery(sql)) {
+            if (rset.next()) {
+                final long value = rset.getLong(1);
+                return rset.wasNull() ? defaultValue : value;
+            }
+            return defaultValue;
+        }
+    }
+
+    private String sanitize(final String name) {
+        return this.dbHelper.sanitizeSqlTableAndColumnName(name);
+    }
+}
@@ -19,17 +19,20 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.MessageFormat;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -37,6 +40,7 @@ import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
 import org.eclipse.kura.internal.wire.h2db.store.H2DbDataTypeMapper.JdbcType;
+import org.eclipse.kura.internal.wire.h2db.store.H2DbWireRecordStoreOptions.PartitionMode;
 import org.eclipse.kura.type.BooleanValue;
 import org.eclipse.kura.type.ByteArrayValue;
 import org.eclipse.kura.type.DataType;
@@ -89,6 +93,8 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
     private static final String[] TABLE_TYPE = new String[] { "TABLE" };
 
+    private static final int MAX_CACHED_INSERT_STATEMENTS = 64;
+
     private H2DbServiceHelper dbHelper;
 
     private H2DbService dbService;
@@ -99,6 +105,18 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
     private WireSupport wireSupport;
 
+    // INSERT statements by list of record property names
+    private final Map<List<String>, String> insertStatements = new HashMap<>();
+
+    // number of rows in the table, or -1 if it must be read from the database
+    private int tableSize = -1;
+
+    // sanitized names of the table columns, or null if they must be read from the database
+    private Set<String> tableColumns;
+
+    // the partitions of the table, or null if partitioning is disabled
+    private H2DbPartitionedTable partitionedTable;
+
     public synchronized void bindDbService(H2DbService dbService) {
         this.dbService = dbService;
         this.dbHelper = H2DbServiceHelper.of(dbService);
@@ -112,6 +130,7 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
             this.dbHelper = null;
             this.dbService = null;
             this.wireRecordStoreOptions = null;
+            this.partitionedTable = null;
         }
     }
 
@@ -160,6 +179,8 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
 
         this.wireRecordStoreOptions = new H2DbWireRecordStoreOptions(properties);
 
+        // the partitions are reopened with the new configuration
+        this.partitionedTable = null;
         reconcileDB(this.wireRecordStoreOptions.getTableName());
 
         logger.debug("Updating DB Wire Record Store... Done");
@@ -176,6 +197,7 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         this.dbHelper = null;
         this.dbService = null;
         this.wireRecordStoreOptions = null;
+        this.partitionedTable = null;
         logger.debug("Deactivating DB Wire Record Store... Done");
     }
 
@@ -221,10 +243,18 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         } catch (final SQLException sqlException) {
             logger.error("Error in truncating the table {}...", sqlTableName, sqlException);
         }
+        this.tableSize = -1;
     }
 
     private int getTableSize() throws SQLException {
-        final String tableName = this.wireRecordStoreOptions.getTableName();
+        if (this.tableSize < 0) {
+            this.tableSize = readTableSize();
+        }
+        return this.tableSize;
+    }
+
+    private int readTableSize() throws SQLException {
+        final String tableName = getInsertTableName(this.wireRecordStoreOptions.getTableName());
         final String sqlTableName = this.dbHelper.sanitizeSqlTableAndColumnName(tableName);
 
         return this.dbHelper.withConnection(c -> {
@@ -254,21 +284,99 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         }
 
         try {
-            if (getTableSize() >= this.wireRecordStoreOptions.getMaximumTableSize()) {
+            if (nonNull(this.partitionedTable)) {
+                if (isPartitionFull()) {
+                    rollover();
+                }
+            } else if (getTableSize() >= this.wireRecordStoreOptions.getMaximumTableSize()) {
                 truncate();
             }
         } catch (SQLException e) {
             logger.warn("Exception while trying to clean db");
         }
 
-        for (WireRecord wireRecord : records) {
-            store(wireRecord);
-        }
+        store(records);
 
         // emit the list of Wire Records to the downstream components
         this.wireSupport.emit(records);
     }
 
+    private boolean isPartitionFull() throws SQLException {
+        if (this.wireRecordStoreOptions.getPartitionMode() == PartitionMode.TIME) {
+            final long partitionAge = System.currentTimeMillis() - this.partitionedTable.getCurrentPartitionStart();
+            return partitionAge >= this.wireRecordStoreOptions.getPartitionInterval() * 1000L;
+        }
+        return getTableSize() >= this.wireRecordStoreOptions.getPartitionSize();
+    }
+
+    /**
+     * Creates a new partition and drops the oldest ones
+     */
+    private void rollover() throws SQLException {
+        this.insertStatements.clear();
+        this.tableColumns = null;
+
+        try {
+            this.dbHelper.withConnection(c -> {
+                this.partitionedTable.rollover(c, this.wireRecordStoreOptions.getPartitionCount());
+                return (Void) null;
+            });
+            this.tableSize = 0;
+        } catch (final SQLException e) {
+            this.tableSize = -1;
+            this.partitionedTable = null;
+            reconcileDB(this.wireRecordStoreOptions.getTableName());
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the name of the table where new records must be inserted, this is the current partition if
+     * partitioning is enabled.
+     */
+    private String getInsertTableName(final String tableName) {
+        if (nonNull(this.partitionedTable)) {
+            return this.partitionedTable.getCurrentPartition();
+        }
+        return tableName;
+    }
+
+    /**
+     * Stores the provided {@link WireRecord}s in the database with a single transaction. If the insertion fails also
+     * after reconciling the table columns, the records are stored one by one.
+     *
+     * @param wireRecords
+     *            the {@link WireRecord}s to be stored
+     */
+    private void store(final List<WireRecord> wireRecords) {
+        if (wireRecords.isEmpty()) {
+            return;
+        }
+        if (wireRecords.size() == 1) {
+            store(wireRecords.get(0));
+            return;
+        }
+
+        int retryCount = 0;
+        final String tableName = this.wireRecordStoreOptions.getTableName();
+        do {
+            try {
+                reconcileMissingColumns(wireRecords, tableName);
+                insertDataRecords(getInsertTableName(tableName), wireRecords);
+                return;
+            } catch (final SQLException e) {
+                logger.error("Insertion failed. Reconciling Table and Columns...", e);
+                reconcileDB(wireRecords, tableName);
+                retryCount++;
+            }
+        } while (retryCount < 2);
+
+        logger.warn("Batch insertion failed, storing Wire Records one by one");
+        for (final WireRecord wireRecord : wireRecords) {
+            store(wireRecord);
+        }
+    }
+
     /**
      * Stores the provided {@link WireRecord} in the database
      *
@@ -283,7 +391,9 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         final String tableName = this.wireRecordStoreOptions.getTableName();
         do {
             try {
-                insertDataRecord(tableName, wireRecord);
+                final List<WireRecord> wireRecords = Collections.singletonList(wireRecord);
+                reconcileMissingColumns(wireRecords, tableName);
+                insertDataRecords(getInsertTableName(tableName), wireRecords);
                 break;
             } catch (final SQLException e) {
                 logger.error("Insertion failed. Reconciling Table and Columns...", e);
@@ -305,13 +415,84 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         try {
             if (nonNull(tableName) && !tableName.isEmpty()) {
                 reconcileTable(tableName);
-                reconcileColumns(tableName, wireRecord);
+                reconcileColumns(getInsertTableName(tableName), wireRecord);
+                if (nonNull(this.partitionedTable)) {
+                    this.dbHelper.withConnection(c -> {
+                        this.partitionedTable.updateView(c);
+                        return (Void) null;
+                    });
+                }
             }
         } catch (final SQLException ee) {
             logger.error("Error while storing Wire Records...", ee);
         }
     }
 
+    /**
+     * Tries to reconcile the database against each distinct set of properties of the provided {@link WireRecord}s.
+     *
+     * @param wireRecords
+     *            against which the database columns have to be reconciled.
+     * @param tableName
+     *            the table name in the database that needs to be reconciled.
+     */
+    private void reconcileDB(final List<WireRecord> wireRecords, final String tableName) {
+        final Set<Map<String, DataType>> reconciled = new HashSet<>();
+        for (final WireRecord wireRecord : wireRecords) {
+            final Map<String, DataType> columnTypes = new HashMap<>();
+            for (final Entry<String, TypedValue<?>> entry : wireRecord.getProperties().entrySet()) {
+                columnTypes.put(entry.getKey(), entry.getValue().getType());
+            }
+            if (reconciled.add(columnTypes)) {
+                reconcileDB(wireRecord, tableName);
+            }
+        }
+    }
+
+    /**
+     * Reconciles the columns of the table against the {@link WireRecord}s having properties without a matching
+     * column, so that the batch insertion does not need to fail first.
+     *
+     * @param wireRecords
+     *            the {@link WireRecord}s to be stored
+     * @param tableName
+     *            the table name in the database
+     * @throws SQLException
+     *             the SQL exception
+     */
+    private void reconcileMissingColumns(final List<WireRecord> wireRecords, final String tableName)
+            throws SQLException {
+        if (isNull(this.tableColumns)) {
+            this.tableColumns = readTableColumns(getInsertTableName(tableName));
+        }
+
+        final List<WireRecord> recordsToReconcile = new ArrayList<>();
+        for (final WireRecord wireRecord : wireRecords) {
+            for (final String key : wireRecord.getProperties().keySet()) {
+                if (!this.tableColumns.contains(this.dbHelper.sanitizeSqlTableAndColumnName(key))) {
+                    recordsToReconcile.add(wireRecord);
+                    break;
+                }
+            }
+        }
+
+        if (!recordsToReconcile.isEmpty()) {
+            reconcileDB(recordsToReconcile, tableName);
+        }
+    }
+
+    private Set<String> readTableColumns(final String tableName) throws SQLException {
+        return this.dbHelper.withConnection(c -> {
+            final Set<String> columns = new HashSet<>();
+            try (final ResultSet rsColumns = c.getMetaData().getColumns(c.getCatalog(), null, tableName, null)) {
+                while (rsColumns.next()) {
+                    columns.add(this.dbHelper.sanitizeSqlTableAndColumnName(rsColumns.getString(COLUMN_NAME)));
+                }
+            }
+            return columns;
+        });
+    }
+
     /**
      * Tries to reconcile the database.
      *
@@ -342,7 +523,28 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         requireNonNull(tableName, "Table name cannot be null");
         final String sqlTableName = this.dbHelper.sanitizeSqlTableAndColumnName(tableName);
 
+        this.insertStatements.clear();
+        this.tableSize = -1;
+        this.tableColumns = null;
+
+        if (this.wireRecordStoreOptions.getPartitionMode() != PartitionMode.NONE) {
+            // the partitions are only discovered when the table is opened for the first time
+            if (isNull(this.partitionedTable) || !this.partitionedTable.getTableName().equals(tableName)) {
+                final H2DbPartitionedTable partitions = new H2DbPartitionedTable(this.dbHelper, tableName);
+                this.dbHelper.withConnection(c -> {
+                    partitions.open(c, this.wireRecordStoreOptions.getPartitionCount());
+                    return (Void) null;
+                });
+                this.partitionedTable = partitions;
+            }
+            return;
+        }
+        this.partitionedTable = null;
+
         this.dbHelper.withConnection(c -> {
+            // a view is left by a previous partitioned configuration
+            H2DbPartitionedTable.dropView(this.dbHelper, c, tableName);
+
             // check for the table that would collect the data of this emitter
             final String catalog = c.getCatalog();
             final DatabaseMetaData dbMetaData = c.getMetaData();
@@ -421,38 +623,69 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
     }
 
     /**
-     * Insert the provided {@link WireRecord} to the specified table
+     * Inserts the provided {@link WireRecord}s to the specified table with a single transaction. Consecutive records
+     * with the same properties are inserted with a single JDBC batch.
      *
      * @param tableName
      *            the table name
-     * @param wireRecord
-     *            the {@link WireRecord}
+     * @param wireRecords
+     *            the {@link WireRecord}s
      * @throws SQLException
      *             the SQL exception
      * @throws NullPointerException
      *             if any of the provided arguments is null
      */
-    private void insertDataRecord(final String tableName, final WireRecord wireRecord) throws SQLException {
+    private void insertDataRecords(final String tableName, final List<WireRecord> wireRecords) throws SQLException {
         requireNonNull(tableName, "Table name cannot be null");
-        requireNonNull(wireRecord, "Wire Record cannot be null");
+        requireNonNull(wireRecords, "Wire Records cannot be null");
 
-        final Map<String, TypedValue<?>> wireRecordProperties = wireRecord.getProperties();
+        final long timestamp = System.currentTimeMillis();
 
         this.dbHelper.withConnection(c -> {
-            try (final PreparedStatement stmt = prepareStatement(c, tableName, wireRecordProperties,
-                    new Date().getTime())) {
-                stmt.execute();
+            PreparedStatement stmt = null;
+            List<String> stmtColumns = null;
+            try {
+                for (final WireRecord wireRecord : wireRecords) {
+                    requireNonNull(wireRecord, "Wire Record cannot be null");
+                    final Map<String, TypedValue<?>> properties = wireRecord.getProperties();
+                    final List<String> columns = new ArrayList<>(properties.keySet());
+
+                    if (!columns.equals(stmtColumns)) {
+                        if (stmt != null) {
+                            stmt.executeBatch();
+                            stmt.close();
+                        }
+                        stmt = c.prepareStatement(getInsertStatement(tableName, columns));
+                        stmtColumns = columns;
+                    }
+
+                    setParameters(stmt, properties, timestamp);
+                    stmt.addBatch();
+                }
+                if (stmt != null) {
+                    stmt.executeBatch();
+                }
                 c.commit();
                 return (Void) null;
+            } finally {
+                if (stmt != null) {
+                    stmt.close();
+                }
             }
-
         });
 
-        logger.debug("Stored typed value");
+        if (this.tableSize >= 0) {
+            this.tableSize += wireRecords.size();
+        }
+
+        logger.debug("Stored {} typed values", wireRecords.size());
     }
 
-    private PreparedStatement prepareStatement(Connection connection, String tableName,
-            final Map<String, TypedValue<?>> properties, long timestamp) throws SQLException {
+    private String getInsertStatement(String tableName, List<String> columns) {
+        String sqlInsert = this.insertStatements.get(columns);
+        if (sqlInsert != null) {
+            return sqlInsert;
+        }
 
         final String sqlTableName = this.dbHelper.sanitizeSqlTableAndColumnName(tableName);
         final StringBuilder sbCols = new StringBuilder();
@@ -462,19 +695,27 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
         sbCols.append("TIMESTAMP");
         sbVals.append("?");
 
-        int i = 2;
-        for (Entry<String, TypedValue<?>> entry : properties.entrySet()) {
-            final String sqlColName = this.dbHelper.sanitizeSqlTableAndColumnName(entry.getKey());
+        for (String column : columns) {
+            final String sqlColName = this.dbHelper.sanitizeSqlTableAndColumnName(column);
             sbCols.append(", ").append(sqlColName);
             sbVals.append(", ?");
         }
 
         logger.debug("Storing data into table {}...", sqlTableName);
-        final String sqlInsert = MessageFormat.format(SQL_INSERT_RECORD, sqlTableName, sbCols.toString(),
-                sbVals.toString());
-        final PreparedStatement stmt = connection.prepareStatement(sqlInsert);
+        sqlInsert = MessageFormat.format(SQL_INSERT_RECORD, sqlTableName, sbCols.toString(), sbVals.toString());
+
+        if (this.insertStatements.size() >= MAX_CACHED_INSERT_STATEMENTS) {
+            this.insertStatements.clear();
+        }
+        this.insertStatements.put(columns, sqlInsert);
+        return sqlInsert;
+    }
+
+    private void setParameters(PreparedStatement stmt, final Map<String, TypedValue<?>> properties, long timestamp)
+            throws SQLException {
         stmt.setLong(1, timestamp);
 
+        int i = 2;
         for (Entry<String, TypedValue<?>> entry : properties.entrySet()) {
             final DataType dataType = entry.getValue().getType();
             final Object value = entry.getValue();
@@ -503,12 +744,11 @@ public class H2DbWireRecordStore implements WireEmitter, WireReceiver, Configura
                 stmt.setString(i, ((StringValue) value).getValue());
                 break;
             default:
+                stmt.setObject(i, null);
                 break;
             }
             i++;
         }
-        return stmt;
-
     }
 
     /** {@inheritDoc} */
@@ -34,6 +34,32 @@ final class H2DbWireRecordStoreOptions {
 
     private static final String TABLE_NAME = "table.name";
 
+    private static final String PARTITION_MODE = "partition.mode";
+
+    private static final String PARTITION_SIZE = "partition.size";
+
+    private static final String PARTITION_INTERVAL = "partition.interval";
+
+    private static final String PARTITION_COUNT = "partition.count";
+
+    private static final int DEFAULT_PARTITION_SIZE = 10000;
+
+    private static final int DEFAULT_PARTITION_INTERVAL = 3600;
+
+    private static final int DEFAULT_PARTITION_COUNT = 10;
+
+    /**
+     * The partitioning modes of the table
+     */
+    enum PartitionMode {
+        /** records are stored in a single table, cleaned up by deleting the oldest records */
+        NONE,
+        /** a new partition is created when the current one reaches the configured number of records */
+        SIZE,
+        /** a new partition is created when the configured time interval since the current one creation elapses */
+        TIME
+    }
+
     private final Map<String, Object> properties;
 
     /**
@@ -83,4 +109,56 @@ final class H2DbWireRecordStoreOptions {
         }
         return tableName;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the partitioning mode of the table as configured.
+     *
+     * @return the partitioning mode
+     */
+    PartitionMode getPartitionMode() {
+        final Object mode = this.properties.get(PARTITION_MODE);
+        if (nonNull(mode) && mode instanceof String) {
+            try {
+                return PartitionMode.valueOf((String) mode);
+            } catch (IllegalArgumentException e) {
+                // use the default
+            }
+        }
+        return PartitionMode.NONE;
+    }
+
+    /**
+     * Returns the maximum number of records of a partition, used in {@link PartitionMode#SIZE} mode.
+     *
+     * @return the maximum number of records of a partition
+     */
+    int getPartitionSize() {
+        return getPositiveInteger(PARTITION_SIZE, DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * Returns the time interval in seconds covered by a partition, used in {@link PartitionMode#TIME} mode.
+     *
+     * @return the time interval in seconds
+     */
+    int getPartitionInterval() {
+        return getPositiveInteger(PARTITION_INTERVAL, DEFAULT_PARTITION_INTERVAL);
+    }
+
+    /**
+     * Returns the maximum number of partitions to keep, the oldest partitions are dropped when a new one is created.
+     *
+     * @return the maximum number of partitions
+     */
+    int getPartitionCount() {
+        return getPositiveInteger(PARTITION_COUNT, DEFAULT_PARTITION_COUNT);
+    }
+
+    private int getPositiveInteger(final String key, final int defaultValue) {
+        final Object value = this.properties.get(key);
+        if (nonNull(value) && value instanceof Integer && (Integer) value > 0) {
+            return (Integer) value;
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.kura.internal.wire.helper.WireDispatcherOptions.DispatchMode;
+import org.eclipse.kura.internal.wire.helper.WireDispatcherOptions.OverflowPolicy;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.osgi.service.wireadmin.Wire;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the envelopes emitted by the wire components to the connected wires.
+ * <p>
+ * In {@link DispatchMode#SYNCHRONOUS} mode the envelopes are delivered on the emitting thread, and the whole
+ * downstream graph runs on it. In {@link DispatchMode#ASYNCHRONOUS} mode each wire has a bounded queue, drained by a
+ * shared pool of worker threads. The envelopes of a wire are delivered one at a time and in the emission order, so
+ * that each component receives the envelopes in topological order, while the branches of a fan-out are delivered in
+ * parallel and a slow branch does not delay the others.
+ * <p>
+ * When the queue of a wire is full the configured {@link OverflowPolicy} is applied. The {@link OverflowPolicy#BLOCK}
+ * policy blocks the emitting thread only if it is not a worker thread, in order to slow down the graph sources
+ * without exhausting the worker pool: envelopes emitted by the worker threads are always enqueued.
+ * <p>
+ * The queue capacity and the overflow policy only apply to the {@link DispatchMode#ASYNCHRONOUS} mode. After
+ * switching to the {@link DispatchMode#SYNCHRONOUS} mode the envelopes still queued on a wire are delivered before
+ * the new ones, which are enqueued behind them without limits. When the dispatcher is shut down the envelopes whose
+ * delivery has not started yet are discarded.
+ */
+final class WireDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireDispatcher.class);
+
+    // the maximum number of envelopes delivered by a worker before yielding to the other wires
+    private static final int MAX_ENVELOPES_PER_RUN = 16;
+
+    private static final ThreadLocal<Boolean> IS_DISPATCHING = ThreadLocal.withInitial(() -> false);
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private volatile WireDispatcherOptions options = new WireDispatcherOptions(Collections.emptyMap());
+
+    private volatile ThreadPoolExecutor executor;
+
+    synchronized void update(final WireDispatcherOptions newOptions) {
+        requireNonNull(newOptions, "Options cannot be null");
+
+        final ThreadPoolExecutor currentExecutor = this.executor;
+
+        if (newOptions.getDispatchMode() == DispatchMode.ASYNCHRONOUS) {
+            final int poolSize = newOptions.getThreadCount();
+            if (currentExecutor == null) {
+                this.executor = createExecutor(poolSize);
+            } else if (currentExecutor.getMaximumPoolSize() != poolSize) {
+                if (poolSize > currentExecutor.getMaximumPoolSize()) {
+                    currentExecutor.setMaximumPoolSize(poolSize);
+                    currentExecutor.setCorePoolSize(poolSize);
+                } else {
+                    currentExecutor.setCorePoolSize(poolSize);
+                    currentExecutor.setMaximumPoolSize(poolSize);
+                }
+            }
+        } else if (currentExecutor != null) {
+            // the wires scheduled on the executor will be drained by the next emitting thread
+            this.executor = null;
+            currentExecutor.shutdown();
+        }
+
+        this.options = newOptions;
+
+        logger.info("Wire dispatch mode: {}, worker threads: {}, queue capacity: {}, overflow policy: {}",
+                newOptions.getDispatchMode(), newOptions.getThreadCount(), newOptions.getQueueCapacity(),
+                newOptions.getOverflowPolicy());
+    }
+
+    synchronized void shutdown() {
+        final ThreadPoolExecutor currentExecutor = this.executor;
+        this.executor = null;
+        if (currentExecutor != null) {
+            for (final Runnable pendingDrain : currentExecutor.shutdownNow()) {
+                ((Channel) pendingDrain).discardQueuedEnvelopes();
+            }
+        }
+    }
+
+    Channel newChannel(final Wire wire) {
+        return new Channel(wire);
+    }
+
+    /**
+     * Delivers the envelope to the wire of the provided channel. The emit lock serializes the emits of the emitting
+     * component: it is held while the envelope is delivered or enqueued, and it is only released while the emitting
+     * thread waits for room in a full queue with the {@link OverflowPolicy#BLOCK} policy.
+     */
+    void dispatch(final Channel channel, final WireEnvelope envelope, final ReentrantLock emitLock) {
+        if (this.executor == null && channel.isIdle()) {
+            channel.wire.update(envelope);
+            return;
+        }
+        channel.submit(envelope, this.options, emitLock);
+    }
+
+    private ThreadPoolExecutor createExecutor(final int poolSize) {
+        final ThreadPoolExecutor result = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "WireDispatcher-" + this.threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    /**
+     * The queue of the envelopes to be delivered to a wire. At most one drain task for each channel is scheduled at
+     * any time, the channel itself is the drain task.
+     */
+    final class Channel implements Runnable {
+
+        private final Wire wire;
+        private final Deque<WireEnvelope> queue = new ArrayDeque<>();
+        private final Lock lock = new ReentrantLock();
+        private final Condition notFull = this.lock.newCondition();
+
+        private boolean scheduled;
+        private long discardedEnvelopes;
+
+        private Channel(final Wire wire) {
+            this.wire = requireNonNull(wire, "Wire cannot be null");
+        }
+
+        private boolean isIdle() {
+            this.lock.lock();
+            try {
+                return !this.scheduled;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void submit(final WireEnvelope envelope, final WireDispatcherOptions currentOptions,
+                final ReentrantLock emitLock) {
+            final boolean bounded = currentOptions.getDispatchMode() == DispatchMode.ASYNCHRONOUS;
+            final int capacity = currentOptions.getQueueCapacity();
+            final OverflowPolicy overflowPolicy = currentOptions.getOverflowPolicy();
+
+            this.lock.lock();
+            try {
+                while (bounded && this.queue.size() >= capacity) {
+                    if (overflowPolicy == OverflowPolicy.DISCARD_NEWEST) {
+                        onEnvelopeDiscarded();
+                        return;
+                    } else if (overflowPolicy == OverflowPolicy.DISCARD_OLDEST) {
+                        this.queue.poll();
+                        onEnvelopeDiscarded();
+                    } else if (IS_DISPATCHING.get()) {
+                        break;
+                    } else {
+                        awaitNotFull(emitLock);
+                    }
+                }
+
+                this.queue.add(envelope);
+
+                if (this.scheduled) {
+                    return;
+                }
+                this.scheduled = true;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for the queue of wire {}", this.wire);
+                return;
+            } finally {
+                this.lock.unlock();
+            }
+
+            schedule();
+        }
+
+        /**
+         * Waits for the queue to have room without holding the emit lock. The emit lock is always acquired before
+         * the channel lock, so the channel lock is released again before taking back the emit lock.
+         */
+        private void awaitNotFull(final ReentrantLock emitLock) throws InterruptedException {
+            final int holdCount = emitLock.getHoldCount();
+            for (int i = 0; i < holdCount; i++) {
+                emitLock.unlock();
+            }
+            try {
+                this.notFull.await();
+            } finally {
+                if (holdCount > 0) {
+                    this.lock.unlock();
+                    for (int i = 0; i < holdCount; i++) {
+                        emitLock.lock();
+                    }
+                    this.lock.lock();
+                }
+            }
+        }
+
+        private void onEnvelopeDiscarded() {
+            this.discardedEnvelopes++;
+            if (this.discardedEnvelopes == 1) {
+                logger.warn("Queue of wire {} is full, discarding envelopes", this.wire);
+            } else {
+                logger.debug("Queue of wire {} is full, {} envelopes discarded so far", this.wire,
+                        this.discardedEnvelopes);
+            }
+        }
+
+        private void discardQueuedEnvelopes() {
+            final int discarded;
+            this.lock.lock();
+            try {
+                discarded = this.queue.size();
+                this.queue.clear();
+                this.scheduled = false;
+                this.notFull.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+            if (discarded > 0) {
+                logger.warn("Dispatcher shut down, {} envelopes discarded on wire {}", discarded, this.wire);
+            }
+        }
+
+        private void schedule() {
+            final ThreadPoolExecutor currentExecutor = WireDispatcher.this.executor;
+            if (currentExecutor != null) {
+                try {
+                    currentExecutor.execute(this);
+                    return;
+                } catch (final RejectedExecutionException e) {
+                    logger.debug("Executor has been shut down, draining wire {} on the current thread", this.wire);
+                }
+            }
+            while (drain(Integer.MAX_VALUE)) {
+                // drain until empty
+            }
+        }
+
+        @Override
+        public void run() {
+            if (drain(MAX_ENVELOPES_PER_RUN)) {
+                schedule();
+            }
+        }
+
+        /**
+         * Delivers at most the provided number of envelopes, returns true if the queue is not empty.
+         */
+        private boolean drain(final int maxEnvelopes) {
+            final boolean wasDispatching = IS_DISPATCHING.get();
+            IS_DISPATCHING.set(true);
+            try {
+                for (int i = 0; i < maxEnvelopes; i++) {
+                    final WireEnvelope envelope;
+                    this.lock.lock();
+                    try {
+                        envelope = this.queue.poll();
+                        if (envelope == null) {
+                            this.scheduled = false;
+                            return false;
+                        }
+                        this.notFull.signal();
+                    } finally {
+                        this.lock.unlock();
+                    }
+
+                    try {
+                        this.wire.update(envelope);
+                    } catch (final Exception e) {
+                        logger.warn("Failed to deliver envelope on wire {}", this.wire, e);
+                    }
+                }
+                return true;
+            } finally {
+                IS_DISPATCHING.set(wasDispatching);
+            }
+        }
+    }
+}
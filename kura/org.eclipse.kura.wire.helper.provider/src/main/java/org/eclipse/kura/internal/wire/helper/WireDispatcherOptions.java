@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Map;
+
+/**
+ * The Class WireDispatcherOptions is responsible to contain the configurable options of the {@link WireDispatcher}
+ */
+final class WireDispatcherOptions {
+
+    enum DispatchMode {
+        SYNCHRONOUS,
+        ASYNCHRONOUS
+    }
+
+    enum OverflowPolicy {
+        BLOCK,
+        DISCARD_NEWEST,
+        DISCARD_OLDEST
+    }
+
+    private static final String PROP_DISPATCH_MODE = "dispatch.mode";
+    private static final String PROP_THREAD_COUNT = "dispatch.thread.count";
+    private static final String PROP_QUEUE_CAPACITY = "dispatch.queue.capacity";
+    private static final String PROP_OVERFLOW_POLICY = "dispatch.overflow.policy";
+
+    private static final int DEFAULT_THREAD_COUNT = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    private final Map<String, Object> properties;
+
+    WireDispatcherOptions(final Map<String, Object> properties) {
+        requireNonNull(properties, "Properties cannot be null");
+        this.properties = properties;
+    }
+
+    DispatchMode getDispatchMode() {
+        return getEnum(PROP_DISPATCH_MODE, DispatchMode.class, DispatchMode.SYNCHRONOUS);
+    }
+
+    /**
+     * Returns the number of worker threads used to deliver the envelopes in {@link DispatchMode#ASYNCHRONOUS} mode.
+     */
+    int getThreadCount() {
+        return getPositiveInt(PROP_THREAD_COUNT, DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * Returns the maximum number of envelopes that can be queued on a single wire.
+     */
+    int getQueueCapacity() {
+        return getPositiveInt(PROP_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return getEnum(PROP_OVERFLOW_POLICY, OverflowPolicy.class, OverflowPolicy.BLOCK);
+    }
+
+    private int getPositiveInt(final String propertyName, final int defaultValue) {
+        final Object value = this.properties.get(propertyName);
+        if (nonNull(value) && value instanceof Integer && (Integer) value > 0) {
+            return (Integer) value;
+        }
+        return defaultValue;
+    }
+
+    private <T extends Enum<T>> T getEnum(final String propertyName, final Class<T> enumClass, final T defaultValue) {
+        final Object value = this.properties.get(propertyName);
+        if (nonNull(value) && value instanceof String) {
+            try {
+                return Enum.valueOf(enumClass, (String) value);
+            } catch (final IllegalArgumentException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+}
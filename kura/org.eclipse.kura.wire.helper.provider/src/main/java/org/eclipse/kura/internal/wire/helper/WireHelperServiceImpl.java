@@ -19,6 +19,9 @@ import static org.eclipse.kura.wire.graph.Constants.EMITTER_PORT_COUNT_PROP_NAME
 import static org.eclipse.kura.wire.graph.Constants.RECEIVER_PORT_COUNT_PROP_NAME;
 import static org.osgi.framework.Constants.SERVICE_PID;
 
+import java.util.Map;
+
+import org.eclipse.kura.configuration.ConfigurableComponent;
 import org.eclipse.kura.util.service.ServiceUtil;
 import org.eclipse.kura.wire.WireComponent;
 import org.eclipse.kura.wire.WireEmitter;
@@ -31,9 +34,24 @@ import org.osgi.framework.ServiceReference;
 
 /**
  * The Class WireHelperServiceImpl is the implementation of
- * {@link WireHelperService}
+ * {@link WireHelperService}. The configuration of this component defines how
+ * the envelopes emitted by the wire components are dispatched, see {@link WireDispatcher}.
  */
-public final class WireHelperServiceImpl implements WireHelperService {
+public final class WireHelperServiceImpl implements WireHelperService, ConfigurableComponent {
+
+    private final WireDispatcher dispatcher = new WireDispatcher();
+
+    public void activate(final Map<String, Object> properties) {
+        updated(properties);
+    }
+
+    public void updated(final Map<String, Object> properties) {
+        this.dispatcher.update(new WireDispatcherOptions(properties));
+    }
+
+    public void deactivate() {
+        this.dispatcher.shutdown();
+    }
 
     /** {@inheritDoc} */
     @Override
@@ -151,6 +169,7 @@ public final class WireHelperServiceImpl implements WireHelperService {
         int emitterPortCount = getIntOrDefault(wireComponentRef.getProperty(EMITTER_PORT_COUNT_PROP_NAME.value()),
                 wireComponent instanceof WireEmitter ? 1 : 0);
 
-        return new WireSupportImpl(wireComponent, servicePid, kuraServicePid, receiverPortCount, emitterPortCount);
+        return new WireSupportImpl(wireComponent, servicePid, kuraServicePid, receiverPortCount, emitterPortCount,
+                this.dispatcher);
     }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2016, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -22,7 +22,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 import org.eclipse.kura.wire.WireComponent;
@@ -57,15 +59,21 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
 
     private final Map<Wire, ReceiverPortImpl> receiverPortByWire;
 
+    private final WireDispatcher dispatcher;
+
+    private final ReentrantLock emitLock = new ReentrantLock();
+
     WireSupportImpl(final WireComponent wireComponent, final String servicePid, final String kuraServicePid,
-            int inputPortCount, int outputPortCount) {
+            int inputPortCount, int outputPortCount, final WireDispatcher dispatcher) {
         requireNonNull(wireComponent, "Wire component cannot be null");
         requireNonNull(servicePid, "service pid cannot be null");
         requireNonNull(kuraServicePid, "kura service pid cannot be null");
+        requireNonNull(dispatcher, "Wire dispatcher cannot be null");
 
         this.servicePid = servicePid;
         this.kuraServicePid = kuraServicePid;
         this.wireComponent = wireComponent;
+        this.dispatcher = dispatcher;
 
         if (inputPortCount < 0) {
             throw new IllegalArgumentException("Input port count must be greater or equal than zero");
@@ -100,11 +108,19 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
         }
     }
 
+    private void removeDisconnectedChannels() {
+        for (final EmitterPort port : this.emitterPorts) {
+            final EmitterPortImpl emitterPort = (EmitterPortImpl) port;
+            emitterPort.channels.keySet().retainAll(emitterPort.connectedWires);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public synchronized void consumersConnected(final Wire[] wires) {
         clearEmitterPorts();
         if (wires == null) {
+            removeDisconnectedChannels();
             return;
         }
         for (Wire w : wires) {
@@ -115,15 +131,26 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
                 logger.warn("Failed to assign outgoing wire to port", e);
             }
         }
+        removeDisconnectedChannels();
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The emits are serialized by the {@link #emitLock}, which the dispatcher only releases while the calling thread
+     * waits for room in the full queue of a wire.
+     */
     @Override
-    public synchronized void emit(final List<WireRecord> wireRecords) {
+    public void emit(final List<WireRecord> wireRecords) {
         requireNonNull(wireRecords, "Wire Records cannot be null");
         final WireEnvelope envelope = createWireEnvelope(wireRecords);
-        for (EmitterPort emitterPort : this.emitterPorts) {
-            emitterPort.emit(envelope);
+        this.emitLock.lock();
+        try {
+            for (EmitterPort emitterPort : this.emitterPorts) {
+                emitterPort.emit(envelope);
+            }
+        } finally {
+            this.emitLock.unlock();
         }
     }
 
@@ -190,10 +217,19 @@ final class WireSupportImpl implements WireSupport, MultiportWireSupport {
 
     private class EmitterPortImpl extends PortImpl implements EmitterPort {
 
+        final Map<Wire, WireDispatcher.Channel> channels = new ConcurrentHashMap<>();
+
         @Override
         public void emit(WireEnvelope envelope) {
-            for (final Wire wire : this.connectedWires) {
-                wire.update(envelope);
+            WireSupportImpl.this.emitLock.lock();
+            try {
+                for (final Wire wire : this.connectedWires) {
+                    final WireDispatcher.Channel channel = this.channels.computeIfAbsent(wire,
+                            WireSupportImpl.this.dispatcher::newChannel);
+                    WireSupportImpl.this.dispatcher.dispatch(channel, envelope, WireSupportImpl.this.emitLock);
+                }
+            } finally {
+                WireSupportImpl.this.emitLock.unlock();
             }
         }
     }
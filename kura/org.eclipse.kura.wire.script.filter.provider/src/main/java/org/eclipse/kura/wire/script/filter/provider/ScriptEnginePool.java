@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * A fixed size pool of script engines, each one with its own compiled copy of the script and its own bindings, that
+ * allows to evaluate the script concurrently. The engines are created and the script is compiled when the pool is
+ * created, so that the first evaluations do not pay the compilation cost.
+ */
+final class ScriptEnginePool {
+
+    static final class PooledScript {
+
+        private final CompiledScript script;
+        private final Bindings bindings;
+
+        private PooledScript(final CompiledScript script, final Bindings bindings) {
+            this.script = script;
+            this.bindings = bindings;
+        }
+
+        CompiledScript getScript() {
+            return this.script;
+        }
+
+        Bindings getBindings() {
+            return this.bindings;
+        }
+    }
+
+    private final BlockingQueue<PooledScript> available;
+
+    ScriptEnginePool(final int size, final String scriptSource, final Supplier<ScriptEngine> engineFactory,
+            final Function<ScriptEngine, Bindings> bindingsFactory) throws ScriptException {
+        this.available = new ArrayBlockingQueue<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final ScriptEngine engine = engineFactory.get();
+            final CompiledScript script = ((Compilable) engine).compile(scriptSource);
+            this.available.add(new PooledScript(script, bindingsFactory.apply(engine)));
+        }
+    }
+
+    /**
+     * Returns an engine that is not currently in use, waiting if all the engines are in use. The returned engine
+     * must be returned to the pool with {@link #release(PooledScript)}.
+     */
+    PooledScript acquire() throws InterruptedException {
+        return this.available.take();
+    }
+
+    void release(final PooledScript pooledScript) {
+        this.available.offer(pooledScript);
+    }
+}
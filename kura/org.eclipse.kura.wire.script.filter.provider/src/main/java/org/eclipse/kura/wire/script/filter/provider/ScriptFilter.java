@@ -14,6 +14,7 @@ package org.eclipse.kura.wire.script.filter.provider;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -25,6 +26,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
 import org.eclipse.kura.configuration.ConfigurableComponent;
+import org.eclipse.kura.configuration.ConfigurationService;
 import org.eclipse.kura.type.DataType;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.type.TypedValues;
@@ -50,10 +52,18 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
 
     private static final String SCRIPT_PROPERTY_KEY = "script";
     private static final String SCRIPT_CONTEXT_DROP_PROPERTY_KEY = "script.context.drop";
+    private static final String ENGINE_POOL_SIZE_PROPERTY_KEY = "script.engine.pool.size";
+    private static final String METRICS_LOG_INTERVAL_PROPERTY_KEY = "script.metrics.log.interval.seconds";
 
     private CompiledScript script;
     private Bindings bindings;
 
+    // used instead of the script and bindings above if the engine pool size is greater than one
+    private volatile Optional<ScriptEnginePool> enginePool = Optional.empty();
+
+    private final ScriptFilterMetrics metrics = new ScriptFilterMetrics();
+    private volatile String pid;
+
     private volatile WireHelperService wireHelperService;
     private WireSupport wireSupport;
 
@@ -78,7 +88,7 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
                 (ServiceReference<WireComponent>) componentContext.getServiceReference());
 
         this.scriptEngine = createEngine();
-        this.bindings = createBindings();
+        this.bindings = createBindings(this.scriptEngine);
 
         updated(properties);
 
@@ -93,6 +103,9 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
     public synchronized void updated(final Map<String, Object> properties) {
         logger.info("Updating Script Filter...");
 
+        this.pid = (String) properties.get(ConfigurationService.KURA_SERVICE_PID);
+        this.metrics.setLogInterval((Integer) properties.getOrDefault(METRICS_LOG_INTERVAL_PROPERTY_KEY, 0));
+
         final String scriptSource = (String) properties.get(SCRIPT_PROPERTY_KEY);
 
         if (scriptSource == null) {
@@ -100,45 +113,106 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
             return;
         }
 
+        final int enginePoolSize = (Integer) properties.getOrDefault(ENGINE_POOL_SIZE_PROPERTY_KEY, 1);
+
         this.script = null;
+        this.enginePool = Optional.empty();
         try {
-            this.script = ((Compilable) this.scriptEngine).compile(scriptSource);
+            if (enginePoolSize > 1) {
+                this.enginePool = Optional.of(
+                        new ScriptEnginePool(enginePoolSize, scriptSource, this::createEngine, this::createBindings));
+            } else {
+                this.script = ((Compilable) this.scriptEngine).compile(scriptSource);
+            }
         } catch (ScriptException e) {
             logger.warn("Failed to compile script", e);
         }
 
         if (this.bindings == null || (Boolean) properties.getOrDefault(SCRIPT_CONTEXT_DROP_PROPERTY_KEY, false)) {
-            this.bindings = createBindings();
+            this.bindings = createBindings(this.scriptEngine);
         }
 
         logger.info("Updating Script Filter... Done");
     }
 
     @Override
-    public synchronized void onWireReceive(WireEnvelope wireEnvelope) {
+    public void onWireReceive(WireEnvelope wireEnvelope) {
+        final Optional<ScriptEnginePool> currentEnginePool = this.enginePool;
+
+        if (currentEnginePool.isPresent()) {
+            onWireReceivePooled(currentEnginePool.get(), wireEnvelope);
+        } else {
+            onWireReceiveSynchronized(wireEnvelope);
+        }
+
+        this.metrics.logIfDue(logger, this.pid);
+    }
+
+    private synchronized void onWireReceiveSynchronized(final WireEnvelope wireEnvelope) {
         if (this.script == null) {
             logger.warn("Failed to compile script");
             return;
         }
 
+        final List<WireRecord> result = evaluate(this.script, this.bindings, wireEnvelope, 0);
+
+        if (result != null) {
+            this.wireSupport.emit(result);
+        }
+    }
+
+    private void onWireReceivePooled(final ScriptEnginePool pool, final WireEnvelope wireEnvelope) {
+        final long waitStart = System.nanoTime();
+        final ScriptEnginePool.PooledScript pooledScript;
+        try {
+            pooledScript = pool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for a script engine");
+            return;
+        }
+
+        final List<WireRecord> result;
+        try {
+            result = evaluate(pooledScript.getScript(), pooledScript.getBindings(), wireEnvelope,
+                    System.nanoTime() - waitStart);
+        } finally {
+            pool.release(pooledScript);
+        }
+
+        if (result != null) {
+            this.wireSupport.emit(result);
+        }
+    }
+
+    /**
+     * Evaluates the script and returns the records to be emitted, or null if nothing must be emitted.
+     */
+    private List<WireRecord> evaluate(final CompiledScript compiledScript, final Bindings scriptBindings,
+            final WireEnvelope wireEnvelope, final long waitTimeNanos) {
+        final long start = System.nanoTime();
+        List<WireRecord> result = null;
+        boolean failed = false;
+
         try {
             final WireEnvelopeWrapper inputEnvelopeWrapper = new WireEnvelopeWrapper(
                     new WireRecordListWrapper(wireEnvelope.getRecords()), wireEnvelope.getEmitterPid());
             final OutputWireRecordListWrapper outputEnvelopeWrapper = new OutputWireRecordListWrapper();
 
-            this.bindings.put("input", inputEnvelopeWrapper);
-            this.bindings.put("output", outputEnvelopeWrapper);
+            scriptBindings.put("input", inputEnvelopeWrapper);
+            scriptBindings.put("output", outputEnvelopeWrapper);
 
-            this.script.eval(this.bindings);
+            compiledScript.eval(scriptBindings);
 
-            final List<WireRecord> result = outputEnvelopeWrapper.getRecords();
-
-            if (result != null) {
-                this.wireSupport.emit(result);
-            }
+            result = outputEnvelopeWrapper.getRecords();
         } catch (Exception e) {
+            failed = true;
             logger.warn("Failed to execute script", e);
         }
+
+        this.metrics.evaluationCompleted(waitTimeNanos, System.nanoTime() - start,
+                result == null ? 0 : result.size(), failed);
+        return result;
     }
 
     private ScriptEngine createEngine() {
@@ -164,8 +238,8 @@ public class ScriptFilter implements WireEmitter, WireReceiver, ConfigurableComp
         return scriptEngineTemp;
     }
 
-    private Bindings createBindings() {
-        Bindings localBindings = this.scriptEngine.createBindings();
+    private Bindings createBindings(final ScriptEngine engine) {
+        Bindings localBindings = engine.createBindings();
 
         localBindings.put("logger", logger);
 
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.wire.script.filter.provider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+
+/**
+ * Collects the script evaluation metrics of a {@link ScriptFilter}. The wait time is the time spent waiting for a
+ * script engine to be available.
+ */
+class ScriptFilterMetrics {
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder failedEvaluations = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder emittedRecords = new LongAdder();
+    private final AtomicLong maxEvaluationNanos = new AtomicLong();
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime());
+
+    private volatile long logIntervalNanos;
+
+    /**
+     * Sets the interval between two metrics log messages, a value less than or equal to zero disables logging.
+     */
+    void setLogInterval(final long seconds) {
+        this.logIntervalNanos = TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    void evaluationCompleted(final long waitTimeNanos, final long evaluationTimeNanos, final int emittedRecordCount,
+            final boolean failed) {
+        this.evaluations.increment();
+        if (failed) {
+            this.failedEvaluations.increment();
+        }
+        this.waitNanos.add(waitTimeNanos);
+        this.evaluationNanos.add(evaluationTimeNanos);
+        this.maxEvaluationNanos.accumulateAndGet(evaluationTimeNanos, Math::max);
+        this.emittedRecords.add(emittedRecordCount);
+    }
+
+    /**
+     * Logs and resets the metrics collected since the last invocation, if the log interval has elapsed.
+     */
+    void logIfDue(final Logger logger, final String name) {
+        final long interval = this.logIntervalNanos;
+        if (interval <= 0) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final long last = this.lastLogNanos.get();
+        if (now - last < interval || !this.lastLogNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        final long count = this.evaluations.sumThenReset();
+        logger.info(
+                "{} - evaluations: {}, failed: {}, avg evaluation time: {} us, max evaluation time: {} us, "
+                        + "avg engine wait time: {} us, emitted records: {}",
+                name, count, this.failedEvaluations.sumThenReset(),
+                toAverageMicros(this.evaluationNanos.sumThenReset(), count),
+                TimeUnit.NANOSECONDS.toMicros(this.maxEvaluationNanos.getAndSet(0)),
+                toAverageMicros(this.waitNanos.sumThenReset(), count), this.emittedRecords.sumThenReset());
+    }
+
+    private static long toAverageMicros(final long totalNanos, final long count) {
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos / count);
+    }
+}
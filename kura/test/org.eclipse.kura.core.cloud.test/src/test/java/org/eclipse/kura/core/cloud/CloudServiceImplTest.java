@@ -13,17 +13,26 @@
 package org.eclipse.kura.core.cloud;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.kura.KuraException;
 import org.eclipse.kura.cloud.CloudClient;
 import org.eclipse.kura.cloudconnection.request.RequestHandler;
 import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.core.testutil.TestUtil;
 import org.eclipse.kura.data.DataService;
+import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.system.SystemService;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -111,4 +120,41 @@ public class CloudServiceImplTest {
         assertNotNull(options);
     }
 
+    @Test
+    public void testPublishLifeCycleMessageFirstMemoryLaneId() throws Throwable {
+        // the first message of the DataService memory lane has ID -2, the publisher must be notified about it
+
+        final int firstMemoryLaneId = -2;
+
+        DataService dataService = mock(DataService.class);
+        CloudServiceImpl cloudService = new CloudServiceImpl();
+        cloudService.setDataService(dataService);
+        cloudService.setSystemService(mock(SystemService.class));
+
+        ComponentContext componentContext = mock(ComponentContext.class);
+        when(componentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationService.KURA_SERVICE_PID, "Cloud Service");
+        cloudService.activate(componentContext, properties);
+
+        String topic = "$EDC/account/client/MQTT/BIRTH";
+        ExecutorService publisher = Executors.newSingleThreadExecutor();
+        try {
+            when(dataService.publish(eq(topic), anyObject(), anyInt(), anyBoolean(), anyInt())).thenAnswer(invocation -> {
+                // the DataService publisher notifies the message from another thread
+                publisher.execute(() -> cloudService.onMessagePublished(firstMemoryLaneId, topic));
+                return firstMemoryLaneId;
+            });
+
+            long start = System.nanoTime();
+            TestUtil.invokePrivate(cloudService, "publishLifeCycleMessage",
+                    new Class<?>[] { String.class, KuraPayload.class }, topic, new KuraPayload());
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // without the notification the publishing thread waits for one second
+            assertTrue("lifecycle message publishing took " + elapsed + " ms", elapsed < 1000);
+        } finally {
+            publisher.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.db;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import org.eclipse.kura.core.db.H2DbCompactor.StoreStats;
+import org.h2.tools.DeleteDbFiles;
+import org.junit.Test;
+
+public class H2DbCompactorTest {
+
+    @Test
+    public void testOnlineCompaction() throws Exception {
+        DriverManager.registerDriver(new org.h2.Driver());
+
+        final File directory = Files.createTempDirectory("compactordb").toFile();
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:" + directory.getPath() + "/test", "SA", "");
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("SET RETENTION_TIME 0");
+            stmt.execute("CREATE TABLE DATA (ID INT PRIMARY KEY, PAYLOAD VARCHAR)");
+            for (int i = 0; i < 10; i++) {
+                stmt.execute("INSERT INTO DATA SELECT X + " + i * 10000 + ", SPACE(200) FROM SYSTEM_RANGE(1, 10000)");
+            }
+            stmt.execute("DELETE FROM DATA WHERE MOD(ID, 3) <> 0");
+            stmt.execute("CHECKPOINT");
+
+            // chunks younger than the retention time cannot be rewritten
+            Thread.sleep(1500);
+
+            final StoreStats before = H2DbCompactor.getStoreStats(conn);
+            assertNotNull(before);
+            assertTrue(before.getChunksFillRate() < 60);
+
+            // the store statistics are updated when the rewritten chunks are released, not checked here
+            assertTrue(H2DbCompactor.compact(conn, 60, 10000) > 0);
+        } finally {
+            DeleteDbFiles.execute(directory.getPath(), "test", true);
+            Files.delete(directory.toPath());
+        }
+    }
+}
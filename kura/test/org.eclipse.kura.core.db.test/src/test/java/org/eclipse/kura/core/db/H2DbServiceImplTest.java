@@ -45,10 +45,11 @@ public class H2DbServiceImplTest {
         svc.activate(Collections.emptyMap());
 
         CryptoService csMock = mock(CryptoService.class);
-        svc.setCryptoService(csMock);
-
         when(csMock.decryptAes(encPass)).thenReturn(pass.toCharArray());
 
+        // stub before setting, the first update runs concurrently on the executor
+        svc.setCryptoService(csMock);
+
         Map<String, Object> props = new HashMap<>();
         props.put("db.user", user);
         props.put("db.password", enc);
@@ -75,6 +76,43 @@ public class H2DbServiceImplTest {
         svc.deactivate();
     }
 
+    @Test
+    public void testDirectExecutionMode() throws KuraException, SQLException, NoSuchFieldException {
+        H2DbServiceImpl svc = new H2DbServiceImpl();
+        svc.activate(Collections.emptyMap());
+
+        CryptoService csMock = mock(CryptoService.class);
+        when(csMock.decryptAes("".toCharArray())).thenReturn("".toCharArray());
+        svc.setCryptoService(csMock);
+
+        Map<String, Object> props = new HashMap<>();
+        props.put("db.connector.url", "jdbc:h2:mem:directdb");
+        props.put("db.execution.mode", "DIRECT");
+        svc.updated(props);
+
+        final Thread caller = Thread.currentThread();
+        final Thread executor = svc.withConnection(c -> Thread.currentThread());
+        assertEquals(caller, executor);
+
+        try {
+            svc.withConnection(c -> c.createStatement().executeQuery("SELECT * FROM MISSING_TABLE"));
+        } catch (SQLException e) {
+            // expected
+        }
+
+        H2DbServiceMetrics metrics = (H2DbServiceMetrics) TestUtil.getFieldValue(svc, "metrics");
+        assertEquals(2, metrics.getCalls());
+        assertEquals(0, metrics.getActiveCalls());
+        assertTrue(metrics.snapshotAndReset(10).startsWith("calls: 2, failed: 1,"));
+
+        props.put("db.execution.mode", "EXECUTOR");
+        svc.updated(props);
+
+        assertFalse(caller.equals(svc.withConnection(c -> Thread.currentThread())));
+
+        svc.deactivate();
+    }
+
     @Test
     public void testUpdateFailUrlPattern() throws KuraException, SQLException {
         String pass = "pass";
@@ -215,9 +253,8 @@ public class H2DbServiceImplTest {
         svc.activate(Collections.emptyMap());
 
         CryptoService csMock = mock(CryptoService.class);
-        svc.setCryptoService(csMock);
-
         when(csMock.decryptAes(encPass)).thenReturn(pass.toCharArray());
+        svc.setCryptoService(csMock);
 
         Map<String, Object> props = new HashMap<>();
         props.put("db.user", user);
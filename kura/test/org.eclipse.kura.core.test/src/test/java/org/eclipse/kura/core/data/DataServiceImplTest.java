@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -37,6 +38,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.KuraConnectException;
 import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.internal.data.TokenBucket;
 import org.eclipse.kura.core.testutil.TestUtil;
 import org.eclipse.kura.data.DataTransportService;
 import org.eclipse.kura.data.DataTransportToken;
@@ -46,6 +48,7 @@ import org.eclipse.kura.status.CloudConnectionStatusService;
 import org.eclipse.kura.watchdog.WatchdogService;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.osgi.service.component.ComponentContext;
 
 public class DataServiceImplTest {
@@ -640,6 +643,94 @@ public class DataServiceImplTest {
         assertEquals(6, (int) ids.get(0));
     }
 
+    @Test
+    public void testPublishBatchStopsAtInFlightLimit() throws Throwable {
+        // publish a batch of QoS 1 messages, only the messages within the in-flight limit are published
+
+        DataServiceImpl svc = new DataServiceImpl();
+
+        DataStore storeMock = mock(DataStore.class);
+        TestUtil.setFieldValue(svc, "store", storeMock);
+
+        DataTransportService dtsMock = mock(DataTransportService.class);
+        svc.setDataTransportService(dtsMock);
+
+        AtomicInteger mqttMsgId = new AtomicInteger();
+        when(dtsMock.publish(anyObject(), anyObject(), anyInt(), eq(false)))
+                .thenAnswer(invocation -> new DataTransportToken(mqttMsgId.incrementAndGet(), "session"));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("in-flight-messages.max-number", 2);
+        properties.put("enable.rate.limit", false);
+        properties.put("publisher.batch-size", 10);
+        DataServiceOptions dataServiceOptions = new DataServiceOptions(properties);
+
+        TestUtil.setFieldValue(svc, "dataServiceOptions", dataServiceOptions);
+
+        Map<DataTransportToken, Integer> inFlightMsgIds = new ConcurrentHashMap<>();
+        TestUtil.setFieldValue(svc, "inFlightMsgIds", inFlightMsgIds);
+
+        List<DataMessage> messages = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            messages.add(new DataMessage.Builder(i).withTopic("topic" + i).withQos(1).withPayload(new byte[0])
+                    .build());
+        }
+
+        List<DataMessage> published = (List<DataMessage>) TestUtil.invokePrivate(svc, "publishBatchInternal",
+                messages);
+
+        assertEquals(2, published.size());
+        assertEquals(2, inFlightMsgIds.size());
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(storeMock, times(1)).published(captor.capture());
+
+        List<DataMessage> stored = captor.getValue();
+        assertEquals(2, stored.size());
+        assertEquals(1, stored.get(0).getId());
+        assertEquals(1, stored.get(0).getPublishedMessageId());
+        assertEquals("session", stored.get(0).getSessionId());
+        assertEquals(2, stored.get(1).getId());
+        assertEquals(2, stored.get(1).getPublishedMessageId());
+    }
+
+    @Test
+    public void testPublishBatchSkipsRateLimitedMessages() throws Throwable {
+        // the rate limit only allows one low priority message, the high priority ones are still published
+
+        DataServiceImpl svc = new DataServiceImpl();
+
+        DataStore storeMock = mock(DataStore.class);
+        TestUtil.setFieldValue(svc, "store", storeMock);
+
+        DataTransportService dtsMock = mock(DataTransportService.class);
+        svc.setDataTransportService(dtsMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("enable.rate.limit", true);
+        properties.put("publisher.batch-size", 10);
+        DataServiceOptions dataServiceOptions = new DataServiceOptions(properties);
+
+        TestUtil.setFieldValue(svc, "dataServiceOptions", dataServiceOptions);
+        TestUtil.setFieldValue(svc, "throttle", new TokenBucket(1, TimeUnit.HOURS.toNanos(1)));
+
+        List<DataMessage> messages = new ArrayList<>();
+        int[] priorities = { 7, 7, 2, 9, 4 };
+        for (int i = 0; i < priorities.length; i++) {
+            messages.add(new DataMessage.Builder(i + 1).withTopic("topic" + i).withPriority(priorities[i])
+                    .withPayload(new byte[0]).build());
+        }
+
+        List<DataMessage> published = (List<DataMessage>) TestUtil.invokePrivate(svc, "publishBatchInternal",
+                messages);
+
+        assertEquals(3, published.size());
+        assertEquals(1, published.get(0).getId());
+        assertEquals(3, published.get(1).getId());
+        assertEquals(5, published.get(2).getId());
+        verify(dtsMock, times(3)).publish(anyObject(), anyObject(), anyInt(), eq(false));
+    }
+
     private DataStore expectAllMessages(DataServiceImpl svc, List<DataMessage> unpublished, List<DataMessage> inFlight,
             List<DataMessage> dropped) throws NoSuchFieldException, KuraStoreException {
 
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kura.KuraStoreCapacityReachedException;
+import org.eclipse.kura.KuraStoreException;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.DataStore;
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.junit.Test;
+
+public class GroupCommitWriterTest {
+
+    @Test
+    public void testConcurrentMessagesAreStoredInBatches() throws Exception {
+        final DataStore store = mock(DataStore.class);
+        final AtomicInteger nextId = new AtomicInteger();
+        final CountDownLatch firstStoreStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstStore = new CountDownLatch(1);
+
+        when(store.store(anyString(), anyObject(), anyInt(), anyBoolean(), anyInt())).thenAnswer(invocation -> {
+            firstStoreStarted.countDown();
+            releaseFirstStore.await();
+            return new DataMessage.Builder(nextId.incrementAndGet()).build();
+        });
+        when(store.store(any(List.class))).thenAnswer(invocation -> {
+            final List<DataMessage> messages = (List<DataMessage>) invocation.getArguments()[0];
+            final List<DataMessage> result = new ArrayList<>();
+            for (DataMessage message : messages) {
+                result.add(new DataMessage.Builder(nextId.incrementAndGet()).withTopic(message.getTopic()).build());
+            }
+            return result;
+        });
+
+        final GroupCommitWriter writer = new GroupCommitWriter(store);
+        writer.start(10);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            // the first message keeps the writer busy while the others are queued
+            final Future<DataMessage> first = executor.submit(() -> writer.store("first", new byte[0], 0, false, 5));
+            assertTrue(firstStoreStarted.await(5, TimeUnit.SECONDS));
+
+            final List<Future<DataMessage>> others = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final String topic = "topic" + i;
+                others.add(executor.submit(() -> writer.store(topic, new byte[0], 0, false, 5)));
+            }
+            awaitQueuedMessages(writer, 4);
+
+            releaseFirstStore.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).getId());
+            for (Future<DataMessage> other : others) {
+                assertTrue(other.get(5, TimeUnit.SECONDS).getId() > 1);
+            }
+
+            verify(store, times(1)).store(anyString(), anyObject(), anyInt(), anyBoolean(), anyInt());
+            verify(store, times(1)).store(any(List.class));
+        } finally {
+            executor.shutdownNow();
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void testBatchFailureFallsBackToSingleMessages() throws Exception {
+        final DataStore store = mock(DataStore.class);
+
+        when(store.store(any(List.class))).thenThrow(new KuraStoreCapacityReachedException("full"));
+        when(store.store("ok", null, 0, false, 5)).thenReturn(new DataMessage.Builder(1).build());
+        when(store.store("ko", null, 0, false, 5)).thenThrow(new KuraStoreCapacityReachedException("full"));
+
+        final GroupCommitWriter writer = new GroupCommitWriter(store);
+        writer.start(10);
+
+        try {
+            assertEquals(1, writer.store("ok", null, 0, false, 5).getId());
+
+            try {
+                writer.store("ko", null, 0, false, 5);
+                fail("Exception expected");
+            } catch (KuraStoreCapacityReachedException e) {
+                // expected
+            }
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void testStopStoresQueuedMessages() throws Exception {
+        final DataStore store = mock(DataStore.class);
+        final CountDownLatch firstStoreStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstStore = new CountDownLatch(1);
+
+        when(store.store(anyString(), anyObject(), anyInt(), anyBoolean(), anyInt())).thenAnswer(invocation -> {
+            firstStoreStarted.countDown();
+            releaseFirstStore.await();
+            return new DataMessage.Builder(1).build();
+        });
+        when(store.store(any(List.class))).thenAnswer(invocation -> {
+            final List<DataMessage> result = new ArrayList<>();
+            for (int i = 0; i < ((List<?>) invocation.getArguments()[0]).size(); i++) {
+                result.add(new DataMessage.Builder(2 + i).build());
+            }
+            return result;
+        });
+
+        final GroupCommitWriter writer = new GroupCommitWriter(store);
+        writer.start(10);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<DataMessage>> results = new ArrayList<>();
+            results.add(executor.submit(() -> writer.store("first", new byte[0], 0, false, 5)));
+            assertTrue(firstStoreStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> writer.store("topic", new byte[0], 0, false, 5)));
+            }
+            awaitQueuedMessages(writer, 2);
+
+            // stop waits for the pending store operation and the queued messages
+            final Future<?> stopped = executor.submit(writer::stop);
+            releaseFirstStore.countDown();
+            stopped.get(5, TimeUnit.SECONDS);
+
+            assertFalse(writer.isRunning());
+            for (Future<DataMessage> result : results) {
+                assertTrue(result.isDone());
+                assertTrue(result.get().getId() > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStoreWhenStopped() throws KuraStoreException {
+        // a message is stored directly if the writer is not running
+
+        final DataStore store = mock(DataStore.class);
+        when(store.store("topic", null, 0, false, 5)).thenReturn(new DataMessage.Builder(1).build());
+
+        final GroupCommitWriter writer = new GroupCommitWriter(store);
+        assertFalse(writer.isRunning());
+
+        assertEquals(1, writer.store("topic", null, 0, false, 5).getId());
+
+        writer.start(10);
+        writer.stop();
+
+        assertEquals(1, writer.store("topic", null, 0, false, 5).getId());
+
+        verify(store, times(2)).store("topic", null, 0, false, 5);
+        verify(store, never()).store(any(List.class));
+    }
+
+    private static void awaitQueuedMessages(final GroupCommitWriter writer, final int count) throws Exception {
+        final BlockingQueue<?> queue = (BlockingQueue<?>) TestUtil.getFieldValue(writer, "queue");
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (queue.size() < count) {
+            if (System.nanoTime() > deadline) {
+                fail("Messages not queued");
+            }
+            Thread.yield();
+        }
+    }
+}
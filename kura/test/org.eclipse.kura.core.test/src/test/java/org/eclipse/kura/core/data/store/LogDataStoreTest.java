@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.kura.KuraStoreCapacityReachedException;
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogDataStoreTest {
+
+    private File directory;
+    private LogDataStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("logdatastore").toFile();
+        this.store = newStore();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.store.stop();
+        final File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(this.directory.toPath());
+    }
+
+    @Test
+    public void testMessagesAreReturnedByPriority() throws Exception {
+        this.store.store("topic/a", new byte[] { 1 }, 0, false, 5);
+        this.store.store("topic/b", new byte[] { 2 }, 0, false, 2);
+        this.store.store("topic/c", null, 1, true, 5);
+
+        final List<DataMessage> messages = this.store.getNextMessages(10);
+
+        assertEquals(3, messages.size());
+        assertEquals("topic/b", messages.get(0).getTopic());
+        assertArrayEquals(new byte[] { 2 }, messages.get(0).getPayload());
+        assertEquals("topic/a", messages.get(1).getTopic());
+        assertEquals("topic/c", messages.get(2).getTopic());
+        assertNull(messages.get(2).getPayload());
+        assertTrue(messages.get(2).isRetain());
+        assertEquals("topic/b", this.store.getNextMessage().getTopic());
+    }
+
+    @Test
+    public void testStateIsRecoveredAfterRestart() throws Exception {
+        final DataMessage published = this.store.store("topic/a", new byte[] { 1 }, 0, false, 5);
+        final DataMessage inFlight = this.store.store("topic/b", new byte[] { 2 }, 1, false, 5);
+        final DataMessage unpublished = this.store.store("topic/c", new byte[] { 3, 4 }, 1, false, 5);
+
+        this.store.published(published.getId());
+        this.store.published(inFlight.getId(), 42, "session");
+
+        this.store.stop();
+        this.store = newStore();
+
+        final List<DataMessage> unpublishedMessages = this.store.allUnpublishedMessagesNoPayload();
+        assertEquals(1, unpublishedMessages.size());
+        assertEquals(unpublished.getId(), unpublishedMessages.get(0).getId());
+        assertArrayEquals(new byte[] { 3, 4 }, this.store.getNextMessage().getPayload());
+
+        final List<DataMessage> inFlightMessages = this.store.allInFlightMessagesNoPayload();
+        assertEquals(1, inFlightMessages.size());
+        assertEquals(42, inFlightMessages.get(0).getPublishedMessageId());
+        assertEquals("session", inFlightMessages.get(0).getSessionId());
+
+        assertNotNull(this.store.get(published.getId()).getPublishedOn());
+
+        final DataMessage next = this.store.store("topic/d", null, 0, false, 5);
+        assertTrue(next.getId() > unpublished.getId());
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIsDiscarded() throws Exception {
+        this.store.store("topic/a", new byte[] { 1 }, 0, false, 5);
+        this.store.store("topic/b", new byte[] { 2 }, 0, false, 5);
+        this.store.stop();
+
+        // corrupt the last byte of the second record
+        final File segment = new File(this.directory, LogSegment.fileName(0));
+        final int firstRecordLength = getRecordEnd(segment, 0);
+        final int secondRecordLength = getRecordEnd(segment, firstRecordLength);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(secondRecordLength - 1L);
+            file.write(0xff);
+        }
+
+        this.store = newStore();
+
+        final List<DataMessage> messages = this.store.getNextMessages(10);
+        assertEquals(1, messages.size());
+        assertEquals("topic/a", messages.get(0).getTopic());
+    }
+
+    @Test
+    public void testStaleMessagesAreDeletedWithSegments() throws Exception {
+        final byte[] payload = new byte[100 * 1024];
+        for (int i = 0; i < 30; i++) {
+            final DataMessage message = this.store.store("topic", payload, 0, false, 5);
+            this.store.published(message.getId());
+        }
+        this.store.store("topic/last", null, 0, false, 5);
+
+        assertTrue(this.directory.list().length > 1);
+
+        this.store.deleteStaleMessages(0);
+
+        assertEquals(1, this.directory.list().length);
+        assertEquals(1, this.store.allUnpublishedMessagesNoPayload().size());
+
+        this.store.stop();
+        this.store = newStore();
+
+        assertEquals("topic/last", this.store.getNextMessage().getTopic());
+        assertTrue(this.store.allInFlightMessagesNoPayload().isEmpty());
+    }
+
+    @Test
+    public void testBatchExceedingCapacityIsRejected() throws Exception {
+        this.store.update(900, 60, 2);
+        this.store.store("topic/a", null, 0, false, 5);
+
+        try {
+            this.store.store(Arrays.asList(new DataMessage.Builder(0).withTopic("topic/b").withPriority(5).build(),
+                    new DataMessage.Builder(0).withTopic("topic/c").withPriority(5).build()));
+            fail("capacity exceeded");
+        } catch (KuraStoreCapacityReachedException e) {
+            // expected
+        }
+
+        assertEquals(1, this.store.getNextMessages(10).size());
+    }
+
+    @Test
+    public void testWrappedIdsSkipStoredMessages() throws Exception {
+        final DataMessage inFlight = this.store.store("topic/a", null, 1, false, 5);
+        this.store.published(inFlight.getId(), 1, "session");
+        this.store.store("topic/b", null, 0, false, 5);
+
+        TestUtil.setFieldValue(this.store, "nextId", Integer.MAX_VALUE);
+
+        assertEquals(Integer.MAX_VALUE, this.store.store("topic/c", null, 0, false, 5).getId());
+        assertEquals(3, this.store.store("topic/d", null, 0, false, 5).getId());
+        assertEquals("topic/a", this.store.get(inFlight.getId()).getTopic());
+    }
+
+    private LogDataStore newStore() throws Exception {
+        final LogDataStore result = new LogDataStore(this.directory.getPath(), 0);
+        result.start(null, 900, 60, 100);
+        return result;
+    }
+
+    private static int getRecordEnd(File segment, int position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+            file.seek(position);
+            return position + LogSegment.HEADER_SIZE + file.readInt();
+        }
+    }
+}
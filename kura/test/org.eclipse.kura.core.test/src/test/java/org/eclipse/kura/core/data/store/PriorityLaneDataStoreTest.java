@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.core.data.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.kura.core.data.DataMessage;
+import org.eclipse.kura.core.data.DataStore;
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityLaneDataStoreTest {
+
+    private DataStore persistentStore;
+    private PriorityLaneDataStore store;
+
+    @Before
+    public void setUp() {
+        this.persistentStore = mock(DataStore.class);
+        this.store = new PriorityLaneDataStore(this.persistentStore);
+        this.store.configureMemoryLane(true, ".*", 0, 0, 2);
+    }
+
+    @Test
+    public void testMatchingMessagesAreKeptInMemory() throws Exception {
+        when(this.persistentStore.store(anyString(), anyObject(), anyInt(), anyBoolean(), anyInt()))
+                .thenReturn(new DataMessage.Builder(1).withTopic("persistent").withQos(1).withPriority(5).build());
+
+        final DataMessage telemetry = this.store.store("telemetry", new byte[] { 1 }, 0, false, 7);
+        final DataMessage birth = this.store.store("birth", new byte[] { 2 }, 1, false, 0);
+        final DataMessage persistent = this.store.store("persistent", new byte[] { 3 }, 1, false, 5);
+
+        assertTrue(telemetry.getId() < 0);
+        assertTrue(birth.getId() < 0);
+        assertEquals(1, persistent.getId());
+        verify(this.persistentStore, times(1)).store(anyString(), anyObject(), anyInt(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    public void testMemoryLaneIsDrainedAheadByPriority() throws Exception {
+        when(this.persistentStore.getNextMessages(anyInt())).thenReturn(
+                Arrays.asList(new DataMessage.Builder(1).withTopic("persistent/high").withPriority(5).build(),
+                        new DataMessage.Builder(2).withTopic("persistent/low").withPriority(9).build()));
+
+        this.store.store("birth", null, 1, false, 0);
+        this.store.store("telemetry", null, 0, false, 7);
+
+        final List<DataMessage> next = this.store.getNextMessages(10);
+
+        assertEquals(4, next.size());
+        assertEquals("birth", next.get(0).getTopic());
+        assertEquals("persistent/high", next.get(1).getTopic());
+        assertEquals("telemetry", next.get(2).getTopic());
+        assertEquals("persistent/low", next.get(3).getTopic());
+
+        // a priority 0 message cannot be preceded by stored messages
+        assertEquals("birth", this.store.getNextMessage().getTopic());
+        verify(this.persistentStore, never()).getNextMessage();
+    }
+
+    @Test
+    public void testMemoryLaneMessageLifecycle() throws Exception {
+        when(this.persistentStore.getNextMessages(anyInt())).thenReturn(Collections.emptyList());
+
+        final DataMessage telemetry = this.store.store("telemetry", null, 0, false, 7);
+        final DataMessage birth = this.store.store("birth", null, 1, false, 0);
+
+        this.store.published(Arrays.asList(new DataMessage.Builder(telemetry.getId()).build(),
+                new DataMessage.Builder(birth.getId()).withPublishedMessageId(10).withSessionId("session").build()));
+
+        assertTrue(this.store.getNextMessages(10).isEmpty());
+        assertNull(this.store.get(telemetry.getId()));
+        assertEquals(1, this.store.allInFlightMessagesNoPayload().size());
+
+        this.store.unpublishAllInFlighMessages();
+        assertEquals(1, this.store.allUnpublishedMessagesNoPayload().size());
+
+        this.store.published(birth.getId(), 11, "session");
+        assertEquals("birth", this.store.get(birth.getId()).getTopic());
+        this.store.confirmed(birth.getId());
+
+        assertNull(this.store.get(birth.getId()));
+        verify(this.persistentStore, never()).published(any(List.class));
+        verify(this.persistentStore, never()).confirmed(anyInt());
+    }
+
+    @Test
+    public void testFullMemoryLaneFallsBackToPersistentStore() throws Exception {
+        when(this.persistentStore.store(any(List.class))).thenAnswer(invocation -> {
+            final List<DataMessage> messages = (List<DataMessage>) invocation.getArguments()[0];
+            assertEquals(1, messages.size());
+            return Collections.singletonList(new DataMessage.Builder(1).withTopic(messages.get(0).getTopic()).build());
+        });
+
+        final List<DataMessage> stored = this.store
+                .store(Arrays.asList(new DataMessage.Builder(0).withTopic("a").build(),
+                        new DataMessage.Builder(0).withTopic("b").build(),
+                        new DataMessage.Builder(0).withTopic("c").build()));
+
+        assertEquals(3, stored.size());
+        assertTrue(stored.get(0).getId() < 0);
+        assertTrue(stored.get(1).getId() < 0);
+        assertEquals(1, stored.get(2).getId());
+        assertEquals("c", stored.get(2).getTopic());
+    }
+
+    @Test
+    public void testMemoryLaneIdsSkipMinusOne() throws Exception {
+        // -1 is the "no message" value of the message ID trackers
+
+        final DataMessage first = this.store.store("birth", null, 0, false, 0);
+        assertEquals(-2, first.getId());
+        this.store.published(first.getId());
+
+        TestUtil.setFieldValue(this.store, "nextId", Integer.MIN_VALUE);
+
+        assertEquals(Integer.MIN_VALUE, this.store.store("a", null, 0, false, 0).getId());
+        assertEquals(-2, this.store.store("b", null, 0, false, 0).getId());
+    }
+}
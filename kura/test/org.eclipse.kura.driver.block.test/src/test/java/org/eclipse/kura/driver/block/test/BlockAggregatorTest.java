@@ -110,12 +110,32 @@ public class BlockAggregatorTest {
         new TestHelper().setInput(0, 1, 2, 3, 8, 9).prohibit(4, 7).expect(0, 3, 8, 9).setMinimumGapSize(10).exec();
     }
 
+    @Test
+    public void shouldAggregateAccordingToMaximumBlockSize() {
+        new TestHelper().setInput(0, 2, 2, 4, 4, 6, 6, 8).expect(0, 4, 4, 8).setMaximumBlockSize(4).exec();
+        new TestHelper().setInput(0, 2, 2, 4, 4, 6, 6, 8).expect(0, 6, 6, 8).setMaximumBlockSize(7).exec();
+        new TestHelper().setInput(0, 2, 3, 5, 6, 8).expect(0, 5, 6, 8).setMinimumGapSize(2).setMaximumBlockSize(5)
+                .exec();
+        new TestHelper().setInput(0, 10, 10, 12).expect(0, 10, 10, 12).setMaximumBlockSize(4).exec();
+    }
+
+    @Test
+    public void shouldAlwaysAggregateOverlappingBlocksWithMaximumBlockSize() {
+        new TestHelper().setInput(0, 4, 2, 6, 6, 8).expect(0, 6, 6, 8).setMaximumBlockSize(4).exec();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeMaximumBlockSize() {
+        new TestHelper().setInput(0, 1).setMaximumBlockSize(-1).exec();
+    }
+
     private static class TestHelper {
 
         private int[] inputBlocks;
         private int[] prohibitedBlocks;
         private int[] outputBlocks;
         private int minimumGapSize;
+        private int maximumBlockSize;
         BlockAggregator<Block> aggregator;
 
         private TestHelper() {
@@ -142,6 +162,11 @@ public class BlockAggregatorTest {
             return (this);
         }
 
+        public TestHelper setMaximumBlockSize(int maximumBlockSize) {
+            this.maximumBlockSize = maximumBlockSize;
+            return this;
+        }
+
         public TestHelper prohibit(int... prohibitedBlocks) {
             if (prohibitedBlocks.length % 2 != 0) {
                 fail("block list size must be a multiple of 2");
@@ -165,6 +190,7 @@ public class BlockAggregatorTest {
             }
             aggregator = new BlockAggregator<Block>(inputBlocksTemp, (start, end) -> new Block(start, end));
             aggregator.setMinimumGapSize(minimumGapSize);
+            aggregator.setMaximumBlockSize(maximumBlockSize);
             Iterator<Block> blocks = aggregator.stream().iterator();
 
             if (outputBlocks != null) {
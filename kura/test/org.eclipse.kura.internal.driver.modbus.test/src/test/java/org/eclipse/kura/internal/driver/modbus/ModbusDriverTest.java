@@ -0,0 +1,592 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ * 
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ * 
+ * SPDX-License-Identifier: EPL-2.0
+ * 
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.driver.modbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kura.KuraConnectionStatus;
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.driver.PreparedRead;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDevice;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolDeviceService;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolErrorCode;
+import org.eclipse.kura.protocol.modbus.ModbusProtocolException;
+import org.eclipse.kura.protocol.modbus.ModbusReadRequest;
+import org.eclipse.kura.protocol.modbus.ModbusReadResult;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.TypedValues;
+import org.junit.Test;
+
+public class ModbusDriverTest {
+
+    /**
+     * Performs the batches of read requests with the default implementation, that uses the single read methods.
+     */
+    abstract static class SequentialDevice implements ModbusProtocolDeviceService {
+
+        @Override
+        public List<ModbusReadResult> read(List<ModbusReadRequest> requests) {
+            return ModbusProtocolDeviceService.super.read(requests);
+        }
+    }
+
+    private static ModbusProtocolDeviceService mockDevice() {
+        final ModbusProtocolDeviceService device = mock(SequentialDevice.class);
+        when(device.read(anyObject())).thenCallRealMethod();
+        return device;
+    }
+
+    private static ModbusDriver createTestDriver(final ModbusProtocolDeviceService device,
+            final Map<String, Object> properties) {
+        when(device.getConnectStatus()).thenReturn(KuraConnectionStatus.CONNECTED);
+
+        final ModbusDriver driver = new ModbusDriver() {
+
+            @Override
+            protected ModbusProtocolDeviceService createDevice(ModbusOptions options) {
+                return device;
+            }
+        };
+        driver.activate(properties);
+        return driver;
+    }
+
+    private static ChannelRecord createReadRecord(int unitId, ModbusTable table, int address, ModbusDataType type,
+            DataType valueType) {
+        final ChannelRecord record = ChannelRecord.createReadRecord("channel" + address, valueType);
+        record.setChannelConfig(createChannelConfig(unitId, table, address, type));
+        return record;
+    }
+
+    private static Map<String, Object> createChannelConfig(int unitId, ModbusTable table, int address,
+            ModbusDataType type) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put(ModbusChannelDescriptor.UNIT_ID, unitId);
+        config.put(ModbusChannelDescriptor.PRIMARY_TABLE_ID, table.name());
+        config.put(ModbusChannelDescriptor.MEMORY_ADDRESS_ID, address);
+        config.put(ModbusChannelDescriptor.MODBUS_DATA_TYPE_ID, type.name());
+        return config;
+    }
+
+    @Test
+    public void testReadAggregatesConsecutiveRegisters() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 4)).thenReturn(new int[] { 0x0001, 0xffff, 0x0001, 0x0002 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 2, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 3, ModbusDataType.INT32, DataType.INTEGER));
+
+        driver.read(records);
+
+        verify(device, times(1)).readHoldingRegisters(anyInt(), anyInt(), anyInt());
+        assertEquals(1, records.get(0).getValue().getValue());
+        assertEquals(-1, records.get(1).getValue().getValue());
+        assertEquals(0x00010002, records.get(2).getValue().getValue());
+    }
+
+    @Test
+    public void testReadDoesNotAggregateDifferentDomains() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1)).thenReturn(new int[] { 1 });
+        when(device.readHoldingRegisters(2, 1, 1)).thenReturn(new int[] { 2 });
+        when(device.readInputRegisters(1, 1, 1)).thenReturn(new int[] { 3 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 2, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.INPUT_REGISTERS, 2, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        assertEquals(1, records.get(0).getValue().getValue());
+        assertEquals(2, records.get(1).getValue().getValue());
+        assertEquals(3, records.get(2).getValue().getValue());
+    }
+
+    @Test
+    public void testReadPerformsRequestsAsBatch() throws Exception {
+        final ModbusProtocolDeviceService device = mock(ModbusProtocolDeviceService.class);
+        final List<List<ModbusReadRequest>> batches = new ArrayList<>();
+        when(device.read(anyObject())).thenAnswer(invocation -> {
+            final List<ModbusReadRequest> requests = invocation.getArgumentAt(0, List.class);
+            batches.add(requests);
+            final List<ModbusReadResult> results = new ArrayList<>();
+            for (ModbusReadRequest request : requests) {
+                results.add(ModbusReadResult.registers(request, new int[] { request.getUnitAddr() }));
+            }
+            return results;
+        });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(3, ModbusTable.INPUT_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        verify(device, never()).readHoldingRegisters(anyInt(), anyInt(), anyInt());
+        verify(device, never()).readInputRegisters(anyInt(), anyInt(), anyInt());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).getValue().getValue());
+        }
+    }
+
+    @Test
+    public void testReadBatchWithInvalidAddress() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1)).thenReturn(new int[] { 1 });
+        when(device.readHoldingRegisters(1, 9, 1))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS));
+        when(device.readInputRegisters(1, 0, 1)).thenReturn(new int[] { 3 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 10, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.INPUT_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        // only the channel with the invalid address fails, the connection is kept
+        assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.SUCCESS, records.get(2).getChannelStatus().getChannelFlag());
+        assertEquals(3, records.get(2).getValue().getValue());
+        verify(device, never()).disconnect();
+    }
+
+    @Test
+    public void testReadBatchWithTransactionFailure() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS));
+        when(device.readHoldingRegisters(2, 0, 1))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.TRANSACTION_FAILURE));
+        when(device.readHoldingRegisters(3, 0, 1)).thenReturn(new int[] { 3 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(3, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        // the transaction failure causes a disconnection, regardless of the position of the invalid address failure
+        assertEquals(ChannelFlag.FAILURE, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.SUCCESS, records.get(2).getChannelStatus().getChannelFlag());
+        verify(device, times(1)).disconnect();
+    }
+
+    @Test
+    public void testIllegalAddressOverTcp() throws Exception {
+        try (TcpSlave slave = new TcpSlave()) {
+            final Map<String, Object> properties = new HashMap<>();
+            properties.put("ip.address", "127.0.0.1");
+            properties.put("port", slave.getPort());
+            final ModbusDriver driver = new ModbusDriver();
+            driver.activate(properties);
+
+            for (int i = 0; i < 2; i++) {
+                final List<ChannelRecord> records = Arrays.asList(
+                        createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 6, ModbusDataType.INT16, DataType.INTEGER),
+                        createReadRecord(1, ModbusTable.HOLDING_REGISTERS, TcpSlave.ILLEGAL_ADDRESS + 1,
+                                ModbusDataType.INT16, DataType.INTEGER));
+
+                driver.read(records);
+
+                assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+                assertEquals(5, records.get(0).getValue().getValue());
+                assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+            }
+
+            // the exception response does not cause a reconnection
+            assertEquals(1, slave.getConnectionCount());
+            driver.deactivate();
+        }
+    }
+
+    @Test
+    public void testSerialReadBatchWithSilentUnit() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1)).thenReturn(new int[] { 1 });
+        when(device.readHoldingRegisters(2, 0, 1))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT));
+        when(device.readHoldingRegisters(3, 0, 1)).thenReturn(new int[] { 3 });
+
+        final ModbusDriver driver = createTestDriver(device,
+                Collections.singletonMap("connection.type", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL));
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(3, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        // the other units responded, the serial port is kept open
+        assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.SUCCESS, records.get(2).getChannelStatus().getChannelFlag());
+        verify(device, never()).disconnect();
+    }
+
+    @Test
+    public void testSerialReadBatchWithoutResponses() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(anyInt(), anyInt(), anyInt()))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT));
+
+        final ModbusDriver driver = createTestDriver(device,
+                Collections.singletonMap("connection.type", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL));
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        assertEquals(ChannelFlag.FAILURE, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        verify(device, times(1)).disconnect();
+    }
+
+    @Test
+    public void testTcpReadBatchWithSilentUnit() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1)).thenReturn(new int[] { 1 });
+        when(device.readHoldingRegisters(2, 0, 1))
+                .thenThrow(new ModbusProtocolException(ModbusProtocolErrorCode.RESPONSE_TIMEOUT));
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER),
+                createReadRecord(2, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.INT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        assertEquals(ChannelFlag.SUCCESS, records.get(0).getChannelStatus().getChannelFlag());
+        assertEquals(ChannelFlag.FAILURE, records.get(1).getChannelStatus().getChannelFlag());
+        verify(device, times(1)).disconnect();
+    }
+
+    @Test
+    public void testReadRespectsMinimumGapSize() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 5)).thenReturn(new int[] { 1, 0, 0, 0, 5 });
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("read.minimum.gap.size", 4);
+
+        final ModbusDriver driver = createTestDriver(device, properties);
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 1, ModbusDataType.UINT16, DataType.INTEGER),
+                createReadRecord(1, ModbusTable.HOLDING_REGISTERS, 5, ModbusDataType.UINT16, DataType.INTEGER));
+
+        driver.read(records);
+
+        verify(device, times(1)).readHoldingRegisters(anyInt(), anyInt(), anyInt());
+        assertEquals(1, records.get(0).getValue().getValue());
+        assertEquals(5, records.get(1).getValue().getValue());
+    }
+
+    @Test
+    public void testReadSplitsRequestsExceedingMaximumRegisterCount() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 125)).thenReturn(new int[125]);
+        when(device.readHoldingRegisters(1, 125, 5)).thenReturn(new int[5]);
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = new ArrayList<>();
+        for (int i = 1; i <= 130; i++) {
+            records.add(
+                    createReadRecord(1, ModbusTable.HOLDING_REGISTERS, i, ModbusDataType.INT16, DataType.INTEGER));
+        }
+
+        driver.read(records);
+
+        verify(device, times(1)).readHoldingRegisters(1, 0, 125);
+        verify(device, times(1)).readHoldingRegisters(1, 125, 5);
+        for (ChannelRecord record : records) {
+            assertEquals(ChannelFlag.SUCCESS, record.getChannelStatus().getChannelFlag());
+        }
+    }
+
+    @Test
+    public void testReadCoils() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readCoils(1, 9, 3)).thenReturn(new boolean[] { true, false, true });
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("max.coils.per.request", 3);
+
+        final ModbusDriver driver = createTestDriver(device, properties);
+
+        final List<ChannelRecord> records = Arrays.asList(
+                createReadRecord(1, ModbusTable.COILS, 10, ModbusDataType.INT16, DataType.BOOLEAN),
+                createReadRecord(1, ModbusTable.COILS, 11, ModbusDataType.INT16, DataType.BOOLEAN),
+                createReadRecord(1, ModbusTable.COILS, 12, ModbusDataType.INT16, DataType.BOOLEAN));
+
+        driver.read(records);
+
+        assertEquals(true, records.get(0).getValue().getValue());
+        assertEquals(false, records.get(1).getValue().getValue());
+        assertEquals(true, records.get(2).getValue().getValue());
+    }
+
+    @Test
+    public void testPreparedRead() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readInputRegisters(1, 0, 2)).thenReturn(new int[] { 0x4048, 0xf5c3 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = Collections.singletonList(
+                createReadRecord(1, ModbusTable.INPUT_REGISTERS, 1, ModbusDataType.FLOAT, DataType.FLOAT));
+
+        try (PreparedRead preparedRead = driver.prepareRead(records)) {
+            preparedRead.execute();
+            preparedRead.execute();
+        }
+
+        verify(device, times(2)).read(anyObject());
+        verify(device, times(2)).readInputRegisters(1, 0, 2);
+        assertEquals(3.14f, (Float) records.get(0).getValue().getValue(), 0.001f);
+    }
+
+    @Test
+    public void testWriteRegisterBit() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+        when(device.readHoldingRegisters(1, 0, 1)).thenReturn(new int[] { 0x00f0 });
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final Map<String, Object> config = createChannelConfig(1, ModbusTable.HOLDING_REGISTERS, 1,
+                ModbusDataType.BIT);
+        config.put(ModbusChannelDescriptor.BIT_INDEX_ID, 9);
+        final ChannelRecord record = ChannelRecord.createWriteRecord("bit", TypedValues.newBooleanValue(true));
+        record.setChannelConfig(config);
+
+        driver.write(Collections.singletonList(record));
+
+        verify(device, times(1)).writeSingleRegister(1, 0, 0x02f0);
+    }
+
+    @Test
+    public void testWriteCoils() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final ChannelRecord record = ChannelRecord.createWriteRecord("coil" + i,
+                    TypedValues.newBooleanValue(i != 2));
+            record.setChannelConfig(createChannelConfig(1, ModbusTable.COILS, i, ModbusDataType.INT16));
+            records.add(record);
+        }
+
+        driver.write(records);
+
+        verify(device, times(1)).writeMultipleCoils(1, 0, new boolean[] { true, false, true });
+        verify(device, never()).writeSingleCoil(anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void testWriteToReadOnlyTableFails() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final ChannelRecord record = ChannelRecord.createWriteRecord("input", TypedValues.newIntegerValue(1));
+        record.setChannelConfig(createChannelConfig(1, ModbusTable.INPUT_REGISTERS, 1, ModbusDataType.INT16));
+
+        driver.write(Collections.singletonList(record));
+
+        assertEquals(ChannelFlag.FAILURE, record.getChannelStatus().getChannelFlag());
+        verify(device, never()).writeSingleRegister(anyInt(), anyInt(), anyInt());
+        verify(device, never()).writeMultipleRegister(anyInt(), anyInt(), any(int[].class));
+    }
+
+    @Test
+    public void testWriteSplitsRequestsExceedingMaximumRegisterCount() throws Exception {
+        final ModbusProtocolDeviceService device = mockDevice();
+
+        final ModbusDriver driver = createTestDriver(device, Collections.emptyMap());
+
+        final List<ChannelRecord> records = new ArrayList<>();
+        for (int i = 1; i <= 124; i++) {
+            final ChannelRecord record = ChannelRecord.createWriteRecord("register" + i,
+                    TypedValues.newIntegerValue(i));
+            record.setChannelConfig(createChannelConfig(1, ModbusTable.HOLDING_REGISTERS, i, ModbusDataType.INT16));
+            records.add(record);
+        }
+
+        driver.write(records);
+
+        final int[] expected = new int[123];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i + 1;
+        }
+        verify(device, times(1)).writeMultipleRegister(eq(1), eq(0), eq(expected));
+        verify(device, times(1)).writeSingleRegister(1, 123, 124);
+    }
+
+    @Test
+    public void testOptions() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("max.registers.per.request", 1000);
+        properties.put("max.coils.per.request", 0);
+
+        final ModbusOptions options = new ModbusOptions(properties);
+
+        assertEquals(125, options.getMaxReadRegisters());
+        assertEquals(123, options.getMaxWriteRegisters());
+        assertEquals(1, options.getMaxReadCoils());
+        assertEquals("502", options.toConnectionConfig().getProperty("ethport"));
+        assertEquals("TCP/IP", options.toConnectionConfig().getProperty("connectionType"));
+        assertEquals("1", options.toConnectionConfig().getProperty("maxPendingTransactions"));
+    }
+
+    @Test
+    public void testMaxPendingTransactionsOption() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("max.pending.transactions", 8);
+
+        assertEquals(8, new ModbusOptions(properties).getMaxPendingTransactions());
+        assertEquals("8", new ModbusOptions(properties).toConnectionConfig().getProperty("maxPendingTransactions"));
+
+        properties.put("max.pending.transactions", 0);
+        assertEquals(1, new ModbusOptions(properties).getMaxPendingTransactions());
+
+        properties.put("connection.type", "RS232");
+        assertNull(new ModbusOptions(properties).toConnectionConfig().getProperty("maxPendingTransactions"));
+    }
+
+    /**
+     * A MODBUS-TCP slave whose holding registers contain their address, reading from {@link #ILLEGAL_ADDRESS} onwards
+     * produces an illegal data address exception response.
+     */
+    private static final class TcpSlave implements Closeable {
+
+        static final int ILLEGAL_ADDRESS = 100;
+
+        private final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        private final AtomicInteger connectionCount = new AtomicInteger();
+        private final Thread thread = new Thread(this::serve, "TcpSlave");
+
+        TcpSlave() throws IOException {
+            this.thread.start();
+        }
+
+        int getPort() {
+            return this.serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return this.connectionCount.get();
+        }
+
+        private void serve() {
+            while (!this.serverSocket.isClosed()) {
+                try (Socket socket = this.serverSocket.accept();
+                        DataInputStream in = new DataInputStream(socket.getInputStream());
+                        OutputStream out = socket.getOutputStream()) {
+                    this.connectionCount.incrementAndGet();
+                    while (true) {
+                        final byte[] request = new byte[12];
+                        in.readFully(request);
+                        out.write(handleRequest(request));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // connection closed
+                }
+            }
+        }
+
+        private static byte[] handleRequest(final byte[] request) {
+            final int address = (request[8] & 0xff) << 8 | request[9] & 0xff;
+            final int count = (request[10] & 0xff) << 8 | request[11] & 0xff;
+            final byte[] response;
+
+            if (request[7] != 3 || address + count > ILLEGAL_ADDRESS) {
+                response = new byte[9];
+                response[7] = (byte) (request[7] | 0x80);
+                response[8] = (byte) (request[7] != 3 ? 1 : 2);
+            } else {
+                response = new byte[9 + count * 2];
+                response[7] = 3;
+                response[8] = (byte) (count * 2);
+                for (int i = 0; i < count; i++) {
+                    response[9 + i * 2] = (byte) (address + i >> 8);
+                    response[10 + i * 2] = (byte) (address + i);
+                }
+            }
+            // transaction id, protocol id, length and unit id
+            System.arraycopy(request, 0, response, 0, 4);
+            response[4] = (byte) (response.length - 6 >> 8);
+            response[5] = (byte) (response.length - 6);
+            response[6] = request[6];
+            return response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.internal.driver.opcua;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.kura.channel.ChannelFlag;
+import org.eclipse.kura.channel.ChannelRecord;
+import org.eclipse.kura.crypto.CryptoService;
+import org.eclipse.kura.internal.driver.opcua.request.ReadParams;
+import org.eclipse.kura.internal.driver.opcua.request.Request;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.milo.opcua.sdk.client.OpcUaClient;
+import org.eclipse.milo.opcua.stack.core.types.builtin.DataValue;
+import org.eclipse.milo.opcua.stack.core.types.builtin.StatusCode;
+import org.eclipse.milo.opcua.stack.core.types.builtin.Variant;
+import org.eclipse.milo.opcua.stack.core.types.builtin.unsigned.UInteger;
+import org.eclipse.milo.opcua.stack.core.types.enumerated.TimestampsToReturn;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadResponse;
+import org.eclipse.milo.opcua.stack.core.types.structured.ReadValueId;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ConnectionManagerTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger pendingReads = new AtomicInteger();
+    private final AtomicInteger maxPendingReads = new AtomicInteger();
+    private final List<Integer> readSizes = new ArrayList<>();
+
+    @After
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentRead() throws Exception {
+        OpcUaClient client = mockClient(false);
+        ConnectionManager manager = createManager(client, 2, 2, false);
+
+        List<ChannelRecord> records = createRecords(1, 2, 3, 4, 5);
+        manager.read(Request.extractReadRequests(records));
+
+        verify(client, times(3)).read(Mockito.eq(0.0), Mockito.eq(TimestampsToReturn.Both), anyObject());
+        assertEquals(2, this.maxPendingReads.get());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(ChannelFlag.SUCCESS, records.get(i).getChannelStatus().getChannelFlag());
+            assertEquals(i + 1, records.get(i).getValue().getValue());
+        }
+    }
+
+    @Test
+    public void testConcurrentReadFailure() throws Exception {
+        OpcUaClient client = mockClient(true);
+        AtomicInteger failures = new AtomicInteger();
+        ConnectionManager manager = new ConnectionManager(client, createOptions(1, 4, false),
+                (m, ex) -> failures.incrementAndGet(), new ListenerRegistrationRegistry(),
+                new ListenerRegistrationRegistry());
+
+        try {
+            manager.read(Request.extractReadRequests(createRecords(1, 2, 3)));
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertEquals(1, failures.get());
+        }
+    }
+
+    @Test
+    public void testConcurrentReadChunkTimeout() throws Exception {
+        // the first chunk never completes, the other sequence needs 1200 ms per chunk
+        List<CompletableFuture<ReadResponse>> reads = new ArrayList<>();
+        OpcUaClient client = mockClient(1, 1200, reads);
+        ConnectionManager manager = createManager(client, 1, 2, false);
+
+        // 4 chunks, 2 chunks per sequence, the read times out after 2 s
+        List<ChannelRecord> records = createRecords(1, 2, 3, 4);
+        try {
+            manager.read(Request.extractReadRequests(records));
+            fail("Exception expected");
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        // without cancellation the response for the third chunk would fill its record and the fourth chunk would be
+        // sent at about 2400 ms
+        Thread.sleep(800);
+
+        synchronized (reads) {
+            assertEquals(3, reads.size());
+            assertTrue(reads.get(0).isCancelled());
+            assertTrue(reads.get(2).isCancelled());
+        }
+        assertEquals(ChannelFlag.SUCCESS, records.get(1).getChannelStatus().getChannelFlag());
+        assertNull(records.get(2).getValue());
+        assertNull(records.get(3).getValue());
+    }
+
+    @Test
+    public void testDeduplicatedRead() throws Exception {
+        OpcUaClient client = mockClient(false);
+        ConnectionManager manager = createManager(client, 10, 1, true);
+
+        List<ChannelRecord> records = createRecords(1, 2, 1, 3, 2);
+        manager.read(Request.extractReadRequests(records));
+
+        synchronized (this.readSizes) {
+            assertEquals(1, this.readSizes.size());
+            assertEquals(3, (int) this.readSizes.get(0));
+        }
+        int[] expected = { 1, 2, 1, 3, 2 };
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(ChannelFlag.SUCCESS, records.get(i).getChannelStatus().getChannelFlag());
+            assertEquals(expected[i], records.get(i).getValue().getValue());
+        }
+    }
+
+    @Test
+    public void testDeduplicationDisabled() throws Exception {
+        OpcUaClient client = mockClient(false);
+        ConnectionManager manager = createManager(client, 10, 1, false);
+
+        manager.read(Request.extractReadRequests(createRecords(1, 2, 1, 3, 2)));
+
+        synchronized (this.readSizes) {
+            assertEquals(1, this.readSizes.size());
+            assertEquals(5, (int) this.readSizes.get(0));
+        }
+    }
+
+    private ConnectionManager createManager(OpcUaClient client, int maxRequestItems, int maxOutstandingRequests,
+            boolean deduplicate) {
+        return new ConnectionManager(client, createOptions(maxRequestItems, maxOutstandingRequests, deduplicate),
+                (m, ex) -> {
+                }, new ListenerRegistrationRegistry(), new ListenerRegistrationRegistry());
+    }
+
+    private OpcUaOptions createOptions(int maxRequestItems, int maxOutstandingRequests, boolean deduplicate) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("request.timeout", 1);
+        properties.put("max.request.items", maxRequestItems);
+        properties.put("max.outstanding.read.requests", maxOutstandingRequests);
+        properties.put("read.deduplicate.nodes", deduplicate);
+
+        return new OpcUaOptions(properties, mock(CryptoService.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private OpcUaClient mockClient(boolean failing) {
+        OpcUaClient client = mock(OpcUaClient.class);
+
+        when(client.read(Mockito.eq(0.0), Mockito.eq(TimestampsToReturn.Both), anyObject())).thenAnswer(invocation -> {
+            List<ReadValueId> readValueIds = new ArrayList<>(invocation.getArgumentAt(2, List.class));
+            synchronized (this.readSizes) {
+                this.readSizes.add(readValueIds.size());
+            }
+
+            int pending = this.pendingReads.incrementAndGet();
+            this.maxPendingReads.accumulateAndGet(pending, Math::max);
+
+            CompletableFuture<ReadResponse> result = new CompletableFuture<>();
+            this.executor.schedule(() -> {
+                this.pendingReads.decrementAndGet();
+                if (failing) {
+                    result.completeExceptionally(new IllegalStateException("read failed"));
+                } else {
+                    result.complete(createResponse(readValueIds));
+                }
+            }, 20, TimeUnit.MILLISECONDS);
+
+            return result;
+        });
+
+        return client;
+    }
+
+    /**
+     * Returns a client that never completes the reads for the provided node and completes the other reads after the
+     * provided delay.
+     */
+    @SuppressWarnings("unchecked")
+    private OpcUaClient mockClient(int hangingNodeId, long delayMillis, List<CompletableFuture<ReadResponse>> reads) {
+        OpcUaClient client = mock(OpcUaClient.class);
+
+        when(client.read(Mockito.eq(0.0), Mockito.eq(TimestampsToReturn.Both), anyObject())).thenAnswer(invocation -> {
+            List<ReadValueId> readValueIds = new ArrayList<>(invocation.getArgumentAt(2, List.class));
+
+            CompletableFuture<ReadResponse> result = new CompletableFuture<>();
+            synchronized (reads) {
+                reads.add(result);
+            }
+
+            UInteger id = (UInteger) readValueIds.get(0).getNodeId().getIdentifier();
+            if (id.intValue() != hangingNodeId) {
+                this.executor.schedule(() -> result.complete(createResponse(readValueIds)), delayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+
+            return result;
+        });
+
+        return client;
+    }
+
+    private static ReadResponse createResponse(List<ReadValueId> readValueIds) {
+        DataValue[] results = new DataValue[readValueIds.size()];
+        for (int i = 0; i < results.length; i++) {
+            UInteger id = (UInteger) readValueIds.get(i).getNodeId().getIdentifier();
+            results[i] = new DataValue(new Variant(id.intValue()), StatusCode.GOOD);
+        }
+        return new ReadResponse(null, results, null);
+    }
+
+    private static List<ChannelRecord> createRecords(int... nodeIds) {
+        List<ChannelRecord> records = new ArrayList<>();
+        for (int i = 0; i < nodeIds.length; i++) {
+            ChannelRecord record = ChannelRecord.createReadRecord("ch" + i, DataType.INTEGER);
+            Map<String, Object> channelConfig = new HashMap<>();
+            channelConfig.put("node.namespace.index", "1");
+            channelConfig.put("node.id.type", "NUMERIC");
+            channelConfig.put("opcua.type", "DEFINED_BY_JAVA_TYPE");
+            channelConfig.put("node.id", Integer.toString(nodeIds[i]));
+            channelConfig.put("attribute", "Value");
+            record.setChannelConfig(channelConfig);
+            records.add(record);
+        }
+        return records;
+    }
+}
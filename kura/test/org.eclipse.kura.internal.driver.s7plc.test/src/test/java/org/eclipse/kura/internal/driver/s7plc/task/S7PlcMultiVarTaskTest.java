@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+package org.eclipse.kura.internal.driver.s7plc.task;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.kura.driver.Driver.ConnectionException;
+import org.eclipse.kura.driver.block.task.Mode;
+import org.eclipse.kura.internal.driver.s7plc.S7PlcDriver;
+import org.eclipse.kura.internal.driver.s7plc.S7PlcDriver.Moka7Exception;
+import org.eclipse.kura.internal.driver.s7plc.S7PlcDriverTest;
+import org.junit.Test;
+
+import Moka7.S7;
+import Moka7.S7Client;
+import Moka7.S7DataItem;
+
+public class S7PlcMultiVarTaskTest {
+
+    private static final int FAILING_DB = 7;
+    private static final int TCP_ERROR_DB = 8;
+
+    private final List<Integer> requestSizes = new ArrayList<>();
+
+    @Test
+    public void testReadSingleRequest() throws IOException, ConnectionException {
+        S7Client s7Mock = mockClient(240);
+        S7PlcDriver driver = createDriver(s7Mock);
+
+        S7PlcToplevelBlockTask task1 = new S7PlcToplevelBlockTask(driver, Mode.READ, 1, 0, 4);
+        S7PlcToplevelBlockTask task2 = new S7PlcToplevelBlockTask(driver, Mode.READ, 2, 10, 12);
+        S7PlcToplevelBlockTask task3 = new S7PlcToplevelBlockTask(driver, Mode.READ, 1, 100, 103);
+
+        new S7PlcMultiVarTask(driver, Mode.READ, Arrays.asList(task1, task2, task3)).run();
+
+        assertEquals(Collections.singletonList(3), this.requestSizes);
+        verify(s7Mock, never()).ReadArea(anyInt(), anyInt(), anyInt(), anyInt(), anyObject());
+        assertArrayEquals(new byte[] { 1, 1, 1, 1 }, task1.getBuffer().toArray());
+        assertArrayEquals(new byte[] { 2, 2 }, task2.getBuffer().toArray());
+        assertArrayEquals(new byte[] { 1, 1, 1 }, task3.getBuffer().toArray());
+    }
+
+    @Test
+    public void testReadSplitByPduLength() throws IOException, ConnectionException {
+        // each item takes 12 bytes in the request, a 40 bytes PDU fits two items
+        S7Client s7Mock = mockClient(40);
+        S7PlcDriver driver = createDriver(s7Mock);
+
+        List<S7PlcToplevelBlockTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new S7PlcToplevelBlockTask(driver, Mode.READ, i + 1, 0, 2));
+        }
+
+        new S7PlcMultiVarTask(driver, Mode.READ, tasks).run();
+
+        assertEquals(Arrays.asList(2, 2), this.requestSizes);
+        verify(s7Mock, times(1)).ReadArea(eq(S7.S7AreaDB), eq(5), eq(0), eq(2), anyObject());
+    }
+
+    @Test
+    public void testReadItemFailure() throws IOException, ConnectionException {
+        // an error on a single item only fails the corresponding task
+        S7Client s7Mock = mockClient(240);
+        S7PlcDriver driver = createDriver(s7Mock);
+
+        S7PlcToplevelBlockTask task1 = new S7PlcToplevelBlockTask(driver, Mode.READ, 1, 0, 2);
+        S7PlcToplevelBlockTask task2 = new S7PlcToplevelBlockTask(driver, Mode.READ, FAILING_DB, 0, 2);
+        S7PlcToplevelBlockTask task3 = new S7PlcToplevelBlockTask(driver, Mode.READ, 3, 0, 2);
+
+        try {
+            new S7PlcMultiVarTask(driver, Mode.READ, Arrays.asList(task1, task2, task3)).run();
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("DB: " + FAILING_DB));
+        }
+
+        assertArrayEquals(new byte[] { 1, 1 }, task1.getBuffer().toArray());
+        assertArrayEquals(new byte[] { 3, 3 }, task3.getBuffer().toArray());
+    }
+
+    @Test
+    public void testReadStopsAtTcpError() throws IOException, ConnectionException {
+        // a 40 bytes PDU fits two items, the first request has an item error and the second one a TCP error
+        S7Client s7Mock = mockClient(40);
+        S7PlcDriver driver = createDriver(s7Mock);
+
+        List<S7PlcToplevelBlockTask> tasks = new ArrayList<>();
+        for (int db : new int[] { 1, FAILING_DB, 3, TCP_ERROR_DB, 5, 6 }) {
+            tasks.add(spy(new S7PlcToplevelBlockTask(driver, Mode.READ, db, 0, 2)));
+        }
+
+        try {
+            new S7PlcMultiVarTask(driver, Mode.READ, tasks).run();
+            fail("Exception expected");
+        } catch (Moka7Exception e) {
+            // the TCP error is reported in place of the item error
+            assertEquals(S7Client.errTCPDataRecv, e.getStatusCode());
+            assertTrue(e.isConnectionProblem());
+        }
+
+        // the third request is not sent and its tasks are failed
+        assertEquals(Arrays.asList(2, 2), this.requestSizes);
+        verify(s7Mock, never()).ReadArea(anyInt(), anyInt(), anyInt(), anyInt(), anyObject());
+        assertArrayEquals(new byte[] { 1, 1 }, tasks.get(0).getBuffer().toArray());
+        verify(tasks.get(0), never()).onFailure(anyObject());
+        for (int i = 1; i < tasks.size(); i++) {
+            verify(tasks.get(i)).onFailure(anyObject());
+        }
+    }
+
+    @Test
+    public void testWrite() throws IOException, ConnectionException {
+        S7Client s7Mock = mockClient(240);
+        S7PlcDriver driver = createDriver(s7Mock);
+
+        S7PlcToplevelBlockTask task1 = new S7PlcToplevelBlockTask(driver, Mode.WRITE, 1, 0, 4);
+        S7PlcToplevelBlockTask task2 = new S7PlcToplevelBlockTask(driver, Mode.WRITE, 2, 0, 2);
+
+        new S7PlcMultiVarTask(driver, Mode.WRITE, Arrays.asList(task1, task2)).run();
+
+        assertEquals(Collections.singletonList(2), this.requestSizes);
+        verify(s7Mock, never()).WriteArea(anyInt(), anyInt(), anyInt(), anyInt(), anyObject());
+    }
+
+    @Test
+    public void testMaximumItemSize() {
+        assertEquals(221, S7PlcMultiVarTask.getMaximumItemSize(240, Mode.READ));
+        assertEquals(211, S7PlcMultiVarTask.getMaximumItemSize(240, Mode.WRITE));
+    }
+
+    private static S7PlcDriver createDriver(S7Client s7Mock) throws ConnectionException {
+        S7PlcDriver driver = S7PlcDriverTest.createTestDriver(s7Mock);
+        driver.activate(Collections.emptyMap());
+        driver.connect();
+        s7Mock.Connected = true;
+        return driver;
+    }
+
+    private S7Client mockClient(int pduLength) {
+        S7Client s7Mock = mock(S7Client.class);
+
+        when(s7Mock.PDULength()).thenReturn(pduLength);
+        when(s7Mock.ReadMultiVars(anyObject(), anyInt())).thenAnswer(invocation -> {
+            S7DataItem[] items = invocation.getArgumentAt(0, S7DataItem[].class);
+            int count = invocation.getArgumentAt(1, Integer.class);
+            this.requestSizes.add(count);
+
+            for (int i = 0; i < count; i++) {
+                if (items[i].DBNumber == TCP_ERROR_DB) {
+                    return S7Client.errTCPDataRecv;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                // each item is filled with its DB number
+                Arrays.fill(items[i].Data, (byte) items[i].DBNumber);
+                items[i].Result = items[i].DBNumber == FAILING_DB ? S7Client.errS7DataRead : 0;
+            }
+            return 0;
+        });
+        when(s7Mock.WriteMultiVars(anyObject(), anyInt())).thenAnswer(invocation -> {
+            S7DataItem[] items = invocation.getArgumentAt(0, S7DataItem[].class);
+            int count = invocation.getArgumentAt(1, Integer.class);
+            this.requestSizes.add(count);
+
+            for (int i = 0; i < count; i++) {
+                items[i].Result = 0;
+            }
+            return 0;
+        });
+
+        return s7Mock;
+    }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.kura.protocol.modbus.test.ModbusSerialSlave;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModbusProtocolDeviceSerialTest {
+
+    private ModbusSerialSlave slave;
+    private ModbusProtocolDevice modbusDevice;
+
+    @Before
+    public void connect() throws ModbusProtocolException {
+        slave = new ModbusSerialSlave();
+        modbusDevice = new ModbusProtocolDevice();
+        modbusDevice.setConnectionFactory(slave);
+
+        Properties connectionConfig = new Properties();
+        connectionConfig.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_SERIAL);
+        connectionConfig.setProperty("port", "/dev/null");
+        connectionConfig.setProperty("baudRate", "115200");
+        connectionConfig.setProperty("stopBits", "1");
+        connectionConfig.setProperty("parity", "0");
+        connectionConfig.setProperty("bitsPerWord", "8");
+        connectionConfig.setProperty("respTimeout", "200");
+        connectionConfig.setProperty("transmissionMode", ModbusTransmissionMode.RTU);
+        modbusDevice.configureConnection(connectionConfig);
+        modbusDevice.connect();
+    }
+
+    @After
+    public void disconnect() throws ModbusProtocolException {
+        modbusDevice.disconnect();
+    }
+
+    @Test
+    public void testReceiveTimeoutFromBaudRate() {
+        assertEquals(2, slave.getURI().getReceiveTimeout());
+    }
+
+    @Test
+    public void testReadHoldingRegisters() throws ModbusProtocolException {
+        int[] holdingRegs = modbusDevice.readHoldingRegisters(1, 20, 3);
+        assertEquals(3, holdingRegs.length);
+        assertEquals(20, holdingRegs[0]);
+        assertEquals(22, holdingRegs[2]);
+    }
+
+    @Test
+    public void testWriteSingleRegister() throws ModbusProtocolException {
+        modbusDevice.writeSingleRegister(1, 0, 37);
+        assertEquals(1, slave.getRequestCount(1));
+    }
+
+    @Test
+    public void testExceptionResponse() {
+        try {
+            modbusDevice.writeMultipleRegister(1, 0, new int[] { 1 });
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getCode());
+        }
+    }
+
+    @Test
+    public void testIllegalAddressResponse() throws ModbusProtocolException {
+        try {
+            modbusDevice.readHoldingRegisters(1, ModbusSerialSlave.ILLEGAL_ADDRESS, 1);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS, e.getCode());
+        }
+
+        assertEquals(5, modbusDevice.readHoldingRegisters(1, 5, 1)[0]);
+    }
+
+    @Test
+    public void testIllegalValueResponse() {
+        try {
+            modbusDevice.writeSingleRegister(1, 0, ModbusSerialSlave.ILLEGAL_VALUE);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.INVALID_DATA_TYPE, e.getCode());
+        }
+    }
+
+    @Test
+    public void testBadCrc() throws ModbusProtocolException {
+        try {
+            modbusDevice.readHoldingRegisters(ModbusSerialSlave.BAD_CRC_UNIT_ID, 0, 1);
+            fail("Exception expected");
+        } catch (ModbusProtocolException e) {
+            assertEquals(ModbusProtocolErrorCode.TRANSACTION_FAILURE, e.getCode());
+        }
+
+        assertEquals(10, modbusDevice.readInputRegisters(1, 0, 1)[0]);
+    }
+
+    @Test
+    public void testReadBatchSkipsSilentUnit() {
+        List<ModbusReadResult> results = modbusDevice.read(Arrays.asList(
+                ModbusReadRequest.readHoldingRegisters(1, 5, 1),
+                ModbusReadRequest.readHoldingRegisters(ModbusSerialSlave.SILENT_UNIT_ID, 0, 1),
+                ModbusReadRequest.readInputRegisters(2, 0, 2),
+                ModbusReadRequest.readCoils(ModbusSerialSlave.SILENT_UNIT_ID, 0, 8),
+                ModbusReadRequest.readCoils(2, 0, 10)));
+
+        assertEquals(5, results.size());
+        assertEquals(5, results.get(0).getRegisters()[0]);
+        assertFalse(results.get(1).isSuccessful());
+        assertEquals(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, results.get(1).getException().getCode());
+        assertEquals(10, results.get(2).getRegisters()[1]);
+        assertFalse(results.get(3).isSuccessful());
+        assertEquals(ModbusProtocolErrorCode.RESPONSE_TIMEOUT, results.get(3).getException().getCode());
+        assertEquals(10, results.get(4).getBits().length);
+        assertTrue(results.get(4).getBits()[9]);
+
+        // only the first request has been sent to the silent unit
+        assertEquals(1, slave.getRequestCount(ModbusSerialSlave.SILENT_UNIT_ID));
+    }
+}
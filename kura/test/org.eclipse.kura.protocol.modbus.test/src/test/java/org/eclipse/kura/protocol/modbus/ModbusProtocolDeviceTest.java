@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,17 @@
 package org.eclipse.kura.protocol.modbus;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 import org.eclipse.kura.KuraConnectionStatus;
+import org.eclipse.kura.protocol.modbus.test.ModbusHandler;
 import org.eclipse.kura.protocol.modbus.test.ModbusServer;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -53,14 +58,18 @@ public class ModbusProtocolDeviceTest {
     @Before
     public void connect() throws ModbusProtocolException {
         modbusDevice = new ModbusProtocolDevice();
+        modbusDevice.configureConnection(getConnectionConfig());
+        modbusDevice.connect();
+    }
+
+    private static Properties getConnectionConfig() {
         Properties connectionConfig = new Properties();
         connectionConfig.setProperty("connectionType", ModbusProtocolDevice.PROTOCOL_CONNECTION_TYPE_ETHER_TCP);
         connectionConfig.setProperty("ipAddress", "127.0.0.1");
         connectionConfig.setProperty("ethport", "32345");
         connectionConfig.setProperty("respTimeout", "10000");
         connectionConfig.setProperty("transmissionMode", ModbusTransmissionMode.RTU);
-        modbusDevice.configureConnection(connectionConfig);
-        modbusDevice.connect();
+        return connectionConfig;
     }
 
     @After
@@ -129,4 +138,87 @@ public class ModbusProtocolDeviceTest {
         assertEquals(10, inputRegs[0]);
     }
 
+    @Test
+    public void testReadBatch() throws ModbusProtocolException {
+        List<ModbusReadResult> results = modbusDevice.read(Arrays.asList(ModbusReadRequest.readCoils(1, 0, 1),
+                ModbusReadRequest.readHoldingRegisters(1, 0, 1), ModbusReadRequest.readInputRegisters(1, 8, 1)));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getBits()[0]);
+        assertEquals(2, results.get(1).getRegisters()[0]);
+        assertEquals(10, results.get(2).getRegisters()[0]);
+    }
+
+    @Test
+    public void testReadBatchPipelined() throws ModbusProtocolException {
+        reconnect("4");
+
+        // the response for unit 2 is sent by the server after the response for unit 1
+        List<ModbusReadResult> results = modbusDevice.read(Arrays.asList(
+                ModbusReadRequest.readHoldingRegisters(ModbusHandler.DEFERRED_UNIT_ID, 0, 1),
+                ModbusReadRequest.readInputRegisters(1, 8, 1), ModbusReadRequest.readDiscreteInputs(1, 1, 4),
+                ModbusReadRequest.readHoldingRegisters(1, 0, 1), ModbusReadRequest.readCoils(1, 0, 1)));
+
+        assertEquals(5, results.size());
+        for (ModbusReadResult result : results) {
+            assertTrue(result.isSuccessful());
+        }
+        assertEquals(ModbusHandler.DEFERRED_UNIT_ID, results.get(0).getRequest().getUnitAddr());
+        assertEquals(2, results.get(0).getRegisters()[0]);
+        assertEquals(10, results.get(1).getRegisters()[0]);
+        assertEquals(4, results.get(2).getBits().length);
+        assertTrue(results.get(2).getBits()[3]);
+        assertEquals(2, results.get(3).getRegisters()[0]);
+        assertTrue(results.get(4).getBits()[0]);
+    }
+
+    @Test
+    public void testReadBatchWithExceptionResponse() throws ModbusProtocolException {
+        reconnect("2");
+
+        List<ModbusReadResult> results = modbusDevice.read(Arrays.asList(
+                ModbusReadRequest.readHoldingRegisters(1, 0, 1),
+                ModbusReadRequest.readHoldingRegisters(1, ModbusHandler.ILLEGAL_ADDRESS, 1),
+                ModbusReadRequest.readInputRegisters(1, 8, 1)));
+
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).getRegisters()[0]);
+        assertFalse(results.get(1).isSuccessful());
+        assertEquals(ModbusProtocolErrorCode.INVALID_DATA_ADDRESS, results.get(1).getException().getCode());
+        assertNull(results.get(1).getRegisters());
+        assertEquals(10, results.get(2).getRegisters()[0]);
+
+        // the connection is still usable
+        assertEquals(2, modbusDevice.readHoldingRegisters(1, 0, 1)[0]);
+    }
+
+    @Test
+    public void testLateResponseIsSkipped() throws ModbusProtocolException {
+        // the timeout expires after the first part of the response has been received
+        reconnect("1", "500");
+
+        List<ModbusReadResult> results = modbusDevice
+                .read(Arrays.asList(ModbusReadRequest.readHoldingRegisters(ModbusHandler.SLOW_UNIT_ID, 0, 1)));
+        assertFalse(results.get(0).isSuccessful());
+
+        // the rest of the late response is received before the response to the next request
+        results = modbusDevice.read(Arrays.asList(ModbusReadRequest.readInputRegisters(1, 8, 1)));
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(10, results.get(0).getRegisters()[0]);
+        assertEquals(KuraConnectionStatus.CONNECTED, modbusDevice.getConnectStatus());
+    }
+
+    private void reconnect(String maxPendingTransactions) throws ModbusProtocolException {
+        reconnect(maxPendingTransactions, "10000");
+    }
+
+    private void reconnect(String maxPendingTransactions, String respTimeout) throws ModbusProtocolException {
+        modbusDevice.disconnect();
+        Properties connectionConfig = getConnectionConfig();
+        connectionConfig.setProperty("maxPendingTransactions", maxPendingTransactions);
+        connectionConfig.setProperty("respTimeout", respTimeout);
+        modbusDevice.configureConnection(connectionConfig);
+        modbusDevice.connect();
+    }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,16 +13,31 @@
 
 package org.eclipse.kura.protocol.modbus.test;
 
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Serves the MODBUS-TCP requests received on a connection until it is closed by the client.
+ * <p>
+ * The responses echo the transaction id of the request. The response to a request for unit id
+ * {@link #DEFERRED_UNIT_ID} is sent after the response to the next request, to simulate a device that processes
+ * pipelined requests in parallel. The response to a request for unit id {@link #SLOW_UNIT_ID} is split in two parts
+ * sent {@link #SLOW_RESPONSE_DELAY_MS} milliseconds apart. Reading holding registers starting from
+ * {@link #ILLEGAL_ADDRESS} produces an exception response.
+ */
 public class ModbusHandler extends Thread {
 
+    public static final int DEFERRED_UNIT_ID = 2;
+    public static final int SLOW_UNIT_ID = 3;
+    public static final int SLOW_RESPONSE_DELAY_MS = 700;
+    public static final int ILLEGAL_ADDRESS = 100;
+
     private static final Logger logger = LoggerFactory.getLogger(ModbusHandler.class);
 
     private Socket socket = null;
@@ -33,14 +48,49 @@ public class ModbusHandler extends Thread {
     }
 
     public void run() {
-        try (OutputStream out = socket.getOutputStream(); InputStream in = socket.getInputStream()) {
-            byte[] input = new byte[256];
-            int length = in.read(input);
-            byte[] output = handleRequest(input);
-            out.write(output);
+        try (OutputStream out = socket.getOutputStream();
+                DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            byte[] deferred = null;
+            while (true) {
+                byte[] input = new byte[260];
+                try {
+                    in.readFully(input, 0, 6);
+                } catch (EOFException e) {
+                    break;
+                }
+                int length = (input[4] & 0xff) << 8 | input[5] & 0xff;
+                in.readFully(input, 6, length);
+
+                byte[] output = handleRequest(input);
+                if (output.length > 0) {
+                    output[0] = input[0];
+                    output[1] = input[1];
+                }
+
+                if (input[6] == SLOW_UNIT_ID) {
+                    out.write(output, 0, 4);
+                    out.flush();
+                    Thread.sleep(SLOW_RESPONSE_DELAY_MS);
+                    out.write(output, 4, output.length - 4);
+                    out.flush();
+                    continue;
+                }
+                if (input[6] == DEFERRED_UNIT_ID && deferred == null) {
+                    deferred = output;
+                    continue;
+                }
+                out.write(output);
+                if (deferred != null) {
+                    out.write(deferred);
+                    deferred = null;
+                }
+                out.flush();
+            }
         } catch (IOException e) {
             logger.error("ModbusHandler", e);
             throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
             try {
                 socket.close();
@@ -51,31 +101,36 @@ public class ModbusHandler extends Thread {
     }
 
     private byte[] handleRequest(byte[] input) {
+        byte unit = input[6];
         byte command = input[7];
+        int address = (input[8] & 0xff) << 8 | input[9] & 0xff;
         switch (command) {
         case 1:
-            return new byte[] { 0, 1, 0, 0, 0, 4, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, };           // readColis
+            return new byte[] { 0, 1, 0, 0, 0, 4, unit, 1, 1, 1 };                 // readColis
         case 5:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 5, 0, 0, input[10], 0, 0, 0, 0 };             // writeSingleCoil
+            return new byte[] { 0, 1, 0, 0, 0, 6, unit, 5, 0, 0, input[10], 0 };   // writeSingleCoil
         case 15:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 15, 0, 1, 0, 5, 0, 0, 0, 0, 0 };              // writeMultiplecoils
+            return new byte[] { 0, 1, 0, 0, 0, 6, unit, 15, 0, 1, 0, 5 };          // writeMultiplecoils
         case 3:
-            return new byte[] { 0, 1, 0, 0, 0, 5, 1, 3, 2, 0, 2, 0, 0, 0, 0, 0, 0, 0 };            // readHoldingRegister
+            if (address >= ILLEGAL_ADDRESS) {
+                return new byte[] { 0, 1, 0, 0, 0, 3, unit, (byte) 0x83, 2 };     // illegal data address
+            }
+            return new byte[] { 0, 1, 0, 0, 0, 5, unit, 3, 2, 0, 2 };              // readHoldingRegister
         case 6:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 6, 0, 0, 0, input[11], 0, 0, 0 };             // wrieSingleRigister
+            return new byte[] { 0, 1, 0, 0, 0, 6, unit, 6, 0, 0, 0, input[11] };   // wrieSingleRigister
         case 16:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 16, 0, 0, 0, 4, 0, 0, 0, 0, 0, 0 };           // writeMultipleRegisters
+            return new byte[] { 0, 1, 0, 0, 0, 6, unit, 16, 0, 0, 0, 4 };          // writeMultipleRegisters
         case 2:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 2, 1, 127, 0, 0, 0, 0, 0, 0, 0, 0 };          // readDiscreteInputs
+            return new byte[] { 0, 1, 0, 0, 0, 4, unit, 2, 1, 127 };               // readDiscreteInputs
         case 4:
-            return new byte[] { 0, 1, 0, 0, 0, 6, 1, 4, 2, 0, 10, 0, 0, 0, 0, 0, 0, 0 };           // readInputRegisters
+            return new byte[] { 0, 1, 0, 0, 0, 5, unit, 4, 2, 0, 10 };             // readInputRegisters
         case 11:
-            return new byte[] {};                                                                  // getCommEventCouner
+            return new byte[] {};                                                  // getCommEventCouner
         case 7:
-            return new byte[] {};                                                                  // readExceptionStatus
+            return new byte[] {};                                                  // readExceptionStatus
         case 12:
-            return new byte[] {};                                                                  // getCommEventLog
+            return new byte[] {};                                                  // getCommEventLog
         }
         return new byte[] {};
     }
-}
\ No newline at end of file
+}
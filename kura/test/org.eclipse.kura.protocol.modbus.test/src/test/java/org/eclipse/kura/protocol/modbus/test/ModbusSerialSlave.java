@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ ******************************************************************************/
+
+package org.eclipse.kura.protocol.modbus.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.microedition.io.Connection;
+
+import org.eclipse.kura.comm.CommConnection;
+import org.eclipse.kura.comm.CommURI;
+import org.eclipse.kura.protocol.modbus.Crc16;
+import org.osgi.service.io.ConnectionFactory;
+
+/**
+ * Emulates a RS485 bus with Modbus RTU slaves, to be used as the {@link ConnectionFactory} of a
+ * ModbusProtocolDevice.
+ * <p>
+ * The input stream behaves like a serial port opened with a receive timeout: a read returns 0 if no data is received
+ * within the timeout. Holding registers contain their address, input registers contain 10, coils are set.
+ * Unit {@link #SILENT_UNIT_ID} never responds and unit {@link #BAD_CRC_UNIT_ID} responds with a wrong CRC. Reading
+ * holding registers starting from {@link #ILLEGAL_ADDRESS} produces an illegal data address exception response,
+ * writing {@link #ILLEGAL_VALUE} to a register produces an illegal data value exception response.
+ */
+public class ModbusSerialSlave implements ConnectionFactory, CommConnection {
+
+    public static final int SILENT_UNIT_ID = 3;
+    public static final int BAD_CRC_UNIT_ID = 4;
+    public static final int ILLEGAL_ADDRESS = 100;
+    public static final int ILLEGAL_VALUE = 0xffff;
+
+    private final ByteArrayOutputStream request = new ByteArrayOutputStream();
+    private final Map<Integer, Integer> requestCounts = new HashMap<>();
+
+    private byte[] pending = new byte[0];
+    private int pendingIndex;
+    private CommURI uri;
+
+    @Override
+    public Connection createConnection(String name, int mode, boolean timeouts) throws IOException {
+        try {
+            this.uri = CommURI.parseString(name);
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        return this;
+    }
+
+    public synchronized int getRequestCount(int unitId) {
+        return this.requestCounts.getOrDefault(unitId, 0);
+    }
+
+    @Override
+    public CommURI getURI() {
+        return this.uri;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+        return new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) > 0 ? b[0] & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return ModbusSerialSlave.this.read(b, off, len);
+            }
+
+            @Override
+            public int available() {
+                return ModbusSerialSlave.this.available();
+            }
+        };
+    }
+
+    @Override
+    public OutputStream openOutputStream() throws IOException {
+        return new OutputStream() {
+
+            @Override
+            public void write(int b) {
+                synchronized (ModbusSerialSlave.this) {
+                    ModbusSerialSlave.this.request.write(b);
+                }
+            }
+
+            @Override
+            public void flush() {
+                handleRequest();
+            }
+        };
+    }
+
+    @Override
+    public DataInputStream openDataInputStream() throws IOException {
+        return new DataInputStream(openInputStream());
+    }
+
+    @Override
+    public DataOutputStream openDataOutputStream() throws IOException {
+        return new DataOutputStream(openOutputStream());
+    }
+
+    @Override
+    public void sendMessage(byte[] message) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] sendCommand(byte[] command, int timeout) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] sendCommand(byte[] command, int timeout, int demark) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] flushSerialBuffer() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    private synchronized int available() {
+        return this.pending.length - this.pendingIndex;
+    }
+
+    private synchronized int read(byte[] b, int off, int len) {
+        long deadline = System.currentTimeMillis() + this.uri.getReceiveTimeout();
+        long remaining;
+        while (available() == 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+        int count = Math.min(len, available());
+        System.arraycopy(this.pending, this.pendingIndex, b, off, count);
+        this.pendingIndex += count;
+        return count;
+    }
+
+    private synchronized void handleRequest() {
+        byte[] frame = this.request.toByteArray();
+        this.request.reset();
+
+        if (frame.length < 4 || Crc16.getCrc16(frame, frame.length, 0xffff) != 0) {
+            return;
+        }
+
+        int unit = frame[0] & 0xff;
+        this.requestCounts.merge(unit, 1, Integer::sum);
+        if (unit == SILENT_UNIT_ID) {
+            return;
+        }
+
+        int address = (frame[2] & 0xff) << 8 | frame[3] & 0xff;
+        int count = (frame[4] & 0xff) << 8 | frame[5] & 0xff;
+        byte[] response;
+        switch (frame[1]) {
+        case 1:
+            response = new byte[3 + (count + 7) / 8];
+            Arrays.fill(response, 3, response.length, (byte) 0xff);
+            break;
+        case 3:
+        case 4:
+            if (frame[1] == 3 && address >= ILLEGAL_ADDRESS) {
+                response = new byte[] { 0, (byte) 0x83, 2 };
+                break;
+            }
+            response = new byte[3 + count * 2];
+            for (int i = 0; i < count; i++) {
+                int value = frame[1] == 3 ? address + i : 10;
+                response[3 + i * 2] = (byte) (value >> 8);
+                response[4 + i * 2] = (byte) value;
+            }
+            break;
+        case 6:
+            // the register value takes the place of the count
+            if (count == ILLEGAL_VALUE) {
+                response = new byte[] { 0, (byte) 0x86, 3 };
+                break;
+            }
+            response = Arrays.copyOf(frame, 6);
+            break;
+        default:
+            response = new byte[] { 0, (byte) (frame[1] | 0x80), 1 };
+        }
+        response[0] = frame[0];
+        if (frame[1] != 6 && (response[1] & 0x80) == 0) {
+            response[1] = frame[1];
+            response[2] = (byte) (response.length - 3);
+        }
+
+        int crc = Crc16.getCrc16(response, response.length, 0xffff);
+        if (unit == BAD_CRC_UNIT_ID) {
+            crc = ~crc;
+        }
+        this.pending = Arrays.copyOf(response, response.length + 2);
+        this.pending[response.length] = (byte) crc;
+        this.pending[response.length + 1] = (byte) (crc >> 8);
+        this.pendingIndex = 0;
+        notifyAll();
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.conditional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.Test;
+
+public class ConditionalExpressionTest {
+
+    private final WireEnvelope envelope;
+
+    public ConditionalExpressionTest() {
+        final Map<String, TypedValue<?>> first = new HashMap<>();
+        first.put("INT", TypedValues.newIntegerValue(5));
+        first.put("LONG", TypedValues.newLongValue(5L));
+        first.put("FLOAT", TypedValues.newFloatValue(1.5f));
+        first.put("STR", TypedValues.newStringValue("abc"));
+        first.put("NUMSTR", TypedValues.newStringValue("5"));
+        first.put("BOOL", TypedValues.newBooleanValue(true));
+
+        final Map<String, TypedValue<?>> second = new HashMap<>();
+        second.put("INT", TypedValues.newIntegerValue(6));
+
+        this.envelope = new WireEnvelope("emitter", Arrays.asList(new WireRecord(first), new WireRecord(second)));
+    }
+
+    @Test
+    public void testPrecedence() {
+        assertTrue("1 + 2 * 3 === 7");
+        assertTrue("(1 + 2) * 3 === 9");
+        assertTrue("10 - 4 - 3 === 3");
+        assertTrue("7 % 4 + 1 === 4");
+        assertTrue("-2 * -3 === 6");
+        assertTrue("true || false && false");
+        assertFalse("(true || false) && false");
+        assertFalse("!true && false");
+        assertTrue("!(true && false)");
+        assertTrue("1 < 2 == true");
+        assertTrue("1 + 1 === 2 && 2 > 1 || false");
+    }
+
+    @Test
+    public void testRecordValues() {
+        assertTrue("records[0].INT === 5");
+        assertTrue("records[0].LONG === 5");
+        assertTrue("records[0].FLOAT > 1.4 && records[0].FLOAT < 1.6");
+        assertTrue("records[0].STR === 'abc'");
+        assertTrue("records[0]['STR'].length === 3");
+        assertTrue("records[0].BOOL");
+        assertTrue("records[0].INT.getValue() === 5");
+        assertTrue("records[1].INT - records[0].INT === 1");
+        assertTrue("records.length === 2");
+        assertTrue("emitterPid === \"emitter\"");
+        assertTrue("input.records[1].INT === 6");
+        assertTrue("records[0].STR + records[0].INT === 'abc5'");
+        assertTrue("records[0].INT === 5;");
+    }
+
+    @Test
+    public void testNullValues() {
+        assertTrue("records[0].MISSING === null");
+        assertTrue("records[0].MISSING == undefined");
+        assertTrue("records[2] === null");
+        assertTrue("records[0].MISSING != 0");
+        assertFalse("records[0].MISSING == 0");
+        assertFalse("records[0].MISSING > 0");
+        assertFalse("records[0].MISSING <= 0");
+        assertFalse("records[0].MISSING");
+        assertTrue("!records[0].MISSING");
+    }
+
+    @Test
+    public void testStrictEquality() {
+        assertTrue("records[0].INT === records[0].LONG");
+        assertFalse("'5' === 5");
+        assertTrue("'5' !== 5");
+        assertFalse("true === 1");
+        assertFalse("records[0].NUMSTR === records[0].INT");
+        assertTrue("'abc' === 'abc'");
+        assertFalse("null === 0");
+    }
+
+    @Test
+    public void testLooseEquality() {
+        assertTrue("'5' == 5");
+        assertFalse("'5' != 5");
+        assertTrue("true == 1");
+        assertTrue("'' == 0");
+        assertTrue("' 1.0 ' == 1");
+        assertFalse("'5d' == 5");
+        assertFalse("'abc' == 0");
+        assertTrue("records[0].NUMSTR == records[0].INT");
+        assertFalse("null == 0");
+        assertFalse("null == false");
+        assertTrue("null == null");
+    }
+
+    @Test
+    public void testComparison() {
+        assertTrue("'10' > 9");
+        assertFalse("'10' > '9'");
+        assertTrue("true > 0");
+        assertFalse("'abc' < 1");
+        assertFalse("'abc' >= 1");
+        assertTrue("'a' < 'b'");
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        assertInvalid("1 +");
+        assertInvalid("unknown > 1");
+        assertInvalid("records[0].INT.toString()");
+        assertInvalid("(1 + 2");
+        assertInvalid("'abc");
+        assertInvalid("1 2");
+        assertInvalid("1 != = 2");
+    }
+
+    private void assertTrue(final String expression) {
+        assertEquals(expression, Boolean.TRUE, evaluate(expression));
+    }
+
+    private void assertFalse(final String expression) {
+        final Object result = evaluate(expression);
+        assertEquals(expression, Boolean.FALSE, result instanceof Boolean ? result : result != null);
+    }
+
+    private Object evaluate(final String expression) {
+        return ConditionalExpression.compile(expression).evaluate(this.envelope);
+    }
+
+    private static void assertInvalid(final String expression) {
+        try {
+            ConditionalExpression.compile(expression);
+            fail("Expression should be invalid: " + expression);
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.kura.configuration.ConfigurationService;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.graph.BarrierAggregatorFactory;
+import org.eclipse.kura.wire.graph.MultiportWireSupport;
+import org.eclipse.kura.wire.graph.PortAggregator;
+import org.eclipse.kura.wire.graph.ReceiverPort;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentContext;
+
+public class JoinComponentTest {
+
+    private final JoinComponent component = new JoinComponent();
+    private final MultiportWireSupport wireSupport = mock(MultiportWireSupport.class);
+    private final BundleContext bundleContext = mock(BundleContext.class);
+    private final List<Consumer<WireEnvelope>> portConsumers = new ArrayList<>(Arrays.asList(null, null));
+
+    public JoinComponentTest() {
+        final List<ReceiverPort> ports = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final int index = i;
+            final ReceiverPort port = mock(ReceiverPort.class);
+            doAnswer(invocation -> {
+                this.portConsumers.set(index, invocation.getArgumentAt(0, Consumer.class));
+                return null;
+            }).when(port).onWireReceive(anyObject());
+            ports.add(port);
+        }
+        when(this.wireSupport.getReceiverPorts()).thenReturn(ports);
+
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        when(wireHelperService.newWireSupport(anyObject(), anyObject())).thenReturn(this.wireSupport);
+        this.component.bindWireHelperService(wireHelperService);
+    }
+
+    @After
+    public void tearDown() {
+        this.component.deactivate(null);
+    }
+
+    @Test
+    public void testPositionalMode() {
+        final List<Consumer<List<WireEnvelope>>> aggregatorConsumer = new ArrayList<>();
+        final PortAggregator aggregator = mock(PortAggregator.class);
+        doAnswer(invocation -> aggregatorConsumer.add(invocation.getArgumentAt(0, Consumer.class))).when(aggregator)
+                .onWireReceive(anyObject());
+        final BarrierAggregatorFactory factory = mock(BarrierAggregatorFactory.class);
+        when(factory.build(anyObject())).thenReturn(aggregator);
+        final ServiceReference<BarrierAggregatorFactory> reference = mock(ServiceReference.class);
+        when(this.bundleContext.getServiceReference(BarrierAggregatorFactory.class)).thenReturn(reference);
+        when(this.bundleContext.getService(reference)).thenReturn(factory);
+
+        activate(Collections.emptyMap());
+
+        // the records are joined by position, the extra records are emitted unchanged
+        aggregatorConsumer.get(0).accept(Arrays.asList(envelope(record(1, "left", "a"), record(2, "left", "b")),
+                envelope(record(3, "right", "c"))));
+
+        final List<WireRecord> emitted = captureEmitted();
+        assertEquals(2, emitted.size());
+        assertEquals(properties(3, "a", "c"), emitted.get(0).getProperties());
+        assertEquals(properties(2, "b", null), emitted.get(1).getProperties());
+    }
+
+    @Test
+    public void testKeyedMode() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("join.mode", "KEYED");
+        properties.put("join.key", "id");
+        activate(properties);
+
+        this.portConsumers.get(KeyedJoin.LEFT).accept(envelope(record(1, "left", "a"), record(2, "left", "b")));
+        verify(this.wireSupport, never()).emit(anyObject());
+
+        this.portConsumers.get(KeyedJoin.RIGHT).accept(envelope(record(2, "right", "c")));
+
+        final List<WireRecord> emitted = captureEmitted();
+        assertEquals(1, emitted.size());
+        assertEquals(properties(2, "b", "c"), emitted.get(0).getProperties());
+    }
+
+    @Test
+    public void testKeyedModeEmitsExpiredRecords() {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("join.mode", "KEYED");
+        properties.put("join.key", "id");
+        properties.put("join.type", "LEFT_OUTER");
+        properties.put("join.window.ms", 20);
+        activate(properties);
+
+        this.portConsumers.get(KeyedJoin.LEFT).accept(envelope(record(1, "left", "a")));
+
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.wireSupport, timeout(5000)).emit(captor.capture());
+        final List<WireRecord> emitted = captor.getValue();
+        assertEquals(1, emitted.size());
+        assertEquals(properties(1, "a", null), emitted.get(0).getProperties());
+    }
+
+    @Test
+    public void testKeyedModeWithoutKey() {
+        activate(Collections.singletonMap("join.mode", "KEYED"));
+
+        // the envelopes are discarded
+        this.portConsumers.get(KeyedJoin.LEFT).accept(envelope(record(1, "left", "a")));
+        this.portConsumers.get(KeyedJoin.RIGHT).accept(envelope(record(1, "right", "b")));
+
+        verify(this.wireSupport, never()).emit(anyObject());
+    }
+
+    private void activate(final Map<String, Object> properties) {
+        final Map<String, Object> componentProperties = new HashMap<>(properties);
+        componentProperties.put(ConfigurationService.KURA_SERVICE_PID, "join");
+
+        final ComponentContext context = mock(ComponentContext.class);
+        when(context.getBundleContext()).thenReturn(this.bundleContext);
+        this.component.activate(context, componentProperties);
+    }
+
+    private List<WireRecord> captureEmitted() {
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(this.wireSupport).emit(captor.capture());
+        return captor.getValue();
+    }
+
+    private static WireEnvelope envelope(final WireRecord... records) {
+        return new WireEnvelope("emitter", Arrays.asList(records));
+    }
+
+    private static WireRecord record(final int key, final String property, final String value) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put("id", TypedValues.newIntegerValue(key));
+        properties.put(property, TypedValues.newStringValue(value));
+        return new WireRecord(properties);
+    }
+
+    private static Map<String, TypedValue<?>> properties(final int key, final String left, final String right) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put("id", TypedValues.newIntegerValue(key));
+        properties.put("left", TypedValues.newStringValue(left));
+        if (right != null) {
+            properties.put("right", TypedValues.newStringValue(right));
+        }
+        return properties;
+    }
+}
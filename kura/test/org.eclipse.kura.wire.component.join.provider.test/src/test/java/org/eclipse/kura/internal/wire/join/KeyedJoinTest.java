@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireRecord;
+import org.junit.Test;
+
+public class KeyedJoinTest {
+
+    private static final String KEY = "id";
+    private static final long WINDOW_MILLIS = 100;
+
+    @Test
+    public void testInnerJoinMatches() {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.INNER, WINDOW_MILLIS, 10, new JoinMetrics());
+
+        assertEquals(Collections.emptyList(), join.join(KeyedJoin.LEFT, records(left(1, "a"), left(2, "b")), 0));
+
+        final List<WireRecord> result = join.join(KeyedJoin.RIGHT, records(right(1, "c"), right(3, "d")),
+                millis(10));
+        assertEquals(1, result.size());
+        assertRecord(result.get(0), 1, "a", "c");
+
+        // a record matches all the records with the same key received on the other port
+        final List<WireRecord> second = join.join(KeyedJoin.LEFT, records(left(3, "e")), millis(20));
+        assertEquals(1, second.size());
+        assertRecord(second.get(0), 3, "e", "d");
+        final List<WireRecord> third = join.join(KeyedJoin.RIGHT, records(right(3, "f")), millis(30));
+        assertEquals(1, third.size());
+        assertRecord(third.get(0), 3, "e", "f");
+
+        assertEquals(3, join.size(KeyedJoin.LEFT));
+        assertEquals(3, join.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testInnerJoinDropsUnmatched() {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.INNER, WINDOW_MILLIS, 10, new JoinMetrics());
+
+        join.join(KeyedJoin.LEFT, records(left(1, "a")), 0);
+        join.join(KeyedJoin.RIGHT, records(right(2, "b")), 0);
+
+        assertEquals(Collections.emptyList(), join.expire(millis(WINDOW_MILLIS)));
+        assertEquals(0, join.size(KeyedJoin.LEFT));
+        assertEquals(0, join.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testLeftOuterJoinEmitsUnmatchedOnExpiration() {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.LEFT_OUTER, WINDOW_MILLIS, 10, new JoinMetrics());
+
+        join.join(KeyedJoin.LEFT, records(left(1, "a"), left(2, "b")), 0);
+        join.join(KeyedJoin.RIGHT, records(right(1, "c"), right(3, "d")), millis(10));
+
+        assertEquals(Collections.emptyList(), join.expire(millis(WINDOW_MILLIS - 1)));
+        assertEquals(2, join.size(KeyedJoin.LEFT));
+
+        // only the unmatched left record is emitted, the unmatched right record is dropped
+        final List<WireRecord> expired = join.expire(millis(WINDOW_MILLIS + 10));
+        assertEquals(1, expired.size());
+        assertRecord(expired.get(0), 2, "b", null);
+        assertEquals(0, join.size(KeyedJoin.LEFT));
+        assertEquals(0, join.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testExpiredRecordsDoNotMatch() {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.LEFT_OUTER, WINDOW_MILLIS, 10, new JoinMetrics());
+
+        join.join(KeyedJoin.LEFT, records(left(1, "a")), 0);
+
+        // the left record leaves the window before the right record is joined
+        final List<WireRecord> result = join.join(KeyedJoin.RIGHT, records(right(1, "b")), millis(WINDOW_MILLIS));
+        assertEquals(1, result.size());
+        assertRecord(result.get(0), 1, "a", null);
+        assertEquals(0, join.size(KeyedJoin.LEFT));
+        assertEquals(1, join.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testEvictionAtMaxEntries() {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.LEFT_OUTER, WINDOW_MILLIS, 2, new JoinMetrics());
+
+        assertEquals(Collections.emptyList(), join.join(KeyedJoin.LEFT, records(left(1, "a"), left(2, "b")), 0));
+        assertEquals(2, join.size(KeyedJoin.LEFT));
+
+        // the oldest record is evicted and emitted as unmatched
+        final List<WireRecord> evicted = join.join(KeyedJoin.LEFT, records(left(3, "c")), millis(1));
+        assertEquals(1, evicted.size());
+        assertRecord(evicted.get(0), 1, "a", null);
+        assertEquals(2, join.size(KeyedJoin.LEFT));
+
+        assertEquals(Collections.emptyList(), join.join(KeyedJoin.RIGHT, records(right(1, "d")), millis(2)));
+        final List<WireRecord> result = join.join(KeyedJoin.RIGHT, records(right(3, "e")), millis(3));
+        assertEquals(1, result.size());
+        assertRecord(result.get(0), 3, "c", "e");
+
+        // the evicted right record was unmatched, but only the left records are emitted
+        assertEquals(Collections.emptyList(), join.join(KeyedJoin.RIGHT, records(right(4, "f")), millis(4)));
+        assertEquals(2, join.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testMissingKey() {
+        final WireRecord noKey = new WireRecord(
+                Collections.singletonMap("left", TypedValues.newStringValue("a")));
+
+        final KeyedJoin inner = new KeyedJoin(KEY, JoinType.INNER, WINDOW_MILLIS, 10, new JoinMetrics());
+        assertEquals(Collections.emptyList(), inner.join(KeyedJoin.LEFT, records(noKey), 0));
+        assertEquals(0, inner.size(KeyedJoin.LEFT));
+
+        final KeyedJoin leftOuter = new KeyedJoin(KEY, JoinType.LEFT_OUTER, WINDOW_MILLIS, 10, new JoinMetrics());
+        assertEquals(records(noKey), leftOuter.join(KeyedJoin.LEFT, records(noKey), 0));
+        assertEquals(Collections.emptyList(), leftOuter.join(KeyedJoin.RIGHT, records(noKey), 0));
+        assertEquals(0, leftOuter.size(KeyedJoin.LEFT));
+        assertEquals(0, leftOuter.size(KeyedJoin.RIGHT));
+    }
+
+    @Test
+    public void testNumericKeys() {
+        assertMatches(TypedValues.newIntegerValue(1), TypedValues.newLongValue(1L));
+        assertMatches(TypedValues.newIntegerValue(1), TypedValues.newDoubleValue(1.0));
+        assertMatches(TypedValues.newLongValue(-5L), TypedValues.newFloatValue(-5.0f));
+        assertMatches(TypedValues.newIntegerValue(0), TypedValues.newDoubleValue(-0.0));
+        assertMatches(TypedValues.newFloatValue(1.5f), TypedValues.newDoubleValue(1.5));
+        assertMatches(TypedValues.newDoubleValue(1e300), TypedValues.newDoubleValue(1e300));
+
+        assertNotMatches(TypedValues.newIntegerValue(1), TypedValues.newDoubleValue(1.5));
+        assertNotMatches(TypedValues.newLongValue(Long.MAX_VALUE), TypedValues.newDoubleValue(0x1p63));
+        assertNotMatches(TypedValues.newIntegerValue(1), TypedValues.newStringValue("1"));
+    }
+
+    @Test
+    public void testByteArrayKeys() {
+        assertMatches(TypedValues.newByteArrayValue(new byte[] { 1, 2 }),
+                TypedValues.newByteArrayValue(new byte[] { 1, 2 }));
+        assertNotMatches(TypedValues.newByteArrayValue(new byte[] { 1, 2 }),
+                TypedValues.newByteArrayValue(new byte[] { 1, 3 }));
+    }
+
+    private static void assertMatches(final TypedValue<?> leftKey, final TypedValue<?> rightKey) {
+        assertEquals(leftKey + " should match " + rightKey, 1, joinKeys(leftKey, rightKey).size());
+    }
+
+    private static void assertNotMatches(final TypedValue<?> leftKey, final TypedValue<?> rightKey) {
+        assertTrue(leftKey + " should not match " + rightKey, joinKeys(leftKey, rightKey).isEmpty());
+    }
+
+    private static List<WireRecord> joinKeys(final TypedValue<?> leftKey, final TypedValue<?> rightKey) {
+        final KeyedJoin join = new KeyedJoin(KEY, JoinType.INNER, WINDOW_MILLIS, 10, new JoinMetrics());
+        join.join(KeyedJoin.LEFT, records(new WireRecord(Collections.singletonMap(KEY, leftKey))), 0);
+        return join.join(KeyedJoin.RIGHT, records(new WireRecord(Collections.singletonMap(KEY, rightKey))), 0);
+    }
+
+    private static void assertRecord(final WireRecord record, final int key, final String left, final String right) {
+        final Map<String, TypedValue<?>> expected = new HashMap<>();
+        expected.put(KEY, TypedValues.newIntegerValue(key));
+        expected.put("left", TypedValues.newStringValue(left));
+        if (right != null) {
+            expected.put("right", TypedValues.newStringValue(right));
+        }
+        assertEquals(expected, record.getProperties());
+    }
+
+    private static WireRecord left(final int key, final String value) {
+        return record(key, "left", value);
+    }
+
+    private static WireRecord right(final int key, final String value) {
+        return record(key, "right", value);
+    }
+
+    private static WireRecord record(final int key, final String property, final String value) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put(KEY, TypedValues.newIntegerValue(key));
+        properties.put(property, TypedValues.newStringValue(value));
+        return new WireRecord(properties);
+    }
+
+    private static List<WireRecord> records(final WireRecord... records) {
+        return Arrays.asList(records);
+    }
+
+    private static long millis(final long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.type.TypedValues;
+import org.eclipse.kura.wire.WireComponent;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.component.ComponentContext;
+
+public class AggregatorTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testTumblingWindow() {
+        final PanedWindow window = new PanedWindow(1, EnumSet.allOf(AggregationFunction.class));
+
+        for (final double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+            window.add("temperature", value);
+        }
+
+        final Map<String, TypedValue<?>> summary = window.closePane();
+
+        assertEquals(7, summary.size());
+        assertEquals(2.0, (Double) summary.get("temperature_min").getValue(), DELTA);
+        assertEquals(9.0, (Double) summary.get("temperature_max").getValue(), DELTA);
+        assertEquals(5.0, (Double) summary.get("temperature_avg").getValue(), DELTA);
+        assertEquals(40.0, (Double) summary.get("temperature_sum").getValue(), DELTA);
+        assertEquals(8L, summary.get("temperature_count").getValue());
+        assertEquals(9.0, (Double) summary.get("temperature_last").getValue(), DELTA);
+        assertEquals(2.0, (Double) summary.get("temperature_stddev").getValue(), DELTA);
+
+        assertTrue(window.closePane().isEmpty());
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        final PanedWindow window = new PanedWindow(3,
+                EnumSet.of(AggregationFunction.MIN, AggregationFunction.MAX, AggregationFunction.COUNT,
+                        AggregationFunction.LAST, AggregationFunction.STDDEV));
+
+        window.add("a", 1);
+        assertWindow(window.closePane(), 1, 1, 1, 1);
+
+        window.add("a", 5);
+        assertWindow(window.closePane(), 1, 5, 2, 5);
+
+        window.add("a", 3);
+        window.add("a", 3);
+        final Map<String, TypedValue<?>> full = window.closePane();
+        assertWindow(full, 1, 5, 4, 3);
+        assertEquals(Math.sqrt(2), (Double) full.get("a_stddev").getValue(), DELTA);
+
+        // the first pane expires
+        assertWindow(window.closePane(), 3, 5, 3, 3);
+        assertWindow(window.closePane(), 3, 3, 2, 3);
+        assertTrue(window.closePane().isEmpty());
+    }
+
+    @Test
+    public void testSummaryEmission() throws NoSuchFieldException {
+        final List<WireRecord> emitted = new ArrayList<>();
+        final Aggregator aggregator = createAggregator(emitted);
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("window.type", "SLIDING");
+        properties.put("window.size", 20);
+        properties.put("window.slide", 10);
+        properties.put("window.time.unit", "MINUTES");
+        properties.put("aggregations", "avg, count");
+        properties.put("property.filter", "v.*");
+
+        aggregator.activate(properties, mock(ComponentContext.class));
+
+        aggregator.onWireReceive(envelope(record(TypedValues.newIntegerValue(1), TypedValues.newStringValue("a"))));
+        aggregator.onWireReceive(envelope(record(TypedValues.newDoubleValue(2), TypedValues.newStringValue("b")),
+                record(TypedValues.newLongValue(6L), TypedValues.newStringValue("c"))));
+
+        closePane(aggregator);
+
+        assertEquals(1, emitted.size());
+
+        final Map<String, TypedValue<?>> summary = emitted.get(0).getProperties();
+        assertEquals(4, summary.size());
+        assertEquals(3.0, (Double) summary.get("value_avg").getValue(), DELTA);
+        assertEquals(3L, summary.get("value_count").getValue());
+
+        final long windowStart = (Long) summary.get(Aggregator.WINDOW_START_PROP_NAME).getValue();
+        final long windowEnd = (Long) summary.get(Aggregator.WINDOW_END_PROP_NAME).getValue();
+        assertEquals(20 * 60 * 1000L, windowEnd - windowStart);
+        assertEquals(0, windowEnd % (10 * 60 * 1000L));
+
+        closePane(aggregator);
+        closePane(aggregator);
+        assertEquals(2, emitted.size());
+
+        properties.put("emit.empty.windows", true);
+        aggregator.updated(properties);
+        closePane(aggregator);
+        assertEquals(3, emitted.size());
+        assertEquals(2, emitted.get(2).getProperties().size());
+
+        aggregator.deactivate();
+    }
+
+    @Test
+    public void testInvalidConfiguration() throws NoSuchFieldException {
+        final List<WireRecord> emitted = new ArrayList<>();
+        final Aggregator aggregator = createAggregator(emitted);
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("window.type", "SLIDING");
+        properties.put("window.size", 25);
+        properties.put("window.slide", 10);
+
+        aggregator.activate(properties, mock(ComponentContext.class));
+
+        aggregator.onWireReceive(envelope(record(TypedValues.newIntegerValue(1), TypedValues.newStringValue("a"))));
+        closePane(aggregator);
+
+        assertFalse(emitted.size() > 0);
+
+        aggregator.deactivate();
+    }
+
+    @Test
+    public void testStalePaneTaskAfterUpdate() throws NoSuchFieldException {
+        final List<WireRecord> emitted = new ArrayList<>();
+        final Aggregator aggregator = createAggregator(emitted);
+
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("window.size", 10);
+        properties.put("window.time.unit", "MINUTES");
+        properties.put("aggregations", "count");
+
+        aggregator.activate(properties, mock(ComponentContext.class));
+        final PanedWindow oldWindow = (PanedWindow) TestUtil.getFieldValue(aggregator, "window");
+
+        aggregator.updated(properties);
+        aggregator.onWireReceive(envelope(record(TypedValues.newIntegerValue(1), TypedValues.newStringValue("a"))));
+
+        // a task scheduled for the replaced window does not close the pane of the new one
+        aggregator.closePane(oldWindow);
+        assertTrue(emitted.isEmpty());
+
+        closePane(aggregator);
+        assertEquals(1, emitted.size());
+        assertEquals(1L, emitted.get(0).getProperties().get("value_count").getValue());
+
+        aggregator.deactivate();
+    }
+
+    private static void closePane(final Aggregator aggregator) throws NoSuchFieldException {
+        aggregator.closePane((PanedWindow) TestUtil.getFieldValue(aggregator, "window"));
+    }
+
+    private static void assertWindow(final Map<String, TypedValue<?>> summary, final double min, final double max,
+            final long count, final double last) {
+        assertEquals(min, (Double) summary.get("a_min").getValue(), DELTA);
+        assertEquals(max, (Double) summary.get("a_max").getValue(), DELTA);
+        assertEquals(count, summary.get("a_count").getValue());
+        assertEquals(last, (Double) summary.get("a_last").getValue(), DELTA);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Aggregator createAggregator(final List<WireRecord> emitted) {
+        final Aggregator aggregator = new Aggregator();
+
+        final WireSupport wireSupport = mock(WireSupport.class);
+        doAnswer(invocation -> {
+            emitted.addAll(invocation.getArgumentAt(0, List.class));
+            return null;
+        }).when(wireSupport).emit(any(List.class));
+
+        final WireHelperService wireHelperService = mock(WireHelperService.class);
+        when(wireHelperService.newWireSupport(any(WireComponent.class), any(ServiceReference.class)))
+                .thenReturn(wireSupport);
+
+        aggregator.bindWireHelperService(wireHelperService);
+        return aggregator;
+    }
+
+    private static WireRecord record(final TypedValue<?> value, final TypedValue<?> name) {
+        final Map<String, TypedValue<?>> properties = new HashMap<>();
+        properties.put("value", value);
+        properties.put("name", name);
+        return new WireRecord(properties);
+    }
+
+    private static WireEnvelope envelope(final WireRecord... records) {
+        return new WireEnvelope("emitter", Arrays.asList(records));
+    }
+}
@@ -13,6 +13,7 @@
 package org.eclipse.kura.internal.wire.asset;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -23,11 +24,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.asset.provider.AssetConstants;
 import org.eclipse.kura.channel.Channel;
@@ -40,10 +45,12 @@ import org.eclipse.kura.driver.Driver;
 import org.eclipse.kura.driver.Driver.ConnectionException;
 import org.eclipse.kura.type.BooleanValue;
 import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.DoubleValue;
 import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.LongValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.CompactWireRecord;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireRecord;
@@ -406,4 +413,183 @@ public class WireAssetTest {
         verify(mockDriver, times(5)).read(any());
     }
 
+    @Test
+    public void testCompactRecords() throws NoSuchFieldException, ConnectionException {
+
+        final Map<String, Object> wireAssetProperties = new HashMap<>();
+
+        wireAssetProperties.put(AssetConstants.ASSET_DESC_PROP.value(), "description");
+        wireAssetProperties.put(AssetConstants.ASSET_DRIVER_PROP.value(), "driverPid");
+        wireAssetProperties.put(ConfigurationService.KURA_SERVICE_PID, "componentName");
+        wireAssetProperties.put(WireAssetOptions.EMIT_COMPACT_RECORDS_PROP_NAME, true);
+        wireAssetProperties.put(WireAssetOptions.EMIT_ERRORS_PROP_NAME, true);
+
+        Channel readChannel1 = new Channel("0", ChannelType.READ, DataType.INTEGER, Collections.emptyMap());
+        Channel readChannel2 = new Channel("1", ChannelType.READ, DataType.BOOLEAN, Collections.emptyMap());
+
+        putChannel(readChannel1, wireAssetProperties);
+        putChannel(readChannel2, wireAssetProperties);
+
+        WireAsset wireAsset = new WireAsset();
+
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        WireHelperService wireHelperService = mock(WireHelperService.class);
+
+        when(wireHelperService.newWireSupport(any(), any())).thenReturn(mockWireSupport);
+
+        wireAsset.bindWireHelperService(wireHelperService);
+
+        final ComponentContext mockComponentContext = mock(ComponentContext.class);
+        when(mockComponentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+
+        wireAsset.activate(mockComponentContext, wireAssetProperties);
+
+        Driver mockDriver = mock(Driver.class);
+
+        doAnswer(invocation -> {
+            List<ChannelRecord> records = (List<ChannelRecord>) invocation.getArguments()[0];
+
+            assertEquals(2, records.size());
+
+            for (final ChannelRecord record : records) {
+                if ("0".equals(record.getChannelName())) {
+                    record.setValue(new IntegerValue(5));
+                    record.setTimestamp(84);
+                    record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+                } else {
+                    record.setTimestamp(22);
+                    record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE, "read failed", null));
+                }
+            }
+
+            return null;
+        }).when(mockDriver).read(any());
+
+        wireAsset.setDriver(mockDriver);
+        sync(wireAsset);
+
+        doAnswer(invocation -> {
+            List<WireRecord> wireRecords = (List<WireRecord>) invocation.getArguments()[0];
+
+            assertEquals(1, wireRecords.size());
+            assertTrue(wireRecords.get(0) instanceof CompactWireRecord);
+
+            Map<String, TypedValue<?>> properties = wireRecords.get(0).getProperties();
+
+            assertEquals(6, properties.size());
+            assertEquals(new StringValue("componentName"), properties.get("assetName"));
+            assertEquals(new IntegerValue(5), properties.get("0"));
+            assertEquals(new LongValue(84), properties.get("0_timestamp"));
+            assertEquals(new StringValue(""), properties.get("0_error"));
+            assertFalse(properties.containsKey("1"));
+            assertEquals(new LongValue(22), properties.get("1_timestamp"));
+            assertEquals(new StringValue("read failed"), properties.get("1_error"));
+
+            return null;
+        }).when(mockWireSupport).emit(any());
+
+        wireAsset.onWireReceive(new WireEnvelope("pid", Collections.emptyList()));
+        wireAsset.onWireReceive(new WireEnvelope("pid", Collections.emptyList()));
+
+        verify(mockWireSupport, times(2)).emit(any());
+    }
+
+    @Test
+    public void testReportByException() throws NoSuchFieldException, ConnectionException {
+
+        final Map<String, Object> wireAssetProperties = new HashMap<>();
+
+        wireAssetProperties.put(AssetConstants.ASSET_DESC_PROP.value(), "description");
+        wireAssetProperties.put(AssetConstants.ASSET_DRIVER_PROP.value(), "driverPid");
+        wireAssetProperties.put(ConfigurationService.KURA_SERVICE_PID, "componentName");
+        wireAssetProperties.put(WireAssetOptions.TIMESTAMP_MODE_PROP_NAME, TimestampMode.NO_TIMESTAMPS.name());
+        wireAssetProperties.put(WireAssetOptions.REPORT_MODE_PROP_NAME, ReportMode.ON_CHANGE.name());
+
+        Channel readChannel1 = new Channel("0", ChannelType.READ, DataType.INTEGER, Collections.emptyMap());
+        Channel readChannel2 = new Channel("1", ChannelType.READ, DataType.DOUBLE, Collections.emptyMap());
+        Channel readChannel3 = new Channel("2", ChannelType.READ, DataType.STRING, Collections.emptyMap());
+
+        putChannel(readChannel1, wireAssetProperties);
+        putChannel(readChannel2, wireAssetProperties);
+        putChannel(readChannel3, wireAssetProperties);
+
+        final String separator = AssetConstants.CHANNEL_PROPERTY_SEPARATOR.value();
+        wireAssetProperties.put("0" + separator + WireAssetConstants.DEADBAND_PROP_NAME.value(), 2.0d);
+        wireAssetProperties.put("1" + separator + WireAssetConstants.DEADBAND_PROP_NAME.value(), 10.0d);
+        wireAssetProperties.put("1" + separator + WireAssetConstants.DEADBAND_MODE_PROP_NAME.value(),
+                DeadbandMode.PERCENT.name());
+
+        WireAsset wireAsset = new WireAsset();
+
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        WireHelperService wireHelperService = mock(WireHelperService.class);
+
+        when(wireHelperService.newWireSupport(any(), any())).thenReturn(mockWireSupport);
+
+        wireAsset.bindWireHelperService(wireHelperService);
+
+        final ComponentContext mockComponentContext = mock(ComponentContext.class);
+        when(mockComponentContext.getBundleContext()).thenReturn(mock(BundleContext.class));
+
+        wireAsset.activate(mockComponentContext, wireAssetProperties);
+
+        final int[] intValues = { 10, 11, 13, 13, 0, 0 };
+        final double[] doubleValues = { 100, 105, 111, 111, 111, 111 };
+        final String[] stringValues = { "a", "a", "a", "b", "b", "b" };
+        final AtomicInteger step = new AtomicInteger();
+
+        Driver mockDriver = mock(Driver.class);
+
+        doAnswer(invocation -> {
+            List<ChannelRecord> records = (List<ChannelRecord>) invocation.getArguments()[0];
+            final int current = step.getAndIncrement();
+
+            for (final ChannelRecord record : records) {
+                if ("0".equals(record.getChannelName())) {
+                    if (current >= 4) {
+                        record.setChannelStatus(new ChannelStatus(ChannelFlag.FAILURE));
+                        continue;
+                    }
+                    record.setValue(new IntegerValue(intValues[current]));
+                } else if ("1".equals(record.getChannelName())) {
+                    record.setValue(new DoubleValue(doubleValues[current]));
+                } else {
+                    record.setValue(new StringValue(stringValues[current]));
+                }
+                record.setChannelStatus(new ChannelStatus(ChannelFlag.SUCCESS));
+            }
+
+            return null;
+        }).when(mockDriver).read(any());
+
+        wireAsset.setDriver(mockDriver);
+        sync(wireAsset);
+
+        final List<Set<String>> emittedKeys = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            List<WireRecord> wireRecords = (List<WireRecord>) invocation.getArguments()[0];
+
+            assertEquals(1, wireRecords.size());
+            emittedKeys.add(new HashSet<>(wireRecords.get(0).getProperties().keySet()));
+
+            return null;
+        }).when(mockWireSupport).emit(any());
+
+        final WireEnvelope wireEnvelope = new WireEnvelope("pid", Collections.emptyList());
+
+        for (int i = 0; i < intValues.length; i++) {
+            wireAsset.onWireReceive(wireEnvelope);
+        }
+
+        verify(mockDriver, times(intValues.length)).read(any());
+
+        // first read: all channels, second read: changes within the deadbands, third read: deadbands exceeded,
+        // fourth read: string changed, fifth read: channel failure, sixth read: no changes
+        assertEquals(4, emittedKeys.size());
+        assertEquals(new HashSet<>(Arrays.asList("assetName", "0", "1", "2")), emittedKeys.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("assetName", "0", "1")), emittedKeys.get(1));
+        assertEquals(new HashSet<>(Arrays.asList("assetName", "2")), emittedKeys.get(2));
+        assertEquals(new HashSet<>(Arrays.asList("assetName")), emittedKeys.get(3));
+    }
 }
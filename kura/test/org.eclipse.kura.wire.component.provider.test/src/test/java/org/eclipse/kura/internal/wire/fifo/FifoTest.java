@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -187,6 +187,172 @@ public class FifoTest {
         assertEquals(1, wiresLatch.getCount());
     }
 
+    @Test
+    public void testRingBufferRetain() throws InterruptedException {
+        Fifo fifo = new Fifo();
+        RecordingWireSupport wireSupport = new RecordingWireSupport(20);
+        activateRingBuffer(fifo, wireSupport, false, false);
+
+        for (int i = 0; i < 10; i++) {
+            fifo.onWireReceive(createWireEnvelope());
+            Thread.sleep(2);
+        }
+
+        // give it > 200ms
+        assertTrue("Expected all envelopes to be processed", wireSupport.awaitRecords(10, 300));
+        assertEquals(10, wireSupport.getEmitCount());
+        assertTrue("Expected envelopes to be processed in order", wireSupport.isOrdered());
+        fifo.deactivate();
+    }
+
+    @Test
+    public void testRingBufferDiscard() throws InterruptedException {
+        Fifo fifo = new Fifo();
+        RecordingWireSupport wireSupport = new RecordingWireSupport(100);
+        activateRingBuffer(fifo, wireSupport, true, false);
+
+        for (int i = 0; i < 10; i++) {
+            fifo.onWireReceive(createWireEnvelope());
+            Thread.sleep(2);
+        }
+
+        assertFalse("Not all envelopes expected to be processed", wireSupport.awaitRecords(7, 1000));
+        assertEquals(6, wireSupport.getRecordCount());
+        assertTrue("Expected envelopes to be processed in order", wireSupport.isOrdered());
+        fifo.deactivate();
+    }
+
+    @Test
+    public void testRingBufferCoalesce() throws InterruptedException {
+        Fifo fifo = new Fifo();
+        RecordingWireSupport wireSupport = new RecordingWireSupport(100);
+        activateRingBuffer(fifo, wireSupport, false, true);
+
+        for (int i = 0; i < 10; i++) {
+            fifo.onWireReceive(createWireEnvelope());
+            Thread.sleep(2);
+        }
+
+        // envelopes received while the first one is being emitted are merged
+        assertTrue("Expected all envelopes to be processed", wireSupport.awaitRecords(10, 1000));
+        assertTrue("Expected envelopes to be coalesced", wireSupport.getEmitCount() < 10);
+        assertTrue("Expected records to be emitted in order", wireSupport.isOrdered());
+        fifo.deactivate();
+    }
+
+    @Test
+    public void testRingBufferBlockedProducer() throws InterruptedException {
+        Fifo fifo = new Fifo();
+        RecordingWireSupport wireSupport = new RecordingWireSupport(500);
+        activateRingBuffer(fifo, wireSupport, false, false);
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 8; i++) {
+                fifo.onWireReceive(createWireEnvelope());
+            }
+        });
+        producer.start();
+
+        // the producer waits for the consumer without polling the full queue
+        long deadline = System.currentTimeMillis() + 1000;
+        while (producer.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, producer.getState());
+
+        assertTrue("Expected the producer to be woken up by the consumer", wireSupport.awaitRecords(2, 2000));
+        producer.join(2000);
+        assertFalse(producer.isAlive());
+        fifo.deactivate();
+    }
+
+    private void activateRingBuffer(Fifo fifo, WireSupport wireSupport, boolean discardEnvelopes,
+            boolean coalesceEnvelopes) {
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        fifo.bindWireHelperService(wireHelperServiceMock);
+        when(wireHelperServiceMock.newWireSupport(fifo, null)).thenReturn(wireSupport);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("discard.envelopes", discardEnvelopes);
+        properties.put("queue.capacity", 5);
+        properties.put("queue.type", "RING_BUFFER");
+        properties.put("coalesce.envelopes", coalesceEnvelopes);
+
+        fifo.activate(properties, mock(ComponentContext.class));
+    }
+
+    private static final class RecordingWireSupport implements WireSupport {
+
+        private final long emitDelayMs;
+        private final List<Long> timestamps = new ArrayList<>();
+        private int emitCount;
+
+        RecordingWireSupport(long emitDelayMs) {
+            this.emitDelayMs = emitDelayMs;
+        }
+
+        @Override
+        public void updated(Wire wire, Object value) {
+        }
+
+        @Override
+        public void producersConnected(Wire[] wires) {
+        }
+
+        @Override
+        public Object polled(Wire wire) {
+            return null;
+        }
+
+        @Override
+        public void consumersConnected(Wire[] wires) {
+        }
+
+        @Override
+        public void emit(List<WireRecord> wireRecords) {
+            try {
+                Thread.sleep(this.emitDelayMs); // slow down a bit
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized (this) {
+                for (WireRecord wireRecord : wireRecords) {
+                    this.timestamps.add((Long) wireRecord.getProperties().get("timestamp").getValue());
+                }
+                this.emitCount++;
+                notifyAll();
+            }
+        }
+
+        synchronized boolean awaitRecords(int count, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            long remaining = timeoutMs;
+            while (this.timestamps.size() < count && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return this.timestamps.size() >= count;
+        }
+
+        synchronized int getRecordCount() {
+            return this.timestamps.size();
+        }
+
+        synchronized int getEmitCount() {
+            return this.emitCount;
+        }
+
+        synchronized boolean isOrdered() {
+            for (int i = 1; i < this.timestamps.size(); i++) {
+                if (this.timestamps.get(i) <= this.timestamps.get(i - 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private WireEnvelope createWireEnvelope() {
         String emitterPid = "emitter";
         List<WireRecord> wireRecords = new ArrayList<WireRecord>();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
 package org.eclipse.kura.internal.wire.publisher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.anyObject;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +40,7 @@ import org.eclipse.kura.message.KuraPayload;
 import org.eclipse.kura.message.KuraPosition;
 import org.eclipse.kura.position.NmeaPosition;
 import org.eclipse.kura.position.PositionService;
+import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.wire.WireEnvelope;
@@ -371,6 +374,166 @@ public class CloudPublisherTest {
 
     }
 
+    @Test
+    public void testBatchedPublish() throws InvalidSyntaxException, KuraException {
+        CloudPublisher cp = new CloudPublisher();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cp.bindWireHelperService(wireHelperServiceMock);
+
+        BundleContext bundleCtxMock = mock(BundleContext.class);
+        Filter filter = mock(Filter.class);
+        when(bundleCtxMock.createFilter(anyString())).thenReturn(filter);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+        when(ctxMock.getBundleContext()).thenReturn(bundleCtxMock);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("CloudPublisher.target", "cspid");
+        properties.put("publish.position", "none");
+        properties.put("publish.batch.max.records", 3);
+        properties.put("publish.batch.max.delay.ms", 60000);
+
+        cp.activate(ctxMock, properties);
+
+        org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudPublisherMock = mock(
+                org.eclipse.kura.cloudconnection.publisher.CloudPublisher.class);
+        List<KuraMessage> messages = new ArrayList<>();
+        when(cloudPublisherMock.publish((KuraMessage) anyObject())).thenAnswer(invocation -> {
+            messages.add(invocation.getArgumentAt(0, KuraMessage.class));
+            return "1234";
+        });
+        cp.setCloudPublisher(cloudPublisherMock);
+
+        // the first two envelopes fill a batch, the last record remains pending
+        cp.onWireReceive(new WireEnvelope("emitter", createRecords("first", 2)));
+        assertEquals(0, messages.size());
+        cp.onWireReceive(new WireEnvelope("emitter", createRecords("second", 2)));
+        assertEquals(1, messages.size());
+
+        KuraMessage message = messages.get(0);
+        KuraPayload payload = message.getPayload();
+        assertEquals(7, payload.metrics().size());
+        assertEquals(3, payload.getMetric("batch.records"));
+        assertEquals("first0", payload.getMetric("0.key"));
+        assertEquals("first1", payload.getMetric("1.key"));
+        assertEquals("second0", payload.getMetric("2.key"));
+        assertEquals(0, payload.getMetric("2.index"));
+        // the properties that differ between the records cannot be used for the topic
+        assertFalse(message.getProperties().containsKey("key"));
+
+        // the pending record is published on deactivation
+        cp.deactivate(ctxMock);
+        assertEquals(2, messages.size());
+
+        payload = messages.get(1).getPayload();
+        assertEquals(1, payload.getMetric("batch.records"));
+        assertEquals("second1", payload.getMetric("0.key"));
+    }
+
+    @Test
+    public void testBatchedPublishWithoutDelay() throws InvalidSyntaxException, KuraException {
+        CloudPublisher cp = new CloudPublisher();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cp.bindWireHelperService(wireHelperServiceMock);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("publish.batch.max.records", 2);
+        properties.put("publish.batch.max.delay.ms", 0);
+
+        cp.activate(ctxMock, properties);
+
+        org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudPublisherMock = mock(
+                org.eclipse.kura.cloudconnection.publisher.CloudPublisher.class);
+        List<KuraMessage> messages = new ArrayList<>();
+        when(cloudPublisherMock.publish((KuraMessage) anyObject())).thenAnswer(invocation -> {
+            messages.add(invocation.getArgumentAt(0, KuraMessage.class));
+            return "1234";
+        });
+        cp.setCloudPublisher(cloudPublisherMock);
+
+        cp.onWireReceive(new WireEnvelope("emitter", createRecords("rec", 5)));
+
+        assertEquals(3, messages.size());
+        assertEquals(2, messages.get(0).getPayload().getMetric("batch.records"));
+        assertEquals(2, messages.get(1).getPayload().getMetric("batch.records"));
+        assertEquals(1, messages.get(2).getPayload().getMetric("batch.records"));
+        assertEquals("rec4", messages.get(2).getPayload().getMetric("0.key"));
+    }
+
+    @Test
+    public void testBatchedPublishByAsset() throws KuraException {
+        CloudPublisher cp = new CloudPublisher();
+
+        WireHelperService wireHelperServiceMock = mock(WireHelperService.class);
+        cp.bindWireHelperService(wireHelperServiceMock);
+
+        ComponentContext ctxMock = mock(ComponentContext.class);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("publish.batch.max.records", 2);
+        properties.put("publish.batch.max.delay.ms", 60000);
+
+        cp.activate(ctxMock, properties);
+
+        org.eclipse.kura.cloudconnection.publisher.CloudPublisher cloudPublisherMock = mock(
+                org.eclipse.kura.cloudconnection.publisher.CloudPublisher.class);
+        List<KuraMessage> messages = new ArrayList<>();
+        when(cloudPublisherMock.publish((KuraMessage) anyObject())).thenAnswer(invocation -> {
+            messages.add(invocation.getArgumentAt(0, KuraMessage.class));
+            return "1234";
+        });
+        cp.setCloudPublisher(cloudPublisherMock);
+
+        List<WireRecord> wireRecords = new ArrayList<>();
+        wireRecords.add(createAssetRecord("rec0", "asset1"));
+        wireRecords.add(createAssetRecord("rec1", "asset2"));
+        wireRecords.add(createAssetRecord("rec2", "asset1"));
+
+        cp.onWireReceive(new WireEnvelope("emitter", wireRecords));
+
+        assertEquals(1, messages.size());
+        assertEquals("rec0", messages.get(0).getPayload().getMetric("0.key"));
+        assertEquals("rec2", messages.get(0).getPayload().getMetric("1.key"));
+        assertEquals("asset1", messages.get(0).getProperties().get("assetName"));
+
+        // the same asset from another emitter is not batched with the pending record
+        cp.onWireReceive(
+                new WireEnvelope("otherEmitter", Collections.singletonList(createAssetRecord("other0", "asset2"))));
+
+        assertEquals(1, messages.size());
+
+        cp.deactivate(ctxMock);
+
+        assertEquals(3, messages.size());
+        assertEquals("rec1", messages.get(1).getPayload().getMetric("0.key"));
+        assertEquals("asset2", messages.get(1).getProperties().get("assetName"));
+        assertEquals("rec1", messages.get(1).getProperties().get("key"));
+        assertEquals("other0", messages.get(2).getPayload().getMetric("0.key"));
+        assertEquals("asset2", messages.get(2).getProperties().get("assetName"));
+    }
+
+    private List<WireRecord> createRecords(String prefix, int count) {
+        List<WireRecord> wireRecords = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<>();
+            recordProps.put("key", new StringValue(prefix + i));
+            recordProps.put("index", new IntegerValue(i));
+            wireRecords.add(new WireRecord(recordProps));
+        }
+        return wireRecords;
+    }
+
+    private WireRecord createAssetRecord(String key, String assetName) {
+        Map<String, TypedValue<?>> recordProps = new HashMap<>();
+        recordProps.put("key", new StringValue(key));
+        recordProps.put("assetName", new StringValue(assetName));
+        return new WireRecord(recordProps);
+    }
+
     private String fillAppTopicPlaceholders(String appTopic, KuraMessage message) {
         String TOPIC_PATTERN_STRING = "\\$([^\\s/]+)";
         Pattern TOPIC_PATTERN = Pattern.compile(TOPIC_PATTERN_STRING);
@@ -14,6 +14,7 @@ package org.eclipse.kura.internal.wire.regexfilter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.doAnswer;
@@ -26,13 +27,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.type.DataType;
+import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
+import org.eclipse.kura.wire.CompactWireRecord;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
 import org.eclipse.kura.wire.WireRecord;
+import org.eclipse.kura.wire.WireRecordSchema;
 import org.eclipse.kura.wire.WireSupport;
 import org.junit.Test;
 import org.osgi.framework.InvalidSyntaxException;
@@ -413,4 +419,53 @@ public class RegexFilterTest {
         verify(wsMock, times(1)).emit(anyObject());
     }
 
+    @Test
+    public void testKeyLayoutCache() {
+        // records with the same key set share the filtering decision
+        KeyLayoutCache cache = new KeyLayoutCache(Pattern.compile("temp.*"), FilterType.REMOVE);
+
+        for (int i = 0; i < 3; i++) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<>();
+            recordProps.put("temperature", new IntegerValue(i));
+            recordProps.put("pressure", new IntegerValue(i * 2));
+            recordProps.put("tempUnit", new StringValue("C"));
+
+            Map<String, TypedValue<?>> filtered = cache.filter(new WireRecord(recordProps));
+
+            assertEquals(1, filtered.size());
+            assertEquals(i * 2, filtered.get("pressure").getValue());
+        }
+
+        Map<String, TypedValue<?>> recordProps = new HashMap<>();
+        recordProps.put("pressure", new IntegerValue(1));
+        assertNull(cache.filter(new WireRecord(recordProps)));
+
+        recordProps = new HashMap<>();
+        recordProps.put("temperature", new IntegerValue(1));
+        assertTrue(cache.filter(new WireRecord(recordProps)).isEmpty());
+    }
+
+    @Test
+    public void testKeyLayoutCacheCompactRecords() {
+        KeyLayoutCache cache = new KeyLayoutCache(Pattern.compile("temp.*"), FilterType.RETAIN);
+
+        WireRecordSchema schema = WireRecordSchema.builder().addField("temperature", DataType.DOUBLE)
+                .addField("pressure", DataType.DOUBLE).addField("tempUnit", DataType.STRING).build();
+
+        CompactWireRecord.Builder builder = CompactWireRecord.builder(schema);
+
+        Map<String, TypedValue<?>> filtered = cache
+                .filter(builder.setDouble(0, 21.5).setDouble(1, 1013).setString(2, "C").build());
+        assertEquals(2, filtered.size());
+        assertEquals(21.5, filtered.get("temperature").getValue());
+        assertEquals("C", filtered.get("tempUnit").getValue());
+
+        // unset fields are not emitted
+        filtered = cache.filter(builder.setDouble(1, 1013).setString(2, "C").build());
+        assertEquals(1, filtered.size());
+        assertEquals("C", filtered.get("tempUnit").getValue());
+
+        WireRecordSchema retainedSchema = WireRecordSchema.builder().addField("temperature", DataType.DOUBLE).build();
+        assertNull(cache.filter(CompactWireRecord.builder(retainedSchema).setDouble(0, 1).build()));
+    }
 }
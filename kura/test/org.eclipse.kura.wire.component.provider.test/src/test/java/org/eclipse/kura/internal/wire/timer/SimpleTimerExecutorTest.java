@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.kura.wire.WireSupport;
+import org.junit.Test;
+
+public class SimpleTimerExecutorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final QueuedExecutorService workers = new QueuedExecutorService();
+    private final TimerWheel wheel = new TimerWheel(this.clock::get, this.workers);
+
+    @Test
+    public void testFixedRateTicks() {
+        final List<Long> tickTimes = new ArrayList<>();
+        final WireSupport wireSupport = mock(WireSupport.class);
+        doAnswer(invocation -> tickTimes.add(TimeUnit.NANOSECONDS.toMillis(this.clock.get()))).when(wireSupport)
+                .emit(any(List.class));
+
+        final SimpleTimerExecutor executor = new SimpleTimerExecutor(new TimerOptions(simpleTimerProperties(50)),
+                wireSupport, this.wheel);
+        advance(1000);
+        executor.shutdown();
+
+        // each tick is emitted at most one wheel tick after its deadline, without drifting
+        assertEquals(19, tickTimes.size());
+        for (int i = 0; i < tickTimes.size(); i++) {
+            assertEquals(60 + 50L * i, (long) tickTimes.get(i));
+        }
+        assertEquals(0, executor.getOverrunCount());
+
+        advance(200);
+        assertEquals(19, tickTimes.size());
+    }
+
+    @Test
+    public void testOverrunSkipsTicks() {
+        final AtomicInteger ticks = new AtomicInteger();
+        final AtomicBoolean concurrentEmit = new AtomicBoolean();
+        final AtomicBoolean emitting = new AtomicBoolean();
+        final WireSupport wireSupport = mock(WireSupport.class);
+        doAnswer(invocation -> {
+            if (!emitting.compareAndSet(false, true)) {
+                concurrentEmit.set(true);
+            }
+            ticks.incrementAndGet();
+            // the following ticks become due, and are executed, while this one is being processed
+            advance(120);
+            emitting.set(false);
+            return null;
+        }).when(wireSupport).emit(any(List.class));
+
+        final SimpleTimerExecutor executor = new SimpleTimerExecutor(new TimerOptions(simpleTimerProperties(50)),
+                wireSupport, this.wheel);
+        advance(1000);
+        executor.shutdown();
+
+        assertFalse("ticks must not be emitted concurrently", concurrentEmit.get());
+        assertTrue(ticks.get() <= 9);
+        assertTrue(executor.getOverrunCount() > 0);
+    }
+
+    @Test
+    public void testSharedWheelTicks() throws InterruptedException {
+        final CountDownLatch ticks = new CountDownLatch(3);
+        final WireSupport wireSupport = mock(WireSupport.class);
+        doAnswer(invocation -> {
+            ticks.countDown();
+            return null;
+        }).when(wireSupport).emit(any(List.class));
+
+        final SimpleTimerExecutor executor = new SimpleTimerExecutor(new TimerOptions(simpleTimerProperties(20)),
+                wireSupport);
+        try {
+            assertTrue(ticks.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAlignedDelay() {
+        assertEquals(95, SimpleTimerExecutor.getAlignedDelay(1005, 100, 0));
+        assertEquals(5, SimpleTimerExecutor.getAlignedDelay(1005, 100, 10));
+        assertEquals(100, SimpleTimerExecutor.getAlignedDelay(1010, 100, 10));
+        assertEquals(30, SimpleTimerExecutor.getAlignedDelay(1000, 100, 130));
+    }
+
+    /**
+     * Advances the wheel clock one millisecond at a time, running the expired ticks. The clock can also be advanced
+     * by the ticks themselves.
+     */
+    private void advance(final long millis) {
+        final long target = this.clock.get() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (this.clock.get() < target) {
+            this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            this.wheel.advance();
+            this.workers.runPending();
+        }
+    }
+
+    private static Map<String, Object> simpleTimerProperties(final int intervalMillis) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("type", "SIMPLE");
+        properties.put("simple.interval", intervalMillis);
+        properties.put("simple.time.unit", "MILLISECONDS");
+        properties.put("kura.service.pid", "timer");
+        return properties;
+    }
+
+    /**
+     * Runs the submitted tasks on the test thread, when {@link #runPending()} is called.
+     */
+    private static final class QueuedExecutorService extends AbstractExecutorService {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean shutdown;
+
+        void runPending() {
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (this.shutdown) {
+                throw new RejectedExecutionException();
+            }
+            this.tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            this.shutdown = true;
+            final List<Runnable> pending = new ArrayList<>(this.tasks);
+            this.tasks.clear();
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return this.shutdown && this.tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+}
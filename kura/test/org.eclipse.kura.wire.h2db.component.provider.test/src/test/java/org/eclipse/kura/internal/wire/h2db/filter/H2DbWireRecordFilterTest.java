@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2021 Eurotech and/or its affiliates and others
+ * Copyright (c) 2017, 2023 Eurotech and/or its affiliates and others
  * 
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
@@ -13,21 +13,29 @@
 package org.eclipse.kura.internal.wire.h2db.filter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.core.testutil.TestUtil;
@@ -35,6 +43,7 @@ import org.eclipse.kura.db.H2DbService;
 import org.eclipse.kura.internal.wire.h2db.common.H2DbServiceHelper;
 import org.eclipse.kura.wire.WireEnvelope;
 import org.eclipse.kura.wire.WireHelperService;
+import org.eclipse.kura.wire.WireRecord;
 import org.eclipse.kura.wire.WireSupport;
 import org.junit.Test;
 import org.osgi.service.component.ComponentContext;
@@ -261,4 +270,164 @@ public class H2DbWireRecordFilterTest {
         verify(mockWireSupport).updated(mockWire, 42);
     }
 
+    @Test
+    public void testIncrementalChunkedQuery() throws SQLException {
+        DriverManager.registerDriver(new org.h2.Driver());
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:incrementaldb", "SA", "");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE \"data\" (ID BIGINT PRIMARY KEY, \"value\" INTEGER, \"name\" VARCHAR(32))");
+            stmt.execute("INSERT INTO \"data\" VALUES (1, 10, 'a'), (2, 20, 'b'), (3, NULL, 'c')");
+        }
+
+        WireHelperService mockWireHelperService = mock(WireHelperService.class);
+
+        H2DbWireRecordFilter filter = new H2DbWireRecordFilter();
+        filter.bindWireHelperService(mockWireHelperService);
+
+        List<List<WireRecord>> emitted = new ArrayList<>();
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        when(mockWireHelperService.newWireSupport(filter, null)).thenReturn(mockWireSupport);
+        doAnswer(invocation -> emitted.add(new ArrayList<>(invocation.getArgumentAt(0, List.class))))
+                .when(mockWireSupport).emit(any());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cache.expiration.interval", 0);
+        properties.put("sql.view", "SELECT * FROM \"data\";");
+        properties.put("query.mode", "INCREMENTAL");
+        properties.put("emit.chunk.size", 2);
+        properties.put("emit.on.empty.result", false);
+
+        filter.activate(mock(ComponentContext.class), properties);
+        filter.bindDbService(createMockH2DbService(connection));
+
+        WireEnvelope mockWireEnvelope = mock(WireEnvelope.class);
+        filter.onWireReceive(mockWireEnvelope);
+
+        assertEquals(2, emitted.size());
+        assertEquals(2, emitted.get(0).size());
+        assertEquals(1, emitted.get(1).size());
+        assertEquals(20, emitted.get(0).get(1).getProperties().get("value").getValue());
+        assertEquals("c", emitted.get(1).get(0).getProperties().get("name").getValue());
+        assertFalse(emitted.get(1).get(0).getProperties().containsKey("value"));
+
+        // no new rows, nothing is emitted
+        filter.onWireReceive(mockWireEnvelope);
+        assertEquals(2, emitted.size());
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO \"data\" VALUES (4, 40, 'd')");
+        }
+
+        filter.onWireReceive(mockWireEnvelope);
+
+        assertEquals(3, emitted.size());
+        assertEquals(1, emitted.get(2).size());
+        assertEquals(4L, emitted.get(2).get(0).getProperties().get("ID").getValue());
+        verify(mockWireSupport, times(3)).emit(any());
+
+        connection.close();
+    }
+
+    @Test
+    public void testChunksEmittedAfterConnectionRelease() throws SQLException {
+        DriverManager.registerDriver(new org.h2.Driver());
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:chunkreleasedb", "SA", "");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE \"data\" (ID BIGINT PRIMARY KEY)");
+            stmt.execute("INSERT INTO \"data\" VALUES (1), (2), (3), (4), (5)");
+        }
+
+        AtomicBoolean inConnection = new AtomicBoolean();
+        List<String> events = new ArrayList<>();
+        H2DbService dbServiceMock = mock(H2DbService.class);
+        when(dbServiceMock.withConnection(anyObject())).thenAnswer(invocation -> {
+            events.add("query");
+            inConnection.set(true);
+            try {
+                return invocation.getArgumentAt(0, H2DbService.ConnectionCallable.class).call(connection);
+            } finally {
+                inConnection.set(false);
+            }
+        });
+
+        WireHelperService mockWireHelperService = mock(WireHelperService.class);
+
+        H2DbWireRecordFilter filter = new H2DbWireRecordFilter();
+        filter.bindWireHelperService(mockWireHelperService);
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        when(mockWireHelperService.newWireSupport(filter, null)).thenReturn(mockWireSupport);
+        doAnswer(invocation -> {
+            assertFalse(inConnection.get());
+            events.add("emit");
+            return chunkSizes.add(invocation.getArgumentAt(0, List.class).size());
+        }).when(mockWireSupport).emit(any());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cache.expiration.interval", 0);
+        properties.put("sql.view", "SELECT * FROM \"data\";");
+        properties.put("query.mode", "FULL");
+        properties.put("emit.chunk.size", 2);
+        properties.put("emit.on.empty.result", true);
+
+        filter.activate(mock(ComponentContext.class), properties);
+        filter.bindDbService(dbServiceMock);
+
+        filter.onWireReceive(mock(WireEnvelope.class));
+
+        assertEquals(Arrays.asList(2, 2, 1), chunkSizes);
+        // every page is read in its own connection and emitted before the next one is read
+        assertEquals(Arrays.asList("query", "emit", "query", "emit", "query", "emit"), events);
+
+        connection.close();
+    }
+
+    @Test
+    public void testLimitedViewRejectedInIncrementalMode() throws SQLException {
+        DriverManager.registerDriver(new org.h2.Driver());
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:limitedviewdb", "SA", "");
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE \"data\" (ID BIGINT PRIMARY KEY, \"name\" VARCHAR(32))");
+            stmt.execute("INSERT INTO \"data\" VALUES (1, 'order by'), (2, 'b')");
+        }
+
+        WireHelperService mockWireHelperService = mock(WireHelperService.class);
+
+        H2DbWireRecordFilter filter = new H2DbWireRecordFilter();
+        filter.bindWireHelperService(mockWireHelperService);
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        WireSupport mockWireSupport = mock(WireSupport.class);
+        when(mockWireHelperService.newWireSupport(filter, null)).thenReturn(mockWireSupport);
+        doAnswer(invocation -> chunkSizes.add(invocation.getArgumentAt(0, List.class).size())).when(mockWireSupport)
+                .emit(any());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cache.expiration.interval", 0);
+        properties.put("sql.view", "SELECT * FROM \"data\" LIMIT 10;");
+        properties.put("query.mode", "INCREMENTAL");
+        properties.put("emit.on.empty.result", true);
+
+        filter.activate(mock(ComponentContext.class), properties);
+        filter.bindDbService(createMockH2DbService(connection));
+
+        filter.onWireReceive(mock(WireEnvelope.class));
+
+        // the query would be paged over the same limited rows, it is not executed
+        assertEquals(Arrays.asList(0), chunkSizes);
+
+        // the clause keywords are ignored inside literals and quoted identifiers
+        properties.put("sql.view", "SELECT ID AS \"limit\" , ID FROM \"data\" WHERE \"name\" <> 'order by';");
+        filter.updated(properties);
+
+        filter.onWireReceive(mock(WireEnvelope.class));
+
+        assertEquals(Arrays.asList(0, 1), chunkSizes);
+
+        connection.close();
+    }
 }
@@ -24,6 +24,8 @@ import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -407,4 +409,226 @@ public class H2DbWireRecordStoreTest {
         connection.prepareStatement("SHUTDOWN").execute();
     }
 
+    @Test
+    public void testBatchInsertSequence() throws SQLException {
+        // store envelopes containing records with different properties, check that all of them are stored and that
+        // the table is cleaned up according to the number of stored rows
+
+        Connection connection = getConnection();
+
+        H2DbService dbServiceMock = createMockH2DbService(connection);
+
+        H2DbWireRecordStore store = new H2DbWireRecordStore();
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(store, null)).thenReturn(wireSupportMock);
+
+        store.bindWireHelperService(whsMock);
+
+        ComponentContext ctx = mock(ComponentContext.class);
+        Map<String, Object> props = new HashMap<String, Object>();
+        String tableName = "H2_STORE_TEST";
+        props.put("table.name", tableName);
+        props.put("cleanup.records.keep", 2);
+        props.put("maximum.table.size", 5);
+
+        // init
+        store.activate(ctx, props);
+        store.bindDbService(dbServiceMock);
+
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        for (int i = 0; i < 2; i++) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+            recordProps.put("key", new StringValue("val" + i));
+            wireRecords.add(new WireRecord(recordProps));
+        }
+        Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("intkey", new IntegerValue(1234));
+        wireRecords.add(new WireRecord(recordProps));
+        WireEnvelope wireEvelope = new WireEnvelope("emitter", wireRecords);
+
+        store.onWireReceive(wireEvelope);
+
+        ResultSet resultSet = connection
+                .prepareStatement("SELECT \"key\", \"intkey\" FROM " + tableName + " ORDER BY ID").executeQuery();
+        resultSet.next();
+        assertEquals("val0", resultSet.getString(1));
+        resultSet.next();
+        assertEquals("val1", resultSet.getString(1));
+        resultSet.next();
+        assertEquals(1234, resultSet.getInt(2));
+        assertTrue(resultSet.isLast());
+
+        // 3 -> 6, then cleanup of 3 records -> 6
+        store.onWireReceive(wireEvelope);
+        store.onWireReceive(wireEvelope);
+
+        resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 6, resultSet.getInt(1));
+
+        // deinit
+        store.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
+    @Test
+    public void testPartitionedSequence() throws SQLException {
+        // store records in a partitioned table, check that old partitions are dropped and that the view provides the
+        // records of all the remaining partitions
+
+        Connection connection = getConnection();
+
+        H2DbService dbServiceMock = createMockH2DbService(connection);
+
+        H2DbWireRecordStore store = new H2DbWireRecordStore();
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(store, null)).thenReturn(wireSupportMock);
+
+        store.bindWireHelperService(whsMock);
+
+        ComponentContext ctx = mock(ComponentContext.class);
+        Map<String, Object> props = new HashMap<String, Object>();
+        String tableName = "H2_STORE_TEST";
+        props.put("table.name", tableName);
+        props.put("partition.mode", "SIZE");
+        props.put("partition.size", 3);
+        props.put("partition.count", 2);
+
+        // init
+        store.activate(ctx, props);
+        store.bindDbService(dbServiceMock);
+
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("key", new StringValue("val"));
+        wireRecords.add(new WireRecord(recordProps));
+        WireEnvelope wireEvelope = new WireEnvelope("emitter", wireRecords);
+
+        // 3 records in the first partition, 3 in the second one and 2 in the third one, the first one is dropped
+        for (int i = 0; i < 8; i++) {
+            store.onWireReceive(wireEvelope);
+        }
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        ResultSet tables = metaData.getTables(null, null, tableName + "_P%", new String[] { "TABLE" });
+        List<String> partitions = new ArrayList<>();
+        while (tables.next()) {
+            partitions.add(tables.getString("TABLE_NAME"));
+        }
+        assertEquals(2, partitions.size());
+        assertTrue(partitions.contains(tableName + "_P00000001"));
+        assertTrue(partitions.contains(tableName + "_P00000002"));
+
+        ResultSet resultSet = connection
+                .prepareStatement("SELECT count(*), count(DISTINCT ID) FROM " + tableName).executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 5, resultSet.getInt(1));
+        assertEquals("Record ids are not unique", 5, resultSet.getInt(2));
+
+        // a new column is only added to the current partition
+        recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("intkey", new IntegerValue(1234));
+        wireRecords = new ArrayList<WireRecord>();
+        wireRecords.add(new WireRecord(recordProps));
+        store.onWireReceive(new WireEnvelope("emitter", wireRecords));
+
+        resultSet = connection.prepareStatement("SELECT count(*), count(\"intkey\") FROM " + tableName)
+                .executeQuery();
+        resultSet.next();
+        assertEquals("Unexpected number of records", 6, resultSet.getInt(1));
+        assertEquals("Unexpected number of records", 1, resultSet.getInt(2));
+
+        // deinit
+        store.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
+    @Test
+    public void testPartitioningRoundTrip() throws SQLException {
+        // switch partitioning on and off, the table created while partitioning was disabled becomes the most recent
+        // partition and the retention is applied when the partitions are opened
+
+        Connection connection = getConnection();
+
+        H2DbService dbServiceMock = createMockH2DbService(connection);
+
+        H2DbWireRecordStore store = new H2DbWireRecordStore();
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        WireSupport wireSupportMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(store, null)).thenReturn(wireSupportMock);
+
+        store.bindWireHelperService(whsMock);
+
+        String tableName = "H2_STORE_TEST";
+        Map<String, Object> partitionedProps = new HashMap<String, Object>();
+        partitionedProps.put("table.name", tableName);
+        partitionedProps.put("partition.mode", "SIZE");
+        partitionedProps.put("partition.size", 3);
+        partitionedProps.put("partition.count", 3);
+
+        Map<String, Object> unpartitionedProps = new HashMap<String, Object>();
+        unpartitionedProps.put("table.name", tableName);
+        unpartitionedProps.put("partition.mode", "NONE");
+
+        Map<String, TypedValue<?>> recordProps = new HashMap<String, TypedValue<?>>();
+        recordProps.put("key", new StringValue("val"));
+        List<WireRecord> wireRecords = new ArrayList<WireRecord>();
+        wireRecords.add(new WireRecord(recordProps));
+        WireEnvelope wireEvelope = new WireEnvelope("emitter", wireRecords);
+
+        // init
+        store.activate(mock(ComponentContext.class), partitionedProps);
+        store.bindDbService(dbServiceMock);
+
+        // partitions 0 and 1
+        for (int i = 0; i < 4; i++) {
+            store.onWireReceive(wireEvelope);
+        }
+
+        store.updated(unpartitionedProps);
+        store.onWireReceive(wireEvelope);
+        store.onWireReceive(wireEvelope);
+
+        // the table becomes partition 2, partition 3 is created and partition 0 is dropped
+        store.updated(partitionedProps);
+        assertEquals(Arrays.asList(tableName + "_P00000001", tableName + "_P00000002", tableName + "_P00000003"),
+                getPartitions(connection, tableName));
+        assertEquals(3, countRecords(connection, tableName));
+
+        store.updated(unpartitionedProps);
+        store.onWireReceive(wireEvelope);
+        store.updated(partitionedProps);
+        assertEquals(Arrays.asList(tableName + "_P00000003", tableName + "_P00000004", tableName + "_P00000005"),
+                getPartitions(connection, tableName));
+        assertEquals(1, countRecords(connection, tableName));
+
+        // deinit
+        store.deactivate(null);
+        connection.prepareStatement("SHUTDOWN").execute();
+    }
+
+    private static List<String> getPartitions(Connection connection, String tableName) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, tableName + "%",
+                new String[] { "TABLE" })) {
+            while (tables.next()) {
+                partitions.add(tables.getString("TABLE_NAME"));
+            }
+        }
+        Collections.sort(partitions);
+        return partitions;
+    }
+
+    private static int countRecords(Connection connection, String tableName) throws SQLException {
+        try (ResultSet resultSet = connection.prepareStatement("SELECT count(*) FROM " + tableName)
+                .executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
 }
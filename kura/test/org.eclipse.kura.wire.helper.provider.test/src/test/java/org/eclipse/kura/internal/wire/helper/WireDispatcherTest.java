@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eurotech and/or its affiliates and others
+ *
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Eurotech
+ *******************************************************************************/
+package org.eclipse.kura.internal.wire.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.wire.WireEnvelope;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.wireadmin.Wire;
+
+public class WireDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final WireDispatcher dispatcher = new WireDispatcher();
+
+    private final ReentrantLock emitLock = new ReentrantLock();
+
+    @After
+    public void tearDown() {
+        this.dispatcher.shutdown();
+    }
+
+    @Test
+    public void testSynchronousDelivery() {
+        this.dispatcher.update(options("SYNCHRONOUS", 1, 1, "DISCARD_NEWEST"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        for (int i = 0; i < 5; i++) {
+            this.dispatcher.dispatch(channel, envelope(i), this.emitLock);
+        }
+
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4"), wire.getDelivered());
+        assertEquals(Collections.nCopies(5, Thread.currentThread()), wire.getThreads());
+    }
+
+    @Test
+    public void testAsynchronousOrderPerWire() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 4, 10, "BLOCK"));
+
+        final List<RecordingWire> wires = new ArrayList<>();
+        final List<WireDispatcher.Channel> channels = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final RecordingWire wire = new RecordingWire();
+            wires.add(wire);
+            channels.add(this.dispatcher.newChannel(wire.mock));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            expected.add(Integer.toString(i));
+            for (final WireDispatcher.Channel channel : channels) {
+                this.dispatcher.dispatch(channel, envelope(i), this.emitLock);
+            }
+        }
+
+        for (final RecordingWire wire : wires) {
+            wire.awaitDelivered(200);
+            assertEquals(expected, wire.getDelivered());
+            assertFalse(wire.getThreads().contains(Thread.currentThread()));
+        }
+    }
+
+    @Test
+    public void testDiscardNewest() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 2, "DISCARD_NEWEST"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        fillQueue(wire, channel, 4);
+        wire.release();
+
+        wire.awaitDelivered(3);
+        assertEquals(Arrays.asList("0", "1", "2"), wire.getDelivered());
+    }
+
+    @Test
+    public void testDiscardOldest() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 2, "DISCARD_OLDEST"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        fillQueue(wire, channel, 4);
+        wire.release();
+
+        wire.awaitDelivered(3);
+        assertEquals(Arrays.asList("0", "2", "3"), wire.getDelivered());
+    }
+
+    @Test
+    public void testBlockedEmitterWakesUp() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 1, "BLOCK"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        fillQueue(wire, channel, 2);
+
+        final Thread emitter = startEmitter(channel, 2);
+        awaitWaiting(emitter);
+
+        wire.release();
+
+        emitter.join(TIMEOUT_MILLIS);
+        assertFalse(emitter.isAlive());
+        wire.awaitDelivered(3);
+        assertEquals(Arrays.asList("0", "1", "2"), wire.getDelivered());
+    }
+
+    @Test
+    public void testBlockedEmitterReleasesEmitLock() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 1, "BLOCK"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        fillQueue(wire, channel, 2);
+
+        final AtomicBoolean heldAfterWait = new AtomicBoolean();
+        final Thread emitter = new Thread(() -> {
+            this.emitLock.lock();
+            try {
+                this.dispatcher.dispatch(channel, envelope(2), this.emitLock);
+                heldAfterWait.set(this.emitLock.isHeldByCurrentThread());
+            } finally {
+                this.emitLock.unlock();
+            }
+        });
+        emitter.start();
+        awaitWaiting(emitter);
+
+        // the other emits of the component are not blocked by the waiting one
+        assertTrue(this.emitLock.tryLock());
+        this.emitLock.unlock();
+
+        wire.release();
+
+        emitter.join(TIMEOUT_MILLIS);
+        assertFalse(emitter.isAlive());
+        assertTrue(heldAfterWait.get());
+        wire.awaitDelivered(3);
+        assertEquals(Arrays.asList("0", "1", "2"), wire.getDelivered());
+    }
+
+    @Test
+    public void testShutdownReleasesBlockedEmitters() throws InterruptedException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 1, "BLOCK"));
+
+        // keeps the only worker busy, the drain of the second wire stays in the executor queue
+        final RecordingWire busyWire = new RecordingWire();
+        fillQueue(busyWire, this.dispatcher.newChannel(busyWire.mock), 1);
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+        this.dispatcher.dispatch(channel, envelope(0), this.emitLock);
+
+        final Thread emitter = startEmitter(channel, 1);
+        awaitWaiting(emitter);
+
+        this.dispatcher.shutdown();
+
+        emitter.join(TIMEOUT_MILLIS);
+        assertFalse(emitter.isAlive());
+        busyWire.release();
+
+        // the queued envelope has been discarded, the one of the blocked emitter is delivered on its thread
+        assertEquals(Collections.singletonList("1"), wire.getDelivered());
+        assertEquals(Collections.singletonList(emitter), wire.getThreads());
+
+        this.dispatcher.dispatch(channel, envelope(2), this.emitLock);
+        assertEquals(Arrays.asList("1", "2"), wire.getDelivered());
+    }
+
+    @Test
+    public void testSwitchToSynchronous() throws InterruptedException, NoSuchFieldException {
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 2, "DISCARD_NEWEST"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        fillQueue(wire, channel, 3);
+
+        this.dispatcher.update(options("SYNCHRONOUS", 1, 2, "DISCARD_NEWEST"));
+
+        // capacity and overflow policy do not apply anymore, the envelopes are queued behind the pending ones
+        this.dispatcher.dispatch(channel, envelope(3), this.emitLock);
+        this.dispatcher.dispatch(channel, envelope(4), this.emitLock);
+
+        wire.release();
+        wire.awaitDelivered(5);
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4"), wire.getDelivered());
+
+        awaitIdle(channel);
+        this.dispatcher.dispatch(channel, envelope(5), this.emitLock);
+        assertEquals(Thread.currentThread(), wire.getThreads().get(5));
+    }
+
+    @Test
+    public void testSwitchToAsynchronous() throws InterruptedException {
+        this.dispatcher.update(options("SYNCHRONOUS", 1, 10, "BLOCK"));
+
+        final RecordingWire wire = new RecordingWire();
+        final WireDispatcher.Channel channel = this.dispatcher.newChannel(wire.mock);
+
+        this.dispatcher.dispatch(channel, envelope(0), this.emitLock);
+        this.dispatcher.update(options("ASYNCHRONOUS", 1, 10, "BLOCK"));
+        this.dispatcher.dispatch(channel, envelope(1), this.emitLock);
+
+        wire.awaitDelivered(2);
+        assertEquals(Arrays.asList("0", "1"), wire.getDelivered());
+        assertEquals(Thread.currentThread(), wire.getThreads().get(0));
+        assertNotEquals(Thread.currentThread(), wire.getThreads().get(1));
+    }
+
+    /**
+     * Blocks the delivery on the provided wire and dispatches the provided number of envelopes, the first one is
+     * taken by a worker and the others are queued.
+     */
+    private void fillQueue(final RecordingWire wire, final WireDispatcher.Channel channel, final int count)
+            throws InterruptedException {
+        wire.block();
+        this.dispatcher.dispatch(channel, envelope(0), this.emitLock);
+        wire.awaitBlocked();
+        for (int i = 1; i < count; i++) {
+            this.dispatcher.dispatch(channel, envelope(i), this.emitLock);
+        }
+    }
+
+    private Thread startEmitter(final WireDispatcher.Channel channel, final int index) {
+        final Thread emitter = new Thread(() -> this.dispatcher.dispatch(channel, envelope(index), this.emitLock));
+        emitter.start();
+        return emitter;
+    }
+
+    private static void awaitIdle(final WireDispatcher.Channel channel) throws NoSuchFieldException,
+            InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((Boolean) TestUtil.getFieldValue(channel, "scheduled") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse((Boolean) TestUtil.getFieldValue(channel, "scheduled"));
+    }
+
+    private static void awaitWaiting(final Thread thread) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private static WireDispatcherOptions options(final String mode, final int threadCount, final int queueCapacity,
+            final String overflowPolicy) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put("dispatch.mode", mode);
+        properties.put("dispatch.thread.count", threadCount);
+        properties.put("dispatch.queue.capacity", queueCapacity);
+        properties.put("dispatch.overflow.policy", overflowPolicy);
+        return new WireDispatcherOptions(properties);
+    }
+
+    private static WireEnvelope envelope(final int index) {
+        return new WireEnvelope(Integer.toString(index), Collections.emptyList());
+    }
+
+    /**
+     * A wire recording the delivered envelopes, the delivery can be blocked until {@link #release()} is called.
+     */
+    private static final class RecordingWire {
+
+        private final Wire mock = mock(Wire.class);
+        private final List<String> delivered = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+
+        private volatile CountDownLatch blocked = new CountDownLatch(0);
+        private volatile CountDownLatch released = new CountDownLatch(0);
+
+        RecordingWire() {
+            doAnswer(invocation -> {
+                this.blocked.countDown();
+                this.released.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                synchronized (this) {
+                    this.delivered.add(invocation.getArgumentAt(0, WireEnvelope.class).getEmitterPid());
+                    this.threads.add(Thread.currentThread());
+                    notifyAll();
+                }
+                return null;
+            }).when(this.mock).update(anyObject());
+        }
+
+        void block() {
+            this.released = new CountDownLatch(1);
+            this.blocked = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(this.blocked.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+
+        void release() {
+            this.released.countDown();
+        }
+
+        synchronized void awaitDelivered(final int count) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (this.delivered.size() < count && System.currentTimeMillis() < deadline) {
+                wait(10);
+            }
+            assertEquals(count, this.delivered.size());
+        }
+
+        synchronized List<String> getDelivered() {
+            return new ArrayList<>(this.delivered);
+        }
+
+        synchronized List<Thread> getThreads() {
+            return new ArrayList<>(this.threads);
+        }
+    }
+}
@@ -15,6 +15,7 @@ package org.eclipse.kura.wire.script.filter.provider;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -23,11 +24,18 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.kura.core.testutil.TestUtil;
+import org.eclipse.kura.type.IntegerValue;
 import org.eclipse.kura.type.StringValue;
 import org.eclipse.kura.type.TypedValue;
 import org.eclipse.kura.wire.WireEnvelope;
@@ -123,4 +131,61 @@ public class ScriptFilterTest {
         svc.onWireReceive(null);
     }
 
+    @Test
+    public void testEnginePool() throws NoSuchFieldException, InterruptedException {
+        // test concurrent evaluation with more than one script engine
+
+        ScriptFilter svc = new ScriptFilter();
+
+        WireHelperService whsMock = mock(WireHelperService.class);
+        svc.bindWireHelperService(whsMock);
+
+        WireSupport wsMock = mock(WireSupport.class);
+        when(whsMock.newWireSupport(svc, null)).thenReturn(wsMock);
+
+        AtomicInteger sum = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<WireRecord> records = invocation.getArgumentAt(0, List.class);
+
+            assertEquals(1, records.size());
+            sum.addAndGet((Integer) records.get(0).getProperties().get("doubled").getValue());
+
+            return null;
+        }).when(wsMock).emit(anyObject());
+
+        Map<String, Object> properties = new HashMap<>();
+        String script = "var rec = newWireRecord();\n" // emit the doubled input value
+                + "rec.doubled = newIntegerValue(input.records[0].value.getValue() * 2);\n output.add(rec);";
+        properties.put("script", script);
+        properties.put("script.engine.pool.size", 4);
+        svc.activate(mock(ComponentContext.class), properties);
+
+        assertNull(TestUtil.getFieldValue(svc, "script"));
+        assertTrue(((Optional<?>) TestUtil.getFieldValue(svc, "enginePool")).isPresent());
+
+        int count = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 1; i <= count; i++) {
+            Map<String, TypedValue<?>> recordProps = new HashMap<>();
+            recordProps.put("value", new IntegerValue(i));
+            WireEnvelope wireEnvelope = new WireEnvelope("emitter",
+                    Collections.singletonList(new WireRecord(recordProps)));
+
+            executor.execute(() -> svc.onWireReceive(wireEnvelope));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        verify(wsMock, times(count)).emit(anyObject());
+        assertEquals(count * (count + 1), sum.get());
+
+        // going back to a single engine restores the sequential evaluation
+        properties.put("script.engine.pool.size", 1);
+        svc.updated(properties);
+
+        assertNotNull(TestUtil.getFieldValue(svc, "script"));
+        assertTrue(!((Optional<?>) TestUtil.getFieldValue(svc, "enginePool")).isPresent());
+
+        svc.deactivate();
+    }
 }
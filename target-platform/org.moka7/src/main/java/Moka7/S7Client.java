@@ -40,6 +40,11 @@ public class S7Client
     private static final byte S7WLByte    =0x02;
     private static final byte S7WLCounter =0x1C;
     private static final byte S7WLTimer   =0x1D;
+    // Transport Size of the response data items
+    private static final byte TS_ResBit   =0x03;
+    private static final byte TS_ResByte  =0x04;
+    private static final byte TS_ResReal  =0x07;
+    private static final byte TS_ResOctet =0x09;
     // Error Codes
     public static final int errTCPConnectionFailed = 0x0001;
     public static final int errTCPDataSend         = 0x0002;
@@ -56,6 +61,9 @@ public class S7Client
     public static final int errS7FunctionError     = 0x000D;
     public static final int errS7InvalidParams     = 0x000E;           
     
+    // Max number of variables of a ReadMultiVars/WriteMultiVars request
+    public static final int MaxVars = 20;
+    
     // Public fields
     public boolean Connected = false;
     public int LastError = 0;
@@ -800,6 +808,217 @@ public class S7Client
         return LastError;
     }
    
+    private int CheckMultiVars(S7DataItem[] Items, int ItemsCount)
+    {
+        if ((ItemsCount<1) || (ItemsCount>MaxVars) || (Items.length<ItemsCount))
+            return errS7InvalidParams;
+        for (int c = 0; c < ItemsCount; c++)
+        {
+            // Timers and counters are not supported
+            if ((Items[c].Area==S7.S7AreaCT) || (Items[c].Area==S7.S7AreaTM))
+                return errS7InvalidParams;
+            if ((Items[c].Amount<1) || (Items[c].Data==null) || (Items[c].Data.length<Items[c].Amount))
+                return errS7InvalidParams;
+        }
+        return 0;
+    }
+    
+    private void SetMultiVarsItem(int Offset, S7DataItem Item)
+    {
+        int Address;
+        // Copies the Var spec of the Read/Write telegram
+        System.arraycopy(S7_RW, 19, PDU, Offset, 12);
+        // Num elements
+        S7.SetWordAt(PDU,Offset+4,Item.Amount);
+        // Set DB Number
+        if (Item.Area==S7.S7AreaDB)
+            S7.SetWordAt(PDU,Offset+6,Item.DBNumber);
+        // Set Area
+        PDU[Offset+8] = (byte) Item.Area;
+        // Address into the PLC (only 3 bytes)
+        Address = Item.Start<<3;
+        PDU[Offset+11] = (byte) (Address & 0x0FF);
+        Address = Address >> 8;
+        PDU[Offset+10] = (byte) (Address & 0x0FF);
+        Address = Address >> 8;
+        PDU[Offset+9] = (byte) (Address & 0x0FF);
+    }
+    
+    // Reads several variables, also from different areas or DBs, using a single request.
+    // The request and the reply must fit in the negotiated PDU, the result of each item is stored into its Result 
+    // field, the return value is not 0 only if the whole request failed.
+    public int ReadMultiVars(S7DataItem[] Items, int ItemsCount)
+    {
+        int IsoSize;
+        int Length;
+        int Offset;
+        int ItemSize;
+        byte TransportSize;
+        int c;
+        
+        LastError=CheckMultiVars(Items, ItemsCount);
+        if (LastError!=0)
+            return LastError;
+        
+        IsoSize = 19 + ItemsCount*12;
+        if (IsoSize-IsoHSize>_PDULength)
+            return LastError = errS7InvalidParams;
+        
+        // Setup the telegram
+        System.arraycopy(S7_RW, 0, PDU, 0, 19);
+        // Whole telegram Size
+        S7.SetWordAt(PDU,2,IsoSize);
+        // Parameters Length
+        S7.SetWordAt(PDU,13,ItemsCount*12+2);
+        // Items count
+        PDU[18] = (byte) ItemsCount;
+        
+        Offset = 19;
+        for (c = 0; c < ItemsCount; c++)
+        {
+            SetMultiVarsItem(Offset, Items[c]);
+            Offset+=12;
+        }
+        
+        SendPacket(PDU, IsoSize);
+        if (LastError==0)
+        {
+            Length=RecvIsoPacket();
+            if (LastError==0)
+            {
+                if ((Length<21) || (PDU[20]!=(byte)ItemsCount))
+                    LastError = errS7InvalidPDU;
+                else if (S7.GetWordAt(PDU,17)!=0)
+                    LastError = errS7DataRead;
+            }
+            if (LastError==0)
+            {
+                Offset = 21;
+                for (c = 0; c < ItemsCount; c++)
+                {
+                    if (Offset+4>Length)
+                    {
+                        LastError = errS7InvalidPDU;
+                        break;
+                    }
+                    if (PDU[Offset]==(byte)0xFF)
+                    {
+                        ItemSize = S7.GetWordAt(PDU,Offset+2);
+                        TransportSize = PDU[Offset+1];
+                        // The size is expressed in bits, unless for these transport sizes
+                        if ((TransportSize!=TS_ResOctet) && (TransportSize!=TS_ResReal) && (TransportSize!=TS_ResBit))
+                            ItemSize = ItemSize >> 3;
+                        if (Offset+4+ItemSize>Length)
+                        {
+                            LastError = errS7InvalidPDU;
+                            break;
+                        }
+                        if (ItemSize==Items[c].Amount)
+                        {
+                            System.arraycopy(PDU, Offset+4, Items[c].Data, 0, ItemSize);
+                            Items[c].Result = 0;
+                        }
+                        else
+                            Items[c].Result = errS7DataRead;
+                        Offset+=ItemSize+4;
+                        // Odd sizes are padded, unless for the last item
+                        if ((ItemSize % 2 != 0) && (c<ItemsCount-1))
+                            Offset++;
+                    }
+                    else
+                    {
+                        Items[c].Result = errS7DataRead;
+                        Offset+=4;
+                    }
+                }
+            }
+        }
+        
+        if (LastError!=0)
+            for (c = 0; c < ItemsCount; c++)
+                Items[c].Result = LastError;
+        return LastError;
+    }
+    
+    // Writes several variables, also into different areas or DBs, using a single request.
+    // The request must fit in the negotiated PDU, the result of each item is stored into its Result field, the return
+    // value is not 0 only if the whole request failed.
+    public int WriteMultiVars(S7DataItem[] Items, int ItemsCount)
+    {
+        int IsoSize;
+        int ParLength;
+        int Length;
+        int Offset;
+        int c;
+        
+        LastError=CheckMultiVars(Items, ItemsCount);
+        if (LastError!=0)
+            return LastError;
+        
+        ParLength = ItemsCount*12+2;
+        IsoSize = 17 + ParLength;
+        for (c = 0; c < ItemsCount; c++)
+        {
+            IsoSize+=Items[c].Amount+4;
+            if ((Items[c].Amount % 2 != 0) && (c<ItemsCount-1))
+                IsoSize++;
+        }
+        if (IsoSize-IsoHSize>_PDULength)
+            return LastError = errS7InvalidParams;
+        
+        // Setup the telegram
+        System.arraycopy(S7_RW, 0, PDU, 0, 19);
+        // Whole telegram Size
+        S7.SetWordAt(PDU,2,IsoSize);
+        // Parameters Length
+        S7.SetWordAt(PDU,13,ParLength);
+        // Data Length
+        S7.SetWordAt(PDU,15,IsoSize-17-ParLength);
+        // Function
+        PDU[17] = (byte) 0x05;
+        // Items count
+        PDU[18] = (byte) ItemsCount;
+        
+        Offset = 19;
+        for (c = 0; c < ItemsCount; c++)
+        {
+            SetMultiVarsItem(Offset, Items[c]);
+            Offset+=12;
+        }
+        for (c = 0; c < ItemsCount; c++)
+        {
+            PDU[Offset] = 0x00;
+            PDU[Offset+1] = TS_ResByte;
+            S7.SetWordAt(PDU,Offset+2,Items[c].Amount<<3);
+            System.arraycopy(Items[c].Data, 0, PDU, Offset+4, Items[c].Amount);
+            Offset+=Items[c].Amount+4;
+            // Odd sizes are padded, unless for the last item
+            if ((Items[c].Amount % 2 != 0) && (c<ItemsCount-1))
+                PDU[Offset++] = 0x00;
+        }
+        
+        SendPacket(PDU, IsoSize);
+        if (LastError==0)
+        {
+            Length=RecvIsoPacket();
+            if (LastError==0)
+            {
+                if ((Length!=21+ItemsCount) || (PDU[20]!=(byte)ItemsCount))
+                    LastError = errS7InvalidPDU;
+                else if (S7.GetWordAt(PDU,17)!=0)
+                    LastError = errS7DataWrite;
+                else
+                    for (c = 0; c < ItemsCount; c++)
+                        Items[c].Result = PDU[21+c]==(byte)0xFF ? 0 : errS7DataWrite;
+            }
+        }
+        
+        if (LastError!=0)
+            for (c = 0; c < ItemsCount; c++)
+                Items[c].Result = LastError;
+        return LastError;
+    }
+   
     public int GetAgBlockInfo(int BlockType, int BlockNumber, S7BlockInfo Block)
     {
     	int Length;